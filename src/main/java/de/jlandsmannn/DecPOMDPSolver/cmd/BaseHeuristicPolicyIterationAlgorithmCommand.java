@@ -6,21 +6,29 @@ import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.State;
 import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.IDecPOMDPWithStateController;
 import de.jlandsmannn.DecPOMDPSolver.domain.utility.CustomCollectors;
 import de.jlandsmannn.DecPOMDPSolver.domain.utility.Distribution;
+import de.jlandsmannn.DecPOMDPSolver.io.ControllerFileWriter;
+import de.jlandsmannn.DecPOMDPSolver.io.DPOMDPFileParser;
+import de.jlandsmannn.DecPOMDPSolver.io.IDPOMDPFileParser;
+import de.jlandsmannn.DecPOMDPSolver.io.SectionBasedFileParser;
 import de.jlandsmannn.DecPOMDPSolver.io.utility.CommonParser;
 import de.jlandsmannn.DecPOMDPSolver.policyIteration.HeuristicPolicyIterationConfig;
+import de.jlandsmannn.DecPOMDPSolver.policyIteration.ProblemSizeEstimator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.shell.command.CommandRegistration;
 import org.springframework.shell.command.annotation.Command;
 import org.springframework.shell.command.annotation.Option;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 
 /**
  * This is an abstract base class for various commands that cover some kind of heuristic policy iteration algorithm.
- * It provides basic sub-commands as help, initialization, loading, set initial policies and solving.
+ * It provides basic sub-commands as help, initialization, loading, converting, set initial policies, stats, solving, resuming and saving.
  * @param <DECPOMDP> The type of DecPOMDP this command is used for
  */
 public abstract class BaseHeuristicPolicyIterationAlgorithmCommand<DECPOMDP extends IDecPOMDPWithStateController<?>> {
@@ -69,7 +77,9 @@ public abstract class BaseHeuristicPolicyIterationAlgorithmCommand<DECPOMDP exte
    * The load command accepts a path to a file, as well as a (custom) discountFactor.
    * The file will be loaded and parsed.
    * It will be expected to follow the DPOMDP file format,
-   * which is described in the MADP Toolbox.
+   * which is described in the MADP Toolbox,
+   * or the binary format created by the convert command, which is loaded without parsing.
+   * Files ending with .gz are decompressed while they are parsed, without writing a decompressed copy.
    * The file must be located either inside the resources folder of this application,
    * or the file path must be given relative to the execution directory.
    * If the file does not exist or is not a valid DPOMDP file, the parsing will be aborted.
@@ -96,6 +106,36 @@ public abstract class BaseHeuristicPolicyIterationAlgorithmCommand<DECPOMDP exte
     return "Successfully loaded DecPOMDP";
   }
 
+  /**
+   * The convert command converts a problem instance to the binary format,
+   * so it can be loaded repeatedly without parsing it again.
+   * It accepts a path to a .dpomdp or .idpomdp file, which is resolved like in the load command and may be gzip-compressed,
+   * and optionally the path of the binary file to write.
+   * By default, a 'b' is appended to the given path without .gz, so DecTiger.dpomdp.gz becomes DecTiger.dpomdpb.
+   * This command does not require the algorithm to be initialized.
+   */
+  @Command(command = "convert", alias = "c", description = "Converts a problem instance to the binary format.")
+  public String convert(
+    @Option(shortNames = 'f', required = true) String filename,
+    @Option(shortNames = 'o', defaultValue = "") String outputFilename
+  ) {
+    LOG.info("Command 'convert' was called with filename={}, outputFilename={}.", filename, outputFilename);
+    var uncompressedFilename = SectionBasedFileParser.getUncompressedFileName(filename);
+    var targetFile = Path.of(outputFilename.isBlank() ? uncompressedFilename + "b" : outputFilename);
+    try {
+      if (uncompressedFilename.endsWith(".idpomdp")) {
+        IDPOMDPFileParser.convertDecPOMDP(filename, targetFile);
+      } else {
+        DPOMDPFileParser.convertDecPOMDP(filename, targetFile);
+      }
+    } catch (Exception e) {
+      LOG.warn("Converting failed for file {}", filename, e);
+      return "Could not convert " + filename + ". Make sure the file exists and is valid.";
+    }
+    LOG.info("Successfully converted {} to {}.", filename, targetFile);
+    return "Successfully converted DecPOMDP to " + targetFile;
+  }
+
   /**
    * This function actually loads the DecPOMDP from the given file.
    * @param filename The file from where the DecPOMDP should be loaded.
@@ -167,6 +207,60 @@ public abstract class BaseHeuristicPolicyIterationAlgorithmCommand<DECPOMDP exte
     return initialPolicies;
   }
 
+  /**
+   * The stats command needs to be executed, after a DecPOMDP has been loaded, usually before solving it.
+   * It prints the size of the loaded DecPOMDP, the sparsity of its transition and observation function
+   * and the projected size of the next exhaustive backup with the current controllers,
+   * including the estimated memory of the value function and the evaluation matrix.
+   * The estimates are described in {@link ProblemSizeEstimator}.
+   */
+  @Command(command = "stats", alias = "t", description = "Prints size estimates of the loaded problem instance.")
+  public String stats() {
+    LOG.info("Command 'stats' was called.");
+    if (!loaded) {
+      LOG.warn("Aborting stats because no DecPOMDP is loaded yet.");
+      throw new IllegalStateException("Heuristic policy iteration is not loaded yet.");
+    }
+    var estimate = new ProblemSizeEstimator().estimate(decPOMDP);
+    var builder = new StringBuilder()
+      .append(String.format(Locale.ROOT, "States: %d", estimate.states()))
+      .append(System.lineSeparator())
+      .append(String.format(Locale.ROOT, "Joint actions: %d", estimate.jointActions()))
+      .append(System.lineSeparator())
+      .append(String.format(Locale.ROOT, "Joint observations: %d", estimate.jointObservations()))
+      .append(System.lineSeparator())
+      .append(String.format(Locale.ROOT, "Transition sparsity: %.2f%%", estimate.transitionSparsity() * 100))
+      .append(System.lineSeparator())
+      .append(String.format(Locale.ROOT, "Observation sparsity: %.2f%%", estimate.observationSparsity() * 100))
+      .append(System.lineSeparator());
+    for (var agent : estimate.agents()) {
+      builder
+        .append(String.format(Locale.ROOT, "Agent %s: %d actions, %d observations, %d nodes, %.0f backup candidates, %.0f nodes after backup",
+          agent.name(), agent.actions(), agent.observations(), agent.nodes(), agent.backupCandidates(), agent.nodesAfterBackup()))
+        .append(System.lineSeparator());
+    }
+    return builder
+      .append(String.format(Locale.ROOT, "Node combinations: %.0f, after backup: %.0f",
+        estimate.nodeCombinations(), estimate.nodeCombinationsAfterBackup()))
+      .append(System.lineSeparator())
+      .append(String.format(Locale.ROOT, "Value function: %.0f entries, ~%s",
+        estimate.valueFunctionEntries(), formatBytes(estimate.valueFunctionBytes())))
+      .append(System.lineSeparator())
+      .append(String.format(Locale.ROOT, "Evaluation matrix: %.0f non-zero entries, ~%s",
+        estimate.evaluationMatrixEntries(), formatBytes(estimate.evaluationMatrixBytes())))
+      .toString();
+  }
+
+  protected static String formatBytes(double bytes) {
+    var units = new String[]{"B", "KiB", "MiB", "GiB", "TiB"};
+    var unit = 0;
+    while (bytes >= 1024 && unit < units.length - 1) {
+      bytes /= 1024;
+      unit++;
+    }
+    return String.format(Locale.ROOT, "%.1f %s", bytes, units[unit]);
+  }
+
   /**
    * The solve command needs to be executed, after a DecPOMDP has been loaded.
    * It starts the solving process and does not accept any arguments.
@@ -197,4 +291,74 @@ public abstract class BaseHeuristicPolicyIterationAlgorithmCommand<DECPOMDP exte
    */
   protected abstract double doSolve(DECPOMDP decPOMDP);
 
+  /**
+   * The resume command needs to be executed, after the same DecPOMDP has been loaded, that was being solved.
+   * It accepts the path to a checkpoint, which is written periodically while solving,
+   * if a checkpoint file is configured.
+   * Solving continues from the checkpoint without repeating the completed iterations,
+   * and prints the final result of the algorithm.
+   */
+  @Command(command = "resume", alias = "r", description = "Resumes solving the loaded problem instance from a checkpoint.")
+  public String resume(
+    @Option(shortNames = 'c', required = true) String checkpointFile
+  ) {
+    LOG.info("Command 'resume' was called with checkpointFile={}.", checkpointFile);
+    if (!initialized) {
+      LOG.warn("Aborting resuming because Heuristic policy iteration is not initialized yet.");
+      throw new IllegalStateException("Heuristic policy iteration is not initialized yet.");
+    } else if (!loaded) {
+      LOG.warn("Aborting resuming because no DecPOMDP is loaded yet.");
+      throw new IllegalStateException("Heuristic policy iteration is not loaded yet.");
+    }
+    var checkpoint = Path.of(checkpointFile);
+    if (!Files.isRegularFile(checkpoint)) {
+      LOG.warn("Checkpoint file {} does not exist.", checkpointFile);
+      return "Could not find checkpoint " + checkpointFile + ". Make sure the file exists.";
+    }
+    var result = doResume(decPOMDP, checkpoint);
+    LOG.info("Successfully solved DecPOMDP from checkpoint with value of {}", result);
+    return "Heuristic policy iteration finished. Result: " + result;
+  }
+
+  /**
+   * This actually resumes solving the DecPOMDP from the given checkpoint.
+   * @param decPOMDP The DecPOMDP to solve.
+   * @param checkpointFile The checkpoint to resume from.
+   * @return The expected reward for the initial belief state (value) of the given DecPOMDP
+   */
+  protected abstract double doResume(DECPOMDP decPOMDP, Path checkpointFile);
+
+  /**
+   * The save command needs to be executed, after a DecPOMDP has been loaded, usually after solving it.
+   * It writes the controllers of all agents, and optionally the value function, to the given file.
+   * The format is either "binary" for a compact file, or "text" for a line-oriented file,
+   * which are described in {@link ControllerFileWriter}.
+   */
+  @Command(command = "save", alias = "e", description = "Saves the controllers and optionally the value function to a file.")
+  public String save(
+    @Option(shortNames = 'f', required = true) String filename,
+    @Option(shortNames = 't', defaultValue = "binary") String format,
+    @Option(shortNames = 'v', defaultValue = "false") boolean includeValueFunction
+  ) {
+    LOG.info("Command 'save' was called with filename={}, format={}, includeValueFunction={}.", filename, format, includeValueFunction);
+    if (!loaded) {
+      LOG.warn("Aborting saving because no DecPOMDP is loaded yet.");
+      throw new IllegalStateException("Heuristic policy iteration is not loaded yet.");
+    }
+    ControllerFileWriter.Format fileFormat;
+    try {
+      fileFormat = ControllerFileWriter.Format.valueOf(format.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      return "Unknown format " + format + ". Use binary or text.";
+    }
+    try {
+      new ControllerFileWriter(fileFormat, includeValueFunction).write(Path.of(filename), decPOMDP);
+    } catch (Exception e) {
+      LOG.warn("Saving failed for file {}", filename, e);
+      return "Could not save controllers to " + filename + ".";
+    }
+    LOG.info("Successfully saved controllers to {}.", filename);
+    return "Successfully saved controllers to " + filename;
+  }
+
 }
@@ -1,24 +1,31 @@
 package de.jlandsmannn.DecPOMDPSolver.cmd;
 
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.DecPOMDPWithStateController;
 import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.DecPOMDPWithStateControllerBuilder;
 import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.IDecPOMDPWithStateController;
 import de.jlandsmannn.DecPOMDPSolver.domain.lifting.IsomorphicDecPOMDPWithStateControllerBuilder;
+import de.jlandsmannn.DecPOMDPSolver.io.DPOMDPBinaryFile;
 import de.jlandsmannn.DecPOMDPSolver.io.DPOMDPFileParser;
 import de.jlandsmannn.DecPOMDPSolver.io.IDPOMDPFileParser;
+import de.jlandsmannn.DecPOMDPSolver.io.SectionBasedFileParser;
 import de.jlandsmannn.DecPOMDPSolver.policyIteration.HeuristicPolicyIterationConfig;
+import de.jlandsmannn.DecPOMDPSolver.policyIteration.HeuristicPolicyIterationPortfolio;
 import de.jlandsmannn.DecPOMDPSolver.policyIteration.HeuristicPolicyIterationSolver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.shell.command.annotation.Command;
+import org.springframework.shell.command.annotation.Option;
 import org.springframework.stereotype.Component;
 
+import java.nio.file.Path;
 import java.util.Optional;
 
 /**
  * This command class contains all commands regarding the heuristic policy iteration algorithm
  * for ground DecPOMDPs.
  * There are three main commands: init, load and solve.
+ * Additionally, the portfolio command solves with multiple seeds concurrently.
  * For more detailed information, have a look at the commands themselves.
  */
 @Command(command = "heuristic", group = "Heuristic Policy Iteration", alias = "h")
@@ -27,11 +34,15 @@ public class HeuristicPolicyIterationAlgorithmCommand extends BaseHeuristicPolic
   private static Logger LOG = LoggerFactory.getLogger(HeuristicPolicyIterationAlgorithmCommand.class);
 
   protected final HeuristicPolicyIterationSolver solver;
+  protected final HeuristicPolicyIterationPortfolio portfolio;
 
   @Autowired
-  public HeuristicPolicyIterationAlgorithmCommand(HeuristicPolicyIterationSolver solver, HeuristicPolicyIterationConfig defaultConfig) {
+  public HeuristicPolicyIterationAlgorithmCommand(HeuristicPolicyIterationSolver solver,
+                                                  HeuristicPolicyIterationPortfolio portfolio,
+                                                  HeuristicPolicyIterationConfig defaultConfig) {
     super(defaultConfig);
     this.solver = solver;
+    this.portfolio = portfolio;
   }
 
   /**
@@ -56,14 +67,15 @@ public class HeuristicPolicyIterationAlgorithmCommand extends BaseHeuristicPolic
 
   /**
    * This function parses a ground DecPOMDP from the given file.
-   * If the given file describes an isomorphic DecPOMDP,
+   * If the given file describes an isomorphic DecPOMDP, as .idpomdp, .idpomdp.gz or .idpomdpb file,
    * it transforms the isomorphic DecPOMDP to an equivalent ground DecPOMDP.
    * @param filename The file from where the DecPOMDP should be loaded.
    * @return A ground DecPOMDP
    */
   @Override
   protected Optional<IDecPOMDPWithStateController<?>> loadDecPOMDP(String filename) {
-    if (filename.endsWith(".idpomdp")) {
+    var uncompressedFilename = SectionBasedFileParser.getUncompressedFileName(filename);
+    if (uncompressedFilename.endsWith(".idpomdp") || filename.endsWith(DPOMDPBinaryFile.ISOMORPHIC_FILE_EXTENSION)) {
       return IDPOMDPFileParser.parseDecPOMDP(filename).map(IsomorphicDecPOMDPWithStateControllerBuilder::createGroundDecPOMDP);
     }
     return DPOMDPFileParser.parseDecPOMDP(filename).map(DecPOMDPWithStateControllerBuilder::createDecPOMDP);
@@ -78,4 +90,48 @@ public class HeuristicPolicyIterationAlgorithmCommand extends BaseHeuristicPolic
   protected double doSolve(IDecPOMDPWithStateController<?> decPOMDP) {
     return solver.setDecPOMDP(decPOMDP).setConfig(config).solve();
   }
+
+  /**
+   * The portfolio command needs to be executed, after a DecPOMDP has been loaded.
+   * It solves the DecPOMDP with multiple instances of the algorithm concurrently,
+   * each with a different seed for the belief point generation, and keeps the best result.
+   * The seeds start at the configured seed and are consecutive.
+   * If stopOnFirstResult is set, the remaining instances stop as soon as the first one finished.
+   */
+  @Command(command = "portfolio", alias = "f", description = "Solves the loaded problem instance with multiple seeds concurrently.")
+  public String portfolio(
+    @Option(shortNames = 'n', defaultValue = "2") int numberOfInstances,
+    @Option(shortNames = 's', defaultValue = "false") boolean stopOnFirstResult
+  ) {
+    LOG.info("Command 'portfolio' was called with numberOfInstances={}, stopOnFirstResult={}.", numberOfInstances, stopOnFirstResult);
+    if (!initialized) {
+      LOG.warn("Aborting solving because Heuristic policy iteration is not initialized yet.");
+      throw new IllegalStateException("Heuristic policy iteration is not initialized yet.");
+    } else if (!loaded) {
+      LOG.warn("Aborting solving because no DecPOMDP is loaded yet.");
+      throw new IllegalStateException("Heuristic policy iteration is not loaded yet.");
+    }
+    if (!(decPOMDP instanceof DecPOMDPWithStateController groundDecPOMDP)) {
+      throw new IllegalStateException("Portfolio solving is only supported for ground DecPOMDPs.");
+    }
+    var result = portfolio
+      .setDecPOMDP(groundDecPOMDP)
+      .setConfig(config)
+      .setNumberOfInstances(numberOfInstances)
+      .setStopOnFirstResult(stopOnFirstResult)
+      .solve();
+    LOG.info("Successfully solved DecPOMDP with portfolio with value of {}", result);
+    return "Heuristic policy iteration portfolio finished. Result: " + result;
+  }
+
+  /**
+   * Resumes the heuristic policy iteration algorithm on the given DecPOMDP from the given checkpoint.
+   * @param decPOMDP The DecPOMDP to solve.
+   * @param checkpointFile The checkpoint to resume from.
+   * @return The expected reward for the initial belief state of the DecPOMDP
+   */
+  @Override
+  protected double doResume(IDecPOMDPWithStateController<?> decPOMDP, Path checkpointFile) {
+    return solver.setDecPOMDP(decPOMDP).setConfig(config).resume(checkpointFile);
+  }
 }
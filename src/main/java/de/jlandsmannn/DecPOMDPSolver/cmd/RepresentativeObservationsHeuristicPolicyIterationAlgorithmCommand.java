@@ -11,6 +11,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.shell.command.annotation.Command;
 import org.springframework.stereotype.Component;
 
+import java.nio.file.Path;
 import java.util.Optional;
 
 /**
@@ -81,4 +82,18 @@ public class RepresentativeObservationsHeuristicPolicyIterationAlgorithmCommand
       .setConfig(myDefaultConfig.withPolicyIterationConfig(config))
       .solve();
   }
+
+  /**
+   * Resumes the adjusted heuristic policy iteration algorithm on the given DecPOMDP from the given checkpoint.
+   * @param decPOMDP The DecPOMDP to solve.
+   * @param checkpointFile The checkpoint of the representative DecPOMDP to resume from.
+   * @return The expected reward for the initial belief state of the DecPOMDP.
+   */
+  @Override
+  protected double doResume(RepresentativeObservationsDecPOMDPWithStateController decPOMDP, Path checkpointFile) {
+    return solver
+      .setDecPOMDP(decPOMDP)
+      .setConfig(myDefaultConfig.withPolicyIterationConfig(config))
+      .resume(checkpointFile);
+  }
 }
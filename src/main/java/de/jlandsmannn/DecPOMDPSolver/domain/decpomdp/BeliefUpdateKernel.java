@@ -0,0 +1,168 @@
+package de.jlandsmannn.DecPOMDPSolver.domain.decpomdp;
+
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.Action;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.Observation;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.State;
+import de.jlandsmannn.DecPOMDPSolver.domain.utility.Distribution;
+import de.jlandsmannn.DecPOMDPSolver.domain.utility.Vector;
+import de.jlandsmannn.DecPOMDPSolver.domain.utility.VectorCombinationBuilder;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * This class updates belief states from the perspective of a single agent,
+ * while the other agents follow fixed, state-dependent policies.
+ * For each action and observation of the agent, the transition and observation probabilities
+ * are marginalised over the actions and observations of the other agents once,
+ * which yields a sparse |S|x|S| matrix.
+ * Updating a belief state is then a sparse matrix-vector product followed by a normalisation.
+ * The matrices are compiled lazily on first use and can be shared between threads.
+ */
+public class BeliefUpdateKernel {
+  private final IDecPOMDP<?> decPOMDP;
+  private final IAgent agent;
+  private final int agentIndex;
+  private final Map<IAgent, Map<State, Distribution<Action>>> policies;
+  private final List<State> states;
+  private final Map<State, Integer> stateIndices;
+  private final Map<Action, Map<Observation, SparseMatrix>> matrices = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a kernel for the given agent.
+   *
+   * @param decPOMDP the DecPOMDP to update belief states for
+   * @param agent    the agent whose actions and observations are given on update
+   * @param policies the policies of all agents, only those of the other agents are used
+   * @throws IllegalArgumentException if the agent is not part of the DecPOMDP or a policy of another agent is missing
+   */
+  public BeliefUpdateKernel(IDecPOMDP<?> decPOMDP, IAgent agent, Map<IAgent, Map<State, Distribution<Action>>> policies) {
+    this.agentIndex = decPOMDP.getAgents().indexOf(agent);
+    if (agentIndex < 0) {
+      throw new IllegalArgumentException("Agent must be part of the DecPOMDP.");
+    } else if (decPOMDP.getAgents().stream().anyMatch(a -> !a.equals(agent) && !policies.containsKey(a))) {
+      throw new IllegalArgumentException("Policies must be given for all other agents.");
+    }
+    this.decPOMDP = decPOMDP;
+    this.agent = agent;
+    this.policies = policies;
+    this.states = decPOMDP.getStates();
+    this.stateIndices = new HashMap<>(states.size());
+    for (int i = 0; i < states.size(); i++) {
+      stateIndices.put(states.get(i), i);
+    }
+  }
+
+  /**
+   * Calculates the belief state after the agent performed the given action and received the given observation.
+   *
+   * @param beliefState the belief state to start from
+   * @param action      the action of the agent
+   * @param observation the observation of the agent
+   * @return the normalized follow-up belief state
+   * @throws IllegalArgumentException if the observation cannot be received after performing the action
+   */
+  public Distribution<State> update(Distribution<State> beliefState, Action action, Observation observation) {
+    var matrix = getMatrix(action, observation);
+    var followBelief = new double[states.size()];
+    for (var entry : beliefState.entrySet()) {
+      var probability = entry.getValue();
+      var sourceIndex = stateIndices.get(entry.getKey());
+      if (probability == 0 || sourceIndex == null) continue;
+      var targets = matrix.targets[sourceIndex];
+      var weights = matrix.weights[sourceIndex];
+      for (int k = 0; k < targets.length; k++) {
+        followBelief[targets[k]] += probability * weights[k];
+      }
+    }
+    var followBeliefState = new HashMap<State, Double>();
+    for (int i = 0; i < followBelief.length; i++) {
+      if (followBelief[i] != 0) followBeliefState.put(states.get(i), followBelief[i]);
+    }
+    if (followBeliefState.isEmpty()) {
+      throw new IllegalArgumentException("Observation " + observation + " cannot be received after " + action + " for " + agent + ".");
+    }
+    return Distribution.normalizeOf(followBeliefState);
+  }
+
+  private SparseMatrix getMatrix(Action action, Observation observation) {
+    return matrices
+      .computeIfAbsent(action, a -> new ConcurrentHashMap<>())
+      .computeIfAbsent(observation, o -> compile(action, observation));
+  }
+
+  private SparseMatrix compile(Action action, Observation observation) {
+    var actionVectors = getCombinationsWithFixedValueForAgent(action, IAgent::getActions);
+    var observationVectors = getCombinationsWithFixedValueForAgent(observation, IAgent::getObservations);
+    var observationProbabilities = new double[actionVectors.size()][states.size()];
+    for (var row : observationProbabilities) Arrays.fill(row, Double.NaN);
+
+    var targets = new int[states.size()][];
+    var weights = new double[states.size()][];
+    var column = new double[states.size()];
+    for (int s = 0; s < states.size(); s++) {
+      var state = states.get(s);
+      Arrays.fill(column, 0D);
+      for (int a = 0; a < actionVectors.size(); a++) {
+        var actionVector = actionVectors.get(a);
+        var actionVectorProbability = getProbabilityOfOtherActions(state, actionVector);
+        if (actionVectorProbability == 0) continue;
+        for (int t = 0; t < states.size(); t++) {
+          var followState = states.get(t);
+          var transitionProbability = decPOMDP.getTransitionProbability(state, actionVector, followState);
+          if (transitionProbability == 0) continue;
+          if (Double.isNaN(observationProbabilities[a][t])) {
+            observationProbabilities[a][t] = getMarginalObservationProbability(actionVector, followState, observationVectors);
+          }
+          column[t] += actionVectorProbability * transitionProbability * observationProbabilities[a][t];
+        }
+      }
+      var nonZeroEntries = (int) Arrays.stream(column).filter(value -> value != 0).count();
+      targets[s] = new int[nonZeroEntries];
+      weights[s] = new double[nonZeroEntries];
+      for (int t = 0, k = 0; t < column.length; t++) {
+        if (column[t] == 0) continue;
+        targets[s][k] = t;
+        weights[s][k++] = column[t];
+      }
+    }
+    return new SparseMatrix(targets, weights);
+  }
+
+  private double getProbabilityOfOtherActions(State state, Vector<Action> actionVector) {
+    var probability = 1D;
+    for (int i = 0; i < actionVector.size() && probability != 0; i++) {
+      if (i == agentIndex) continue;
+      var otherAgent = decPOMDP.getAgents().get(i);
+      probability *= policies.get(otherAgent).get(state).getProbability(actionVector.get(i));
+    }
+    return probability;
+  }
+
+  private double getMarginalObservationProbability(Vector<Action> actionVector, State followState, List<Vector<Observation>> observationVectors) {
+    var probability = 0D;
+    for (var observationVector : observationVectors) {
+      probability += decPOMDP.getObservationProbability(actionVector, followState, observationVector);
+    }
+    return probability;
+  }
+
+  private <T> List<Vector<T>> getCombinationsWithFixedValueForAgent(T value, Function<IAgent, List<T>> valuesOfAgent) {
+    var rawCombinations = decPOMDP.getAgents().stream().map(a -> {
+      if (agent.equals(a)) return List.of(value);
+      else return valuesOfAgent.apply(a);
+    }).toList();
+    return VectorCombinationBuilder.listOf(rawCombinations);
+  }
+
+  /**
+   * A sparse matrix stored by columns, the source states,
+   * with the indices of the follow states and the corresponding weights.
+   */
+  private record SparseMatrix(int[][] targets, double[][] weights) {
+  }
+}
@@ -158,6 +158,10 @@ public abstract class DecPOMDPBuilder<DECPOMDP extends IDecPOMDP<AGENT>, AGENT e
     return discountFactor;
   }
 
+  public Distribution<State> getInitialBeliefState() {
+    return initialBeliefState;
+  }
+
   public THIS setDiscountFactor(double discountFactor) {
     this.discountFactor = discountFactor;
     return (THIS) this;
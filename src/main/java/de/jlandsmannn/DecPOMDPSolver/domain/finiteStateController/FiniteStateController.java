@@ -34,8 +34,21 @@ public class FiniteStateController {
    * @param transitionFunction the transition function of this controller
    */
   public FiniteStateController(List<Node> nodes, Map<Node, Distribution<Action>> actionFunction, Map<Node, Map<Action, Map<Observation, Distribution<Node>>>> transitionFunction) {
+    this(nodes, actionFunction, transitionFunction, nodes.size());
+  }
+
+  /**
+   * Constructor with nodes, action- and transition function, as well as the index of the next node.
+   * It is used to restore a controller, whose nodes have been created and pruned before.
+   *
+   * @param nodes              the nodes of this controller
+   * @param actionFunction     the action function of this controller
+   * @param transitionFunction the transition function of this controller
+   * @param nodeIndex          the index of the next node to create
+   */
+  public FiniteStateController(List<Node> nodes, Map<Node, Distribution<Action>> actionFunction, Map<Node, Map<Action, Map<Observation, Distribution<Node>>>> transitionFunction, long nodeIndex) {
     this.nodes = Collections.synchronizedList(new ArrayList<>(nodes));
-    this.nodeIndex = new AtomicLong(nodes.size());
+    this.nodeIndex = new AtomicLong(nodeIndex);
     this.actionFunction = actionFunction;
     this.transitionFunction = transitionFunction;
     this.followNodes = new ConcurrentHashMap<>();
@@ -62,13 +75,13 @@ public class FiniteStateController {
   }
 
   public List<Action> getSelectableActions(Node node) {
-    if (!nodes.contains(node)) {
-      throw new IllegalArgumentException("Node " + node + " does not exist in controller");
-    } else if (!actionFunction.containsKey(node)) {
+    if (!actionFunction.containsKey(node)) {
+      if (!nodes.contains(node)) {
+        throw new IllegalArgumentException("Node " + node + " does not exist in controller");
+      }
       throw new IllegalStateException("Node " + node + " does not have action selection defined");
     }
-    var actions = actionFunction.get(node).keySet();
-    return List.copyOf(actions);
+    return List.copyOf(getActionSelection(node).keySet());
   }
 
   /**
@@ -81,6 +94,15 @@ public class FiniteStateController {
     return nodeIndex.getAndIncrement();
   }
 
+  /**
+   * Returns the index of the next node to create, without increasing it.
+   *
+   * @return the index of the next node
+   */
+  public long peekNodeIndex() {
+    return nodeIndex.get();
+  }
+
   /**
    * Returns the probability selecting the given action in the given node.
    *
@@ -89,13 +111,12 @@ public class FiniteStateController {
    * @return the probability of selecting the action in the given node
    */
   public double getActionSelectionProbability(Node node, Action action) {
-    if (!nodes.contains(node)) {
+    if (actionFunction.containsKey(node)) {
+      return getActionSelection(node).getProbability(action);
+    } else if (!nodes.contains(node)) {
       throw new IllegalArgumentException("Node " + node + " does not exist in controller");
     }
-    return Optional
-      .ofNullable(actionFunction.get(node))
-      .map(t -> t.getProbability(action))
-      .orElse(0D);
+    return 0D;
   }
 
   /**
@@ -122,6 +143,68 @@ public class FiniteStateController {
       .orElse(0D);
   }
 
+  /**
+   * Returns the distribution of actions selected in the given node.
+   * Unlike the other getters, it does not check the existence of the node in the list of nodes,
+   * so it is suitable to iterate over large controllers.
+   * The returned distribution must not be modified.
+   *
+   * @param node the node to get the action selection for
+   * @return the distribution of actions of the node
+   */
+  public Distribution<Action> getActionSelection(Node node) {
+    var actionSelection = actionFunction.get(node);
+    if (actionSelection == null) {
+      throw new IllegalArgumentException("Node " + node + " does not have action selection defined");
+    }
+    return actionSelection;
+  }
+
+  /**
+   * Returns the distribution of follow nodes for the given node, action and observation, if defined.
+   * Like {@link #getActionSelection(Node)}, it does not check the existence of the node.
+   * The returned distribution must not be modified.
+   *
+   * @param node        the node to start from
+   * @param action      the action selected
+   * @param observation the observation made
+   * @return the distribution of follow nodes, or empty if no transition is defined
+   */
+  public Optional<Distribution<Node>> getTransition(Node node, Action action, Observation observation) {
+    return Optional
+      .ofNullable(transitionFunction.get(node))
+      .map(t -> t.get(action))
+      .map(t -> t.get(observation));
+  }
+
+  /**
+   * Creates a deep copy of this controller, so changes to one of them do not affect the other.
+   * The node index is kept, so nodes created afterward are named the same way in both controllers.
+   *
+   * @return the copy of this controller
+   */
+  public FiniteStateController copy() {
+    synchronized (nodes) {
+      var copiedActionFunction = new ConcurrentHashMap<Node, Distribution<Action>>();
+      var copiedTransitionFunction = new ConcurrentHashMap<Node, Map<Action, Map<Observation, Distribution<Node>>>>();
+      for (var node : actionFunction.keySet()) {
+        copiedActionFunction.put(node, Distribution.of(actionFunction.get(node).toMap()));
+      }
+      for (var node : transitionFunction.keySet()) {
+        var copiedTransitions = new ConcurrentHashMap<Action, Map<Observation, Distribution<Node>>>();
+        for (var action : transitionFunction.get(node).keySet()) {
+          var copiedObservationTransitions = new ConcurrentHashMap<Observation, Distribution<Node>>();
+          for (var entry : transitionFunction.get(node).get(action).entrySet()) {
+            copiedObservationTransitions.put(entry.getKey(), Distribution.of(entry.getValue().toMap()));
+          }
+          copiedTransitions.put(action, copiedObservationTransitions);
+        }
+        copiedTransitionFunction.put(node, copiedTransitions);
+      }
+      return new FiniteStateController(nodes, copiedActionFunction, copiedTransitionFunction, nodeIndex.get());
+    }
+  }
+
   public void addNode(Node node, Action action) {
     addNode(node, Distribution.createSingleEntryDistribution(action));
   }
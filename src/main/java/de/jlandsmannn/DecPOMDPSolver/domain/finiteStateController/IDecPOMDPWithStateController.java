@@ -5,11 +5,13 @@ import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.Action;
 import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.Observation;
 import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.State;
 import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.primitives.Node;
+import de.jlandsmannn.DecPOMDPSolver.domain.utility.BlockedMatrixProduct;
 import de.jlandsmannn.DecPOMDPSolver.domain.utility.Distribution;
 import de.jlandsmannn.DecPOMDPSolver.domain.utility.Vector;
 import de.jlandsmannn.DecPOMDPSolver.domain.utility.tuple.Tuple2;
 import de.jlandsmannn.DecPOMDPSolver.domain.utility.tuple.Tuples;
 
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 
@@ -31,6 +33,59 @@ public interface IDecPOMDPWithStateController<AGENT extends IAgentWithStateContr
     ;
   }
 
+  /**
+   * It returns for each of the given belief states those nodes, that maximize the value.
+   * In contrast to {@link #getBestNodeCombinationFor(Distribution)} the values are read only once.
+   *
+   * @param beliefStates the belief states to check the value for
+   * @return the vectors of nodes to start from, in the same order as the belief states
+   */
+  default List<Vector<Node>> getBestNodeCombinationsFor(List<Distribution<State>> beliefStates) {
+    return getBestNodeCombinationsFor(beliefStates, 1, 0D).stream()
+      .map(nodeCombinations -> nodeCombinations.get(0))
+      .toList();
+  }
+
+  /**
+   * It returns for each of the given belief states the best vectors of nodes.
+   * These are the numberOfCombinations vectors with the highest value and,
+   * if epsilon is positive, all vectors whose value is at most epsilon below the best value.
+   * The belief states form a dense |B|x|S| matrix, that is multiplied with the |S|x|N| matrix
+   * of values for each state and node combination, and the best entries are selected per row.
+   * The values are read from the value function tile by tile while the product is computed,
+   * so the value matrix is never held in memory as a whole.
+   *
+   * @param beliefStates         the belief states to check the value for
+   * @param numberOfCombinations the number of best vectors of nodes to return per belief state
+   * @param epsilon              the maximal distance to the best value, non-positive values disable it
+   * @return the best vectors of nodes ordered by decreasing value, in the same order as the belief states
+   * @throws IllegalArgumentException if numberOfCombinations is not positive
+   */
+  default List<List<Vector<Node>>> getBestNodeCombinationsFor(List<Distribution<State>> beliefStates, int numberOfCombinations, double epsilon) {
+    if (beliefStates.isEmpty()) return List.of();
+    var nodeCombinations = getNodeCombinations();
+    var states = beliefStates.stream()
+      .flatMap(beliefState -> beliefState.keySet().stream())
+      .distinct()
+      .toList();
+    var beliefMatrix = new double[beliefStates.size()][states.size()];
+    for (int b = 0; b < beliefStates.size(); b++) {
+      var beliefState = beliefStates.get(b);
+      for (int s = 0; s < states.size(); s++) {
+        beliefMatrix[b][s] = beliefState.getProbability(states.get(s));
+      }
+    }
+    var bestIndices = BlockedMatrixProduct.bestOfRows(beliefMatrix, states.size(), nodeCombinations.size(), (n, column) -> {
+      var nodeCombination = nodeCombinations.get(n);
+      for (int s = 0; s < states.size(); s++) {
+        column[s] = getValue(states.get(s), nodeCombination);
+      }
+    }, numberOfCombinations, epsilon);
+    return Arrays.stream(bestIndices)
+      .map(indices -> Arrays.stream(indices).mapToObj(nodeCombinations::get).toList())
+      .toList();
+  }
+
   /**
    * It returns the precalculated value, the expected sum of rewards,
    * based on the current policies and the given belief state and the given nodes.
@@ -7,6 +7,7 @@ import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.primitives.Nod
 import de.jlandsmannn.DecPOMDPSolver.domain.utility.Distribution;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -14,7 +15,7 @@ import java.util.Optional;
  * which creates a linear optimization program from the given DecPOMDP.
  * This LP is used to determine a convex combination of dominating nodes
  * for a given node and a set of belief points.
- * It can be solved by an {@link LinearOptimizationSolver}.
+ * It can be solved by a {@link LinearMaximisationSolver}.
  *
  * @param <LP>     the linear program itself
  * @param <RESULT> the LP's result data type
@@ -29,5 +30,14 @@ public interface CombinatorialNodePruningTransformer<DECPOMDP extends IDecPOMDPW
 
   LP getLinearProgramForNode(Node nodeToPrune);
 
+  /**
+   * Returns the values of the agent's nodes,
+   * one for each combination of belief point and the other agents' nodes.
+   * These are the coefficients of the linear programs created by this transformer.
+   *
+   * @return a map from each node to its values
+   */
+  Map<Node, double[]> getValueMatrix();
+
   Optional<Distribution<Node>> getDominatingNodeDistributionFromResult(RESULT result);
 }
@@ -0,0 +1,34 @@
+package de.jlandsmannn.DecPOMDPSolver.domain.linearOptimization;
+
+import java.util.Optional;
+
+/**
+ * This interface describes a library and data type independent class
+ * which can solve a linear optimization program by maximizing.
+ * It is sufficient for linear programs, that are only ever maximised,
+ * like those of the combinatorial pruning.
+ *
+ * @param <LP>     the data type of linear program
+ * @param <RESULT> the data type of the result
+ */
+public interface LinearMaximisationSolver<LP, RESULT> {
+
+  void setLinearProgram(LP linearProgram);
+
+  Optional<RESULT> maximise();
+
+  /**
+   * Maximises the given linear program without replacing the one set via {@link #setLinearProgram(Object)}.
+   * Implementations that can solve multiple linear programs concurrently should override this method,
+   * the default implementation serializes all calls.
+   *
+   * @param linearProgram the linear program to maximise
+   * @return the result, if the linear program has an optimal solution
+   */
+  default Optional<RESULT> maximise(LP linearProgram) {
+    synchronized (this) {
+      setLinearProgram(linearProgram);
+      return maximise();
+    }
+  }
+}
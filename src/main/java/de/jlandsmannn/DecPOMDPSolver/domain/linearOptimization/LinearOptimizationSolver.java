@@ -9,11 +9,7 @@ import java.util.Optional;
  * @param <LP>     the data type of linear program
  * @param <RESULT> the data type of the result
  */
-public interface LinearOptimizationSolver<LP, RESULT> {
-
-  void setLinearProgram(LP linearProgram);
-
-  Optional<RESULT> maximise();
+public interface LinearOptimizationSolver<LP, RESULT> extends LinearMaximisationSolver<LP, RESULT> {
 
   Optional<RESULT> minimise();
 }
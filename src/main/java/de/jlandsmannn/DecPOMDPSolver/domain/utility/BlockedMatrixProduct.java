@@ -0,0 +1,324 @@
+package de.jlandsmannn.DecPOMDPSolver.domain.utility;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.stream.IntStream;
+
+/**
+ * This class provides dense matrix products on plain arrays,
+ * that are computed in cache-friendly tiles and reduced to the best entries of each row.
+ * Each tile covers a fixed number of rows of the left and columns of the right matrix,
+ * so the accumulated row segment and the read segments of the right matrix stay in cache.
+ * The column tiles are independent of each other and are computed in parallel.
+ * The right matrix can be given by a {@link ColumnSupplier}, which fills the columns of a tile
+ * when the tile is processed, so the right matrix never needs to be materialized as a whole.
+ */
+public class BlockedMatrixProduct {
+  private static final int ROW_TILE_SIZE = 64;
+  private static final int COLUMN_TILE_SIZE = 512;
+
+  /**
+   * The factor of the number of best entries, that limits the number of entries selected per row by default,
+   * so a large epsilon does not select every entry of a row.
+   */
+  public static final int MAXIMUM_SELECTION_FACTOR = 16;
+
+  /**
+   * Calculates the index of the maximal entry for each row of the product left * right,
+   * without materializing the product.
+   * If there are multiple maximal entries in a row, the smallest index is returned.
+   *
+   * @param left  the left matrix of size n x m, row-major
+   * @param right the right matrix of size m x k, row-major
+   * @return the column index of the maximum for each of the n rows of the product
+   * @throws IllegalArgumentException if the dimensions of the matrices don't match or the product has no columns
+   */
+  public static int[] argmaxOfRows(double[][] left, double[][] right) {
+    return Arrays.stream(bestOfRows(left, right, 1, 0D))
+      .mapToInt(indices -> indices[0])
+      .toArray();
+  }
+
+  /**
+   * Calculates the indices of the best entries for each row of the product left * right,
+   * without materializing the product.
+   * An entry is selected if it is one of the numberOfBest greatest entries of its row,
+   * or, if epsilon is positive, if it differs by at most epsilon from the maximum of its row.
+   * Each row keeps a heap of candidates bounded by numberOfBest * {@link #MAXIMUM_SELECTION_FACTOR},
+   * so the selection happens in a single pass.
+   * If entries are equal, the smaller index is preferred.
+   *
+   * @param left         the left matrix of size n x m, row-major
+   * @param right        the right matrix of size m x k, row-major
+   * @param numberOfBest the number of greatest entries to select per row
+   * @param epsilon      the maximal distance to the maximum of selected entries, non-positive values disable it
+   * @return the selected column indices for each of the n rows of the product, ordered by decreasing value
+   * @throws IllegalArgumentException if the dimensions of the matrices don't match or the product has no columns
+   * @throws IllegalArgumentException if numberOfBest is not positive
+   */
+  public static int[][] bestOfRows(double[][] left, double[][] right, int numberOfBest, double epsilon) {
+    var innerDimension = right.length;
+    var numberOfColumns = innerDimension == 0 ? 0 : right[0].length;
+    if (Arrays.stream(right).anyMatch(row -> row.length != numberOfColumns)) {
+      throw new IllegalArgumentException("All rows of right matrix must have the same length.");
+    }
+    return bestOfRows(left, innerDimension, numberOfColumns, (column, target) -> {
+      for (int k = 0; k < innerDimension; k++) target[k] = right[k][column];
+    }, numberOfBest, epsilon);
+  }
+
+  /**
+   * Calculates the indices of the best entries for each row of the product left * right
+   * like {@link #bestOfRows(double[][], double[][], int, double)},
+   * but reads the right matrix column by column from the given supplier.
+   * Each column is requested exactly once, when the tile containing it is processed,
+   * so at most one tile of the right matrix per concurrently processed tile is held in memory.
+   *
+   * @param left            the left matrix of size n x m, row-major
+   * @param innerDimension  the number m of rows of the right matrix
+   * @param numberOfColumns the number k of columns of the right matrix
+   * @param right           the supplier of the columns of the right matrix, which may be called concurrently
+   * @param numberOfBest    the number of greatest entries to select per row
+   * @param epsilon         the maximal distance to the maximum of selected entries, non-positive values disable it
+   * @return the selected column indices for each of the n rows of the product, ordered by decreasing value
+   * @throws IllegalArgumentException if the dimensions of the matrices don't match or the product has no columns
+   * @throws IllegalArgumentException if numberOfBest is not positive
+   */
+  public static int[][] bestOfRows(double[][] left, int innerDimension, int numberOfColumns, ColumnSupplier right, int numberOfBest, double epsilon) {
+    return bestOfRows(left, innerDimension, numberOfColumns, right, numberOfBest, epsilon, numberOfBest * MAXIMUM_SELECTION_FACTOR);
+  }
+
+  /**
+   * Calculates the indices of the best entries for each row of the product left * right
+   * like {@link #bestOfRows(double[][], int, int, ColumnSupplier, int, double)},
+   * but selects at most the given maximum number of entries per row,
+   * even if more entries are within epsilon of the maximum.
+   * Then, the greatest of those entries are selected.
+   * Selecting only the single greatest entry without epsilon uses primitive arrays instead of heaps.
+   *
+   * @param left                     the left matrix of size n x m, row-major
+   * @param innerDimension           the number m of rows of the right matrix
+   * @param numberOfColumns          the number k of columns of the right matrix
+   * @param right                    the supplier of the columns of the right matrix, which may be called concurrently
+   * @param numberOfBest             the number of greatest entries to select per row
+   * @param epsilon                  the maximal distance to the maximum of selected entries, non-positive values disable it
+   * @param maximumNumberOfSelected  the maximal number of entries to select per row, at least numberOfBest
+   * @return the selected column indices for each of the n rows of the product, ordered by decreasing value
+   * @throws IllegalArgumentException if the dimensions of the matrices don't match or the product has no columns
+   * @throws IllegalArgumentException if numberOfBest is not positive or greater than maximumNumberOfSelected
+   */
+  public static int[][] bestOfRows(double[][] left, int innerDimension, int numberOfColumns, ColumnSupplier right,
+                                   int numberOfBest, double epsilon, int maximumNumberOfSelected) {
+    if (Arrays.stream(left).anyMatch(row -> row.length != innerDimension)) {
+      throw new IllegalArgumentException("Number of columns of left matrix must match number of rows of right matrix.");
+    } else if (numberOfColumns <= 0) {
+      throw new IllegalArgumentException("Right matrix must have at least one column.");
+    } else if (numberOfBest <= 0) {
+      throw new IllegalArgumentException("Number of best entries must be positive.");
+    } else if (maximumNumberOfSelected < numberOfBest) {
+      throw new IllegalArgumentException("Maximum number of selected entries must not be less than the number of best entries.");
+    }
+    if (numberOfBest == 1 && epsilon <= 0) {
+      return Arrays.stream(argmaxOfRows(left, innerDimension, numberOfColumns, right))
+        .mapToObj(index -> new int[]{index})
+        .toArray(int[][]::new);
+    }
+
+    var numberOfRows = left.length;
+    var tileSelections = IntStream.range(0, getNumberOfColumnTiles(numberOfColumns))
+      .parallel()
+      .mapToObj(tile -> {
+        var selections = new RowSelection[numberOfRows];
+        multiplyTile(left, innerDimension, right, tile * COLUMN_TILE_SIZE, Math.min(numberOfColumns, (tile + 1) * COLUMN_TILE_SIZE),
+          (row, accumulator, fromColumn, width) -> {
+            var selection = new RowSelection(numberOfBest, epsilon, maximumNumberOfSelected);
+            for (int j = 0; j < width; j++) {
+              selection.offer(accumulator[j], fromColumn + j);
+            }
+            selections[row] = selection;
+          });
+        return selections;
+      })
+      .toList();
+
+    var bestIndices = new int[numberOfRows][];
+    for (int i = 0; i < numberOfRows; i++) {
+      var selection = new RowSelection(numberOfBest, epsilon, maximumNumberOfSelected);
+      for (var tileSelection : tileSelections) {
+        for (var entry : tileSelection[i].heap) {
+          selection.offer(entry.value, entry.index);
+        }
+      }
+      bestIndices[i] = selection.toIndices();
+    }
+    return bestIndices;
+  }
+
+  private static int[] argmaxOfRows(double[][] left, int innerDimension, int numberOfColumns, ColumnSupplier right) {
+    var numberOfRows = left.length;
+    var tileMaxima = IntStream.range(0, getNumberOfColumnTiles(numberOfColumns))
+      .parallel()
+      .mapToObj(tile -> {
+        var maximum = new RowMaximum(numberOfRows);
+        multiplyTile(left, innerDimension, right, tile * COLUMN_TILE_SIZE, Math.min(numberOfColumns, (tile + 1) * COLUMN_TILE_SIZE),
+          (row, accumulator, fromColumn, width) -> {
+            for (int j = 0; j < width; j++) {
+              maximum.offer(row, accumulator[j], fromColumn + j);
+            }
+          });
+        return maximum;
+      })
+      .toList();
+
+    var maximum = new RowMaximum(numberOfRows);
+    for (var tileMaximum : tileMaxima) {
+      for (int i = 0; i < numberOfRows; i++) {
+        maximum.offer(i, tileMaximum.values[i], tileMaximum.indices[i]);
+      }
+    }
+    return maximum.indices;
+  }
+
+  private static int getNumberOfColumnTiles(int numberOfColumns) {
+    return (numberOfColumns + COLUMN_TILE_SIZE - 1) / COLUMN_TILE_SIZE;
+  }
+
+  private static void multiplyTile(double[][] left, int innerDimension, ColumnSupplier right, int fromColumn, int toColumn, RowConsumer consumer) {
+    var numberOfRows = left.length;
+    var width = toColumn - fromColumn;
+    var tile = readTile(innerDimension, right, fromColumn, width);
+    var accumulators = new double[ROW_TILE_SIZE][width];
+    for (int fromRow = 0; fromRow < numberOfRows; fromRow += ROW_TILE_SIZE) {
+      var toRow = Math.min(numberOfRows, fromRow + ROW_TILE_SIZE);
+      for (int i = fromRow; i < toRow; i++) {
+        Arrays.fill(accumulators[i - fromRow], 0D);
+      }
+      for (int k = 0; k < innerDimension; k++) {
+        var tileRow = tile[k];
+        for (int i = fromRow; i < toRow; i++) {
+          var factor = left[i][k];
+          if (factor == 0) continue;
+          var accumulator = accumulators[i - fromRow];
+          for (int j = 0; j < width; j++) {
+            accumulator[j] += factor * tileRow[j];
+          }
+        }
+      }
+      for (int i = fromRow; i < toRow; i++) {
+        consumer.accept(i, accumulators[i - fromRow], fromColumn, width);
+      }
+    }
+  }
+
+  private static double[][] readTile(int innerDimension, ColumnSupplier right, int fromColumn, int width) {
+    var tile = new double[innerDimension][width];
+    var column = new double[innerDimension];
+    for (int j = 0; j < width; j++) {
+      right.fillColumn(fromColumn + j, column);
+      for (int k = 0; k < innerDimension; k++) tile[k][j] = column[k];
+    }
+    return tile;
+  }
+
+  /**
+   * Supplies the columns of the right matrix of a product.
+   */
+  @FunctionalInterface
+  public interface ColumnSupplier {
+
+    /**
+     * Writes the entries of the given column into the target array, whose length is the number of rows.
+     *
+     * @param column the index of the column
+     * @param target the array to write the column to
+     */
+    void fillColumn(int column, double[] target);
+  }
+
+  /**
+   * Receives the computed segment of a row of the product within a tile.
+   */
+  @FunctionalInterface
+  private interface RowConsumer {
+    void accept(int row, double[] accumulator, int fromColumn, int width);
+  }
+
+  /**
+   * Keeps the maximal entry and its index for each row in primitive arrays.
+   * If entries are equal, the smaller index is preferred.
+   */
+  private static class RowMaximum {
+    private final double[] values;
+    private final int[] indices;
+
+    RowMaximum(int numberOfRows) {
+      values = new double[numberOfRows];
+      indices = new int[numberOfRows];
+      Arrays.fill(values, Double.NEGATIVE_INFINITY);
+      Arrays.fill(indices, Integer.MAX_VALUE);
+    }
+
+    void offer(int row, double value, int index) {
+      if (value > values[row] || (value == values[row] && index < indices[row])) {
+        values[row] = value;
+        indices[row] = index;
+      }
+    }
+  }
+
+  /**
+   * Keeps the selected entries of a single row in a min-heap,
+   * so the worst selected entry can be evicted in logarithmic time.
+   * The heap never grows beyond the maximum number of selected entries.
+   */
+  private static class RowSelection {
+    private static final Comparator<Entry> WORST_FIRST = Comparator
+      .comparingDouble(Entry::value)
+      .thenComparing(Entry::index, Comparator.reverseOrder());
+
+    private final PriorityQueue<Entry> heap = new PriorityQueue<>(WORST_FIRST);
+    private final int numberOfBest;
+    private final double epsilon;
+    private final int maximumNumberOfSelected;
+    private double maximum = Double.NEGATIVE_INFINITY;
+
+    RowSelection(int numberOfBest, double epsilon, int maximumNumberOfSelected) {
+      this.numberOfBest = numberOfBest;
+      this.epsilon = epsilon;
+      this.maximumNumberOfSelected = maximumNumberOfSelected;
+    }
+
+    void offer(double value, int index) {
+      if (heap.size() >= numberOfBest && !isWithinEpsilon(value) && !isBetterThanWorst(value, index)) return;
+      if (heap.size() >= maximumNumberOfSelected && !isBetterThanWorst(value, index)) return;
+      heap.add(new Entry(value, index));
+      maximum = Math.max(maximum, value);
+      while (heap.size() > numberOfBest && !isWithinEpsilon(heap.peek().value)) {
+        heap.poll();
+      }
+      while (heap.size() > maximumNumberOfSelected) {
+        heap.poll();
+      }
+    }
+
+    int[] toIndices() {
+      return heap.stream()
+        .sorted(WORST_FIRST.reversed())
+        .mapToInt(Entry::index)
+        .toArray();
+    }
+
+    private boolean isWithinEpsilon(double value) {
+      return epsilon > 0 && value >= maximum - epsilon;
+    }
+
+    private boolean isBetterThanWorst(double value, int index) {
+      var worst = heap.peek();
+      return worst == null || value > worst.value || (value == worst.value && index < worst.index);
+    }
+  }
+
+  private record Entry(double value, int index) {
+  }
+}
@@ -5,6 +5,7 @@ import de.jlandsmannn.DecPOMDPSolver.domain.utility.exceptions.DistributionSumNo
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.random.RandomGenerator;
 import java.util.stream.Collectors;
 
 /**
@@ -54,7 +55,7 @@ public class Distribution<T> implements Iterable<T> {
    * @param <T>     the data type of the elements
    * @return a distribution with (pseudo) random probabilities
    */
-  public static <T> Distribution<T> createRandomDistribution(Collection<T> entries, Random random) {
+  public static <T> Distribution<T> createRandomDistribution(Collection<T> entries, RandomGenerator random) {
     if (entries.size() == 1) {
       return Distribution.createSingleEntryDistribution(entries.stream().findFirst().get());
     } else if (entries.isEmpty()) {
@@ -239,10 +240,10 @@ public class Distribution<T> implements Iterable<T> {
   /**
    * Selects an element (pseudo) randomly weighted by their probabilities.
    *
-   * @param random A {@link Random} object to select an element
+   * @param random A {@link RandomGenerator} object to select an element
    * @return a pseudo-random element from the distribution
    */
-  public T getRandom(Random random) {
+  public T getRandom(RandomGenerator random) {
     var rand = random.nextDouble(0, 1);
     for (var entry : this.distribution.entrySet()) {
       rand -= entry.getValue();
@@ -6,6 +6,8 @@ import org.ojalgo.matrix.decomposition.LU;
 import org.ojalgo.matrix.store.MatrixStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
@@ -14,6 +16,7 @@ import java.util.Optional;
  * This class implements the {@link EquationSystemSolver}
  * by using the OjAlgo library, and it's LU decomposition.
  */
+@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
 @Service
 public class OJAEquationSystemSolver implements EquationSystemSolver<MatrixStore<Double>> {
   private static final Logger LOG = LoggerFactory.getLogger(OJAEquationSystemSolver.class);
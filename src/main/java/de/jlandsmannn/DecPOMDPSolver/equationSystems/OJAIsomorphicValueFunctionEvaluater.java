@@ -6,6 +6,8 @@ import de.jlandsmannn.DecPOMDPSolver.domain.lifting.IsomorphicDecPOMDPWithStateC
 import de.jlandsmannn.DecPOMDPSolver.policyIteration.ValueFunctionEvaluater;
 import org.ojalgo.matrix.store.MatrixStore;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Service;
 
 /**
@@ -13,6 +15,7 @@ import org.springframework.stereotype.Service;
  * to provide a concretely typed instance to the DI.
  * It connects {@link OJAValueFunctionTransformer} and {@link OJAEquationSystemSolver}.
  */
+@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
 @Service
 public class OJAIsomorphicValueFunctionEvaluater extends ValueFunctionEvaluater<IsomorphicDecPOMDPWithStateController, MatrixStore<Double>> {
   @Autowired
@@ -10,6 +10,8 @@ import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.matrix.store.SparseStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -21,6 +23,7 @@ import java.util.Objects;
  * and transforms a {@link DecPOMDPWithStateController}
  * into a matrix and vector, that work with the OjAlgo library.
  */
+@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
 @Service
 public class OJAIsomorphicValueFunctionTransformer extends OJAValueFunctionTransformer<IsomorphicDecPOMDPWithStateController> implements ValueFunctionTransformer<IsomorphicDecPOMDPWithStateController, MatrixStore<Double>> {
   private static final Logger LOG = LoggerFactory.getLogger(OJAIsomorphicValueFunctionTransformer.class);
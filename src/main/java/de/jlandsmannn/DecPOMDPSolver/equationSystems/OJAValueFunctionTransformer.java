@@ -9,12 +9,15 @@ import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.matrix.store.SparseStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.LongStream;
 
+@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
 @Service
 public class OJAValueFunctionTransformer<U extends IDecPOMDPWithStateController<?>> implements ValueFunctionTransformer<U, MatrixStore<Double>> {
   private static final Logger LOG = LoggerFactory.getLogger(OJAValueFunctionTransformer.class);
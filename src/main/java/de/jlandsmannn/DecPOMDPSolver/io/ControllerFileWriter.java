@@ -0,0 +1,295 @@
+package de.jlandsmannn.DecPOMDPSolver.io;
+
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.Action;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.Observation;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.State;
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.IAgentWithStateController;
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.IDecPOMDPWithStateController;
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.primitives.Node;
+import de.jlandsmannn.DecPOMDPSolver.domain.utility.Vector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * This class writes the controllers of all agents and optionally the value function of a DecPOMDP to a file,
+ * so they can be used for execution or analysis without solving the DecPOMDP again.
+ * There is a compact binary format and a line-oriented text format.
+ * Both are written incrementally through a buffered file channel,
+ * so even controllers with millions of nodes are never held as a whole in memory a second time.
+ * Within an agent, actions, observations and nodes are referenced by their index.
+ * The file is written to a temporary file first and moved afterward,
+ * so a failed export never leaves a partially written file behind.
+ * <p>
+ * The text format consists of the following lines, with indices separated by spaces:
+ * <pre>
+ * agents: &lt;number of agents&gt;
+ * agent: &lt;name&gt;
+ * actions: &lt;action names&gt;
+ * observations: &lt;observation names&gt;
+ * nodes: &lt;number of nodes&gt;
+ * initial: &lt;initial nodes&gt;
+ * N: &lt;node name&gt; : &lt;action&gt; &lt;probability&gt; ...
+ * T: &lt;node&gt; &lt;action&gt; &lt;observation&gt; : &lt;follow node&gt; &lt;probability&gt; ...
+ * states: &lt;state names&gt;
+ * V: &lt;node of each agent&gt; : &lt;value of each state&gt;
+ * </pre>
+ * The lines from "agent" to "T" are repeated for each agent, with one "N" line per node
+ * and one "T" line per defined transition.
+ * The "states" and "V" lines are only written with the value function, with one "V" line per node combination.
+ * The binary format contains the same data in the same order, but prefixes all lists with their size
+ * and writes a number of follow nodes for every combination of node, action and observation instead.
+ * Missing values of the value function are written as NaN in both formats.
+ * The node combinations of the value function are enumerated one at a time, with the nodes of the last agent changing fastest,
+ * so the cross product of all controllers is never built.
+ * <p>
+ * Like the checkpoints of the solver, the binary format is written as a stream through a {@link DataOutputStream},
+ * so numbers are big-endian, strings are modified UTF-8, and it can be read back with a {@link DataInputStream}.
+ * Unlike the {@link DPOMDPBinaryFile}, it is not memory-mapped and read with a little-endian buffer,
+ * and it has no checksum, since it is an export, which is written once and read sequentially,
+ * while a converted DecPOMDP is loaded again for every run.
+ */
+public class ControllerFileWriter {
+  private static final Logger LOG = LoggerFactory.getLogger(ControllerFileWriter.class);
+  private static final int MAGIC_NUMBER = 0x48504643;
+  private static final int VERSION = 1;
+  private static final int BUFFER_SIZE = 1024 * 1024;
+
+  private final Format format;
+  private final boolean includeValueFunction;
+
+  public ControllerFileWriter(Format format, boolean includeValueFunction) {
+    this.format = format;
+    this.includeValueFunction = includeValueFunction;
+  }
+
+  /**
+   * Writes the controllers and optionally the value function of the given DecPOMDP to the given file.
+   *
+   * @param file     the file to write to
+   * @param decPOMDP the DecPOMDP whose controllers are written
+   * @throws UncheckedIOException if the file could not be written
+   */
+  public void write(Path file, IDecPOMDPWithStateController<?> decPOMDP) {
+    try {
+      var directory = file.toAbsolutePath().getParent();
+      Files.createDirectories(directory);
+      var temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+      try {
+        var channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        if (format == Format.BINARY) {
+          try (var output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE))) {
+            writeBinary(output, decPOMDP);
+          }
+        } else {
+          try (var output = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            writeText(output, decPOMDP);
+          }
+        }
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(temporaryFile);
+      }
+      LOG.info("Wrote controllers of {} agents in {} format to {}", decPOMDP.getAgentCount(), format, file);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write controllers to " + file, e);
+    }
+  }
+
+  private void writeBinary(DataOutputStream output, IDecPOMDPWithStateController<?> decPOMDP) throws IOException {
+    output.writeInt(MAGIC_NUMBER);
+    output.writeInt(VERSION);
+    output.writeInt(decPOMDP.getAgentCount());
+    var nodeIndices = createNodeIndices(decPOMDP);
+    for (int i = 0; i < decPOMDP.getAgentCount(); i++) {
+      var agent = decPOMDP.getAgents().get(i);
+      var controller = agent.getController();
+      var nodes = controller.getNodes();
+      var actionIndices = createIndices(agent.getActions());
+      output.writeUTF(agent.getName());
+      writeNames(output, agent.getActions(), Action::name);
+      writeNames(output, agent.getObservations(), Observation::name);
+      writeNames(output, nodes, Node::name);
+      var initialNodes = getInitialNodeIndices(agent, nodeIndices.get(i));
+      output.writeInt(initialNodes.size());
+      for (var initialNode : initialNodes) output.writeInt(initialNode);
+      for (var node : nodes) {
+        var actionSelection = controller.getActionSelection(node);
+        output.writeInt(actionSelection.size());
+        for (var entry : actionSelection.entrySet()) {
+          output.writeInt(actionIndices.get(entry.getKey()));
+          output.writeDouble(entry.getValue());
+          for (var observation : agent.getObservations()) {
+            var transition = controller.getTransition(node, entry.getKey(), observation);
+            if (transition.isEmpty()) {
+              output.writeInt(0);
+              continue;
+            }
+            output.writeInt(transition.get().size());
+            for (var followNode : transition.get().entrySet()) {
+              output.writeInt(nodeIndices.get(i).get(followNode.getKey()));
+              output.writeDouble(followNode.getValue());
+            }
+          }
+        }
+      }
+    }
+    output.writeBoolean(includeValueFunction);
+    if (!includeValueFunction) return;
+    writeNames(output, decPOMDP.getStates(), State::name);
+    var nodesPerAgent = getNodesPerAgent(decPOMDP);
+    output.writeInt(Math.toIntExact(countNodeCombinations(nodesPerAgent)));
+    forEachNodeCombination(nodesPerAgent, (indices, nodeCombination) -> {
+      for (var index : indices) output.writeInt(index);
+      for (var state : decPOMDP.getStates()) {
+        output.writeDouble(decPOMDP.hasValue(state, nodeCombination) ? decPOMDP.getValue(state, nodeCombination) : Double.NaN);
+      }
+    });
+  }
+
+  private void writeText(Writer output, IDecPOMDPWithStateController<?> decPOMDP) throws IOException {
+    output.write("agents: " + decPOMDP.getAgentCount() + "\n");
+    var nodeIndices = createNodeIndices(decPOMDP);
+    for (int i = 0; i < decPOMDP.getAgentCount(); i++) {
+      var agent = decPOMDP.getAgents().get(i);
+      var controller = agent.getController();
+      var nodes = controller.getNodes();
+      var actionIndices = createIndices(agent.getActions());
+      output.write("agent: " + agent.getName() + "\n");
+      writeNames(output, "actions:", agent.getActions(), Action::name);
+      writeNames(output, "observations:", agent.getObservations(), Observation::name);
+      output.write("nodes: " + nodes.size() + "\n");
+      output.write("initial:");
+      for (var initialNode : getInitialNodeIndices(agent, nodeIndices.get(i))) output.write(" " + initialNode);
+      output.write("\n");
+      for (var node : nodes) {
+        var actionSelection = controller.getActionSelection(node);
+        output.write("N: " + node.name() + " :");
+        for (var entry : actionSelection.entrySet()) {
+          output.write(" " + actionIndices.get(entry.getKey()) + " " + entry.getValue());
+        }
+        output.write("\n");
+      }
+      for (var node : nodes) {
+        var nodeIndex = nodeIndices.get(i).get(node);
+        for (var action : controller.getActionSelection(node).keySet()) {
+          for (int o = 0; o < agent.getObservations().size(); o++) {
+            var transition = controller.getTransition(node, action, agent.getObservations().get(o));
+            if (transition.isEmpty()) continue;
+            output.write("T: " + nodeIndex + " " + actionIndices.get(action) + " " + o + " :");
+            for (var followNode : transition.get().entrySet()) {
+              output.write(" " + nodeIndices.get(i).get(followNode.getKey()) + " " + followNode.getValue());
+            }
+            output.write("\n");
+          }
+        }
+      }
+    }
+    if (!includeValueFunction) return;
+    writeNames(output, "states:", decPOMDP.getStates(), State::name);
+    forEachNodeCombination(getNodesPerAgent(decPOMDP), (indices, nodeCombination) -> {
+      output.write("V:");
+      for (var index : indices) output.write(" " + index);
+      output.write(" :");
+      for (var state : decPOMDP.getStates()) {
+        var value = decPOMDP.hasValue(state, nodeCombination) ? decPOMDP.getValue(state, nodeCombination) : Double.NaN;
+        output.write(" " + value);
+      }
+      output.write("\n");
+    });
+  }
+
+  private static <T> void writeNames(DataOutput output, List<T> elements, Function<T, String> getName) throws IOException {
+    output.writeInt(elements.size());
+    for (var element : elements) output.writeUTF(getName.apply(element));
+  }
+
+  private static <T> void writeNames(Writer output, String keyword, List<T> elements, Function<T, String> getName) throws IOException {
+    output.write(keyword);
+    for (var element : elements) output.write(" " + getName.apply(element));
+    output.write("\n");
+  }
+
+  private static List<Integer> getInitialNodeIndices(IAgentWithStateController agent, Map<Node, Integer> nodeIndices) {
+    return agent.getInitialControllerNodes().stream()
+      .map(nodeIndices::get)
+      .filter(Objects::nonNull)
+      .sorted()
+      .toList();
+  }
+
+  private static List<Map<Node, Integer>> createNodeIndices(IDecPOMDPWithStateController<?> decPOMDP) {
+    return getNodesPerAgent(decPOMDP).stream()
+      .map(ControllerFileWriter::createIndices)
+      .toList();
+  }
+
+  private static List<List<Node>> getNodesPerAgent(IDecPOMDPWithStateController<?> decPOMDP) {
+    return decPOMDP.getAgents().stream()
+      .map(agent -> agent.getController().getNodes())
+      .toList();
+  }
+
+  private static long countNodeCombinations(List<List<Node>> nodesPerAgent) {
+    var numberOfNodeCombinations = 1L;
+    for (var nodes : nodesPerAgent) {
+      numberOfNodeCombinations = Math.multiplyExact(numberOfNodeCombinations, nodes.size());
+    }
+    return numberOfNodeCombinations;
+  }
+
+  /**
+   * Calls the consumer for each combination of the given nodes with the node index of each agent and the node combination.
+   * The indices are counted up like an odometer, so only the current combination is held in memory.
+   * The index array is reused for all combinations.
+   */
+  private static void forEachNodeCombination(List<List<Node>> nodesPerAgent, NodeCombinationConsumer consumer) throws IOException {
+    if (nodesPerAgent.stream().anyMatch(List::isEmpty)) return;
+    var indices = new int[nodesPerAgent.size()];
+    var agentIndex = 0;
+    while (agentIndex >= 0) {
+      var nodes = new ArrayList<Node>(indices.length);
+      for (int i = 0; i < indices.length; i++) nodes.add(nodesPerAgent.get(i).get(indices[i]));
+      consumer.accept(indices, Vector.of(nodes));
+
+      agentIndex = indices.length - 1;
+      while (agentIndex >= 0 && ++indices[agentIndex] == nodesPerAgent.get(agentIndex).size()) {
+        indices[agentIndex--] = 0;
+      }
+    }
+  }
+
+  private static <T> Map<T, Integer> createIndices(List<T> elements) {
+    var indices = new HashMap<T, Integer>(elements.size() * 2);
+    for (int i = 0; i < elements.size(); i++) {
+      indices.put(elements.get(i), i);
+    }
+    return indices;
+  }
+
+  private interface NodeCombinationConsumer {
+    void accept(int[] indices, Vector<Node> nodeCombination) throws IOException;
+  }
+
+  /**
+   * The formats, the controllers can be written in.
+   */
+  public enum Format {
+    BINARY,
+    TEXT
+  }
+}
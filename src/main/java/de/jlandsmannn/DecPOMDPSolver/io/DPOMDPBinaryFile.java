@@ -0,0 +1,381 @@
+package de.jlandsmannn.DecPOMDPSolver.io;
+
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.Action;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.Observation;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.State;
+import de.jlandsmannn.DecPOMDPSolver.domain.utility.Distribution;
+import de.jlandsmannn.DecPOMDPSolver.domain.utility.VectorCombinationBuilder;
+import de.jlandsmannn.DecPOMDPSolver.io.exceptions.ParsingFailedException;
+import de.jlandsmannn.DecPOMDPSolver.io.utility.DPOMDPRewardType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.ObjIntConsumer;
+import java.util.zip.CRC32C;
+
+/**
+ * This class writes and reads DecPOMDPs in a compact binary format,
+ * so they can be loaded without parsing the text format again.
+ * Ground DecPOMDPs use the extension .dpomdpb, isomorphic DecPOMDPs the extension .idpomdpb.
+ * All numbers are little-endian, strings are stored as number of bytes followed by their UTF-8 bytes.
+ * The file consists of
+ * <ul>
+ *   <li>a header with magic number, version, flags and discount factor,</li>
+ *   <li>a names table with the name, partition size, actions and observations of each agent, and the names of all states,</li>
+ *   <li>the initial belief state as indices and probabilities of its states,</li>
+ *   <li>the transitions, observations and rewards as compressed sparse rows,
+ *   i.e. the offsets of all rows followed by the column indices and values of all entries,</li>
+ *   <li>a CRC32C checksum of all preceding bytes.</li>
+ * </ul>
+ * The rows of the transitions are indexed by state and joint action, the rows of the observations by
+ * joint action and follow state, and the rows of the rewards by state, with one column per joint action.
+ * The joint indices follow the order of {@link VectorCombinationBuilder}.
+ * The file is written from the tables of a {@link DPOMDPStreamingParser} and read from a single memory-mapped buffer.
+ */
+public class DPOMDPBinaryFile {
+  private static final Logger LOG = LoggerFactory.getLogger(DPOMDPBinaryFile.class);
+  public static final String FILE_EXTENSION = ".dpomdpb";
+  public static final String ISOMORPHIC_FILE_EXTENSION = ".idpomdpb";
+  private static final int MAGIC_NUMBER = 0x424D5044;
+  private static final int VERSION = 1;
+  private static final int ISOMORPHIC_FLAG = 1;
+  private static final int BUFFER_SIZE = 1024 * 1024;
+
+  protected final DPOMDPSectionParser<?> sectionParser;
+
+  public DPOMDPBinaryFile(DPOMDPSectionParser<?> sectionParser) {
+    this.sectionParser = sectionParser;
+  }
+
+  /**
+   * @return whether the file has the extension of a binary ground or isomorphic DecPOMDP
+   */
+  public static boolean isBinaryFile(String fileName) {
+    return fileName.endsWith(FILE_EXTENSION) || fileName.endsWith(ISOMORPHIC_FILE_EXTENSION);
+  }
+
+  /**
+   * Writes the DecPOMDP, which was parsed by the {@link DPOMDPStreamingParser} into the section parser, to the given file.
+   * The file is written to a temporary file first and moved afterward,
+   * so an interrupted conversion never leaves a partially written file behind.
+   *
+   * @param file the file to write to
+   * @throws IOException           if the file could not be written
+   * @throws IllegalStateException if no entries have been parsed, or a transition or observation is missing
+   */
+  public void write(Path file) throws IOException {
+    var tables = sectionParser.tables;
+    if (tables == null) throw new IllegalStateException("DecPOMDP cannot be written, before its entries have been parsed.");
+    var directory = file.toAbsolutePath().getParent();
+    Files.createDirectories(directory);
+    var temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+    try (var channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      var output = new Output(channel);
+      writeHeaderAndNames(output);
+      writeInitialBeliefState(output);
+      writeRows(output, tables.getNumberOfStates() * tables.getNumberOfActionVectors(), (row, consumer) ->
+        tables.forEachTransition(row / tables.getNumberOfActionVectors(), row % tables.getNumberOfActionVectors(), consumer));
+      writeRows(output, tables.getNumberOfActionVectors() * tables.getNumberOfStates(), (row, consumer) ->
+        tables.forEachObservation(row / tables.getNumberOfStates(), row % tables.getNumberOfStates(), consumer));
+      var rewards = getRewards(tables);
+      writeRows(output, tables.getNumberOfStates(), (row, consumer) -> {
+        for (int actionVector = 0; actionVector < tables.getNumberOfActionVectors(); actionVector++) {
+          var reward = rewards[row * tables.getNumberOfActionVectors() + actionVector];
+          if (reward != 0D) consumer.accept(actionVector, reward);
+        }
+      });
+      output.finish();
+    } catch (UncheckedIOException e) {
+      Files.deleteIfExists(temporaryFile);
+      throw e.getCause();
+    } catch (RuntimeException e) {
+      Files.deleteIfExists(temporaryFile);
+      throw e;
+    }
+    Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    LOG.info("Wrote binary DecPOMDP to {}", file);
+  }
+
+  /**
+   * Reads the DecPOMDP from the given file by mapping it into memory at once,
+   * and puts it into the builder of the section parser.
+   *
+   * @param file the file to read from
+   * @throws IOException            if the file could not be read
+   * @throws ParsingFailedException if the file is corrupted, of another version, or does not fit the section parser
+   */
+  public void read(Path file) throws IOException {
+    try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      var size = channel.size();
+      if (size > Integer.MAX_VALUE) throw new ParsingFailedException("File " + file + " is too large to be mapped at once.");
+      read(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+    }
+    LOG.info("Read binary DecPOMDP from {}", file);
+  }
+
+  /**
+   * Reads the DecPOMDP from the remaining bytes of the given buffer,
+   * and puts it into the builder of the section parser.
+   *
+   * @param buffer the content of the binary file
+   * @throws ParsingFailedException if the content is corrupted, of another version, or does not fit the section parser
+   */
+  public void read(ByteBuffer buffer) {
+    var content = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+    try {
+      verifyChecksum(content);
+      readHeaderAndNames(content);
+      readInitialBeliefState(content);
+      sectionParser.gatherAgentsAndAddToBuilder();
+      readContent(content);
+    } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+      throw new ParsingFailedException("Binary DecPOMDP is corrupted: " + e.getMessage());
+    }
+  }
+
+  private void writeHeaderAndNames(Output output) {
+    var builder = sectionParser.builder;
+    var partitionSizes = sectionParser instanceof IDPOMDPSectionParser<?> isomorphicParser ? isomorphicParser.partitionSizes : null;
+    output.putInt(MAGIC_NUMBER);
+    output.putInt(VERSION);
+    output.putInt(partitionSizes != null ? ISOMORPHIC_FLAG : 0);
+    output.putDouble(builder.getDiscountFactor());
+    output.putInt(sectionParser.agentNames.size());
+    for (int i = 0; i < sectionParser.agentNames.size(); i++) {
+      output.putString(sectionParser.agentNames.get(i));
+      output.putInt(partitionSizes != null ? partitionSizes.get(i) : 1);
+      output.putStrings(sectionParser.agentActions.get(i).stream().map(Action::name).toList());
+      output.putStrings(sectionParser.agentObservations.get(i).stream().map(Observation::name).toList());
+    }
+    output.putStrings(builder.getStates().stream().map(State::name).toList());
+  }
+
+  private void writeInitialBeliefState(Output output) {
+    var states = sectionParser.builder.getStates();
+    var initialBeliefState = sectionParser.builder.getInitialBeliefState();
+    if (initialBeliefState == null) throw new IllegalStateException("DecPOMDP cannot be written without initial belief state.");
+    var stateIndices = new HashMap<State, Integer>(states.size() * 2);
+    for (int i = 0; i < states.size(); i++) stateIndices.put(states.get(i), i);
+    var entries = new ArrayList<>(initialBeliefState.entrySet());
+    output.putInt(entries.size());
+    for (var entry : entries) output.putInt(stateIndices.get(entry.getKey()));
+    for (var entry : entries) output.putDouble(entry.getValue());
+  }
+
+  /**
+   * Writes the rows as compressed sparse rows, which requires three passes over the rows.
+   */
+  private void writeRows(Output output, int numberOfRows, RowVisitor rows) {
+    var numberOfEntries = new long[1];
+    output.putInt(0);
+    for (int row = 0; row < numberOfRows; row++) {
+      rows.visit(row, (index, value) -> numberOfEntries[0]++);
+      if (numberOfEntries[0] > Integer.MAX_VALUE) throw new IllegalStateException("DecPOMDP has too many entries to be written.");
+      output.putInt((int) numberOfEntries[0]);
+    }
+    for (int row = 0; row < numberOfRows; row++) {
+      rows.visit(row, (index, value) -> output.putInt(index));
+    }
+    for (int row = 0; row < numberOfRows; row++) {
+      rows.visit(row, (index, value) -> output.putDouble(value));
+    }
+  }
+
+  private double[] getRewards(DPOMDPTables tables) {
+    var rewardFactor = sectionParser.rewardType == DPOMDPRewardType.COST ? -1D : 1D;
+    var rewards = new double[tables.getNumberOfStates() * tables.getNumberOfActionVectors()];
+    for (int state = 0; state < tables.getNumberOfStates(); state++) {
+      for (int actionVector = 0; actionVector < tables.getNumberOfActionVectors(); actionVector++) {
+        rewards[state * tables.getNumberOfActionVectors() + actionVector] = rewardFactor * tables.getReward(state, actionVector);
+      }
+    }
+    return rewards;
+  }
+
+  private void verifyChecksum(ByteBuffer content) {
+    if (content.limit() < 4) throw new ParsingFailedException("Binary DecPOMDP is empty.");
+    var checksum = new CRC32C();
+    checksum.update(content.duplicate().limit(content.limit() - 4));
+    if ((int) checksum.getValue() != content.getInt(content.limit() - 4)) {
+      throw new ParsingFailedException("Checksum of binary DecPOMDP does not match, the file is corrupted.");
+    }
+  }
+
+  private void readHeaderAndNames(ByteBuffer content) {
+    if (content.getInt() != MAGIC_NUMBER || content.getInt() != VERSION) {
+      throw new ParsingFailedException("File is no binary DecPOMDP of this version.");
+    }
+    var isIsomorphic = (content.getInt() & ISOMORPHIC_FLAG) != 0;
+    if (isIsomorphic && !(sectionParser instanceof IDPOMDPSectionParser)) {
+      throw new ParsingFailedException("File contains an isomorphic DecPOMDP, which cannot be loaded as ground DecPOMDP.");
+    }
+    sectionParser.builder.setDiscountFactor(content.getDouble());
+    var numberOfAgents = content.getInt();
+    var agentNames = new ArrayList<String>(numberOfAgents);
+    var partitionSizes = new ArrayList<Integer>(numberOfAgents);
+    var agentActions = new ArrayList<List<Action>>(numberOfAgents);
+    var agentObservations = new ArrayList<List<Observation>>(numberOfAgents);
+    for (int i = 0; i < numberOfAgents; i++) {
+      agentNames.add(getString(content));
+      partitionSizes.add(content.getInt());
+      agentActions.add(getStrings(content).stream().map(Action::from).toList());
+      agentObservations.add(getStrings(content).stream().map(Observation::from).toList());
+    }
+    sectionParser.agentNames = agentNames;
+    sectionParser.agentActions = agentActions;
+    sectionParser.agentObservations = agentObservations;
+    if (sectionParser instanceof IDPOMDPSectionParser<?> isomorphicParser) isomorphicParser.partitionSizes = partitionSizes;
+    sectionParser.builder.addStates(getStrings(content).stream().map(State::from).toList());
+  }
+
+  private void readInitialBeliefState(ByteBuffer content) {
+    var states = sectionParser.builder.getStates();
+    var numberOfEntries = content.getInt();
+    var indicesOffset = content.position();
+    var valuesOffset = indicesOffset + 4 * numberOfEntries;
+    var initialBeliefState = new HashMap<State, Double>(numberOfEntries * 2);
+    for (int i = 0; i < numberOfEntries; i++) {
+      initialBeliefState.put(states.get(content.getInt(indicesOffset + 4 * i)), content.getDouble(valuesOffset + 8 * i));
+    }
+    content.position(valuesOffset + 8 * numberOfEntries);
+    sectionParser.builder.setInitialBeliefState(Distribution.of(initialBeliefState));
+  }
+
+  private void readContent(ByteBuffer content) {
+    var builder = sectionParser.builder;
+    var states = builder.getStates();
+    var actionVectors = VectorCombinationBuilder.listOf(sectionParser.agentActions);
+    var observationVectors = VectorCombinationBuilder.listOf(sectionParser.agentObservations);
+    var numberOfActionVectors = actionVectors.size();
+    readDistributions(content, states.size() * numberOfActionVectors, states::get, (distribution, row) ->
+      builder.addTransition(states.get(row / numberOfActionVectors), actionVectors.get(row % numberOfActionVectors), distribution));
+    readDistributions(content, numberOfActionVectors * states.size(), observationVectors::get, (distribution, row) ->
+      builder.addObservation(actionVectors.get(row / states.size()), states.get(row % states.size()), distribution));
+
+    var pointersOffset = content.position();
+    var columnsOffset = pointersOffset + 4 * (states.size() + 1);
+    var valuesOffset = columnsOffset + 4 * content.getInt(columnsOffset - 4);
+    for (int state = 0; state < states.size(); state++) {
+      var rewards = new double[numberOfActionVectors];
+      var end = content.getInt(pointersOffset + 4 * (state + 1));
+      for (int entry = content.getInt(pointersOffset + 4 * state); entry < end; entry++) {
+        rewards[content.getInt(columnsOffset + 4 * entry)] = content.getDouble(valuesOffset + 8 * entry);
+      }
+      for (int actionVector = 0; actionVector < numberOfActionVectors; actionVector++) {
+        builder.addReward(states.get(state), actionVectors.get(actionVector), rewards[actionVector]);
+      }
+    }
+  }
+
+  /**
+   * Reads compressed sparse rows and passes each row as distribution to the consumer.
+   * The entries are read directly from the buffer, without copying the arrays first.
+   */
+  private <T> void readDistributions(ByteBuffer content, int numberOfRows, IntFunction<T> getElement, ObjIntConsumer<Distribution<T>> consumer) {
+    var pointersOffset = content.position();
+    var columnsOffset = pointersOffset + 4 * (numberOfRows + 1);
+    var numberOfEntries = content.getInt(columnsOffset - 4);
+    var valuesOffset = columnsOffset + 4 * numberOfEntries;
+    for (int row = 0; row < numberOfRows; row++) {
+      var start = content.getInt(pointersOffset + 4 * row);
+      var end = content.getInt(pointersOffset + 4 * (row + 1));
+      var map = new HashMap<T, Double>((end - start) * 2);
+      for (int entry = start; entry < end; entry++) {
+        map.put(getElement.apply(content.getInt(columnsOffset + 4 * entry)), content.getDouble(valuesOffset + 8 * entry));
+      }
+      consumer.accept(Distribution.of(map), row);
+    }
+    content.position(valuesOffset + 8 * numberOfEntries);
+  }
+
+  private static String getString(ByteBuffer content) {
+    var bytes = new byte[content.getInt()];
+    content.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static List<String> getStrings(ByteBuffer content) {
+    var numberOfStrings = content.getInt();
+    var strings = new ArrayList<String>(numberOfStrings);
+    for (int i = 0; i < numberOfStrings; i++) strings.add(getString(content));
+    return strings;
+  }
+
+  @FunctionalInterface
+  private interface RowVisitor {
+    void visit(int row, DPOMDPTables.EntryConsumer consumer);
+  }
+
+  /**
+   * Writes little-endian numbers through a buffer to the channel and computes the checksum of all written bytes.
+   */
+  private static class Output {
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final CRC32C checksum = new CRC32C();
+
+    Output(FileChannel channel) {
+      this.channel = channel;
+    }
+
+    void putInt(int value) {
+      if (buffer.remaining() < Integer.BYTES) flush();
+      buffer.putInt(value);
+    }
+
+    void putDouble(double value) {
+      if (buffer.remaining() < Double.BYTES) flush();
+      buffer.putDouble(value);
+    }
+
+    void putString(String value) {
+      var bytes = value.getBytes(StandardCharsets.UTF_8);
+      putInt(bytes.length);
+      for (int offset = 0; offset < bytes.length; ) {
+        if (!buffer.hasRemaining()) flush();
+        var length = Math.min(buffer.remaining(), bytes.length - offset);
+        buffer.put(bytes, offset, length);
+        offset += length;
+      }
+    }
+
+    void putStrings(List<String> values) {
+      putInt(values.size());
+      values.forEach(this::putString);
+    }
+
+    /**
+     * Writes the checksum of all previously written bytes and flushes the buffer.
+     */
+    void finish() {
+      flush();
+      buffer.putInt((int) checksum.getValue());
+      flush();
+    }
+
+    private void flush() {
+      buffer.flip();
+      checksum.update(buffer.duplicate());
+      try {
+        while (buffer.hasRemaining()) channel.write(buffer);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      buffer.clear();
+    }
+  }
+}
@@ -0,0 +1,22 @@
+package de.jlandsmannn.DecPOMDPSolver.io;
+
+/**
+ * This interface describes a target for the transition, observation and reward entries of a .dpomdp file,
+ * which were resolved to the indices of states, joint actions and joint observations by the {@link DPOMDPStreamingParser}.
+ * Sets of indices stand for all their combinations, e.g. because of wildcards.
+ * The given arrays may be shared with other entries and must not be modified.
+ */
+public interface DPOMDPEntryCollector {
+
+  void putTransitions(int[] states, int[] actionVectors, int[] followStates, double probability);
+
+  void putTransitionRows(int[] states, int[] actionVectors, double[] probabilities);
+
+  void putObservations(int[] actionVectors, int[] followStates, int[] observationVectors, double probability);
+
+  void putObservationRows(int[] actionVectors, int[] followStates, double[] probabilities);
+
+  void putRewards(int[] states, int[] actionVectors, int[] followStates, int[] observationVectors, double reward);
+
+  void putRewardRows(int[] states, int[] actionVectors, int[] followStates, double[] rewards);
+}
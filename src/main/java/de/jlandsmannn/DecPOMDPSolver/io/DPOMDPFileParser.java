@@ -6,15 +6,19 @@ import de.jlandsmannn.DecPOMDPSolver.domain.parsing.IDecPOMDPParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Optional;
 
 /**
- * This class handles the parsing of a .dpomdp file,
- * by reading the file line by line and stacking those lines
+ * This class handles the parsing of a .dpomdp file.
+ * By default, the file is memory-mapped and parsed token by token by the {@link DPOMDPStreamingParser}.
+ * Alternatively, it can be parsed by reading the file line by line and stacking those lines
  * until a new section is found, so the former one is complete.
  * When this happens, the former section is parsed by the {@link IDPOMDPSectionParser}.
  * At the end of the file, the current section is also parsed,
  * as it can be seen as complete.
+ * Files ending with .gz are decompressed while they are parsed.
  * The given filename can be a path either inside the resources directory
  * or relative to the directory, where the program is executed.
  */
@@ -22,17 +26,54 @@ public class DPOMDPFileParser<BUILDER extends DecPOMDPBuilder<?, ?, ?>> extends
   private static final Logger LOG = LoggerFactory.getLogger(DPOMDPFileParser.class);
 
   protected BUILDER builder;
+  protected boolean useStreamingParser = true;
 
   public static Optional<DecPOMDPWithStateControllerBuilder> parseDecPOMDP(String fileName) {
     var parser = new DPOMDPFileParser<>(new DecPOMDPWithStateControllerBuilder());
     return parser.parse(fileName);
   }
 
+  public static void convertDecPOMDP(String fileName, Path targetFile) throws IOException {
+    var parser = new DPOMDPFileParser<>(new DecPOMDPWithStateControllerBuilder());
+    parser.convert(fileName, targetFile);
+  }
+
   protected DPOMDPFileParser(BUILDER builder) {
     super(new DPOMDPSectionParser<>(builder));
     this.builder = builder;
   }
 
+  /**
+   * Reads binary files by the {@link DPOMDPBinaryFile}.
+   * Other files are parsed, memory-mapped or decompressed on the fly if they end with .gz, by the {@link DPOMDPStreamingParser}, unless disabled.
+   * Otherwise, the file is parsed line by line and section by section.
+   */
+  @Override
+  protected void tryParse(String fileName) throws IOException {
+    if (DPOMDPBinaryFile.isBinaryFile(fileName)) {
+      new DPOMDPBinaryFile((DPOMDPSectionParser<?>) super.sectionParser).read(resolveFile(fileName));
+      return;
+    }
+    if (!useStreamingParser) {
+      super.tryParse(fileName);
+      return;
+    }
+    parseStreaming(new DPOMDPStreamingParser((DPOMDPSectionParser<?>) super.sectionParser), fileName);
+    super.sectionParser.gatherData();
+  }
+
+  /**
+   * Parses the given .dpomdp file, which may be gzip-compressed, and writes it to the target file in the binary format of {@link DPOMDPBinaryFile}.
+   *
+   * @param fileName   the file to convert
+   * @param targetFile the binary file to write
+   * @throws IOException if the file could not be read or written
+   */
+  public void convert(String fileName, Path targetFile) throws IOException {
+    parseStreaming(new DPOMDPStreamingParser((DPOMDPSectionParser<?>) super.sectionParser), fileName);
+    new DPOMDPBinaryFile((DPOMDPSectionParser<?>) super.sectionParser).write(targetFile);
+  }
+
   public Optional<BUILDER> parse(String fileName) {
     try {
       tryParse(fileName);
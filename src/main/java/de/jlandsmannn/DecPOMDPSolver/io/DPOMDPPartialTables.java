@@ -0,0 +1,61 @@
+package de.jlandsmannn.DecPOMDPSolver.io;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * This class collects the entries of a part of a .dpomdp file, while it is parsed concurrently to the other parts.
+ * As later entries may overwrite or complete earlier ones, the entries cannot be merged independently of their order.
+ * Instead, they are recorded in the order of the file and applied to the {@link DPOMDPTables} later,
+ * after all parts before have been applied.
+ * Transitions, observations and rewards are recorded separately,
+ * since they are stored independently and can be applied concurrently.
+ */
+public class DPOMDPPartialTables implements DPOMDPEntryCollector {
+  private final List<Consumer<DPOMDPTables>> transitionEntries = new ArrayList<>();
+  private final List<Consumer<DPOMDPTables>> observationEntries = new ArrayList<>();
+  private final List<Consumer<DPOMDPTables>> rewardEntries = new ArrayList<>();
+
+  @Override
+  public void putTransitions(int[] states, int[] actionVectors, int[] followStates, double probability) {
+    transitionEntries.add(tables -> tables.putTransitions(states, actionVectors, followStates, probability));
+  }
+
+  @Override
+  public void putTransitionRows(int[] states, int[] actionVectors, double[] probabilities) {
+    transitionEntries.add(tables -> tables.putTransitionRows(states, actionVectors, probabilities));
+  }
+
+  @Override
+  public void putObservations(int[] actionVectors, int[] followStates, int[] observationVectors, double probability) {
+    observationEntries.add(tables -> tables.putObservations(actionVectors, followStates, observationVectors, probability));
+  }
+
+  @Override
+  public void putObservationRows(int[] actionVectors, int[] followStates, double[] probabilities) {
+    observationEntries.add(tables -> tables.putObservationRows(actionVectors, followStates, probabilities));
+  }
+
+  @Override
+  public void putRewards(int[] states, int[] actionVectors, int[] followStates, int[] observationVectors, double reward) {
+    rewardEntries.add(tables -> tables.putRewards(states, actionVectors, followStates, observationVectors, reward));
+  }
+
+  @Override
+  public void putRewardRows(int[] states, int[] actionVectors, int[] followStates, double[] rewards) {
+    rewardEntries.add(tables -> tables.putRewardRows(states, actionVectors, followStates, rewards));
+  }
+
+  public void applyTransitionsTo(DPOMDPTables tables) {
+    transitionEntries.forEach(entry -> entry.accept(tables));
+  }
+
+  public void applyObservationsTo(DPOMDPTables tables) {
+    observationEntries.forEach(entry -> entry.accept(tables));
+  }
+
+  public void applyRewardsTo(DPOMDPTables tables) {
+    rewardEntries.forEach(entry -> entry.accept(tables));
+  }
+}
@@ -40,6 +40,7 @@ public class DPOMDPSectionParser<BUILDER extends DecPOMDPBuilder<?, ?, ?>> imple
   protected Map<State, Map<Vector<Action>, Map<State, Double>>> transitions = new HashMap<>();
   protected Map<State, Map<Vector<Action>, Map<State, Map<Vector<Observation>, Double>>>> rewards = new HashMap<>();
   protected Map<Vector<Action>, Map<State, Map<Vector<Observation>, Double>>> observations = new HashMap<>();
+  protected DPOMDPTables tables;
 
   public DPOMDPSectionParser(BUILDER builder) {
     this.builder = builder;
@@ -170,6 +171,10 @@ public class DPOMDPSectionParser<BUILDER extends DecPOMDPBuilder<?, ?, ?>> imple
 
   protected void gatherDataAndAddToBuilder() {
     gatherAgentsAndAddToBuilder();
+    if (tables != null) {
+      gatherTablesAndAddToBuilder();
+      return;
+    }
     gatherTransitionsAndAddToBuilder();
     gatherObservationsAndAddToBuilder();
     gatherRewardsAndAddToBuilder();
@@ -189,6 +194,16 @@ public class DPOMDPSectionParser<BUILDER extends DecPOMDPBuilder<?, ?, ?>> imple
     }
   }
 
+  /**
+   * Adds the entries, that were written directly into tables by the {@link DPOMDPStreamingParser}, to the builder.
+   */
+  protected void gatherTablesAndAddToBuilder() {
+    var actionCombinations = VectorCombinationBuilder.listOf(agentActions);
+    var observationCombinations = VectorCombinationBuilder.listOf(agentObservations);
+    var rewardFactor = rewardType == DPOMDPRewardType.COST ? -1D : 1D;
+    tables.addToBuilder(builder, actionCombinations, observationCombinations, rewardFactor);
+  }
+
   protected void gatherTransitionsAndAddToBuilder() {
     var actionCombinations = VectorCombinationBuilder.listOf(agentActions);
     for (var state : builder.getStates()) {
@@ -222,23 +237,67 @@ public class DPOMDPSectionParser<BUILDER extends DecPOMDPBuilder<?, ?, ?>> imple
 
   protected void gatherRewardsAndAddToBuilder() {
     var actionCombinations = VectorCombinationBuilder.listOf(agentActions);
-    var observationCombination = VectorCombinationBuilder.listOf(agentObservations);
+    var observationCombinations = VectorCombinationBuilder.listOf(agentObservations);
 
     for (var state : builder.getStates()) {
       var actionMap = rewards.getOrDefault(state, Map.of());
       for (var actionVector : actionCombinations) {
         var transitionMap = actionMap.getOrDefault(actionVector, Map.of());
-        for (var followState : builder.getStates()) {
-          var observationMap = transitionMap.getOrDefault(followState, Map.of());
-          for (var observationVector : observationCombination) {
-            var reward = observationMap.getOrDefault(observationVector, 0D);
-            if (rewardType == DPOMDPRewardType.COST) reward *= -1;
-            builder.addReward(state, actionVector, reward);
-          }
+        var reward = getExpectedReward(state, actionVector, transitionMap, observationCombinations);
+        if (rewardType == DPOMDPRewardType.COST) reward *= -1;
+        builder.addReward(state, actionVector, reward);
+      }
+    }
+  }
+
+  /**
+   * Calculates the reward for the given state and joint action from the rewards of its follow states and joint observations.
+   * If all follow states and joint observations have the same reward, it is returned directly.
+   * Otherwise, the rewards are weighted by the probabilities of the follow states and joint observations,
+   * like {@link DPOMDPTables#getReward(int, int)} does for the streaming parser.
+   * Rewards, which were never set, count as zero.
+   */
+  protected double getExpectedReward(State state,
+                                     Vector<Action> actionVector,
+                                     Map<State, Map<Vector<Observation>, Double>> transitionMap,
+                                     List<Vector<Observation>> observationCombinations) {
+    var states = builder.getStates();
+    var uniformReward = getUniformReward(transitionMap, states, observationCombinations);
+    if (uniformReward.isPresent()) return uniformReward.get();
+
+    var transitionProbabilities = transitions.getOrDefault(state, Map.of()).getOrDefault(actionVector, Map.of());
+    var stateMap = observations.getOrDefault(actionVector, Map.of());
+    var expectedReward = 0D;
+    for (var followState : states) {
+      var transitionProbability = transitionProbabilities.getOrDefault(followState, 0D);
+      var observationProbabilities = stateMap.get(followState);
+      if (transitionProbability == 0D || observationProbabilities == null) continue;
+      var observationMap = transitionMap.getOrDefault(followState, Map.of());
+      for (var observationVector : observationCombinations) {
+        var reward = observationMap.get(observationVector);
+        if (reward == null) continue;
+        expectedReward += transitionProbability * observationProbabilities.getOrDefault(observationVector, 0D) * reward;
+      }
+    }
+    return expectedReward;
+  }
 
+  private Optional<Double> getUniformReward(Map<State, Map<Vector<Observation>, Double>> transitionMap,
+                                            List<State> states,
+                                            List<Vector<Observation>> observationCombinations) {
+    Double uniformReward = null;
+    for (var followState : states) {
+      var observationMap = transitionMap.get(followState);
+      if (observationMap == null) return Optional.empty();
+      for (var observationVector : observationCombinations) {
+        var reward = observationMap.get(observationVector);
+        if (reward == null || (uniformReward != null && reward.doubleValue() != uniformReward.doubleValue())) {
+          return Optional.empty();
         }
+        uniformReward = reward;
       }
     }
+    return Optional.ofNullable(uniformReward);
   }
 
 }
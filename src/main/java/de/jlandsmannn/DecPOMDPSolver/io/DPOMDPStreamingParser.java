@@ -0,0 +1,860 @@
+package de.jlandsmannn.DecPOMDPSolver.io;
+
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.Action;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.Observation;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.State;
+import de.jlandsmannn.DecPOMDPSolver.domain.utility.Distribution;
+import de.jlandsmannn.DecPOMDPSolver.io.exceptions.ParsingFailedException;
+import de.jlandsmannn.DecPOMDPSolver.io.utility.DPOMDPRewardType;
+import de.jlandsmannn.DecPOMDPSolver.io.utility.DPOMDPSectionKeyword;
+import de.jlandsmannn.DecPOMDPSolver.io.utility.DPOMDPTokenizer;
+import de.jlandsmannn.DecPOMDPSolver.io.utility.DPOMDPTokenizer.TokenType;
+import de.jlandsmannn.DecPOMDPSolver.io.utility.SectionKeyword;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static de.jlandsmannn.DecPOMDPSolver.io.utility.DPOMDPCommonKeyword.*;
+import static de.jlandsmannn.DecPOMDPSolver.io.utility.DPOMDPStartKeyword.EXCLUDE;
+import static de.jlandsmannn.DecPOMDPSolver.io.utility.DPOMDPStartKeyword.INCLUDE;
+
+/**
+ * This parser reads a .dpomdp file in a single pass by recursive descent
+ * over the tokens provided by the {@link DPOMDPTokenizer}.
+ * Unlike the {@link SectionBasedFileParser}, it neither collects sections as strings,
+ * nor matches them against regular expressions.
+ * The header sections are handed to a {@link DPOMDPSectionParser},
+ * while the transition, observation and reward entries are resolved to indices
+ * and written directly into {@link DPOMDPTables}, which the section parser adds to the builder when gathering its data.
+ * Wildcards are passed on as sets of indices, so the tables can keep them as default rules instead of expanding them.
+ * Later entries overwrite earlier ones in the same way as in the section parsers,
+ * which serve as reference implementation of the format.
+ * Large memory-mapped files are parsed in two phases: the header sections are parsed sequentially,
+ * while the entries are split into chunks and parsed concurrently, see {@link #parseEntriesConcurrently}.
+ */
+public class DPOMDPStreamingParser {
+  private static final Logger LOG = LoggerFactory.getLogger(DPOMDPStreamingParser.class);
+  private static final int DEFAULT_MINIMUM_CHUNK_SIZE = 1 << 20;
+  private static final int CHUNKS_PER_PROCESSOR = 4;
+
+  protected final DPOMDPSectionParser<?> target;
+  protected final List<SectionKeyword> keywords;
+  protected DPOMDPTokenizer tokenizer;
+  protected boolean parallel = true;
+  protected int minimumChunkSize = DEFAULT_MINIMUM_CHUNK_SIZE;
+
+  private final Map<Integer, int[]> allIndices = new HashMap<>();
+  private Map<String, Integer> stateIndicesByName;
+  private List<Map<String, Integer>> actionIndicesByName;
+  private List<Map<String, Integer>> observationIndicesByName;
+
+  public DPOMDPStreamingParser(DPOMDPSectionParser<?> target) {
+    this.target = target;
+    this.keywords = List.copyOf(target.getSectionKeywords());
+  }
+
+  /**
+   * Sets whether the entries of large memory-mapped files are parsed concurrently.
+   */
+  public DPOMDPStreamingParser setParallel(boolean parallel) {
+    this.parallel = parallel;
+    return this;
+  }
+
+  /**
+   * Sets the minimal number of bytes per chunk, when parsing entries concurrently.
+   * Files with less than two chunks of entries are parsed sequentially.
+   */
+  public DPOMDPStreamingParser setMinimumChunkSize(int minimumChunkSize) {
+    if (minimumChunkSize <= 0) throw new IllegalArgumentException("Minimum chunk size must be greater than zero.");
+    this.minimumChunkSize = minimumChunkSize;
+    return this;
+  }
+
+  /**
+   * Parses the given file, which is memory-mapped if possible, so it is read without copying it into strings.
+   * Files exceeding the maximal size of a mapping are streamed instead.
+   *
+   * @param file the .dpomdp file to parse
+   * @throws IOException            if the file cannot be read
+   * @throws ParsingFailedException if the file does not conform to the .dpomdp file format
+   */
+  public void parse(Path file) throws IOException {
+    try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      var size = channel.size();
+      if (size <= Integer.MAX_VALUE) {
+        LOG.debug("Memory-mapping {} bytes of file {}", size, file);
+        parse(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+      } else {
+        LOG.debug("File {} is too large to be mapped at once, streaming it.", file);
+        parse(Channels.newInputStream(channel));
+      }
+    }
+  }
+
+  /**
+   * Parses all sections from the remaining bytes of the given buffer.
+   *
+   * @param buffer the content of the .dpomdp file
+   * @throws ParsingFailedException if the file does not conform to the .dpomdp file format
+   */
+  public void parse(ByteBuffer buffer) {
+    var tokenizer = new DPOMDPTokenizer(buffer);
+    if (!parallel || buffer.remaining() < 2L * minimumChunkSize) {
+      parse(tokenizer);
+      return;
+    }
+    this.tokenizer = tokenizer;
+    parseSections(true);
+    if (tokenizer.getType() != TokenType.END) {
+      parseEntriesConcurrently(buffer, tokenizer.getPosition(), tokenizer.getLine());
+    }
+  }
+
+  /**
+   * Parses all sections from the given stream.
+   *
+   * @param input the stream to read the .dpomdp file from
+   * @throws ParsingFailedException if the file does not conform to the .dpomdp file format
+   */
+  public void parse(InputStream input) {
+    parse(new DPOMDPTokenizer(input));
+  }
+
+  /**
+   * Parses all sections provided by the tokenizer and hands them to the section parser.
+   * The data is not gathered afterward, so the caller has to call {@link DPOMDPSectionParser#gatherData()}.
+   */
+  protected void parse(DPOMDPTokenizer tokenizer) {
+    this.tokenizer = tokenizer;
+    parseSections(false);
+    LOG.info("Reached end of file after {} lines.", tokenizer.getLine());
+  }
+
+  /**
+   * Parses the sections provided by the tokenizer until the end, or until the first entry if requested.
+   *
+   * @param stopAtFirstEntry whether to stop in front of the keyword of the first entry
+   */
+  protected void parseSections(boolean stopAtFirstEntry) {
+    while (tokenizer.getType() != TokenType.END) {
+      var keyword = readKeyword();
+      if (stopAtFirstEntry && isEntryKeyword(keyword)) return;
+      tokenizer.advance();
+      parseSection(keyword);
+    }
+  }
+
+  /**
+   * Parses the entries from the given position to the end of the buffer concurrently.
+   * The buffer is split into chunks, each starting with an entry at the beginning of a line,
+   * and every chunk is parsed into its own {@link DPOMDPPartialTables}.
+   * Afterward, the partial tables are applied in the order of the file,
+   * so later entries overwrite earlier ones exactly as if the file was parsed sequentially.
+   * Other sections between the entries are skipped by the chunks and parsed sequentially at the end,
+   * as the entries do not depend on them.
+   *
+   * @param buffer the content of the .dpomdp file
+   * @param start  the position of the first entry
+   * @param line   the line of the first entry
+   * @throws ParsingFailedException if the file does not conform to the .dpomdp file format
+   */
+  protected void parseEntriesConcurrently(ByteBuffer buffer, int start, int line) {
+    var tables = getTables();
+    var bounds = splitIntoChunks(buffer, start);
+    var numberOfChunks = bounds.length - 1;
+    var linesPerChunk = IntStream.range(0, numberOfChunks).parallel()
+      .map(i -> countLines(buffer, bounds[i], bounds[i + 1]))
+      .toArray();
+    var firstLines = new int[numberOfChunks];
+    firstLines[0] = line;
+    for (int i = 1; i < numberOfChunks; i++) firstLines[i] = firstLines[i - 1] + linesPerChunk[i - 1];
+    LOG.debug("Parsing entries of {} bytes in {} chunks concurrently.", buffer.limit() - start, numberOfChunks);
+
+    var chunks = IntStream.range(0, numberOfChunks).parallel()
+      .mapToObj(i -> parseChunk(buffer, bounds[i], bounds[i + 1], firstLines[i]))
+      .toList();
+    for (var chunk : chunks) {
+      if (chunk.failure != null) throw chunk.failure;
+    }
+    Stream.<Consumer<DPOMDPPartialTables>>of(
+        entries -> entries.applyTransitionsTo(tables),
+        entries -> entries.applyObservationsTo(tables),
+        entries -> entries.applyRewardsTo(tables))
+      .parallel()
+      .forEach(apply -> chunks.forEach(chunk -> apply.accept(chunk.entries)));
+    for (var chunk : chunks) {
+      for (var section : chunk.skippedSections) {
+        this.tokenizer = new DPOMDPTokenizer(buffer.duplicate().position(section.start()).limit(section.end()), section.line());
+        parseSections(false);
+      }
+    }
+    LOG.info("Reached end of file after {} lines.", firstLines[numberOfChunks - 1] + linesPerChunk[numberOfChunks - 1]);
+  }
+
+  /**
+   * Returns the target of the entries, which are the tables of the section parser by default.
+   */
+  protected DPOMDPEntryCollector getEntryCollector() {
+    return getTables();
+  }
+
+  /**
+   * Reads the keyword of the next section without consuming it.
+   *
+   * @throws ParsingFailedException if the current token is no section keyword at the beginning of a line
+   */
+  protected SectionKeyword readKeyword() {
+    if (!tokenizer.isAtLineStart() || tokenizer.getType() != TokenType.WORD) {
+      throw tokenizer.unexpectedToken("section keyword at beginning of line");
+    }
+    return findKeyword().orElseThrow(() -> tokenizer.unexpectedToken("section keyword"));
+  }
+
+  protected Optional<SectionKeyword> findKeyword() {
+    for (var keyword : keywords) {
+      if (tokenizer.hasText(keyword.getKeyword())) return Optional.of(keyword);
+    }
+    return Optional.empty();
+  }
+
+  protected void parseSection(SectionKeyword keyword) {
+    if (!(keyword instanceof DPOMDPSectionKeyword)) {
+      throw new ParsingFailedException("Section '" + keyword + "' is not supported by this parser.");
+    }
+    switch ((DPOMDPSectionKeyword) keyword) {
+      case AGENTS -> parseAgents();
+      case DISCOUNT -> parseDiscount();
+      case REWARD_TYPE -> parseRewardType();
+      case STATES -> parseStates();
+      case START -> parseStart();
+      case ACTIONS -> parseActions();
+      case OBSERVATIONS -> parseObservations();
+      case TRANSITION_ENTRY -> parseTransitionEntry();
+      case REWARD_ENTRY -> parseRewardEntry();
+      case OBSERVATION_ENTRY -> parseObservationEntry();
+      case COMMENT -> {
+      }
+    }
+  }
+
+  protected void parseAgents() {
+    LOG.debug("Parsing 'agents' section.");
+    tokenizer.expectColon();
+    if (tokenizer.isInteger() && !tokenizer.isAtLineStart()) {
+      var agentCount = readCount("agentCount");
+      LOG.debug("Found number of agents, creating {} agents with generic names.", agentCount);
+      target.agentNames = IntStream.range(0, agentCount).mapToObj(i -> "A" + i).toList();
+    } else {
+      target.agentNames = readLine("agent name");
+      LOG.debug("Found custom names of agents, creating {} agents with given names.", target.agentNames.size());
+    }
+  }
+
+  protected void parseDiscount() {
+    LOG.debug("Parsing 'discount' section.");
+    tokenizer.expectColon();
+    var discount = readProbability("discount");
+    LOG.debug("Found discount factor: {}", discount);
+    target.builder.setDiscountFactor(discount);
+  }
+
+  protected void parseRewardType() {
+    LOG.debug("Parsing 'value' section.");
+    tokenizer.expectColon();
+    if (tokenizer.hasText(DPOMDPRewardType.REWARD.getKeyword())) {
+      target.rewardType = DPOMDPRewardType.REWARD;
+    } else if (tokenizer.hasText(DPOMDPRewardType.COST.getKeyword())) {
+      target.rewardType = DPOMDPRewardType.COST;
+    } else {
+      throw tokenizer.unexpectedToken("'reward' or 'cost'");
+    }
+    tokenizer.advance();
+    LOG.debug("Found reward type: {}", target.rewardType);
+  }
+
+  protected void parseStates() {
+    LOG.debug("Parsing 'states' section.");
+    tokenizer.expectColon();
+    List<State> states;
+    if (tokenizer.isInteger() && !tokenizer.isAtLineStart()) {
+      var stateCount = readCount("stateCount");
+      LOG.debug("Found number of states, creating {} states with generic names.", stateCount);
+      states = IntStream.range(0, stateCount).mapToObj(i -> "S" + i).map(State::from).toList();
+    } else {
+      states = readLine("state name").stream().map(State::from).toList();
+      LOG.debug("Found custom names of states, creating {} states with given names.", states.size());
+    }
+    assertNoEntryParsed("states");
+    target.builder.addStates(states);
+    stateIndicesByName = null;
+  }
+
+  protected void parseStart() {
+    LOG.debug("Parsing 'start' section.");
+    var states = getStatesOrThrow("start");
+    if (tokenizer.hasText(INCLUDE.getKeyword()) || tokenizer.hasText(EXCLUDE.getKeyword())) {
+      var include = tokenizer.hasText(INCLUDE.getKeyword());
+      tokenizer.advance();
+      tokenizer.expectColon();
+      var listedStates = new ArrayList<>(readStates());
+      while (!tokenizer.isAtLineStart()) {
+        listedStates.addAll(readStates());
+      }
+      var statesToInclude = listedStates;
+      if (!include) {
+        statesToInclude = new ArrayList<>(states);
+        statesToInclude.removeAll(listedStates);
+      }
+      target.builder.setInitialBeliefState(Distribution.createUniformDistribution(statesToInclude));
+      return;
+    }
+    tokenizer.expectColon();
+    if (tokenizer.hasText(UNIFORM.getKeyword())) {
+      tokenizer.advance();
+      target.builder.setInitialBeliefState(Distribution.createUniformDistribution(states));
+    } else if (tokenizer.getType() == TokenType.WORD && !tokenizer.isAtLineStart()) {
+      var state = readState();
+      target.builder.setInitialBeliefState(Distribution.createSingleEntryDistribution(state));
+    } else if (tokenizer.isInteger() && !tokenizer.isAtLineStart() && states.size() > 1) {
+      var state = readState();
+      target.builder.setInitialBeliefState(Distribution.createSingleEntryDistribution(state));
+    } else {
+      var distribution = readStateDistribution(states);
+      target.builder.setInitialBeliefState(Distribution.of(distribution));
+    }
+  }
+
+  protected void parseActions() {
+    LOG.debug("Parsing 'actions' section.");
+    var agentNames = getAgentNamesOrThrow("actions");
+    tokenizer.expectColon();
+    var agentActions = new ArrayList<List<Action>>();
+    for (var agentName : agentNames) {
+      if (tokenizer.isInteger()) {
+        var numberOfActions = readCount("number of actions");
+        agentActions.add(IntStream.range(0, numberOfActions).mapToObj(idx -> agentName + "-A" + idx).map(Action::from).toList());
+      } else {
+        agentActions.add(readLine("action name").stream().map(Action::from).toList());
+      }
+    }
+    assertNoEntryParsed("actions");
+    target.agentActions = agentActions;
+    actionIndicesByName = null;
+  }
+
+  protected void parseObservations() {
+    LOG.debug("Parsing 'observations' section.");
+    var agentNames = getAgentNamesOrThrow("observations");
+    tokenizer.expectColon();
+    var agentObservations = new ArrayList<List<Observation>>();
+    for (var agentName : agentNames) {
+      if (tokenizer.isInteger()) {
+        var numberOfObservations = readCount("number of observations");
+        agentObservations.add(IntStream.range(0, numberOfObservations).mapToObj(idx -> agentName + "-O" + idx).map(Observation::from).toList());
+      } else {
+        agentObservations.add(readLine("observation name").stream().map(Observation::from).toList());
+      }
+    }
+    assertNoEntryParsed("observations");
+    target.agentObservations = agentObservations;
+    observationIndicesByName = null;
+  }
+
+  protected void parseTransitionEntry() {
+    getStatesOrThrow("T");
+    assertActionsSet("T");
+    var tables = getTables();
+    var entries = getEntryCollector();
+    var allStates = getAllIndices(tables.getNumberOfStates());
+    tokenizer.expectColon();
+    var actionVectors = readActionVectorIndices();
+    if (!tokenizer.isAtLineStart()) {
+      var startStates = readStateIndices();
+      if (tokenizer.getType() == TokenType.COLON) {
+        tokenizer.advance();
+        var endStates = readStateIndices();
+        tokenizer.expectColon();
+        var probability = readProbability("probability");
+        entries.putTransitions(startStates, actionVectors, endStates, probability);
+      } else {
+        var probabilities = readStateDistribution(tables.getNumberOfStates());
+        entries.putTransitionRows(startStates, actionVectors, probabilities);
+      }
+    } else if (tokenizer.hasText(UNIFORM.getKeyword())) {
+      tokenizer.advance();
+      entries.putTransitionRows(allStates, actionVectors, createUniformValues(tables.getNumberOfStates()));
+    } else if (tokenizer.hasText(IDENTITY.getKeyword())) {
+      tokenizer.advance();
+      for (var startState : allStates) {
+        var state = new int[]{startState};
+        entries.putTransitions(state, actionVectors, state, 1D);
+      }
+    } else {
+      for (var startState : allStates) {
+        var probabilities = readStateDistribution(tables.getNumberOfStates());
+        entries.putTransitionRows(new int[]{startState}, actionVectors, probabilities);
+      }
+    }
+  }
+
+  protected void parseObservationEntry() {
+    getStatesOrThrow("O");
+    assertActionsSet("O");
+    assertObservationsSet("O");
+    var tables = getTables();
+    var entries = getEntryCollector();
+    var allStates = getAllIndices(tables.getNumberOfStates());
+    tokenizer.expectColon();
+    var actionVectors = readActionVectorIndices();
+    if (!tokenizer.isAtLineStart()) {
+      var endStates = readStateIndices();
+      if (tokenizer.getType() == TokenType.COLON) {
+        tokenizer.advance();
+        var observationVectors = readObservationVectorIndices();
+        var probability = readProbability("probability");
+        entries.putObservations(actionVectors, endStates, observationVectors, probability);
+      } else {
+        var probabilities = readObservationVectorValues(true);
+        entries.putObservationRows(actionVectors, endStates, probabilities);
+      }
+    } else if (tokenizer.hasText(UNIFORM.getKeyword())) {
+      tokenizer.advance();
+      entries.putObservationRows(actionVectors, allStates, createUniformValues(tables.getNumberOfObservationVectors()));
+    } else {
+      for (var endState : allStates) {
+        var probabilities = readObservationVectorValues(true);
+        entries.putObservationRows(actionVectors, new int[]{endState}, probabilities);
+      }
+    }
+  }
+
+  protected void parseRewardEntry() {
+    getStatesOrThrow("R");
+    assertActionsSet("R");
+    assertObservationsSet("R");
+    var tables = getTables();
+    var entries = getEntryCollector();
+    tokenizer.expectColon();
+    var actionVectors = readActionVectorIndices();
+    var startStates = readStateIndices();
+    tokenizer.expectColon();
+    if (!tokenizer.isAtLineStart()) {
+      var endStates = readStateIndices();
+      if (tokenizer.getType() == TokenType.COLON) {
+        tokenizer.advance();
+        var observationVectors = readObservationVectorIndices();
+        var reward = readNumber("reward");
+        entries.putRewards(startStates, actionVectors, endStates, observationVectors, reward);
+      } else {
+        var rewards = readObservationVectorValues(false);
+        entries.putRewardRows(startStates, actionVectors, endStates, rewards);
+      }
+    } else {
+      for (var endState : getAllIndices(tables.getNumberOfStates())) {
+        var rewards = readObservationVectorValues(false);
+        entries.putRewardRows(startStates, actionVectors, new int[]{endState}, rewards);
+      }
+    }
+  }
+
+  /**
+   * Reads all words and numbers until the end of the current line.
+   */
+  protected List<String> readLine(String description) {
+    var line = new ArrayList<String>();
+    line.add(readWordOrNumber(description));
+    while (!tokenizer.isAtLineStart()) {
+      line.add(readWordOrNumber(description));
+    }
+    return line;
+  }
+
+  protected String readWordOrNumber(String description) {
+    if (tokenizer.getType() != TokenType.WORD && tokenizer.getType() != TokenType.NUMBER) {
+      throw tokenizer.unexpectedToken(description);
+    }
+    var text = tokenizer.getText();
+    tokenizer.advance();
+    return text;
+  }
+
+  protected double readNumber(String description) {
+    if (tokenizer.getType() != TokenType.NUMBER) throw tokenizer.unexpectedToken(description);
+    var number = tokenizer.getNumber();
+    tokenizer.advance();
+    return number;
+  }
+
+  protected double readProbability(String description) {
+    var line = tokenizer.getLine();
+    var probability = readNumber(description);
+    if (probability < 0 || probability > 1) {
+      throw new ParsingFailedException("Expected " + description + " between zero and one in line " + line + ", but found " + probability + ".");
+    }
+    return probability;
+  }
+
+  protected int readCount(String description) {
+    if (!tokenizer.isInteger()) throw tokenizer.unexpectedToken(description);
+    var count = tokenizer.getInteger();
+    if (count <= 0) throw new ParsingFailedException(description + " must be greater than zero.");
+    tokenizer.advance();
+    return count;
+  }
+
+  protected Map<State, Double> readStateDistribution(List<State> states) {
+    var probabilities = readStateDistribution(states.size());
+    var distribution = new HashMap<State, Double>(states.size() * 2);
+    for (int i = 0; i < states.size(); i++) {
+      distribution.put(states.get(i), probabilities[i]);
+    }
+    return distribution;
+  }
+
+  protected double[] readStateDistribution(int numberOfStates) {
+    var probabilities = new double[numberOfStates];
+    for (int i = 0; i < numberOfStates; i++) {
+      probabilities[i] = readProbability("probability of state " + i);
+    }
+    return probabilities;
+  }
+
+  protected double[] readObservationVectorValues(boolean areProbabilities) {
+    var values = new double[getTables().getNumberOfObservationVectors()];
+    for (int i = 0; i < values.length; i++) {
+      var description = "value of observation vector " + i;
+      values[i] = areProbabilities ? readProbability(description) : readNumber(description);
+    }
+    return values;
+  }
+
+  /**
+   * Reads an action vector until the next colon and consumes it.
+   * A single wildcard stands for all action vectors.
+   *
+   * @return the indices of all matching action vectors
+   */
+  protected int[] readActionVectorIndices() {
+    var agentActions = target.agentActions;
+    if (actionIndicesByName == null) actionIndicesByName = indexByName(agentActions, Action::name);
+    var isSingleWildcard = tokenizer.isWildcard();
+    var indicesPerAgent = new ArrayList<int[]>(agentActions.size());
+    while (tokenizer.getType() != TokenType.COLON) {
+      var agentIndex = indicesPerAgent.size();
+      if (agentIndex >= agentActions.size()) {
+        throw new ParsingFailedException("Action vector in line " + tokenizer.getLine() + " consists of more actions than agents defined.");
+      }
+      indicesPerAgent.add(readIndexOrWildcard(agentActions.get(agentIndex).size(), actionIndicesByName.get(agentIndex), "action"));
+    }
+    tokenizer.advance();
+    if (isSingleWildcard && indicesPerAgent.size() == 1) {
+      return getAllIndices(getTables().getNumberOfActionVectors());
+    } else if (indicesPerAgent.size() < agentActions.size()) {
+      throw new ParsingFailedException("Action vector in line " + tokenizer.getLine() + " consists of less actions than agents defined.");
+    }
+    return combineIndices(indicesPerAgent, agentActions);
+  }
+
+  /**
+   * Reads an observation vector until the next colon and consumes it.
+   * A single wildcard stands for all observation vectors.
+   *
+   * @return the indices of all matching observation vectors
+   */
+  protected int[] readObservationVectorIndices() {
+    var agentObservations = target.agentObservations;
+    if (observationIndicesByName == null) observationIndicesByName = indexByName(agentObservations, Observation::name);
+    var isSingleWildcard = tokenizer.isWildcard();
+    var indicesPerAgent = new ArrayList<int[]>(agentObservations.size());
+    while (tokenizer.getType() != TokenType.COLON) {
+      var agentIndex = indicesPerAgent.size();
+      if (agentIndex >= agentObservations.size()) {
+        throw new ParsingFailedException("Observation vector in line " + tokenizer.getLine() + " consists of more observations than agents defined.");
+      }
+      indicesPerAgent.add(readIndexOrWildcard(agentObservations.get(agentIndex).size(), observationIndicesByName.get(agentIndex), "observation"));
+    }
+    tokenizer.advance();
+    if (isSingleWildcard && indicesPerAgent.size() == 1) {
+      return getAllIndices(getTables().getNumberOfObservationVectors());
+    } else if (indicesPerAgent.size() < agentObservations.size()) {
+      throw new ParsingFailedException("Observation vector in line " + tokenizer.getLine() + " consists of less observations than agents defined.");
+    }
+    return combineIndices(indicesPerAgent, agentObservations);
+  }
+
+  /**
+   * Reads a state given by name or index, or a wildcard for all states.
+   *
+   * @return the indices of all matching states
+   */
+  protected int[] readStateIndices() {
+    var states = getStatesOrThrow("state");
+    if (stateIndicesByName == null) stateIndicesByName = indexByName(List.of(states), State::name).get(0);
+    return readIndexOrWildcard(states.size(), stateIndicesByName, "state");
+  }
+
+  /**
+   * Reads a state given by name or index, or a wildcard for all states.
+   */
+  protected List<State> readStates() {
+    var states = getStatesOrThrow("state");
+    return Arrays.stream(readStateIndices()).mapToObj(states::get).toList();
+  }
+
+  /**
+   * Reads a single state given by name or index.
+   */
+  protected State readState() {
+    if (tokenizer.isWildcard()) throw tokenizer.unexpectedToken("state");
+    return readStates().get(0);
+  }
+
+  /**
+   * Returns the tables, which collect the entries.
+   * They are created with the first entry and handed to the section parser,
+   * so the states, actions and observations must not change afterward.
+   */
+  protected DPOMDPTables getTables() {
+    if (target.tables == null) {
+      var numberOfActionVectors = target.agentActions.stream().mapToInt(List::size).reduce(1, Math::multiplyExact);
+      var numberOfObservationVectors = target.agentObservations.stream().mapToInt(List::size).reduce(1, Math::multiplyExact);
+      target.tables = new DPOMDPTables(target.builder.getStates().size(), numberOfActionVectors, numberOfObservationVectors);
+    }
+    return target.tables;
+  }
+
+  protected List<String> getAgentNamesOrThrow(String section) {
+    if (target.agentNames.isEmpty()) {
+      throw new ParsingFailedException("'" + section + "' section was parsed, before 'agents' have been initialized.");
+    }
+    return target.agentNames;
+  }
+
+  protected List<State> getStatesOrThrow(String section) {
+    if (target.builder.getStates().isEmpty()) {
+      throw new ParsingFailedException("'" + section + "' section was parsed, before 'states' have been initialized.");
+    }
+    return target.builder.getStates();
+  }
+
+  protected void assertNoEntryParsed(String section) {
+    if (target.tables != null) {
+      throw new ParsingFailedException("'" + section + "' section was parsed, after the first entry has been parsed.");
+    }
+  }
+
+  protected void assertActionsSet(String section) {
+    if (target.agentActions.isEmpty()) {
+      throw new ParsingFailedException("'" + section + "' section was parsed, before 'actions' have been initialized.");
+    }
+  }
+
+  protected void assertObservationsSet(String section) {
+    if (target.agentObservations.isEmpty()) {
+      throw new ParsingFailedException("'" + section + "' section was parsed, before 'observations' have been initialized.");
+    }
+  }
+
+  private static <T> List<Map<String, Integer>> indexByName(List<List<T>> lists, Function<T, String> getName) {
+    var indices = new ArrayList<Map<String, Integer>>(lists.size());
+    for (var list : lists) {
+      var index = new HashMap<String, Integer>(list.size() * 2);
+      for (int i = 0; i < list.size(); i++) index.put(getName.apply(list.get(i)), i);
+      indices.add(index);
+    }
+    return indices;
+  }
+
+  /**
+   * Combines the indices of the elements per agent to the indices of the element vectors,
+   * in the order of {@link de.jlandsmannn.DecPOMDPSolver.domain.utility.VectorCombinationBuilder}.
+   */
+  private static int[] combineIndices(List<int[]> indicesPerAgent, List<? extends List<?>> elementsPerAgent) {
+    var vectorIndices = new int[]{0};
+    for (int agentIndex = 0; agentIndex < indicesPerAgent.size(); agentIndex++) {
+      var numberOfElements = elementsPerAgent.get(agentIndex).size();
+      var indices = indicesPerAgent.get(agentIndex);
+      var combinedIndices = new int[vectorIndices.length * indices.length];
+      var i = 0;
+      for (var vectorIndex : vectorIndices) {
+        for (var index : indices) {
+          combinedIndices[i++] = vectorIndex * numberOfElements + index;
+        }
+      }
+      vectorIndices = combinedIndices;
+    }
+    return vectorIndices;
+  }
+
+  private static boolean isEntryKeyword(SectionKeyword keyword) {
+    return keyword == DPOMDPSectionKeyword.TRANSITION_ENTRY
+      || keyword == DPOMDPSectionKeyword.OBSERVATION_ENTRY
+      || keyword == DPOMDPSectionKeyword.REWARD_ENTRY;
+  }
+
+  private static double[] createUniformValues(int size) {
+    var values = new double[size];
+    Arrays.fill(values, 1D / size);
+    return values;
+  }
+
+  /**
+   * Returns the indices from zero to the given size, which are shared and must not be modified.
+   */
+  private int[] getAllIndices(int size) {
+    return allIndices.computeIfAbsent(size, s -> IntStream.range(0, s).toArray());
+  }
+
+  /**
+   * Reads a wildcard, index or name and resolves it to the indices of the matching elements.
+   * Only names are converted to strings to look them up.
+   */
+  private int[] readIndexOrWildcard(int numberOfElements, Map<String, Integer> indicesByName, String description) {
+    if (tokenizer.isWildcard()) {
+      tokenizer.advance();
+      return getAllIndices(numberOfElements);
+    }
+    int index;
+    if (tokenizer.isInteger()) {
+      index = tokenizer.getInteger();
+      if (index >= numberOfElements) throw new ParsingFailedException("Index: " + index + " in line " + tokenizer.getLine() + " is out of bounds.");
+    } else if (tokenizer.getType() == TokenType.WORD) {
+      var indexByName = indicesByName.get(tokenizer.getText());
+      if (indexByName == null) throw tokenizer.unexpectedToken("known " + description);
+      index = indexByName;
+    } else {
+      throw tokenizer.unexpectedToken(description);
+    }
+    tokenizer.advance();
+    return new int[]{index};
+  }
+
+  /**
+   * Splits the buffer from the given position into chunks of at least the minimal chunk size,
+   * with up to four chunks per processor to balance their load.
+   * Every chunk, except the first one, starts at the first line beginning with an entry after its nominal start.
+   *
+   * @return the bounds of the chunks, starting with the given position and ending with the end of the buffer
+   */
+  private int[] splitIntoChunks(ByteBuffer buffer, int start) {
+    var end = buffer.limit();
+    var maximalNumberOfChunks = (long) CHUNKS_PER_PROCESSOR * Runtime.getRuntime().availableProcessors();
+    var numberOfChunks = (int) Math.max(1, Math.min(maximalNumberOfChunks, (end - start) / minimumChunkSize));
+    var bounds = IntStream.builder().add(start);
+    var lastBound = start;
+    for (int i = 1; i < numberOfChunks; i++) {
+      var nominalStart = (int) (start + (long) (end - start) * i / numberOfChunks);
+      var bound = findEntryLine(buffer, Math.max(nominalStart, lastBound), end);
+      if (bound == end) break;
+      if (bound > lastBound) bounds.add(bound);
+      lastBound = bound;
+    }
+    return bounds.add(end).build().toArray();
+  }
+
+  private ChunkParser parseChunk(ByteBuffer buffer, int start, int end, int line) {
+    var chunk = new ChunkParser(target);
+    try {
+      chunk.parseChunk(new DPOMDPTokenizer(buffer.duplicate().position(start).limit(end), line));
+    } catch (RuntimeException e) {
+      chunk.failure = e;
+    }
+    return chunk;
+  }
+
+  /**
+   * Finds the first line after the given position, which begins with the keyword of an entry.
+   * Since comments end at line breaks, and all other lines within the entries begin with numbers or keywords,
+   * such a line always starts a new entry.
+   *
+   * @return the position of the keyword, or the end if there is no such line
+   */
+  private static int findEntryLine(ByteBuffer buffer, int position, int end) {
+    while (position < end) {
+      if (buffer.get(position++) != '\n') continue;
+      while (position < end && isBlank(buffer.get(position))) position++;
+      if (position == end) break;
+      var character = buffer.get(position);
+      if (character != 'T' && character != 'O' && character != 'R') continue;
+      if (position + 1 == end || isDelimiter(buffer.get(position + 1))) return position;
+    }
+    return end;
+  }
+
+  private static int countLines(ByteBuffer buffer, int start, int end) {
+    var lines = 0;
+    for (int i = start; i < end; i++) {
+      if (buffer.get(i) == '\n') lines++;
+    }
+    return lines;
+  }
+
+  private static boolean isBlank(byte character) {
+    return character == ' ' || character == '\t' || character == '\r' || character == '\f' || character == 0x0B;
+  }
+
+  private static boolean isDelimiter(byte character) {
+    return character == ':' || character == '#' || character == '\n' || isBlank(character);
+  }
+
+  /**
+   * A section, which was skipped by a chunk, as it is no entry, given by its bounds and first line.
+   */
+  private record SkippedSection(int start, int end, int line) {
+  }
+
+  /**
+   * This parser parses the entries of a single chunk into partial tables
+   * and skips all other sections, so they can be parsed sequentially afterward.
+   * It only reads the header data of the section parser, which is not modified while the chunks are parsed.
+   */
+  private static class ChunkParser extends DPOMDPStreamingParser {
+    private final DPOMDPPartialTables entries = new DPOMDPPartialTables();
+    private final List<SkippedSection> skippedSections = new ArrayList<>();
+    private RuntimeException failure;
+
+    private ChunkParser(DPOMDPSectionParser<?> target) {
+      super(target);
+    }
+
+    @Override
+    protected DPOMDPEntryCollector getEntryCollector() {
+      return entries;
+    }
+
+    private void parseChunk(DPOMDPTokenizer tokenizer) {
+      this.tokenizer = tokenizer;
+      while (tokenizer.getType() != TokenType.END) {
+        var keyword = readKeyword();
+        if (isEntryKeyword(keyword)) {
+          tokenizer.advance();
+          parseSection(keyword);
+        } else {
+          skipSection();
+        }
+      }
+    }
+
+    private void skipSection() {
+      var start = tokenizer.getPosition();
+      var line = tokenizer.getLine();
+      do {
+        tokenizer.advance();
+      } while (tokenizer.getType() != TokenType.END && !(tokenizer.isAtLineStart() && findKeyword().isPresent()));
+      skippedSections.add(new SkippedSection(start, tokenizer.getPosition(), line));
+    }
+  }
+}
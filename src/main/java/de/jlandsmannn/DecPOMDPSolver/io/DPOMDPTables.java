@@ -0,0 +1,488 @@
+package de.jlandsmannn.DecPOMDPSolver.io;
+
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.DecPOMDPBuilder;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.Action;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.Observation;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.State;
+import de.jlandsmannn.DecPOMDPSolver.domain.utility.Distribution;
+import de.jlandsmannn.DecPOMDPSolver.domain.utility.Vector;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * This class collects the transition, observation and reward entries of a .dpomdp file
+ * in primitive tables, indexed by the indices of states, joint actions and joint observations.
+ * The joint indices follow the order of {@link de.jlandsmannn.DecPOMDPSolver.domain.utility.VectorCombinationBuilder},
+ * so the index of the first agent is the most significant one.
+ * Entries are applied in place with the same overwrite semantics as the section parsers,
+ * and only converted to distributions once, when the tables are added to a builder.
+ * Wildcard entries are not expanded to all states they cover. Instead, each joint action has a default row
+ * for the transitions of all start states and the observations of all follow states,
+ * which is used for every state without explicit row. Explicit rows start as copy of the default row,
+ * and wildcard entries are applied to the default row and the explicit rows only.
+ * The rewards are stored per state and joint action, with a single value as long as
+ * an entry covers all follow states and joint observations,
+ * so they do not scale with the number of follow states and joint observations,
+ * unless entries actually distinguish them.
+ */
+public class DPOMDPTables implements DPOMDPEntryCollector {
+  private final int numberOfStates;
+  private final int numberOfActionVectors;
+  private final int numberOfObservationVectors;
+
+  private final TableRow[] transitions;
+  private final TableRow[] observations;
+  private final TableRow[] defaultTransitions;
+  private final TableRow[] defaultObservations;
+  private final RewardKind[] rewardKinds;
+  private final double[] uniformRewards;
+  private final double[][] mixedRewards;
+
+  public DPOMDPTables(int numberOfStates, int numberOfActionVectors, int numberOfObservationVectors) {
+    this.numberOfStates = numberOfStates;
+    this.numberOfActionVectors = numberOfActionVectors;
+    this.numberOfObservationVectors = numberOfObservationVectors;
+    var numberOfStateActionPairs = Math.multiplyExact(numberOfStates, numberOfActionVectors);
+    this.transitions = new TableRow[numberOfStateActionPairs];
+    this.observations = new TableRow[numberOfStateActionPairs];
+    this.defaultTransitions = new TableRow[numberOfActionVectors];
+    this.defaultObservations = new TableRow[numberOfActionVectors];
+    this.rewardKinds = new RewardKind[numberOfStateActionPairs];
+    this.uniformRewards = new double[numberOfStateActionPairs];
+    this.mixedRewards = new double[numberOfStateActionPairs][];
+    Arrays.fill(rewardKinds, RewardKind.UNSET);
+  }
+
+  public int getNumberOfStates() {
+    return numberOfStates;
+  }
+
+  public int getNumberOfActionVectors() {
+    return numberOfActionVectors;
+  }
+
+  public int getNumberOfObservationVectors() {
+    return numberOfObservationVectors;
+  }
+
+  /**
+   * Sets the probability of the follow states for all combinations of the given states and joint actions.
+   * If the probability of a follow state was already set, all previous probabilities of that row are discarded.
+   */
+  @Override
+  public void putTransitions(int[] states, int[] actionVectors, int[] followStates, double probability) {
+    for (var actionVector : actionVectors) {
+      if (states.length == numberOfStates) {
+        for (int state = 0; state < numberOfStates; state++) {
+          var index = state * numberOfActionVectors + actionVector;
+          if (transitions[index] == null) continue;
+          for (var followState : followStates) {
+            transitions[index] = putIntoTransitionRow(transitions[index], followState, probability);
+          }
+        }
+        for (var followState : followStates) {
+          defaultTransitions[actionVector] = putIntoTransitionRow(defaultTransitions[actionVector], followState, probability);
+        }
+        continue;
+      }
+      for (var state : states) {
+        var index = state * numberOfActionVectors + actionVector;
+        for (var followState : followStates) {
+          var row = transitions[index];
+          var defaultRow = defaultTransitions[actionVector];
+          if (row == null && defaultRow != null && !defaultRow.contains(followState)) row = defaultRow.copy();
+          transitions[index] = putIntoTransitionRow(row, followState, probability);
+        }
+      }
+    }
+  }
+
+  /**
+   * Sets the probabilities of all follow states for all combinations of the given states and joint actions,
+   * unless any probability was set before.
+   * The given array may be shared with other entries and must not be modified afterward.
+   */
+  @Override
+  public void putTransitionRows(int[] states, int[] actionVectors, double[] probabilities) {
+    for (var actionVector : actionVectors) {
+      if (defaultTransitions[actionVector] != null) continue;
+      if (states.length == numberOfStates) {
+        defaultTransitions[actionVector] = new TableRow(probabilities);
+        continue;
+      }
+      for (var state : states) {
+        var index = state * numberOfActionVectors + actionVector;
+        if (transitions[index] == null) transitions[index] = new TableRow(probabilities);
+      }
+    }
+  }
+
+  /**
+   * Sets the probability of the joint observations for all combinations of the given joint actions and follow states.
+   */
+  @Override
+  public void putObservations(int[] actionVectors, int[] followStates, int[] observationVectors, double probability) {
+    for (var actionVector : actionVectors) {
+      if (followStates.length == numberOfStates) {
+        var defaultRow = defaultObservations[actionVector];
+        if (defaultRow == null) defaultRow = new TableRow(numberOfObservationVectors);
+        defaultObservations[actionVector] = defaultRow;
+        for (var observationVector : observationVectors) defaultRow.put(observationVector, probability);
+      }
+      for (var followState : followStates) {
+        var index = actionVector * numberOfStates + followState;
+        var row = observations[index];
+        if (row == null && followStates.length == numberOfStates) continue;
+        if (row == null) {
+          var defaultRow = defaultObservations[actionVector];
+          row = defaultRow != null ? defaultRow.copy() : new TableRow(numberOfObservationVectors);
+          observations[index] = row;
+        }
+        for (var observationVector : observationVectors) row.put(observationVector, probability);
+      }
+    }
+  }
+
+  /**
+   * Sets the probabilities of all joint observations for all combinations of the given joint actions and follow states,
+   * overwriting any previous probabilities.
+   * The given array may be shared with other entries and must not be modified afterward.
+   */
+  @Override
+  public void putObservationRows(int[] actionVectors, int[] followStates, double[] probabilities) {
+    for (var actionVector : actionVectors) {
+      if (followStates.length == numberOfStates) {
+        Arrays.fill(observations, actionVector * numberOfStates, (actionVector + 1) * numberOfStates, null);
+        defaultObservations[actionVector] = new TableRow(probabilities);
+        continue;
+      }
+      for (var followState : followStates) {
+        observations[actionVector * numberOfStates + followState] = new TableRow(probabilities);
+      }
+    }
+  }
+
+  /**
+   * Sets the reward for all combinations of the given states, joint actions, follow states and joint observations,
+   * where no reward was set before.
+   */
+  @Override
+  public void putRewards(int[] states, int[] actionVectors, int[] followStates, int[] observationVectors, double reward) {
+    for (var state : states) {
+      for (var actionVector : actionVectors) {
+        putReward(state * numberOfActionVectors + actionVector, followStates, observationVectors, reward);
+      }
+    }
+  }
+
+  /**
+   * Sets the rewards of all joint observations for all combinations of the given states, joint actions and follow states,
+   * overwriting any previous rewards.
+   */
+  @Override
+  public void putRewardRows(int[] states, int[] actionVectors, int[] followStates, double[] rewards) {
+    for (var state : states) {
+      for (var actionVector : actionVectors) {
+        var cells = getMixedRewards(state * numberOfActionVectors + actionVector);
+        for (var followState : followStates) {
+          System.arraycopy(rewards, 0, cells, followState * numberOfObservationVectors, numberOfObservationVectors);
+        }
+      }
+    }
+  }
+
+  /**
+   * Resolves the probability of the follow state, either from the explicit row or the default row.
+   */
+  public double getTransitionProbability(int state, int actionVector, int followState) {
+    var row = getTransitionRow(state, actionVector);
+    return row != null ? row.get(followState) : 0D;
+  }
+
+  /**
+   * Resolves the probability of the joint observation, either from the explicit row or the default row.
+   */
+  public double getObservationProbability(int actionVector, int followState, int observationVector) {
+    var row = getObservationRow(actionVector, followState);
+    return row != null ? row.get(observationVector) : 0D;
+  }
+
+  /**
+   * Passes each non-zero probability of the follow states to the consumer.
+   *
+   * @throws IllegalStateException if no transition was set
+   */
+  public void forEachTransition(int state, int actionVector, EntryConsumer consumer) {
+    var row = getTransitionRow(state, actionVector);
+    if (row == null) throw new IllegalStateException("State " + state + " with actions " + actionVector + " has no transitions.");
+    row.forEachEntry(consumer);
+  }
+
+  /**
+   * Passes each non-zero probability of the joint observations to the consumer.
+   *
+   * @throws IllegalStateException if no observation was set
+   */
+  public void forEachObservation(int actionVector, int followState, EntryConsumer consumer) {
+    var row = getObservationRow(actionVector, followState);
+    if (row == null) throw new IllegalStateException("State " + followState + " has no observations for actions " + actionVector + ".");
+    row.forEachEntry(consumer);
+  }
+
+  /**
+   * Calculates the reward for the given state and joint action.
+   * If all follow states and joint observations have the same reward, it is returned directly.
+   * Otherwise, the rewards are weighted by the probabilities of the follow states and joint observations.
+   * Rewards, which were never set, count as zero.
+   */
+  public double getReward(int state, int actionVector) {
+    var index = state * numberOfActionVectors + actionVector;
+    return switch (rewardKinds[index]) {
+      case UNSET -> 0D;
+      case UNIFORM -> uniformRewards[index];
+      case MIXED -> getExpectedReward(state, actionVector, mixedRewards[index]);
+    };
+  }
+
+  /**
+   * Converts the tables to distributions and rewards and adds them to the builder.
+   * Default rows and rows, that were shared by multiple entries, are converted to a single distribution.
+   *
+   * @throws IllegalStateException if a transition or observation is missing
+   */
+  public void addToBuilder(DecPOMDPBuilder<?, ?, ?> builder, List<Vector<Action>> actionVectors, List<Vector<Observation>> observationVectors, double rewardFactor) {
+    var states = builder.getStates();
+    var transitionDistributions = new IdentityHashMap<Object, Distribution<State>>();
+    var observationDistributions = new IdentityHashMap<Object, Distribution<Vector<Observation>>>();
+    for (int state = 0; state < numberOfStates; state++) {
+      for (int actionVector = 0; actionVector < numberOfActionVectors; actionVector++) {
+        var row = getTransitionRow(state, actionVector);
+        if (row == null) {
+          throw new IllegalStateException("State " + states.get(state) + " with actions " + actionVectors.get(actionVector) + " has no transitions.");
+        }
+        builder.addTransition(states.get(state), actionVectors.get(actionVector), row.toDistribution(states::get, transitionDistributions));
+        builder.addReward(states.get(state), actionVectors.get(actionVector), rewardFactor * getReward(state, actionVector));
+      }
+    }
+    for (int actionVector = 0; actionVector < numberOfActionVectors; actionVector++) {
+      for (int followState = 0; followState < numberOfStates; followState++) {
+        var row = getObservationRow(actionVector, followState);
+        if (row == null) {
+          throw new IllegalStateException("State " + states.get(followState) + " has no observations for actions " + actionVectors.get(actionVector) + ".");
+        }
+        builder.addObservation(actionVectors.get(actionVector), states.get(followState), row.toDistribution(observationVectors::get, observationDistributions));
+      }
+    }
+  }
+
+  private TableRow getTransitionRow(int state, int actionVector) {
+    var row = transitions[state * numberOfActionVectors + actionVector];
+    return row != null ? row : defaultTransitions[actionVector];
+  }
+
+  private TableRow getObservationRow(int actionVector, int followState) {
+    var row = observations[actionVector * numberOfStates + followState];
+    return row != null ? row : defaultObservations[actionVector];
+  }
+
+  /**
+   * Puts the probability into the row with the overwrite semantics of transitions,
+   * so the row is replaced, if it already contains the follow state.
+   */
+  private TableRow putIntoTransitionRow(TableRow row, int followState, double probability) {
+    if (row == null || row.contains(followState)) row = new TableRow(numberOfStates);
+    row.put(followState, probability);
+    return row;
+  }
+
+  private void putReward(int index, int[] followStates, int[] observationVectors, double reward) {
+    var coversAll = followStates.length == numberOfStates && observationVectors.length == numberOfObservationVectors;
+    if (coversAll && rewardKinds[index] == RewardKind.UNSET) {
+      rewardKinds[index] = RewardKind.UNIFORM;
+      uniformRewards[index] = reward;
+      return;
+    } else if (coversAll && rewardKinds[index] == RewardKind.UNIFORM) {
+      return;
+    }
+    var cells = getMixedRewards(index);
+    for (var followState : followStates) {
+      var offset = followState * numberOfObservationVectors;
+      for (var observationVector : observationVectors) {
+        if (Double.isNaN(cells[offset + observationVector])) cells[offset + observationVector] = reward;
+      }
+    }
+  }
+
+  private double[] getMixedRewards(int index) {
+    if (rewardKinds[index] == RewardKind.MIXED) return mixedRewards[index];
+    var cells = new double[Math.multiplyExact(numberOfStates, numberOfObservationVectors)];
+    Arrays.fill(cells, rewardKinds[index] == RewardKind.UNIFORM ? uniformRewards[index] : Double.NaN);
+    rewardKinds[index] = RewardKind.MIXED;
+    mixedRewards[index] = cells;
+    return cells;
+  }
+
+  private double getExpectedReward(int state, int actionVector, double[] cells) {
+    if (!Double.isNaN(cells[0]) && Arrays.stream(cells).allMatch(cell -> cell == cells[0])) return cells[0];
+    var transitionRow = getTransitionRow(state, actionVector);
+    if (transitionRow == null) return 0D;
+    var expectedReward = 0D;
+    for (int followState = 0; followState < numberOfStates; followState++) {
+      var transitionProbability = transitionRow.get(followState);
+      var observationRow = getObservationRow(actionVector, followState);
+      if (transitionProbability == 0D || observationRow == null) continue;
+      var offset = followState * numberOfObservationVectors;
+      for (int observationVector = 0; observationVector < numberOfObservationVectors; observationVector++) {
+        var reward = cells[offset + observationVector];
+        if (Double.isNaN(reward)) continue;
+        expectedReward += transitionProbability * observationRow.get(observationVector) * reward;
+      }
+    }
+    return expectedReward;
+  }
+
+  /**
+   * Consumes an entry of a row, given by its index and value.
+   */
+  @FunctionalInterface
+  public interface EntryConsumer {
+    void accept(int index, double value);
+  }
+
+  private enum RewardKind {
+    UNSET,
+    UNIFORM,
+    MIXED
+  }
+
+  /**
+   * A row of a table, that stores few entries sparsely and switches to a dense array for more entries.
+   * Missing entries of the dense array are marked by NaN.
+   * A dense array given on creation may be shared between rows, so it is copied before being modified.
+   */
+  static final class TableRow {
+    private static final int MAX_SPARSE_SIZE = 16;
+
+    private final int length;
+    private int[] indices;
+    private double[] values;
+    private int size = 0;
+    private double[] dense;
+    private boolean shared = false;
+
+    TableRow(int length) {
+      this.length = length;
+      this.indices = new int[Math.min(length, 4)];
+      this.values = new double[indices.length];
+    }
+
+    TableRow(double[] dense) {
+      this.length = dense.length;
+      this.dense = dense;
+      this.shared = true;
+    }
+
+    boolean contains(int index) {
+      if (dense != null) return !Double.isNaN(dense[index]);
+      for (int i = 0; i < size; i++) {
+        if (indices[i] == index) return true;
+      }
+      return false;
+    }
+
+    double get(int index) {
+      if (dense != null) return Double.isNaN(dense[index]) ? 0D : dense[index];
+      for (int i = 0; i < size; i++) {
+        if (indices[i] == index) return values[i];
+      }
+      return 0D;
+    }
+
+    void put(int index, double value) {
+      if (dense != null) {
+        if (shared) {
+          dense = dense.clone();
+          shared = false;
+        }
+        dense[index] = value;
+        return;
+      }
+      for (int i = 0; i < size; i++) {
+        if (indices[i] == index) {
+          values[i] = value;
+          return;
+        }
+      }
+      if (size == MAX_SPARSE_SIZE) {
+        convertToDense();
+        dense[index] = value;
+        return;
+      }
+      if (size == indices.length) {
+        indices = Arrays.copyOf(indices, Math.min(length, size * 2));
+        values = Arrays.copyOf(values, indices.length);
+      }
+      indices[size] = index;
+      values[size++] = value;
+    }
+
+    /**
+     * Creates a copy of this row, which shares the dense array until either row is modified.
+     */
+    TableRow copy() {
+      if (dense != null) {
+        shared = true;
+        return new TableRow(dense);
+      }
+      var copy = new TableRow(length);
+      copy.indices = indices.clone();
+      copy.values = values.clone();
+      copy.size = size;
+      return copy;
+    }
+
+    /**
+     * Converts this row to a distribution, which is shared with all rows of the same dense array.
+     */
+    <T> Distribution<T> toDistribution(IntFunction<T> getElement, Map<Object, Distribution<T>> sharedDistributions) {
+      var key = shared ? dense : this;
+      var sharedDistribution = sharedDistributions.get(key);
+      if (sharedDistribution != null) return sharedDistribution;
+      var map = new HashMap<T, Double>();
+      forEachEntry((index, value) -> map.put(getElement.apply(index), value));
+      var distribution = Distribution.of(map);
+      sharedDistributions.put(key, distribution);
+      return distribution;
+    }
+
+    /**
+     * Passes all set, non-zero entries to the consumer, ordered by index if the row is dense.
+     */
+    void forEachEntry(EntryConsumer consumer) {
+      if (dense != null) {
+        for (int i = 0; i < dense.length; i++) {
+          if (!Double.isNaN(dense[i]) && dense[i] != 0D) consumer.accept(i, dense[i]);
+        }
+      } else {
+        for (int i = 0; i < size; i++) {
+          if (values[i] != 0D) consumer.accept(indices[i], values[i]);
+        }
+      }
+    }
+
+    private void convertToDense() {
+      dense = new double[length];
+      Arrays.fill(dense, Double.NaN);
+      for (int i = 0; i < size; i++) {
+        dense[indices[i]] = values[i];
+      }
+      indices = null;
+      values = null;
+    }
+  }
+}
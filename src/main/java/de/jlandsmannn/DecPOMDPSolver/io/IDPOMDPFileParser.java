@@ -4,15 +4,19 @@ import de.jlandsmannn.DecPOMDPSolver.domain.lifting.IsomorphicDecPOMDPWithStateC
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Optional;
 
 /**
- * This class handles the parsing of a .idpomdp file,
- * by reading the file line by line and stacking those lines
+ * This class handles the parsing of a .idpomdp file.
+ * By default, the file is memory-mapped and parsed token by token by the {@link IDPOMDPStreamingParser}.
+ * Alternatively, it can be parsed by reading the file line by line and stacking those lines
  * until a new section is found, so the former one is complete.
  * When this happens, the former section is parsed by the {@link IDPOMDPSectionParser}.
  * At the end of the file, the current section is also parsed,
  * as it can be seen as complete.
+ * Files ending with .gz are decompressed while they are parsed.
  * The given filename can be a path either inside the resources directory
  * or relative to the directory, where the program is executed.
  */
@@ -20,6 +24,7 @@ public class IDPOMDPFileParser<BUILDER extends IsomorphicDecPOMDPWithStateContro
   private static final Logger LOG = LoggerFactory.getLogger(IDPOMDPFileParser.class);
 
   protected BUILDER builder;
+  protected boolean useStreamingParser = true;
   protected IDPOMDPSectionParser<BUILDER> sectionParser;
 
   public static Optional<IsomorphicDecPOMDPWithStateControllerBuilder> parseDecPOMDP(String fileName) {
@@ -27,11 +32,47 @@ public class IDPOMDPFileParser<BUILDER extends IsomorphicDecPOMDPWithStateContro
     return parser.parse(fileName);
   }
 
+  public static void convertDecPOMDP(String fileName, Path targetFile) throws IOException {
+    var parser = new IDPOMDPFileParser<>(new IsomorphicDecPOMDPWithStateControllerBuilder());
+    parser.convert(fileName, targetFile);
+  }
+
   protected IDPOMDPFileParser(BUILDER builder) {
     super(new IDPOMDPSectionParser<>(builder));
     this.builder = builder;
   }
 
+  /**
+   * Reads binary files by the {@link DPOMDPBinaryFile}.
+   * Other files are parsed, memory-mapped or decompressed on the fly if they end with .gz, by the {@link IDPOMDPStreamingParser}, unless disabled.
+   * Otherwise, the file is parsed line by line and section by section.
+   */
+  @Override
+  protected void tryParse(String fileName) throws IOException {
+    if (DPOMDPBinaryFile.isBinaryFile(fileName)) {
+      new DPOMDPBinaryFile((DPOMDPSectionParser<?>) super.sectionParser).read(resolveFile(fileName));
+      return;
+    }
+    if (!useStreamingParser) {
+      super.tryParse(fileName);
+      return;
+    }
+    parseStreaming(new IDPOMDPStreamingParser((IDPOMDPSectionParser<?>) super.sectionParser), fileName);
+    super.sectionParser.gatherData();
+  }
+
+  /**
+   * Parses the given .idpomdp file, which may be gzip-compressed, and writes it to the target file in the binary format of {@link DPOMDPBinaryFile}.
+   *
+   * @param fileName   the file to convert
+   * @param targetFile the binary file to write
+   * @throws IOException if the file could not be read or written
+   */
+  public void convert(String fileName, Path targetFile) throws IOException {
+    parseStreaming(new IDPOMDPStreamingParser((IDPOMDPSectionParser<?>) super.sectionParser), fileName);
+    new DPOMDPBinaryFile((DPOMDPSectionParser<?>) super.sectionParser).write(targetFile);
+  }
+
   public Optional<BUILDER> parse(String fileName) {
     try {
       tryParse(fileName);
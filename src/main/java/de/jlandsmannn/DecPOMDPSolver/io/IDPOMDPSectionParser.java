@@ -14,7 +14,7 @@ import java.util.Set;
 public class IDPOMDPSectionParser<BUILDER extends IsomorphicDecPOMDPWithStateControllerBuilder> extends DPOMDPSectionParser<BUILDER> implements ISectionParser {
   private static final Logger LOG = LoggerFactory.getLogger(IDPOMDPSectionParser.class);
 
-  private List<Integer> partitionSizes = List.of();
+  protected List<Integer> partitionSizes = List.of();
 
   public IDPOMDPSectionParser(BUILDER builder) {
     super(builder);
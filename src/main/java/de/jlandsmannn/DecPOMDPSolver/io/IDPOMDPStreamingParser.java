@@ -0,0 +1,45 @@
+package de.jlandsmannn.DecPOMDPSolver.io;
+
+import de.jlandsmannn.DecPOMDPSolver.io.utility.IsomorphicDPOMDPSectionKeyword;
+import de.jlandsmannn.DecPOMDPSolver.io.utility.SectionKeyword;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+
+/**
+ * This parser extends the {@link DPOMDPStreamingParser}
+ * by the "partitionSizes" section of the .idpomdp file format.
+ */
+public class IDPOMDPStreamingParser extends DPOMDPStreamingParser {
+  private static final Logger LOG = LoggerFactory.getLogger(IDPOMDPStreamingParser.class);
+
+  protected final IDPOMDPSectionParser<?> isomorphicTarget;
+
+  public IDPOMDPStreamingParser(IDPOMDPSectionParser<?> target) {
+    super(target);
+    this.isomorphicTarget = target;
+  }
+
+  @Override
+  protected void parseSection(SectionKeyword keyword) {
+    if (keyword instanceof IsomorphicDPOMDPSectionKeyword) {
+      switch ((IsomorphicDPOMDPSectionKeyword) keyword) {
+        case PARTITION_SIZES -> parsePartitionSizes();
+      }
+    } else {
+      super.parseSection(keyword);
+    }
+  }
+
+  protected void parsePartitionSizes() {
+    LOG.debug("Parsing 'partitionSizes' section.");
+    var agentNames = getAgentNamesOrThrow("partitionSizes");
+    tokenizer.expectColon();
+    var partitionSizes = new ArrayList<Integer>(agentNames.size());
+    for (int i = 0; i < agentNames.size(); i++) {
+      partitionSizes.add(readCount("partition size"));
+    }
+    isomorphicTarget.partitionSizes = partitionSizes;
+  }
+}
@@ -1,19 +1,26 @@
 package de.jlandsmannn.DecPOMDPSolver.io;
 
+import de.jlandsmannn.DecPOMDPSolver.io.utility.ReadAheadInputStream;
 import de.jlandsmannn.DecPOMDPSolver.io.utility.SectionKeyword;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.BufferedReader;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Optional;
+import java.util.zip.GZIPInputStream;
 
 public class SectionBasedFileParser {
   private static final Logger LOG = LoggerFactory.getLogger(SectionBasedFileParser.class);
+  private static final int GZIP_BUFFER_SIZE = 1 << 16;
+
+  public static final String COMPRESSED_FILE_EXTENSION = ".gz";
 
   protected ISectionParser sectionParser;
   protected SectionKeyword currentKeyword;
@@ -25,42 +32,103 @@ public class SectionBasedFileParser {
 
   protected void tryParse(String fileName) throws IOException {
     try (var file = readFile(fileName)) {
-      String currentLine = null;
-      do {
-        currentLine = file.readLine();
-        parseLine(currentLine);
-      } while (currentLine != null);
+      parseFile(file);
     }
     sectionParser.gatherData();
   }
 
+  protected void parseFile(BufferedReader file) throws IOException {
+    String currentLine = null;
+    do {
+      currentLine = file.readLine();
+      parseLine(currentLine);
+    } while (currentLine != null);
+  }
+
   protected BufferedReader readFile(String fileName) throws IOException {
-    return readResourceFile(fileName)
-      .or(() -> readNormalFile(fileName))
+    if (isCompressedFile(fileName)) {
+      return new BufferedReader(new InputStreamReader(openCompressedFile(fileName), StandardCharsets.UTF_8));
+    }
+    return Files.newBufferedReader(resolveFile(fileName));
+  }
+
+  /**
+   * Parses the file by the given streaming parser.
+   * Uncompressed files are memory-mapped, while compressed files are decompressed while parsing them.
+   *
+   * @param streamingParser the parser to use
+   * @param fileName        the name of the file to parse
+   * @throws IOException if the file cannot be read
+   */
+  protected void parseStreaming(DPOMDPStreamingParser streamingParser, String fileName) throws IOException {
+    if (!isCompressedFile(fileName)) {
+      streamingParser.parse(resolveFile(fileName));
+      return;
+    }
+    try (var input = openCompressedFile(fileName)) {
+      streamingParser.parse(input);
+    }
+  }
+
+  /**
+   * Opens the gzip-compressed file, which is decompressed in the background,
+   * so decompressing overlaps with parsing and no decompressed copy of the file is written.
+   *
+   * @param fileName the name of the file to open
+   * @return the decompressed content of the file
+   * @throws IOException if the file cannot be opened or is no gzip file
+   */
+  protected InputStream openCompressedFile(String fileName) throws IOException {
+    var file = resolveFile(fileName);
+    LOG.debug("Decompressing file {} while reading it.", file);
+    return new ReadAheadInputStream(new GZIPInputStream(Files.newInputStream(file), GZIP_BUFFER_SIZE));
+  }
+
+  /**
+   * @return whether the file is gzip-compressed, according to its name
+   */
+  public static boolean isCompressedFile(String fileName) {
+    return fileName.endsWith(COMPRESSED_FILE_EXTENSION);
+  }
+
+  /**
+   * Removes the extension of compressed files, so the extension of the content can be checked.
+   *
+   * @param fileName the name of a file, which may be compressed
+   * @return the name of the file without the extension of compressed files
+   */
+  public static String getUncompressedFileName(String fileName) {
+    if (!isCompressedFile(fileName)) return fileName;
+    return fileName.substring(0, fileName.length() - COMPRESSED_FILE_EXTENSION.length());
+  }
+
+  /**
+   * Resolves the file either inside the resources directory
+   * or relative to the directory, where the program is executed.
+   *
+   * @param fileName the name of the file to resolve
+   * @return the path of the file
+   * @throws FileNotFoundException if the file does not exist in either location
+   */
+  protected Path resolveFile(String fileName) throws FileNotFoundException {
+    return resolveResourceFile(fileName)
+      .or(() -> resolveNormalFile(fileName))
       .orElseThrow(() -> new FileNotFoundException(fileName));
   }
 
-  private Optional<BufferedReader> readResourceFile(String fileName) {
+  private Optional<Path> resolveResourceFile(String fileName) {
     try {
       var classLoader = getClass().getClassLoader();
-      var url = Optional.ofNullable(classLoader.getResource(fileName))
-        .orElseThrow(() -> new FileNotFoundException(fileName));
-      var path = Path.of(url.getPath());
-      var bufferedReader = Files.newBufferedReader(path);
-      return Optional.of(bufferedReader);
-    } catch (IOException e) {
+      return Optional.ofNullable(classLoader.getResource(fileName))
+        .map(url -> Path.of(url.getPath()))
+        .filter(Files::isRegularFile);
+    } catch (RuntimeException e) {
       return Optional.empty();
     }
   }
 
-  private Optional<BufferedReader> readNormalFile(String fileName) {
-    try {
-      var fileReader = new FileReader(fileName);
-      var bufferedReader = new BufferedReader(fileReader);
-      return Optional.of(bufferedReader);
-    } catch (IOException e) {
-      return Optional.empty();
-    }
+  private Optional<Path> resolveNormalFile(String fileName) {
+    return Optional.of(Path.of(fileName)).filter(Files::isRegularFile);
   }
 
   protected void parseLine(String currentLine) {
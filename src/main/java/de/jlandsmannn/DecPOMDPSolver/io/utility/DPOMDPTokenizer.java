@@ -0,0 +1,366 @@
+package de.jlandsmannn.DecPOMDPSolver.io.utility;
+
+import de.jlandsmannn.DecPOMDPSolver.io.exceptions.ParsingFailedException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class splits the content of a .dpomdp file into tokens,
+ * while reading it only once and without using any regular expressions.
+ * A token is either a colon, a number or a word, which covers identifiers, indices and wildcards.
+ * Comments, starting with '#', are skipped until the end of their line.
+ * Since the meaning of some sections depends on line breaks,
+ * every token records, whether it is the first one in its line.
+ * The tokenizer always holds the current token, which is consumed by {@link #advance()}.
+ * It works directly on the bytes of the file, which can be given as (memory-mapped) buffer or as stream.
+ * Strings are only created on demand, and numbers are parsed without creating strings.
+ */
+public class DPOMDPTokenizer {
+  private static final int STREAM_BUFFER_SIZE = 1 << 16;
+  private static final int MAX_EXACT_DIGITS = 15;
+  private static final double[] EXACT_POWERS_OF_TEN = {
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+    1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  private final InputStream input;
+  private final ByteBuffer buffer;
+  private int position;
+  private int limit;
+  private int tokenStart;
+
+  private byte[] text = new byte[64];
+  private int textLength = 0;
+  private TokenType type;
+  private boolean atLineStart;
+  private boolean integer;
+  private int line;
+
+  /**
+   * Creates a tokenizer over the remaining bytes of the given buffer, e.g. a memory-mapped file.
+   */
+  public DPOMDPTokenizer(ByteBuffer buffer) {
+    this(buffer, null, 1);
+  }
+
+  /**
+   * Creates a tokenizer over the remaining bytes of the given buffer,
+   * which starts at the given line of the file, e.g. a part of a memory-mapped file.
+   */
+  public DPOMDPTokenizer(ByteBuffer buffer, int firstLine) {
+    this(buffer, null, firstLine);
+  }
+
+  /**
+   * Creates a tokenizer, that reads the given stream chunk by chunk.
+   */
+  public DPOMDPTokenizer(InputStream input) {
+    this(ByteBuffer.allocate(STREAM_BUFFER_SIZE).limit(0), input, 1);
+  }
+
+  private DPOMDPTokenizer(ByteBuffer buffer, InputStream input, int firstLine) {
+    this.buffer = buffer;
+    this.input = input;
+    this.line = firstLine;
+    this.position = buffer.position();
+    this.limit = buffer.limit();
+    skipByteOrderMark();
+    readToken(true);
+  }
+
+  /**
+   * @return the type of the current token
+   */
+  public TokenType getType() {
+    return type;
+  }
+
+  /**
+   * Creates a string of the current token.
+   * This should only be used for identifiers, as numbers, wildcards and keywords can be checked without it.
+   *
+   * @return the content of the current token
+   */
+  public String getText() {
+    return new String(text, 0, textLength, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @return whether the current token has the given ASCII content
+   */
+  public boolean hasText(String expected) {
+    if (type == TokenType.END || textLength != expected.length()) return false;
+    for (int i = 0; i < textLength; i++) {
+      if (text[i] != expected.charAt(i)) return false;
+    }
+    return true;
+  }
+
+  /**
+   * @return whether the current token is the wildcard '*'
+   */
+  public boolean isWildcard() {
+    return type == TokenType.WORD && textLength == 1 && text[0] == '*';
+  }
+
+  /**
+   * @return whether the current token is the first one in its line
+   */
+  public boolean isAtLineStart() {
+    return atLineStart;
+  }
+
+  /**
+   * @return whether the current token is a number without sign, fraction or exponent
+   */
+  public boolean isInteger() {
+    return type == TokenType.NUMBER && integer;
+  }
+
+  /**
+   * @return the line of the current token, starting at one
+   */
+  public int getLine() {
+    return line;
+  }
+
+  /**
+   * Returns the position of the first byte of the current token in the buffer,
+   * or the end of the buffer, if the end was reached.
+   * It is only meaningful for tokenizers over a buffer, as streams reuse their buffer.
+   *
+   * @return the position of the current token
+   */
+  public int getPosition() {
+    return tokenStart;
+  }
+
+  /**
+   * Parses the current token as number, without creating a string.
+   * If the number has at most 15 significant digits and a small exponent,
+   * it is exactly representable and computed directly, which covers nearly all numbers in .dpomdp files.
+   * Otherwise, it falls back to {@link Double#parseDouble(String)} to guarantee correct rounding.
+   *
+   * @return the current token as number
+   * @throws ParsingFailedException if the current token is no number
+   */
+  public double getNumber() {
+    if (type != TokenType.NUMBER) throw unexpectedToken("number");
+    var index = 0;
+    var negative = text[0] == '-';
+    if (text[0] == '-' || text[0] == '+') index++;
+    var mantissa = 0L;
+    var digits = 0;
+    var exponent = 0;
+    for (; index < textLength && isDigit(text[index]); index++) {
+      if (digits > 0 || text[index] != '0') {
+        if (++digits > MAX_EXACT_DIGITS) return parseNumberSlowly();
+        mantissa = mantissa * 10 + (text[index] - '0');
+      }
+    }
+    if (index < textLength && text[index] == '.') {
+      for (index++; index < textLength && isDigit(text[index]); index++) {
+        if (digits > 0 || text[index] != '0') {
+          if (++digits > MAX_EXACT_DIGITS) return parseNumberSlowly();
+          mantissa = mantissa * 10 + (text[index] - '0');
+        }
+        exponent--;
+      }
+    }
+    if (index < textLength) {
+      index++;
+      var negativeExponent = text[index] == '-';
+      if (text[index] == '-' || text[index] == '+') index++;
+      var explicitExponent = 0;
+      for (; index < textLength; index++) {
+        explicitExponent = explicitExponent * 10 + (text[index] - '0');
+        if (explicitExponent > EXACT_POWERS_OF_TEN.length + MAX_EXACT_DIGITS) return parseNumberSlowly();
+      }
+      exponent += negativeExponent ? -explicitExponent : explicitExponent;
+    }
+    if (Math.abs(exponent) >= EXACT_POWERS_OF_TEN.length) return parseNumberSlowly();
+    var value = exponent < 0
+      ? mantissa / EXACT_POWERS_OF_TEN[-exponent]
+      : mantissa * EXACT_POWERS_OF_TEN[exponent];
+    return negative ? -value : value;
+  }
+
+  /**
+   * @return the current token as non-negative integer
+   * @throws ParsingFailedException if the current token is no integer
+   */
+  public int getInteger() {
+    if (!isInteger()) throw unexpectedToken("integer");
+    var value = 0;
+    for (int i = 0; i < textLength; i++) {
+      value = Math.addExact(Math.multiplyExact(value, 10), text[i] - '0');
+    }
+    return value;
+  }
+
+  /**
+   * Consumes the current token and reads the next one.
+   */
+  public void advance() {
+    readToken(false);
+  }
+
+  /**
+   * Consumes the current token, if it is a colon, and fails otherwise.
+   *
+   * @throws ParsingFailedException if the current token is no colon
+   */
+  public void expectColon() {
+    if (type != TokenType.COLON) throw unexpectedToken("':'");
+    advance();
+  }
+
+  /**
+   * Creates an exception describing that the current token was not expected.
+   *
+   * @param expected a description of the expected token
+   * @return the exception to throw
+   */
+  public ParsingFailedException unexpectedToken(String expected) {
+    var found = type == TokenType.END ? "end of file" : "'" + getText() + "'";
+    return new ParsingFailedException("Expected " + expected + " in line " + line + ", but found " + found + ".");
+  }
+
+  private double parseNumberSlowly() {
+    return Double.parseDouble(new String(text, 0, textLength, StandardCharsets.US_ASCII));
+  }
+
+  private void readToken(boolean isFirstToken) {
+    textLength = 0;
+    atLineStart = isFirstToken;
+    var character = skipWhitespaceAndComments();
+    tokenStart = position;
+    if (character < 0) {
+      type = TokenType.END;
+      atLineStart = true;
+      return;
+    }
+    if (character == ':') {
+      type = TokenType.COLON;
+      appendToText(character);
+      position++;
+      return;
+    }
+    while (character >= 0 && !isDelimiter(character)) {
+      appendToText(character);
+      position++;
+      character = peekByte();
+    }
+    classifyWord();
+  }
+
+  private int skipWhitespaceAndComments() {
+    var character = peekByte();
+    while (character >= 0) {
+      if (character == '\n') {
+        atLineStart = true;
+        line++;
+      } else if (character == '#') {
+        while (character >= 0 && character != '\n') {
+          position++;
+          character = peekByte();
+        }
+        continue;
+      } else if (!isWhitespace(character)) {
+        return character;
+      }
+      position++;
+      character = peekByte();
+    }
+    return character;
+  }
+
+  private void skipByteOrderMark() {
+    if (limit - position >= 3
+      && buffer.get(position) == (byte) 0xEF
+      && buffer.get(position + 1) == (byte) 0xBB
+      && buffer.get(position + 2) == (byte) 0xBF) {
+      position += 3;
+    }
+  }
+
+  /**
+   * Checks, whether the word is a number, consisting of an optional sign,
+   * digits with an optional fraction, and an optional exponent.
+   */
+  private void classifyWord() {
+    var index = 0;
+    var first = text[0];
+    if (first == '+' || first == '-') index++;
+    var digits = 0;
+    while (index < textLength && isDigit(text[index])) {
+      index++;
+      digits++;
+    }
+    integer = index == textLength && digits > 0 && first != '+' && first != '-';
+    if (index < textLength && text[index] == '.') {
+      index++;
+      while (index < textLength && isDigit(text[index])) {
+        index++;
+        digits++;
+      }
+    }
+    if (digits > 0 && index < textLength && (text[index] == 'e' || text[index] == 'E')) {
+      var exponentStart = ++index;
+      if (index < textLength && (text[index] == '+' || text[index] == '-')) index++;
+      var exponentDigits = 0;
+      while (index < textLength && isDigit(text[index])) {
+        index++;
+        exponentDigits++;
+      }
+      if (exponentDigits == 0) index = exponentStart - 1;
+    }
+    type = digits > 0 && index == textLength ? TokenType.NUMBER : TokenType.WORD;
+  }
+
+  private void appendToText(int character) {
+    if (textLength == text.length) {
+      var newText = new byte[text.length * 2];
+      System.arraycopy(text, 0, newText, 0, textLength);
+      text = newText;
+    }
+    text[textLength++] = (byte) character;
+  }
+
+  private int peekByte() {
+    if (position < limit) return buffer.get(position) & 0xFF;
+    if (input == null) return -1;
+    try {
+      var read = input.readNBytes(buffer.array(), 0, buffer.capacity());
+      buffer.clear();
+      position = 0;
+      limit = read;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return limit > 0 ? buffer.get(0) & 0xFF : -1;
+  }
+
+  private static boolean isDelimiter(int character) {
+    return character == ':' || character == '#' || isWhitespace(character);
+  }
+
+  private static boolean isWhitespace(int character) {
+    return character == ' ' || character == '\n' || character == '\r' || character == '\t' || character == '\f' || character == 0x0B;
+  }
+
+  private static boolean isDigit(byte character) {
+    return character >= '0' && character <= '9';
+  }
+
+  public enum TokenType {
+    WORD,
+    NUMBER,
+    COLON,
+    END
+  }
+}
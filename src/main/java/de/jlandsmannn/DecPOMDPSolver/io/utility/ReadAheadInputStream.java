@@ -0,0 +1,106 @@
+package de.jlandsmannn.DecPOMDPSolver.io.utility;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * This stream reads another stream ahead in a background thread, block by block.
+ * This way, producing the bytes, e.g. decompressing a file, overlaps with processing them.
+ * Only a few blocks are buffered, so the memory usage does not depend on the size of the stream.
+ * Failures of the background thread are thrown, when the end of the read blocks is reached.
+ * Closing this stream stops the background thread and closes the other stream.
+ */
+public class ReadAheadInputStream extends InputStream {
+  private static final int BLOCK_SIZE = 1 << 16;
+  private static final int NUMBER_OF_BLOCKS = 4;
+  private static final byte[] END = new byte[0];
+
+  private final InputStream source;
+  private final BlockingQueue<byte[]> blocks = new ArrayBlockingQueue<>(NUMBER_OF_BLOCKS);
+  private final Thread reader;
+  private volatile IOException failure;
+  private byte[] block;
+  private int position;
+
+  public ReadAheadInputStream(InputStream source) {
+    this.source = source;
+    this.reader = new Thread(this::readAhead, "read-ahead");
+    this.reader.setDaemon(true);
+    this.reader.start();
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!nextBlockIfNecessary()) return -1;
+    return block[position++] & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] bytes, int offset, int length) throws IOException {
+    Objects.checkFromIndexSize(offset, length, bytes.length);
+    if (length == 0) return 0;
+    if (!nextBlockIfNecessary()) return -1;
+    var count = Math.min(length, block.length - position);
+    System.arraycopy(block, position, bytes, offset, count);
+    position += count;
+    return count;
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.interrupt();
+    try {
+      reader.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    source.close();
+  }
+
+  /**
+   * Takes the next block, if the current one was read completely.
+   *
+   * @return whether there are bytes left to read
+   * @throws IOException if reading the other stream failed
+   */
+  private boolean nextBlockIfNecessary() throws IOException {
+    if (block != null && block != END && position < block.length) return true;
+    if (block != END) {
+      try {
+        block = blocks.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for the next block.");
+      }
+      position = 0;
+    }
+    if (block != END) return true;
+    if (failure != null) throw failure;
+    return false;
+  }
+
+  private void readAhead() {
+    try {
+      try {
+        int length;
+        do {
+          var nextBlock = new byte[BLOCK_SIZE];
+          length = source.readNBytes(nextBlock, 0, BLOCK_SIZE);
+          if (length > 0) blocks.put(length == BLOCK_SIZE ? nextBlock : Arrays.copyOf(nextBlock, length));
+        } while (length == BLOCK_SIZE);
+      } catch (IOException e) {
+        failure = e;
+      } catch (RuntimeException e) {
+        failure = new IOException(e);
+      }
+      blocks.put(END);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
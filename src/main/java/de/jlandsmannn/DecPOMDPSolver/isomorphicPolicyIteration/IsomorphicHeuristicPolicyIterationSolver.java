@@ -11,6 +11,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.nio.file.Path;
 import java.util.List;
 import java.util.stream.IntStream;
 
@@ -29,6 +30,7 @@ public class IsomorphicHeuristicPolicyIterationSolver
   protected final ValueFunctionEvaluater<IsomorphicDecPOMDPWithStateController, ?> valueFunctionEvaluater;
 
   protected DecPOMDPWithStateController representativeDecPOMDP;
+  protected Path checkpointFile;
 
   @Autowired
   public IsomorphicHeuristicPolicyIterationSolver(IsomorphicHeuristicPolicyIterationConfig config,
@@ -51,6 +53,22 @@ public class IsomorphicHeuristicPolicyIterationSolver
     return decPOMDP.getValue();
   }
 
+  /**
+   * Solves the DecPOMDP like {@link #solve()},
+   * but resumes solving the representative DecPOMDP from the given checkpoint.
+   *
+   * @param checkpointFile the checkpoint to resume from
+   * @return the value of the DecPOMDP after solving
+   */
+  public double resume(Path checkpointFile) {
+    this.checkpointFile = checkpointFile;
+    try {
+      return solve();
+    } finally {
+      this.checkpointFile = null;
+    }
+  }
+
   protected void createRepresentativeDecPOMDP() {
     LOG.info("Creating representative DecPOMDP from isomorphic DecPOMDP.");
     List<AgentWithStateController> agents = decPOMDP.getAgents().stream().map(AgentWithStateController::new).toList();
@@ -69,8 +87,9 @@ public class IsomorphicHeuristicPolicyIterationSolver
     LOG.info("Solving representative DecPOMDP.");
     solver
       .setConfig(config.policyIterationConfig())
-      .setDecPOMDP(representativeDecPOMDP)
-      .solve();
+      .setDecPOMDP(representativeDecPOMDP);
+    if (checkpointFile == null) solver.solve();
+    else solver.resume(checkpointFile);
     LOG.info("Solving representative DecPOMDP resulted in value of {}.", representativeDecPOMDP.getValue());
   }
 
@@ -3,9 +3,12 @@ package de.jlandsmannn.DecPOMDPSolver.linearPrograms;
 import org.ojalgo.optimisation.ExpressionsBasedModel;
 import org.ojalgo.optimisation.solver.acm.SolverACM;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Service;
 
 @Qualifier("ACM")
+@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
 @Service
 public class ACMLinearProgramSolver extends OJALinearProgramSolver {
 
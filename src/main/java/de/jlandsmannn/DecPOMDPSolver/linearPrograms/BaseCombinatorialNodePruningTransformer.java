@@ -0,0 +1,117 @@
+package de.jlandsmannn.DecPOMDPSolver.linearPrograms;
+
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.State;
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.IAgentWithStateController;
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.IDecPOMDPWithStateController;
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.primitives.Node;
+import de.jlandsmannn.DecPOMDPSolver.domain.linearOptimization.CombinatorialNodePruningTransformer;
+import de.jlandsmannn.DecPOMDPSolver.domain.utility.CombinationCollectors;
+import de.jlandsmannn.DecPOMDPSolver.domain.utility.Distribution;
+import de.jlandsmannn.DecPOMDPSolver.domain.utility.Vector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This abstract class implements the parts of a {@link CombinatorialNodePruningTransformer}
+ * that are independent of the concrete linear program data type.
+ * It manages the dependencies and calculates the values of the agent's nodes,
+ * which are the coefficients of every linear program created for this agent.
+ *
+ * @param <LP>     the data type of the linear program
+ * @param <RESULT> the data type of the linear program's result
+ */
+public abstract class BaseCombinatorialNodePruningTransformer<LP, RESULT> implements CombinatorialNodePruningTransformer<IDecPOMDPWithStateController<?>, LP, RESULT> {
+  private static final Logger LOG = LoggerFactory.getLogger(BaseCombinatorialNodePruningTransformer.class);
+
+  protected IDecPOMDPWithStateController<?> decPOMDP;
+  protected IAgentWithStateController agent;
+  protected Collection<Distribution<State>> beliefPoints;
+  protected Map<Node, double[]> valueMatrix;
+  protected int numberOfNodeCombinations;
+  protected int numberOfRows;
+
+  @Override
+  public void setDecPOMDP(IDecPOMDPWithStateController<?> decPOMDP) {
+    this.decPOMDP = decPOMDP;
+    invalidateValueMatrix();
+  }
+
+  @Override
+  public void setAgent(IAgentWithStateController agent) {
+    if (decPOMDP == null) {
+      throw new IllegalStateException("DecPOMDP must be set to select agent");
+    } else if (!decPOMDP.getAgents().contains(agent)) {
+      throw new IllegalArgumentException("DecPOMDP does not contain given agent");
+    }
+    this.agent = agent;
+    invalidateValueMatrix();
+  }
+
+  @Override
+  public void setBeliefPoints(Collection<Distribution<State>> beliefPoints) {
+    if (beliefPoints.isEmpty()) {
+      throw new IllegalArgumentException("Belief points must not be empty");
+    }
+    this.beliefPoints = beliefPoints;
+    invalidateValueMatrix();
+  }
+
+  /**
+   * Returns the belief-weighted values of the agent's nodes
+   * for each combination of belief point and the other agents' initial nodes.
+   * The values are calculated once per agent and reused for all nodes to check,
+   * since pruning a node does neither change the values of the remaining nodes
+   * nor the initial nodes of the other agents.
+   *
+   * @return a map from each node to its values, one per combination of belief point and other agents' nodes
+   */
+  @Override
+  public Map<Node, double[]> getValueMatrix() {
+    var nodes = agent.getControllerNodes();
+    if (valueMatrix != null && valueMatrix.keySet().containsAll(nodes)) {
+      return valueMatrix;
+    }
+    var agentIndex = decPOMDP.getAgents().indexOf(agent);
+    var nodeCombinations = decPOMDP.getAgents()
+      .stream()
+      .filter(a -> !a.equals(agent))
+      .map(IAgentWithStateController::getInitialControllerNodes)
+      .map(List::copyOf)
+      .collect(CombinationCollectors.toCombinationVectors())
+      .toList();
+    var beliefStates = List.copyOf(beliefPoints);
+
+    numberOfNodeCombinations = nodeCombinations.size();
+    numberOfRows = beliefStates.size() * numberOfNodeCombinations;
+    valueMatrix = new ConcurrentHashMap<>();
+    nodes.stream().parallel().forEach(node -> {
+      var values = new double[numberOfRows];
+      for (int b = 0; b < beliefStates.size(); b++) {
+        for (int q = 0; q < numberOfNodeCombinations; q++) {
+          var vector = Vector.addEntry(nodeCombinations.get(q), agentIndex, node);
+          values[b * numberOfNodeCombinations + q] = decPOMDP.getValue(beliefStates.get(b), vector);
+        }
+      }
+      valueMatrix.put(node, values);
+    });
+    LOG.debug("Calculated value matrix with {} rows and {} columns for {}", numberOfRows, valueMatrix.size(), agent);
+    return valueMatrix;
+  }
+
+  protected void invalidateValueMatrix() {
+    valueMatrix = null;
+  }
+
+  protected void validateDependencies(Node node) {
+    if (decPOMDP == null || agent == null || beliefPoints == null) {
+      throw new IllegalStateException("DecPOMDP, agent and beliefPoints must be set to create linear program");
+    } else if (!agent.getControllerNodes().contains(node)) {
+      throw new IllegalArgumentException("NodeToCheck must be part of " + agent);
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package de.jlandsmannn.DecPOMDPSolver.linearPrograms;
+
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.IDecPOMDPWithStateController;
+import de.jlandsmannn.DecPOMDPSolver.domain.linearOptimization.CombinatorialNodePruningTransformer;
+import de.jlandsmannn.DecPOMDPSolver.domain.linearOptimization.LinearMaximisationSolver;
+import de.jlandsmannn.DecPOMDPSolver.policyIteration.CombinatorialNodePruner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Scope;
+import org.springframework.stereotype.Service;
+
+/**
+ * This is just a proxy for the {@link CombinatorialNodePruner}
+ * to provide a concretely typed instance to the DI.
+ * It connects {@link DenseCombinatorialNodePruningTransformer} and {@link DenseSimplexLinearProgramSolver}.
+ */
+@Primary
+@Qualifier("Dense")
+@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
+@Service
+public class DenseCombinatorialNodePruner extends CombinatorialNodePruner<IDecPOMDPWithStateController<?>, DenseDominanceLinearProgram, DenseDominanceResult> {
+  private static final Logger LOG = LoggerFactory.getLogger(DenseCombinatorialNodePruner.class);
+
+  @Autowired
+  public DenseCombinatorialNodePruner(CombinatorialNodePruningTransformer<IDecPOMDPWithStateController<?>, DenseDominanceLinearProgram, DenseDominanceResult> transformer,
+                                      LinearMaximisationSolver<DenseDominanceLinearProgram, DenseDominanceResult> solver) {
+    super(transformer, solver);
+    LOG.info("Using {} as transformer", transformer.getClass().getSimpleName());
+    LOG.info("Using {} as solver", solver.getClass().getSimpleName());
+  }
+}
@@ -0,0 +1,58 @@
+package de.jlandsmannn.DecPOMDPSolver.linearPrograms;
+
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.primitives.Node;
+import de.jlandsmannn.DecPOMDPSolver.domain.linearOptimization.CombinatorialNodePruningTransformer;
+import de.jlandsmannn.DecPOMDPSolver.domain.utility.Distribution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.annotation.Scope;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * This is an implementation of the {@link CombinatorialNodePruningTransformer},
+ * which creates {@link DenseDominanceLinearProgram}s directly from the value matrix
+ * to be solved by the {@link DenseSimplexLinearProgramSolver}.
+ */
+@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
+@Service
+public class DenseCombinatorialNodePruningTransformer extends BaseCombinatorialNodePruningTransformer<DenseDominanceLinearProgram, DenseDominanceResult> {
+  private static final Logger LOG = LoggerFactory.getLogger(DenseCombinatorialNodePruningTransformer.class);
+  private static final double EPSILON_TOLERANCE = 1e-9;
+
+  @Override
+  public DenseDominanceLinearProgram getLinearProgramForNode(Node nodeToCheck) {
+    validateDependencies(nodeToCheck);
+    var valueMatrix = getValueMatrix();
+    var nodes = new ArrayList<Node>();
+    var columns = new ArrayList<double[]>();
+    for (var node : agent.getControllerNodes()) {
+      if (node.equals(nodeToCheck)) continue;
+      nodes.add(node);
+      columns.add(valueMatrix.get(node));
+    }
+    LOG.debug("Created dense linear program with {} columns and {} rows.", nodes.size(), numberOfRows);
+    return new DenseDominanceLinearProgram(nodes, columns.toArray(double[][]::new), valueMatrix.get(nodeToCheck));
+  }
+
+  @Override
+  public Optional<Distribution<Node>> getDominatingNodeDistributionFromResult(DenseDominanceResult result) {
+    if (result.epsilon() < -EPSILON_TOLERANCE) {
+      LOG.debug("Epsilon is negative, no dominating combination exists.");
+      return Optional.empty();
+    }
+    Map<Node, Double> mappedResults = new HashMap<>();
+    var weights = result.weights();
+    for (int i = 0; i < weights.length; i++) {
+      if (weights[i] <= 0D) continue;
+      mappedResults.put(result.nodes().get(i), weights[i]);
+    }
+    LOG.debug("Dominating combination consists of {} nodes", mappedResults.keySet().size());
+    return Optional.of(Distribution.normalizeOf(mappedResults));
+  }
+}
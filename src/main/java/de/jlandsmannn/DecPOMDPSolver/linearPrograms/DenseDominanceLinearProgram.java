@@ -0,0 +1,36 @@
+package de.jlandsmannn.DecPOMDPSolver.linearPrograms;
+
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.primitives.Node;
+
+import java.util.List;
+
+/**
+ * This record describes the linear program used for combinatorial pruning in a dense, primitive form.
+ * It searches for a convex combination x of the given nodes maximising epsilon,
+ * such that for each row r: sum_j x_j * columns[j][r] - epsilon >= lowerBounds[r].
+ *
+ * @param nodes       the nodes, which can be combined, one per column
+ * @param columns     the values of each node, one array per node with one entry per row
+ * @param lowerBounds the values of the node to check, one per row
+ */
+public record DenseDominanceLinearProgram(List<Node> nodes, double[][] columns, double[] lowerBounds) {
+
+  public DenseDominanceLinearProgram {
+    if (nodes.size() != columns.length) {
+      throw new IllegalArgumentException("Number of nodes doesn't match number of columns.");
+    }
+    for (var column : columns) {
+      if (column.length != lowerBounds.length) {
+        throw new IllegalArgumentException("Length of column doesn't match number of rows.");
+      }
+    }
+  }
+
+  public int numberOfColumns() {
+    return columns.length;
+  }
+
+  public int numberOfRows() {
+    return lowerBounds.length;
+  }
+}
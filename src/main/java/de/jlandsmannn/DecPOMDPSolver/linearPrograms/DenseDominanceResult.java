@@ -0,0 +1,15 @@
+package de.jlandsmannn.DecPOMDPSolver.linearPrograms;
+
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.primitives.Node;
+
+import java.util.List;
+
+/**
+ * This record describes the optimal solution of a {@link DenseDominanceLinearProgram}.
+ *
+ * @param nodes   the nodes of the linear program, one per weight
+ * @param epsilon the maximal epsilon, negative if no dominating combination exists
+ * @param weights the probabilities of the nodes in the dominating combination
+ */
+public record DenseDominanceResult(List<Node> nodes, double epsilon, double[] weights) {
+}
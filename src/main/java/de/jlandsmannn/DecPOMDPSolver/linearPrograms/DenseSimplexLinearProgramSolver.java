@@ -0,0 +1,281 @@
+package de.jlandsmannn.DecPOMDPSolver.linearPrograms;
+
+import de.jlandsmannn.DecPOMDPSolver.domain.linearOptimization.LinearMaximisationSolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.annotation.Scope;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * This class implements the {@link LinearMaximisationSolver}
+ * specifically for the {@link DenseDominanceLinearProgram}, which is only ever maximised.
+ * The linear program is interpreted as a matrix game, where the columns (nodes) play against the rows.
+ * After shifting all values to be positive, the game's value is obtained
+ * by solving max sum(z) subject to B z <= 1, z >= 0 with a dense primal simplex,
+ * where B has one row per node and one column per row of the linear program.
+ * Hence, there is one constraint per node and one variable z per row of the linear program.
+ * Since the origin is always feasible, no first phase is needed.
+ * The dual values of the slack variables yield the optimal convex combination of nodes.
+ * The final basis is kept per thread and reused as a warm start for the next linear program of the same shape,
+ * that is with the same number of rows and columns, since the basis indexes both.
+ */
+@Qualifier("Dense")
+@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
+@Service
+public class DenseSimplexLinearProgramSolver implements LinearMaximisationSolver<DenseDominanceLinearProgram, DenseDominanceResult> {
+  private static final Logger LOG = LoggerFactory.getLogger(DenseSimplexLinearProgramSolver.class);
+  private static final double TOLERANCE = 1e-10;
+  private static final int MAX_ITERATIONS_PER_DIMENSION = 50;
+
+  private final ThreadLocal<Basis> lastBasis = new ThreadLocal<>();
+  protected DenseDominanceLinearProgram linearProgram;
+  protected boolean warmStart = true;
+
+  public DenseSimplexLinearProgramSolver setWarmStart(boolean warmStart) {
+    this.warmStart = warmStart;
+    return this;
+  }
+
+  @Override
+  public void setLinearProgram(DenseDominanceLinearProgram linearProgram) {
+    LOG.debug("Receiving linear program: {}", linearProgram);
+    this.linearProgram = linearProgram;
+  }
+
+  @Override
+  public Optional<DenseDominanceResult> maximise() {
+    if (linearProgram == null) {
+      throw new IllegalStateException("Linear program must be set to maximise it.");
+    }
+    return maximise(linearProgram);
+  }
+
+  /**
+   * Maximises epsilon of the given linear program.
+   * This method does not touch any shared state, so it can be called concurrently.
+   *
+   * @param linearProgram the linear program to maximise
+   * @return the optimal epsilon and the weights of the nodes, if the simplex converged
+   */
+  @Override
+  public Optional<DenseDominanceResult> maximise(DenseDominanceLinearProgram linearProgram) {
+    var numberOfColumns = linearProgram.numberOfColumns();
+    var numberOfRows = linearProgram.numberOfRows();
+    if (numberOfColumns == 0 || numberOfRows == 0) {
+      LOG.debug("Linear program is empty, no solution exists.");
+      return Optional.empty();
+    }
+
+    var shift = calculateShift(linearProgram);
+    var tableau = new Tableau(linearProgram, shift);
+    var previousBasis = lastBasis.get();
+    if (warmStart && previousBasis != null && previousBasis.fits(numberOfRows, numberOfColumns) && !tableau.applyBasis(previousBasis.variables())) {
+      LOG.debug("Previous basis is not feasible, starting from slack basis.");
+      tableau = new Tableau(linearProgram, shift);
+    }
+
+    var maxIterations = MAX_ITERATIONS_PER_DIMENSION * (numberOfRows + numberOfColumns);
+    if (!tableau.optimise(maxIterations)) {
+      LOG.warn("Simplex did not converge within {} iterations.", maxIterations);
+      lastBasis.remove();
+      return Optional.empty();
+    }
+    lastBasis.set(new Basis(numberOfRows, tableau.basis.clone()));
+
+    var gameValue = 1D / tableau.getObjectiveValue();
+    var epsilon = gameValue - shift;
+    var weights = tableau.getSlackDualValues();
+    for (int j = 0; j < weights.length; j++) {
+      weights[j] = Math.max(0D, weights[j] * gameValue);
+    }
+    LOG.debug("Simplex converged after {} iterations with epsilon {}", tableau.iterations, epsilon);
+    return Optional.of(new DenseDominanceResult(linearProgram.nodes(), epsilon, weights));
+  }
+
+  /**
+   * Calculates the shift, which makes all entries of (columns - lowerBounds + shift) at least 1.
+   */
+  private static double calculateShift(DenseDominanceLinearProgram linearProgram) {
+    var minimum = Double.POSITIVE_INFINITY;
+    var lowerBounds = linearProgram.lowerBounds();
+    for (var column : linearProgram.columns()) {
+      for (int r = 0; r < lowerBounds.length; r++) {
+        minimum = Math.min(minimum, column[r] - lowerBounds[r]);
+      }
+    }
+    return 1D - minimum;
+  }
+
+  /**
+   * The basic variables of a solved tableau together with the number of rows of its linear program.
+   * The number of columns is the number of basic variables.
+   */
+  private record Basis(int numberOfRows, int[] variables) {
+    boolean fits(int numberOfRows, int numberOfColumns) {
+      return this.numberOfRows == numberOfRows && variables.length == numberOfColumns;
+    }
+  }
+
+  /**
+   * A dense simplex tableau for max sum(z) subject to B z + s = 1, z, s >= 0.
+   * There is one tableau row per node, the tableau columns are the z variables (one per row of the linear program),
+   * the slack variables (one per node), followed by the right-hand side.
+   */
+  private static class Tableau {
+    private final double[][] rows;
+    private final double[] objective;
+    private final int[] basis;
+    private final int numberOfVariables;
+    private final int numberOfStructuralVariables;
+    private final int rhs;
+    private int iterations = 0;
+
+    Tableau(DenseDominanceLinearProgram linearProgram, double shift) {
+      var columns = linearProgram.columns();
+      var lowerBounds = linearProgram.lowerBounds();
+      numberOfStructuralVariables = lowerBounds.length;
+      numberOfVariables = numberOfStructuralVariables + columns.length;
+      rhs = numberOfVariables;
+      rows = new double[columns.length][numberOfVariables + 1];
+      objective = new double[numberOfVariables + 1];
+      basis = new int[columns.length];
+      for (int j = 0; j < columns.length; j++) {
+        for (int r = 0; r < numberOfStructuralVariables; r++) {
+          rows[j][r] = columns[j][r] - lowerBounds[r] + shift;
+        }
+        rows[j][numberOfStructuralVariables + j] = 1D;
+        rows[j][rhs] = 1D;
+        basis[j] = numberOfStructuralVariables + j;
+      }
+      for (int r = 0; r < numberOfStructuralVariables; r++) {
+        objective[r] = -1D;
+      }
+    }
+
+    /**
+     * Pivots the given variables into the basis.
+     *
+     * @param targetBasis the variables to pivot into the basis
+     * @return whether the resulting basis is primal feasible
+     */
+    boolean applyBasis(int[] targetBasis) {
+      var isTarget = new boolean[numberOfVariables];
+      for (var variable : targetBasis) {
+        if (variable < 0 || variable >= numberOfVariables) return false;
+        isTarget[variable] = true;
+      }
+      var isBasic = new boolean[numberOfVariables];
+      for (var variable : basis) isBasic[variable] = true;
+
+      for (var variable : targetBasis) {
+        if (isBasic[variable]) continue;
+        var pivotRow = -1;
+        var pivotValue = TOLERANCE;
+        for (int i = 0; i < rows.length; i++) {
+          if (isTarget[basis[i]]) continue;
+          var value = Math.abs(rows[i][variable]);
+          if (value > pivotValue) {
+            pivotValue = value;
+            pivotRow = i;
+          }
+        }
+        if (pivotRow < 0) return false;
+        isBasic[basis[pivotRow]] = false;
+        pivot(pivotRow, variable);
+        isBasic[variable] = true;
+      }
+      for (var row : rows) {
+        if (row[rhs] < -TOLERANCE) return false;
+      }
+      return true;
+    }
+
+    /**
+     * Runs the primal simplex until no improving variable exists.
+     * It uses the most negative reduced cost and falls back to Bland's rule after a series of degenerate pivots.
+     *
+     * @param maxIterations the maximum number of pivots
+     * @return whether an optimal basis was found
+     */
+    boolean optimise(int maxIterations) {
+      var degeneratePivots = 0;
+      while (iterations < maxIterations) {
+        var useBlandsRule = degeneratePivots > rows.length;
+        var enteringVariable = selectEnteringVariable(useBlandsRule);
+        if (enteringVariable < 0) return true;
+        var leavingRow = selectLeavingRow(enteringVariable);
+        if (leavingRow < 0) return false;
+        var ratio = rows[leavingRow][rhs] / rows[leavingRow][enteringVariable];
+        degeneratePivots = ratio <= TOLERANCE ? degeneratePivots + 1 : 0;
+        pivot(leavingRow, enteringVariable);
+        iterations++;
+      }
+      return false;
+    }
+
+    double getObjectiveValue() {
+      return objective[rhs];
+    }
+
+    double[] getSlackDualValues() {
+      var dualValues = new double[rows.length];
+      System.arraycopy(objective, numberOfStructuralVariables, dualValues, 0, rows.length);
+      return dualValues;
+    }
+
+    private int selectEnteringVariable(boolean useBlandsRule) {
+      var enteringVariable = -1;
+      var mostNegative = -TOLERANCE;
+      for (int k = 0; k < numberOfVariables; k++) {
+        if (objective[k] >= mostNegative) continue;
+        if (useBlandsRule) return k;
+        mostNegative = objective[k];
+        enteringVariable = k;
+      }
+      return enteringVariable;
+    }
+
+    private int selectLeavingRow(int enteringVariable) {
+      var leavingRow = -1;
+      var minimalRatio = Double.POSITIVE_INFINITY;
+      for (int i = 0; i < rows.length; i++) {
+        var coefficient = rows[i][enteringVariable];
+        if (coefficient <= TOLERANCE) continue;
+        var ratio = rows[i][rhs] / coefficient;
+        if (ratio < minimalRatio - TOLERANCE
+          || (ratio <= minimalRatio + TOLERANCE && basis[i] < basis[leavingRow])) {
+          minimalRatio = Math.min(ratio, minimalRatio);
+          leavingRow = i;
+        }
+      }
+      return leavingRow;
+    }
+
+    private void pivot(int pivotRowIndex, int pivotVariable) {
+      var pivotRow = rows[pivotRowIndex];
+      var pivotValue = pivotRow[pivotVariable];
+      for (int k = 0; k <= numberOfVariables; k++) {
+        pivotRow[k] /= pivotValue;
+      }
+      for (int i = 0; i < rows.length; i++) {
+        if (i == pivotRowIndex) continue;
+        eliminate(rows[i], pivotRow, pivotVariable);
+      }
+      eliminate(objective, pivotRow, pivotVariable);
+      basis[pivotRowIndex] = pivotVariable;
+    }
+
+    private void eliminate(double[] row, double[] pivotRow, int pivotVariable) {
+      var factor = row[pivotVariable];
+      if (factor == 0) return;
+      for (int k = 0; k <= numberOfVariables; k++) {
+        row[k] -= factor * pivotRow[k];
+      }
+      row[pivotVariable] = 0D;
+    }
+  }
+}
@@ -9,7 +9,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.context.annotation.Primary;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Service;
 
 import java.util.Map;
@@ -19,8 +20,8 @@ import java.util.Map;
  * to provide a concretely typed instance to the DI.
  * It connects {@link OJACombinatorialNodePruningTransformer} and {@link OJALinearProgramSolver}.
  */
-@Primary
 @Qualifier("Ojalgo")
+@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
 @Service
 public class OJACombinatorialNodePruner extends CombinatorialNodePruner<IDecPOMDPWithStateController<?>, ExpressionsBasedModel, Map<String, Double>> {
   private static final Logger LOG = LoggerFactory.getLogger(OJACombinatorialNodePruner.class);
@@ -1,21 +1,20 @@
 package de.jlandsmannn.DecPOMDPSolver.linearPrograms;
 
-import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.State;
 import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.DecPOMDPWithStateController;
-import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.IAgentWithStateController;
-import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.IDecPOMDPWithStateController;
 import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.primitives.Node;
 import de.jlandsmannn.DecPOMDPSolver.domain.linearOptimization.CombinatorialNodePruningTransformer;
-import de.jlandsmannn.DecPOMDPSolver.domain.utility.CombinationCollectors;
 import de.jlandsmannn.DecPOMDPSolver.domain.utility.Distribution;
-import de.jlandsmannn.DecPOMDPSolver.domain.utility.Vector;
 import org.ojalgo.optimisation.ExpressionsBasedModel;
 import org.ojalgo.optimisation.Variable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Service;
 
-import java.util.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * This is an implementation of the {@link CombinatorialNodePruningTransformer}
@@ -23,43 +22,19 @@ import java.util.*;
  * to find a dominating combination of nodes.
  * In addition to that, it creates such a combination of nodes
  * as a {@link Distribution} from the results of the linear program.
+ * The values of the agent's nodes are calculated once per agent
+ * by {@link BaseCombinatorialNodePruningTransformer} and shared between the linear programs of all its nodes.
  */
+@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
 @Service
-public class OJACombinatorialNodePruningTransformer implements CombinatorialNodePruningTransformer<IDecPOMDPWithStateController<?>, ExpressionsBasedModel, Map<String, Double>> {
+public class OJACombinatorialNodePruningTransformer extends BaseCombinatorialNodePruningTransformer<ExpressionsBasedModel, Map<String, Double>> {
   private static final Logger LOG = LoggerFactory.getLogger(OJACombinatorialNodePruningTransformer.class);
 
-  private IDecPOMDPWithStateController<?> decPOMDP;
-  private IAgentWithStateController agent;
-  private Collection<Distribution<State>> beliefPoints;
-
-  @Override
-  public void setDecPOMDP(IDecPOMDPWithStateController<?> decPOMDP) {
-    this.decPOMDP = decPOMDP;
-  }
-
-  @Override
-  public void setAgent(IAgentWithStateController agent) {
-    if (decPOMDP == null) {
-      throw new IllegalStateException("DecPOMDP must be set to select agent");
-    } else if (!decPOMDP.getAgents().contains(agent)) {
-      throw new IllegalArgumentException("DecPOMDP does not contain given agent");
-    }
-    this.agent = agent;
-  }
-
-  @Override
-  public void setBeliefPoints(Collection<Distribution<State>> beliefPoints) {
-    if (beliefPoints.isEmpty()) {
-      throw new IllegalArgumentException("Belief points must not be empty");
-    }
-    this.beliefPoints = beliefPoints;
-  }
-
   @Override
   public ExpressionsBasedModel getLinearProgramForNode(Node nodeToCheck) {
     validateDependencies(nodeToCheck);
+    var valueMatrix = getValueMatrix();
     var linearProgram = new ExpressionsBasedModel();
-    var agentIndex = decPOMDP.getAgents().indexOf(agent);
     var epsilon = linearProgram.newVariable("epsilon").lower(0).weight(1);
     var nodeDistribution = linearProgram.newExpression("x(q)").level(1);
     var nodeVariables = new HashMap<Node, Variable>();
@@ -71,36 +46,17 @@ public class OJACombinatorialNodePruningTransformer implements CombinatorialNode
       nodeVariables.put(node, nodeVariable);
     }
 
-    var nodeCombinations = decPOMDP.getAgents()
-      .stream()
-      .filter(a -> !a.equals(agent))
-      .map(IAgentWithStateController::getInitialControllerNodes)
-      .map(List::copyOf)
-      .collect(CombinationCollectors.toCombinationVectors())
-      .toList();
-
-
-    var beliefStateIndex = 0;
-    for (var beliefState : beliefPoints) {
-      var nodeVectorIndex = 0;
-      for (var nodeVector : nodeCombinations) {
-        var nodeToCheckVector = Vector.addEntry(nodeVector, agentIndex, nodeToCheck);
-        var nodeToCheckValue = decPOMDP.getValue(beliefState, nodeToCheckVector);
-
-        var expression = linearProgram.newExpression("b: " + beliefStateIndex + ", q-i: " + nodeVectorIndex).lower(nodeToCheckValue);
-        expression.add(epsilon, -1);
+    var nodeToCheckValues = valueMatrix.get(nodeToCheck);
+    for (int row = 0; row < numberOfRows; row++) {
+      var beliefStateIndex = row / numberOfNodeCombinations;
+      var nodeVectorIndex = row % numberOfNodeCombinations;
+      var expression = linearProgram.newExpression("b: " + beliefStateIndex + ", q-i: " + nodeVectorIndex).lower(nodeToCheckValues[row]);
+      expression.add(epsilon, -1);
 
-        for (var node : agent.getControllerNodes()) {
-          if (node.equals(nodeToCheck)) continue;
-          var nodeVariable = nodeVariables.get(node);
-          var vector = Vector.addEntry(nodeVector, agentIndex, node);
-          var value = decPOMDP.getValue(beliefState, vector);
-          expression.add(nodeVariable, value);
-        }
-
-        nodeVectorIndex++;
+      for (var entry : nodeVariables.entrySet()) {
+        var value = valueMatrix.get(entry.getKey())[row];
+        expression.add(entry.getValue(), value);
       }
-      beliefStateIndex++;
     }
     LOG.debug("Created linear program with {} variables and {} expressions.", linearProgram.countVariables(), linearProgram.countExpressions());
     return linearProgram;
@@ -122,12 +78,4 @@ public class OJACombinatorialNodePruningTransformer implements CombinatorialNode
     var distribution = Distribution.of(mappedResults);
     return Optional.of(distribution);
   }
-
-  private void validateDependencies(Node node) {
-    if (decPOMDP == null || agent == null || beliefPoints == null) {
-      throw new IllegalStateException("DecPOMDP, agent and beliefPoints must be set to create linear program");
-    } else if (!agent.getControllerNodes().contains(node)) {
-      throw new IllegalArgumentException("NodeToCheck must be part of " + agent);
-    }
-  }
 }
@@ -6,7 +6,9 @@ import org.ojalgo.optimisation.Optimisation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Service;
 
 import java.util.Map;
@@ -19,6 +21,7 @@ import java.util.stream.Collectors;
  */
 @Primary
 @Qualifier("OJA")
+@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
 @Service
 public class OJALinearProgramSolver implements LinearOptimizationSolver<ExpressionsBasedModel, Map<String, Double>> {
   private static final Logger LOG = LoggerFactory.getLogger(OJALinearProgramSolver.class);
@@ -35,7 +38,7 @@ public class OJALinearProgramSolver implements LinearOptimizationSolver<Expressi
   public Optional<Map<String, Double>> maximise() {
     try {
       var result = linearProgram.maximise();
-      return transformResultIntoMap(result);
+      return transformResultIntoMap(linearProgram, result);
     } catch (Exception e) {
       return Optional.empty();
     }
@@ -45,7 +48,25 @@ public class OJALinearProgramSolver implements LinearOptimizationSolver<Expressi
   public Optional<Map<String, Double>> minimise() {
     try {
       var result = linearProgram.minimise();
-      return transformResultIntoMap(result);
+      return transformResultIntoMap(linearProgram, result);
+    } catch (Exception e) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Maximises the given linear program.
+   * Since it does not touch the linear program set via {@link #setLinearProgram(ExpressionsBasedModel)},
+   * this method can be called concurrently for different linear programs.
+   *
+   * @param linearProgram the linear program to maximise
+   * @return the values of all variables and the objective, if an optimal solution exists
+   */
+  @Override
+  public Optional<Map<String, Double>> maximise(ExpressionsBasedModel linearProgram) {
+    try {
+      var result = linearProgram.maximise();
+      return transformResultIntoMap(linearProgram, result);
     } catch (Exception e) {
       return Optional.empty();
     }
@@ -60,18 +81,18 @@ public class OJALinearProgramSolver implements LinearOptimizationSolver<Expressi
     }
   }
 
-  private Optional<Map<String, Double>> transformResultIntoMap(Optimisation.Result result) {
+  private Optional<Map<String, Double>> transformResultIntoMap(ExpressionsBasedModel linearProgram, Optimisation.Result result) {
     if (!result.getState().isOptimal()) {
       LOG.debug("Minimising linear program was not successful: {}", result.getState());
       return Optional.empty();
     }
     LOG.debug("Minimising linear program has feasible solution: {}", result);
-    var mappedResults = createMapOfVariables();
+    var mappedResults = createMapOfVariables(linearProgram);
     mappedResults.put("objective", result.getValue());
     return Optional.of(mappedResults);
   }
 
-  private Map<String, Double> createMapOfVariables() {
+  private Map<String, Double> createMapOfVariables(ExpressionsBasedModel linearProgram) {
     return linearProgram.getVariables()
       .stream()
       .map(v -> Map.entry(v.getName(), v.getValue().doubleValue()))
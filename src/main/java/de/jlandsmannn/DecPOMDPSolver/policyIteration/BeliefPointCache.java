@@ -0,0 +1,328 @@
+package de.jlandsmannn.DecPOMDPSolver.policyIteration;
+
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.GroundDecPOMDP;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.IAgent;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.IDecPOMDP;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.Action;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.Observation;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.State;
+import de.jlandsmannn.DecPOMDPSolver.domain.utility.Distribution;
+import de.jlandsmannn.DecPOMDPSolver.domain.utility.Vector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.annotation.Scope;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * This class caches generated belief points on disk.
+ * The belief points are stored in a compact, versioned binary file,
+ * named by a fingerprint of the DecPOMDP and all parameters of the belief point generation.
+ * If a file with a matching fingerprint exists, the belief points are loaded from it instead of being generated again.
+ * Since generation is only reproducible for a fixed seed, nothing is cached without one.
+ */
+@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
+@Service
+public class BeliefPointCache {
+  private static final Logger LOG = LoggerFactory.getLogger(BeliefPointCache.class);
+  private static final int MAGIC_NUMBER = 0x42504331;
+  private static final int VERSION = 1;
+  private static final String FILE_EXTENSION = ".bpc";
+
+  private Path directory;
+
+  public BeliefPointCache setDirectory(Path directory) {
+    LOG.debug("Retrieving belief point cache directory: {}", directory);
+    this.directory = directory;
+    return this;
+  }
+
+  public boolean isEnabled() {
+    return directory != null;
+  }
+
+  /**
+   * Creates a fingerprint of the given DecPOMDP and the parameters for generating belief points.
+   * It covers everything the generation depends on:
+   * the states, agents, initial belief state, transition and observation function of the DecPOMDP,
+   * as well as the seed, number of belief points, maximal generation runs, distance threshold,
+   * sampling method and initial policies.
+   * Rewards and the discount factor do not influence the belief points, so they are not part of the fingerprint.
+   *
+   * @param decPOMDP the DecPOMDP the belief points are generated for
+   * @param config   the config with the generation parameters
+   * @return the fingerprint as hex string, or empty if no seed is configured
+   */
+  public Optional<String> createFingerprint(IDecPOMDP<?> decPOMDP, HeuristicPolicyIterationConfig config) {
+    if (config.beliefPointGenerationSeed() == 0) return Optional.empty();
+    var digest = new FingerprintDigest();
+    digest.update(config.beliefPointGenerationSeed());
+    digest.update(config.beliefPointDesiredNumber());
+    digest.update(config.beliefPointGenerationMaxRuns());
+    digest.update(config.beliefPointDistanceThreshold());
+    digest.update(config.beliefPointRolloutSampling() ? config.beliefPointRolloutHorizon() : -1);
+    updateWithDecPOMDP(digest, decPOMDP);
+    updateWithPolicies(digest, decPOMDP, config.initialPolicies());
+    return Optional.of(digest.toHexString());
+  }
+
+  /**
+   * Loads the belief points stored for the given fingerprint.
+   *
+   * @param decPOMDP    the DecPOMDP to resolve agents and states
+   * @param fingerprint the fingerprint to load the belief points for
+   * @return the belief points for each agent, or empty if none are stored or the file is not readable
+   */
+  public Optional<Map<IAgent, Set<Distribution<State>>>> load(IDecPOMDP<?> decPOMDP, String fingerprint) {
+    if (!isEnabled()) return Optional.empty();
+    var file = getFile(fingerprint);
+    if (!Files.isRegularFile(file)) return Optional.empty();
+    try (var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (input.readInt() != MAGIC_NUMBER || input.readInt() != VERSION || !input.readUTF().equals(fingerprint)) {
+        LOG.warn("Belief point cache file {} does not match its fingerprint, ignoring it.", file);
+        return Optional.empty();
+      }
+      var agents = decPOMDP.getAgents();
+      var states = decPOMDP.getStates();
+      var beliefPoints = new HashMap<IAgent, Set<Distribution<State>>>();
+      var numberOfAgents = input.readInt();
+      for (int i = 0; i < numberOfAgents; i++) {
+        var agent = agents.get(input.readInt());
+        var numberOfBeliefPoints = input.readInt();
+        var agentBeliefPoints = new HashSet<Distribution<State>>(numberOfBeliefPoints);
+        for (int j = 0; j < numberOfBeliefPoints; j++) {
+          var numberOfEntries = input.readInt();
+          var beliefPoint = new HashMap<State, Double>(numberOfEntries);
+          for (int k = 0; k < numberOfEntries; k++) {
+            beliefPoint.put(states.get(input.readInt()), input.readDouble());
+          }
+          agentBeliefPoints.add(Distribution.of(beliefPoint));
+        }
+        beliefPoints.put(agent, agentBeliefPoints);
+      }
+      LOG.info("Loaded belief points from cache file {}", file);
+      return Optional.of(beliefPoints);
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("Could not read belief point cache file {}, ignoring it.", file, e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Stores the belief points for the given fingerprint.
+   * The file is written to a temporary file first and moved afterward,
+   * so concurrent runs never read a partially written file.
+   *
+   * @param decPOMDP     the DecPOMDP to resolve indices of agents and states
+   * @param fingerprint  the fingerprint to store the belief points for
+   * @param beliefPoints the belief points for each agent
+   */
+  public void store(IDecPOMDP<?> decPOMDP, String fingerprint, Map<IAgent, Set<Distribution<State>>> beliefPoints) {
+    if (!isEnabled()) return;
+    var file = getFile(fingerprint);
+    var agents = decPOMDP.getAgents();
+    var stateIndices = new HashMap<State, Integer>();
+    for (int i = 0; i < decPOMDP.getStates().size(); i++) {
+      stateIndices.put(decPOMDP.getStates().get(i), i);
+    }
+    try {
+      Files.createDirectories(directory);
+      var temporaryFile = Files.createTempFile(directory, fingerprint, ".tmp");
+      try (var output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+        output.writeInt(MAGIC_NUMBER);
+        output.writeInt(VERSION);
+        output.writeUTF(fingerprint);
+        output.writeInt(beliefPoints.size());
+        for (var entry : beliefPoints.entrySet()) {
+          output.writeInt(agents.indexOf(entry.getKey()));
+          output.writeInt(entry.getValue().size());
+          for (var beliefPoint : entry.getValue()) {
+            output.writeInt(beliefPoint.size());
+            for (var stateEntry : beliefPoint.entrySet()) {
+              output.writeInt(stateIndices.get(stateEntry.getKey()));
+              output.writeDouble(stateEntry.getValue());
+            }
+          }
+        }
+      }
+      Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      LOG.info("Stored belief points in cache file {}", file);
+    } catch (IOException e) {
+      LOG.warn("Could not write belief point cache file {}", file, e);
+    }
+  }
+
+  private Path getFile(String fingerprint) {
+    return directory.resolve(fingerprint + FILE_EXTENSION);
+  }
+
+  private void updateWithDecPOMDP(FingerprintDigest digest, IDecPOMDP<?> decPOMDP) {
+    var states = decPOMDP.getStates();
+    var actionVectors = decPOMDP.getActionVectors();
+    var observationVectors = decPOMDP.getObservationVectors();
+    digest.update(states.size());
+    for (var state : states) digest.update(state.toString());
+    for (var agent : decPOMDP.getAgents()) {
+      digest.update(agent.toString());
+      for (var action : agent.getActions()) digest.update(action.toString());
+      for (var observation : agent.getObservations()) digest.update(observation.toString());
+    }
+    for (var state : states) digest.update(decPOMDP.getInitialBeliefState().getProbability(state));
+    if (decPOMDP instanceof GroundDecPOMDP<?> groundDecPOMDP) {
+      updateWithStoredDistributions(digest, groundDecPOMDP, states, actionVectors, observationVectors);
+    } else {
+      updateWithProbabilities(digest, decPOMDP, states, actionVectors, observationVectors);
+    }
+  }
+
+  /**
+   * Hashes the non-zero entries of the stored transition and observation distributions,
+   * so the fingerprint scales with the number of non-zero probabilities instead of |S|²·|A| and |A|·|S|·|O|.
+   * Entries are hashed by index in the order of states and observation vectors,
+   * which makes the fingerprint independent of the iteration order of the distributions
+   * and equal to the one of {@link #updateWithProbabilities}.
+   */
+  private void updateWithStoredDistributions(FingerprintDigest digest,
+                                             GroundDecPOMDP<?> decPOMDP,
+                                             List<State> states,
+                                             List<Vector<Action>> actionVectors,
+                                             List<Vector<Observation>> observationVectors) {
+    var stateIndices = getIndices(states);
+    var observationVectorIndices = getIndices(observationVectors);
+    var transitionFunction = decPOMDP.getTransitionFunction();
+    for (var state : states) {
+      var transitions = transitionFunction.getOrDefault(state, Map.of());
+      for (var actionVector : actionVectors) {
+        updateWithDistribution(digest, transitions.get(actionVector), stateIndices);
+      }
+    }
+    var observationFunction = decPOMDP.getObservationFunction();
+    for (var actionVector : actionVectors) {
+      var observations = observationFunction.getOrDefault(actionVector, Map.of());
+      for (var followState : states) {
+        updateWithDistribution(digest, observations.get(followState), observationVectorIndices);
+      }
+    }
+  }
+
+  private void updateWithProbabilities(FingerprintDigest digest,
+                                       IDecPOMDP<?> decPOMDP,
+                                       List<State> states,
+                                       List<Vector<Action>> actionVectors,
+                                       List<Vector<Observation>> observationVectors) {
+    for (var state : states) {
+      for (var actionVector : actionVectors) {
+        digest.beginRow();
+        for (int i = 0; i < states.size(); i++) {
+          digest.updateEntry(i, decPOMDP.getTransitionProbability(state, actionVector, states.get(i)));
+        }
+      }
+    }
+    for (var actionVector : actionVectors) {
+      for (var followState : states) {
+        digest.beginRow();
+        for (int i = 0; i < observationVectors.size(); i++) {
+          digest.updateEntry(i, decPOMDP.getObservationProbability(actionVector, followState, observationVectors.get(i)));
+        }
+      }
+    }
+  }
+
+  private <T> void updateWithDistribution(FingerprintDigest digest, Distribution<T> distribution, Map<T, Integer> indices) {
+    digest.beginRow();
+    if (distribution == null) return;
+    var entries = new TreeMap<Integer, Double>();
+    for (var entry : distribution.entrySet()) {
+      entries.put(indices.get(entry.getKey()), entry.getValue());
+    }
+    for (var entry : entries.entrySet()) {
+      digest.updateEntry(entry.getKey(), entry.getValue());
+    }
+  }
+
+  private static <T> Map<T, Integer> getIndices(List<T> elements) {
+    var indices = new HashMap<T, Integer>(elements.size());
+    for (int i = 0; i < elements.size(); i++) {
+      indices.put(elements.get(i), i);
+    }
+    return indices;
+  }
+
+  private void updateWithPolicies(FingerprintDigest digest, IDecPOMDP<?> decPOMDP, Map<IAgent, Map<State, Distribution<Action>>> policies) {
+    if (policies == null) {
+      digest.update("uniform");
+      return;
+    }
+    for (var agent : decPOMDP.getAgents()) {
+      var policy = policies.get(agent);
+      for (var state : decPOMDP.getStates()) {
+        var actionDistribution = policy.get(state);
+        for (var action : agent.getActions()) {
+          digest.update(actionDistribution.getProbability(action));
+        }
+      }
+    }
+  }
+
+  /**
+   * A thin wrapper around a SHA-256 {@link MessageDigest}, that accepts primitives and strings.
+   */
+  private static class FingerprintDigest {
+    private final MessageDigest messageDigest;
+    private final byte[] buffer = new byte[Long.BYTES];
+
+    FingerprintDigest() {
+      try {
+        messageDigest = MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException("SHA-256 is not available.", e);
+      }
+    }
+
+    void update(long value) {
+      for (int i = 0; i < Long.BYTES; i++) {
+        buffer[i] = (byte) (value >>> (8 * i));
+      }
+      messageDigest.update(buffer);
+    }
+
+    void update(double value) {
+      update(Double.doubleToLongBits(value));
+    }
+
+    /**
+     * Marks the start of a row of a sparse table, so entries of consecutive rows cannot be confused.
+     */
+    void beginRow() {
+      update(-1);
+    }
+
+    /**
+     * Hashes an entry of a sparse table by its index, if its probability is not zero.
+     */
+    void updateEntry(int index, double probability) {
+      if (probability == 0) return;
+      update(index);
+      update(probability);
+    }
+
+    void update(String value) {
+      var bytes = value.getBytes(StandardCharsets.UTF_8);
+      update(bytes.length);
+      messageDigest.update(bytes);
+    }
+
+    String toHexString() {
+      return HexFormat.of().formatHex(messageDigest.digest());
+    }
+  }
+}
@@ -1,22 +1,25 @@
 package de.jlandsmannn.DecPOMDPSolver.policyIteration;
 
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.BeliefUpdateKernel;
 import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.IAgent;
 import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.IDecPOMDP;
 import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.Action;
 import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.Observation;
 import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.State;
-import de.jlandsmannn.DecPOMDPSolver.domain.utility.CustomCollectors;
 import de.jlandsmannn.DecPOMDPSolver.domain.utility.Distribution;
 import de.jlandsmannn.DecPOMDPSolver.domain.utility.Vector;
-import de.jlandsmannn.DecPOMDPSolver.domain.utility.VectorCombinationBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.random.RandomGenerator;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * This class generates belief points for a DecPOMDP.
@@ -26,25 +29,37 @@ import java.util.stream.Collectors;
  * selecting an action based on the given (random) policy,
  * and simulating the transition, while receiving a new belief state.
  * That belief state is the new belief point.
+ * The belief points of each agent are generated concurrently.
+ * Every agent uses its own random stream, which is split deterministically from the seed,
+ * so the generated belief points only depend on the seed, not on the number of threads or previous runs.
+ * Alternatively, belief points can be sampled by Monte Carlo rollouts.
+ * Those simulate actual states and observations from the initial belief state,
+ * so beliefs are only calculated along paths with non-zero probability.
  */
+@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
 @Service
 public class BeliefPointGenerator {
   private static final Logger LOG = LoggerFactory.getLogger(BeliefPointGenerator.class);
-
-  private final Random random;
-  private final int maxGenerationRuns;
-  private final double beliefPointDistanceThreshold;
+  private static final int ROLLOUTS_PER_BATCH = 64;
+
+  private long seed;
+  private SplittableRandom random;
+  private int maxGenerationRuns;
+  private double beliefPointDistanceThreshold;
+  private boolean rolloutSampling;
+  private int rolloutHorizon;
   private IDecPOMDP<?> decPOMDP;
   private Distribution<State> currentBeliefState;
-  private Map<IAgent, Map<State, Distribution<Action>>> policies;
   private Map<IAgent, Map<State, Distribution<Action>>> initialPolicies;
   private int numberOfBeliefPoints;
 
   @Autowired
   BeliefPointGenerator(HeuristicPolicyIterationConfig config) {
-    random = createSeededRandom(config);
+    setSeed(config.beliefPointGenerationSeed());
     maxGenerationRuns = config.beliefPointGenerationMaxRuns();
     beliefPointDistanceThreshold = config.beliefPointDistanceThreshold();
+    rolloutSampling = config.beliefPointRolloutSampling();
+    rolloutHorizon = config.beliefPointRolloutHorizon();
   }
 
   public BeliefPointGenerator setDecPOMDP(IDecPOMDP<?> decPOMDP) {
@@ -54,12 +69,49 @@ public class BeliefPointGenerator {
     return this;
   }
 
+  /**
+   * Sets the seed for generating belief points.
+   * A seed of 0 selects a random seed.
+   *
+   * @param seed the seed to use
+   * @return this generator
+   */
+  public synchronized BeliefPointGenerator setSeed(long seed) {
+    this.seed = createSeed(seed);
+    this.random = new SplittableRandom(this.seed);
+    return this;
+  }
+
   public BeliefPointGenerator setDesiredNumberOfBeliefPoints(int numberOfBeliefPoints) {
     LOG.debug("Retrieving desired number of belief-points: {}", numberOfBeliefPoints);
     this.numberOfBeliefPoints = numberOfBeliefPoints;
     return this;
   }
 
+  public BeliefPointGenerator setMaxGenerationRuns(int maxGenerationRuns) {
+    LOG.debug("Retrieving max generation runs: {}", maxGenerationRuns);
+    this.maxGenerationRuns = maxGenerationRuns;
+    return this;
+  }
+
+  public BeliefPointGenerator setBeliefPointDistanceThreshold(double beliefPointDistanceThreshold) {
+    LOG.debug("Retrieving belief point distance threshold: {}", beliefPointDistanceThreshold);
+    this.beliefPointDistanceThreshold = beliefPointDistanceThreshold;
+    return this;
+  }
+
+  public BeliefPointGenerator setRolloutSampling(boolean rolloutSampling) {
+    LOG.debug("Retrieving rollout sampling: {}", rolloutSampling);
+    this.rolloutSampling = rolloutSampling;
+    return this;
+  }
+
+  public BeliefPointGenerator setRolloutHorizon(int rolloutHorizon) {
+    LOG.debug("Retrieving rollout horizon: {}", rolloutHorizon);
+    this.rolloutHorizon = rolloutHorizon;
+    return this;
+  }
+
   public BeliefPointGenerator setPolicies(Map<IAgent, Map<State, Distribution<Action>>> policies) {
     if (policies == null) return setPolicies();
     this.initialPolicies = policies;
@@ -73,22 +125,36 @@ public class BeliefPointGenerator {
 
   public Map<IAgent, Set<Distribution<State>>> generateBeliefPoints() {
     assertAllDependenciesAreSet();
-    var beliefPoints = new ConcurrentHashMap<IAgent, Set<Distribution<State>>>(decPOMDP.getAgents().size());
-    for (IAgent agent : decPOMDP.getAgents()) {
-      policies = initialPolicies;
-      var beliefPoint = generateBeliefPointsForAgent(agent);
-      beliefPoints.put(agent, beliefPoint);
+    var agents = decPOMDP.getAgents();
+    var randoms = new ArrayList<SplittableRandom>(agents.size());
+    var generationRandom = new SplittableRandom(seed);
+    for (int i = 0; i < agents.size(); i++) {
+      randoms.add(generationRandom.split());
     }
+    var beliefPoints = new ConcurrentHashMap<IAgent, Set<Distribution<State>>>(agents.size());
+    IntStream.range(0, agents.size())
+      .parallel()
+      .forEach(i -> {
+        var agent = agents.get(i);
+        var beliefPoint = generateBeliefPointsForAgent(agent, randoms.get(i));
+        beliefPoints.put(agent, beliefPoint);
+      });
     return beliefPoints;
   }
 
   public Set<Distribution<State>> generateBeliefPointsForAgent(IAgent agent) {
+    return generateBeliefPointsForAgent(agent, splitRandom());
+  }
+
+  protected Set<Distribution<State>> generateBeliefPointsForAgent(IAgent agent, SplittableRandom random) {
+    if (rolloutSampling) return sampleBeliefPointsForAgent(agent, random);
     assertAllDependenciesAreSet();
+    var beliefUpdateKernel = new BeliefUpdateKernel(decPOMDP, agent, initialPolicies);
     var generationRuns = 0;
     var beliefPointsToVisit = new ArrayList<Distribution<State>>();
-    var generatedBeliefPoints = new HashSet<Distribution<State>>();
+    var generatedBeliefPoints = new BeliefPointIndex(decPOMDP.getStates(), beliefPointDistanceThreshold);
     beliefPointsToVisit.add(currentBeliefState);
-    generatedBeliefPoints.add(currentBeliefState);
+    generatedBeliefPoints.addIfDiverse(currentBeliefState);
 
     while (!beliefPointsToVisit.isEmpty() && generatedBeliefPoints.size() < numberOfBeliefPoints) {
       var beliefPoint = beliefPointsToVisit.remove(0);
@@ -98,7 +164,7 @@ public class BeliefPointGenerator {
       var observation = agent.getObservations().get(observationIndex);
       LOG.debug("Select {}({}) and {}({}) for {}", action, actionIndex, observation, observationIndex, agent);
       try {
-        var newBeliefPoint = getFollowUpBeliefStateForAgent(agent, beliefPoint, action, observation);
+        var newBeliefPoint = getFollowUpBeliefStateForAgent(beliefUpdateKernel, beliefPoint, action, observation);
         var hasBeenAdded = addPointOnlyIfDiverse(generatedBeliefPoints, newBeliefPoint);
         if (hasBeenAdded) beliefPointsToVisit.add(newBeliefPoint);
       } catch (Exception e) {
@@ -108,29 +174,140 @@ public class BeliefPointGenerator {
       }
 
       if (beliefPointsToVisit.isEmpty() && generatedBeliefPoints.size() < numberOfBeliefPoints && generationRuns < maxGenerationRuns) {
-        setPolicies(generateRandomPolicies());
+        beliefUpdateKernel = new BeliefUpdateKernel(decPOMDP, agent, generateRandomPolicies(random));
         beliefPointsToVisit.add(currentBeliefState);
         generationRuns++;
       }
     }
     LOG.info("Generated {} belief points for {}.", generatedBeliefPoints.size(), agent);
-    return generatedBeliefPoints;
+    return generatedBeliefPoints.getBeliefPoints();
+  }
+
+  /**
+   * Samples belief points for the given agent by simulating batches of rollouts in parallel.
+   * Each rollout starts in a state drawn from the initial belief state.
+   * In each step the agent chooses a random action, while all other agents follow their policies.
+   * The follow state and the observations are drawn from the DecPOMDP,
+   * and the agent's belief is updated by its actual action and observation.
+   * The beliefs of a batch are added in the order of the rollouts, so the result does not depend on the scheduling.
+   * If a batch yields no new belief point, the following batches use new random policies.
+   *
+   * @param agent  the agent to sample belief points for
+   * @param random the random stream to split the random streams of the rollouts from
+   * @return the sampled belief points
+   */
+  protected Set<Distribution<State>> sampleBeliefPointsForAgent(IAgent agent, SplittableRandom random) {
+    assertAllDependenciesAreSet();
+    var beliefUpdateKernel = new BeliefUpdateKernel(decPOMDP, agent, initialPolicies);
+    var policies = initialPolicies;
+    var observationVectors = decPOMDP.getObservationVectors();
+    var generatedBeliefPoints = new BeliefPointIndex(decPOMDP.getStates(), beliefPointDistanceThreshold);
+    generatedBeliefPoints.addIfDiverse(currentBeliefState);
+    var unproductiveBatches = 0;
+
+    while (generatedBeliefPoints.size() < numberOfBeliefPoints && unproductiveBatches <= maxGenerationRuns) {
+      var rolloutRandoms = new ArrayList<SplittableRandom>(ROLLOUTS_PER_BATCH);
+      for (int i = 0; i < ROLLOUTS_PER_BATCH; i++) {
+        rolloutRandoms.add(random.split());
+      }
+      var kernel = beliefUpdateKernel;
+      var rolloutPolicies = policies;
+      var rollouts = rolloutRandoms.stream()
+        .parallel()
+        .map(rolloutRandom -> simulateRollout(agent, kernel, rolloutPolicies, observationVectors, rolloutRandom))
+        .toList();
+
+      var previousSize = generatedBeliefPoints.size();
+      for (var rollout : rollouts) {
+        for (var beliefPoint : rollout) {
+          if (generatedBeliefPoints.size() >= numberOfBeliefPoints) break;
+          addPointOnlyIfDiverse(generatedBeliefPoints, beliefPoint);
+        }
+      }
+      if (generatedBeliefPoints.size() == previousSize) {
+        unproductiveBatches++;
+        policies = generateRandomPolicies(random);
+        beliefUpdateKernel = new BeliefUpdateKernel(decPOMDP, agent, policies);
+      }
+    }
+    LOG.info("Sampled {} belief points for {}.", generatedBeliefPoints.size(), agent);
+    return generatedBeliefPoints.getBeliefPoints();
+  }
+
+  private List<Distribution<State>> simulateRollout(IAgent agent, BeliefUpdateKernel beliefUpdateKernel,
+                                                    Map<IAgent, Map<State, Distribution<Action>>> policies,
+                                                    List<Vector<Observation>> observationVectors,
+                                                    RandomGenerator random) {
+    var agents = decPOMDP.getAgents();
+    var agentIndex = agents.indexOf(agent);
+    var beliefPoints = new ArrayList<Distribution<State>>(rolloutHorizon);
+    var beliefState = currentBeliefState;
+    var state = currentBeliefState.getRandom(random);
+    for (int step = 0; step < rolloutHorizon; step++) {
+      var actions = new ArrayList<Action>(agents.size());
+      for (int i = 0; i < agents.size(); i++) {
+        if (i == agentIndex) {
+          actions.add(agent.getActions().get(random.nextInt(0, agent.getActions().size())));
+        } else {
+          actions.add(policies.get(agents.get(i)).get(state).getRandom(random));
+        }
+      }
+      var actionVector = new Vector<>(actions);
+      var followState = sampleFollowState(state, actionVector, random);
+      if (followState.isEmpty()) break;
+      var observationVector = sampleObservationVector(actionVector, followState.get(), observationVectors, random);
+      if (observationVector.isEmpty()) break;
+      beliefState = beliefUpdateKernel.update(beliefState, actionVector.get(agentIndex), observationVector.get().get(agentIndex));
+      beliefPoints.add(beliefState);
+      state = followState.get();
+    }
+    return beliefPoints;
   }
 
-  protected boolean addPointOnlyIfDiverse(Set<Distribution<State>> alreadyFound, Distribution<State> pointToAdd) {
-    var closeBeliefStateExists = alreadyFound.stream().anyMatch(pointAdded -> pointAdded.closeTo(pointToAdd, beliefPointDistanceThreshold));
-    if (!closeBeliefStateExists) alreadyFound.add(pointToAdd);
-    return !closeBeliefStateExists;
+  private Optional<State> sampleFollowState(State state, Vector<Action> actionVector, RandomGenerator random) {
+    var remaining = random.nextDouble();
+    State lastPossibleState = null;
+    for (var followState : decPOMDP.getStates()) {
+      var probability = decPOMDP.getTransitionProbability(state, actionVector, followState);
+      if (probability == 0) continue;
+      lastPossibleState = followState;
+      remaining -= probability;
+      if (remaining < 0) return Optional.of(followState);
+    }
+    return Optional.ofNullable(lastPossibleState);
+  }
+
+  private Optional<Vector<Observation>> sampleObservationVector(Vector<Action> actionVector, State followState,
+                                                               List<Vector<Observation>> observationVectors,
+                                                               RandomGenerator random) {
+    var remaining = random.nextDouble();
+    Vector<Observation> lastPossibleObservationVector = null;
+    for (var observationVector : observationVectors) {
+      var probability = decPOMDP.getObservationProbability(actionVector, followState, observationVector);
+      if (probability == 0) continue;
+      lastPossibleObservationVector = observationVector;
+      remaining -= probability;
+      if (remaining < 0) return Optional.of(observationVector);
+    }
+    return Optional.ofNullable(lastPossibleObservationVector);
+  }
+
+  protected boolean addPointOnlyIfDiverse(BeliefPointIndex alreadyFound, Distribution<State> pointToAdd) {
+    return alreadyFound.addIfDiverse(pointToAdd);
   }
 
   protected Map<IAgent, Map<State, Distribution<Action>>> generateRandomPolicies() {
+    return generateRandomPolicies(splitRandom());
+  }
+
+  protected Map<IAgent, Map<State, Distribution<Action>>> generateRandomPolicies(RandomGenerator random) {
     if (decPOMDP == null) throw new IllegalStateException("DecPOMDP must be set, to generate random policies.");
     LOG.info("Generating random policies for {} agents", decPOMDP.getAgents().size());
 
     return decPOMDP.getAgents()
       .stream()
       .map(agent -> {
-        var policy = generateRandomPolicy(agent);
+        var policy = generateRandomPolicy(agent, random);
         return Map.entry(agent, policy);
       })
       .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
@@ -149,81 +326,9 @@ public class BeliefPointGenerator {
       .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
   }
 
-  protected Distribution<State> getFollowUpBeliefStateForAgent(IAgent agent, Distribution<State> beliefState, Action action, Observation observation) {
-    LOG.debug("Calculating follow-up belief state for {} with {} starting from {}.", agent, action, beliefState);
-    return decPOMDP.getStates().stream()
-      .parallel()
-      .map(followState -> {
-        var probability = getProbabilityForAgentTransition(agent, beliefState, action, observation, followState);
-        return Map.entry(followState, probability);
-      })
-      .collect(CustomCollectors.toNormalizedDistribution());
-  }
-
-  private double getProbabilityForAgentTransition(IAgent agent, Distribution<State> beliefState, Action action, Observation observation, State followState) {
-    var actionCombinations = getAllActionCombinationsWithFixedActionForAgent(action, agent);
-    var observationCombinations = getAllObservationCombinationsWithFixedObservationForAgent(observation, agent);
-
-    var probability = 0D;
-    for (var state : beliefState.keySet()) {
-      var stateProbability = beliefState.getProbability(state);
-      if (stateProbability == 0) continue;
-
-      for (var actionVector : actionCombinations) {
-        var actionVectorProbability = getProbabilityForActionVector(state, actionVector, agent);
-        var transitionProbability = getTransitionProbability(state, actionVector, followState);
-        if (actionVectorProbability == 0 || transitionProbability == 0) continue;
-
-        for (var observationVector : observationCombinations) {
-          var observationVectorProbability = getObservationProbability(actionVector, followState, observationVector);
-          if (observationVectorProbability == 0) continue;
-          probability += stateProbability * actionVectorProbability * transitionProbability * observationVectorProbability;
-        }
-      }
-    }
-    return probability;
-  }
-
-  private List<Vector<Observation>> getAllObservationCombinations() {
-    return decPOMDP.getObservationVectors();
-  }
-
-  private double getProbabilityForActionVector(State state, Vector<Action> actionVector, IAgent agentToIgnore) {
-    var probability = 1D;
-    for (int i = 0; i < actionVector.size(); i++) {
-      var agent = decPOMDP.getAgents().get(i);
-      if (agent.equals(agentToIgnore)) continue;
-      var action = actionVector.get(i);
-      var policy = policies.get(agent);
-      var actionDistribution = policy.get(state);
-      var actionProbability = actionDistribution.getProbability(action);
-      probability *= actionProbability;
-    }
-    return probability;
-  }
-
-  private double getTransitionProbability(State state, Vector<Action> actionVector, State followState) {
-    return decPOMDP.getTransitionProbability(state, actionVector, followState);
-  }
-
-  private double getObservationProbability(Vector<Action> actionVector, State followState, Vector<Observation> observationVector) {
-    return decPOMDP.getObservationProbability(actionVector, followState, observationVector);
-  }
-
-  private List<Vector<Action>> getAllActionCombinationsWithFixedActionForAgent(Action action, IAgent agent) {
-    var rawCombinations = decPOMDP.getAgents().stream().map(a -> {
-      if (agent.equals(a)) return List.of(action);
-      else return a.getActions();
-    }).toList();
-    return VectorCombinationBuilder.listOf(rawCombinations);
-  }
-
-  private List<Vector<Observation>> getAllObservationCombinationsWithFixedObservationForAgent(Observation observation, IAgent agent) {
-    var rawCombinations = decPOMDP.getAgents().stream().map(a -> {
-      if (agent.equals(a)) return List.of(observation);
-      else return a.getObservations();
-    }).toList();
-    return VectorCombinationBuilder.listOf(rawCombinations);
+  protected Distribution<State> getFollowUpBeliefStateForAgent(BeliefUpdateKernel beliefUpdateKernel, Distribution<State> beliefState, Action action, Observation observation) {
+    LOG.debug("Calculating follow-up belief state with {} and {} starting from {}.", action, observation, beliefState);
+    return beliefUpdateKernel.update(beliefState, action, observation);
   }
 
   private void assertAllDependenciesAreSet() {
@@ -232,7 +337,7 @@ public class BeliefPointGenerator {
     }
   }
 
-  private Map<State, Distribution<Action>> generateRandomPolicy(IAgent agent) {
+  private Map<State, Distribution<Action>> generateRandomPolicy(IAgent agent, RandomGenerator random) {
     LOG.debug("Generating random policies for {}", agent);
     return decPOMDP.getStates()
       .stream()
@@ -254,11 +359,13 @@ public class BeliefPointGenerator {
       .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
   }
 
-  private Random createSeededRandom(HeuristicPolicyIterationConfig config) {
-    var random = new Random();
-    var seed = config.beliefPointGenerationSeed() != 0 ? config.beliefPointGenerationSeed() : random.nextLong();
-    random.setSeed(seed);
+  private synchronized SplittableRandom splitRandom() {
+    return random.split();
+  }
+
+  private long createSeed(long configuredSeed) {
+    var seed = configuredSeed != 0 ? configuredSeed : new Random().nextLong();
     LOG.info("Using seed {} for belief point generation", seed);
-    return random;
+    return seed;
   }
 }
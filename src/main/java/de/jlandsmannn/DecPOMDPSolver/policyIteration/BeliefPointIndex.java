@@ -0,0 +1,139 @@
+package de.jlandsmannn.DecPOMDPSolver.policyIteration;
+
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.State;
+import de.jlandsmannn.DecPOMDPSolver.domain.utility.Distribution;
+
+import java.util.*;
+
+/**
+ * This class indexes belief points to answer whether a close belief point exists,
+ * without comparing against all belief points found so far.
+ * Two belief points are close, if their maximal difference in any state is below the threshold.
+ * The first inserted belief points serve as pivots and every belief point stores its distance to them.
+ * Because of the triangle inequality, a belief point can only be close to the queried one,
+ * if its distance to each pivot differs by less than the threshold from the queried one's.
+ * The belief points are sorted by their distance to the first pivot,
+ * so only a small range of them has to be checked at all.
+ */
+public class BeliefPointIndex {
+  private static final int NUMBER_OF_PIVOTS = 8;
+
+  private final double threshold;
+  private final Map<State, Integer> stateIndices;
+  private final List<double[]> pivots = new ArrayList<>(NUMBER_OF_PIVOTS);
+  private final List<Entry> entries = new ArrayList<>();
+  private final TreeMap<Double, List<Entry>> entriesByFirstPivotDistance = new TreeMap<>();
+  private final Set<Distribution<State>> beliefPoints = new HashSet<>();
+
+  public BeliefPointIndex(List<State> states, double threshold) {
+    if (threshold < 0) throw new IllegalArgumentException("Threshold must not be negative.");
+    this.threshold = threshold;
+    this.stateIndices = new HashMap<>(states.size());
+    for (int i = 0; i < states.size(); i++) {
+      stateIndices.put(states.get(i), i);
+    }
+  }
+
+  /**
+   * Adds the belief point, if no close belief point has been added before.
+   *
+   * @param beliefPoint the belief point to add
+   * @return whether the belief point has been added
+   * @throws IllegalArgumentException if the belief point contains unknown states
+   */
+  public boolean addIfDiverse(Distribution<State> beliefPoint) {
+    var vector = toVector(beliefPoint);
+    var pivotDistances = calculatePivotDistances(vector);
+    if (hasCloseEntry(vector, pivotDistances)) return false;
+
+    var entry = new Entry(vector, pivotDistances);
+    entries.add(entry);
+    beliefPoints.add(beliefPoint);
+    if (pivots.size() < NUMBER_OF_PIVOTS) addPivot(vector);
+    entriesByFirstPivotDistance.computeIfAbsent(entry.pivotDistances[0], d -> new ArrayList<>()).add(entry);
+    return true;
+  }
+
+  /**
+   * @return the number of belief points added
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * @return the belief points added
+   */
+  public Set<Distribution<State>> getBeliefPoints() {
+    return beliefPoints;
+  }
+
+  private boolean hasCloseEntry(double[] vector, double[] pivotDistances) {
+    if (entries.isEmpty()) return false;
+    var candidates = entriesByFirstPivotDistance.subMap(pivotDistances[0] - threshold, false, pivotDistances[0] + threshold, false);
+    for (var entriesWithSameDistance : candidates.values()) {
+      for (var entry : entriesWithSameDistance) {
+        if (isCloseByPivots(entry, pivotDistances) && distance(entry.vector, vector, threshold) < threshold) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private boolean isCloseByPivots(Entry entry, double[] pivotDistances) {
+    for (int i = 1; i < pivotDistances.length; i++) {
+      if (Math.abs(entry.pivotDistances[i] - pivotDistances[i]) >= threshold) return false;
+    }
+    return true;
+  }
+
+  private void addPivot(double[] pivot) {
+    pivots.add(pivot);
+    for (var entry : entries) {
+      var pivotDistances = Arrays.copyOf(entry.pivotDistances, pivots.size());
+      pivotDistances[pivots.size() - 1] = distance(entry.vector, pivot, Double.POSITIVE_INFINITY);
+      entry.pivotDistances = pivotDistances;
+    }
+  }
+
+  private double[] calculatePivotDistances(double[] vector) {
+    var pivotDistances = new double[Math.max(1, pivots.size())];
+    for (int i = 0; i < pivots.size(); i++) {
+      pivotDistances[i] = distance(vector, pivots.get(i), Double.POSITIVE_INFINITY);
+    }
+    return pivotDistances;
+  }
+
+  private double[] toVector(Distribution<State> beliefPoint) {
+    var vector = new double[stateIndices.size()];
+    for (var entry : beliefPoint.entrySet()) {
+      var index = stateIndices.get(entry.getKey());
+      if (index == null) throw new IllegalArgumentException("Belief point contains unknown state " + entry.getKey());
+      vector[index] = entry.getValue();
+    }
+    return vector;
+  }
+
+  /**
+   * Calculates the maximal difference of both vectors in any coordinate.
+   * The calculation stops early, once the difference reaches the given bound.
+   */
+  private static double distance(double[] first, double[] second, double bound) {
+    var maximum = 0D;
+    for (int i = 0; i < first.length && maximum < bound; i++) {
+      maximum = Math.max(maximum, Math.abs(first[i] - second[i]));
+    }
+    return maximum;
+  }
+
+  private static class Entry {
+    private final double[] vector;
+    private double[] pivotDistances;
+
+    Entry(double[] vector, double[] pivotDistances) {
+      this.vector = vector;
+      this.pivotDistances = pivotDistances;
+    }
+  }
+}
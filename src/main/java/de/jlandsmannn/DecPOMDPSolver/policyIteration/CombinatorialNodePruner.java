@@ -5,13 +5,16 @@ import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.IAgentWithStat
 import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.IDecPOMDPWithStateController;
 import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.primitives.Node;
 import de.jlandsmannn.DecPOMDPSolver.domain.linearOptimization.CombinatorialNodePruningTransformer;
-import de.jlandsmannn.DecPOMDPSolver.domain.linearOptimization.LinearOptimizationSolver;
+import de.jlandsmannn.DecPOMDPSolver.domain.linearOptimization.LinearMaximisationSolver;
 import de.jlandsmannn.DecPOMDPSolver.domain.utility.Distribution;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -21,19 +24,28 @@ import java.util.Optional;
  * SO that combination has for all possible combinations of the other agent's nodes,
  * and for all belief points a value at least as high as the given node.
  * This class is independent of the concrete implementation or data types.
+ * Before any linear program is solved, nodes are compared pointwise with the other nodes:
+ * Nodes dominated by a single other node are pruned directly,
+ * and nodes being strictly the best for some belief point can never be dominated.
+ * In parallel mode, the linear programs of multiple nodes are solved concurrently
+ * against the same state of the controller, and the results are applied in a deterministic order.
+ * If the dominating combination of a node contains a node that was pruned in the meantime,
+ * that node is checked again.
  *
  * @param <LP>     the data type of the linear program
  * @param <RESULT> the data type of the linear program's result
  */
 public abstract class CombinatorialNodePruner<DECPOMDP extends IDecPOMDPWithStateController<?>, LP, RESULT> {
   private static final Logger LOG = LoggerFactory.getLogger(CombinatorialNodePruner.class);
+  private static final int PARALLEL_BATCH_SIZE_PER_PROCESSOR = 4;
 
   protected CombinatorialNodePruningTransformer<DECPOMDP, LP, RESULT> transformer;
-  protected LinearOptimizationSolver<LP, RESULT> solver;
+  protected LinearMaximisationSolver<LP, RESULT> solver;
   protected IAgentWithStateController agent;
+  protected boolean parallel = false;
 
   public CombinatorialNodePruner(CombinatorialNodePruningTransformer<DECPOMDP, LP, RESULT> transformer,
-                                 LinearOptimizationSolver<LP, RESULT> solver) {
+                                 LinearMaximisationSolver<LP, RESULT> solver) {
     this.transformer = transformer;
     this.solver = solver;
   }
@@ -54,6 +66,11 @@ public abstract class CombinatorialNodePruner<DECPOMDP extends IDecPOMDPWithStat
     return this;
   }
 
+  public CombinatorialNodePruner<DECPOMDP, LP, RESULT> setParallel(boolean parallel) {
+    this.parallel = parallel;
+    return this;
+  }
+
   public void pruneNodesIfCombinatorialDominated() {
     if (agent.getControllerNodes().size() <= 1) {
       LOG.info("No combinatorial pruning possible, since {} has only {} node(s).", agent, agent.getControllerNodes().size());
@@ -61,25 +78,138 @@ public abstract class CombinatorialNodePruner<DECPOMDP extends IDecPOMDPWithStat
     }
     var originalNodeCount = agent.getControllerNodes().size();
     LOG.info("Iterating over all initial nodes of {} for combinatorial pruning", agent);
-    var nodesToCheck = new ArrayList<>(agent.getInitialControllerNodes());
-    for (var node : nodesToCheck) {
-      pruneNodeIfCombinatorialDominated(node);
+    var nodesToCheck = filterNodesByPointwiseDominance(new ArrayList<>(agent.getInitialControllerNodes()));
+    if (parallel) {
+      pruneNodesInParallelIfCombinatorialDominated(nodesToCheck);
+    } else {
+      for (var node : nodesToCheck) {
+        pruneNodeIfCombinatorialDominated(node);
+      }
     }
     var newNodeCount = agent.getControllerNodes().size();
     var nodesPruned = originalNodeCount - newNodeCount;
     LOG.info("Pruned {} nodes of {}", nodesPruned, agent);
   }
 
-  public void pruneNodeIfCombinatorialDominated(Node nodeToCheck) {
+  public boolean pruneNodeIfCombinatorialDominated(Node nodeToCheck) {
     LOG.debug("Checking {} of {} for pruning", nodeToCheck, agent);
     applyLinearProgram(nodeToCheck);
     var dominatingNodes = getDominatingNodeDistribution(nodeToCheck);
     if (dominatingNodes.isEmpty()) {
       LOG.debug("No combination of dominating nodes exist, can't prune {} of {}", nodeToCheck, agent);
-      return;
+      return false;
     }
     LOG.debug("Replacing {} with {}", nodeToCheck, dominatingNodes.get());
     agent.pruneNode(nodeToCheck, dominatingNodes.get());
+    return true;
+  }
+
+  /**
+   * Compares the values of each given node with the values of all other nodes of the agent.
+   * If another node has a value at least as high for each belief point and combination of the other agents' nodes,
+   * the given node is pruned and replaced by that node.
+   * If the given node has a strictly higher value than all other nodes for at least one of them,
+   * no convex combination of other nodes can dominate it.
+   * All remaining nodes are ambiguous and need a linear program to be checked.
+   *
+   * @param nodesToCheck the nodes to check for pruning
+   * @return the nodes, which need to be checked by a linear program
+   */
+  protected List<Node> filterNodesByPointwiseDominance(List<Node> nodesToCheck) {
+    var valueMatrix = transformer.getValueMatrix();
+    if (!valueMatrix.keySet().containsAll(agent.getControllerNodes())) {
+      LOG.debug("Values are missing for some nodes of {}, skipping pointwise dominance check", agent);
+      return nodesToCheck;
+    }
+    var ambiguousNodes = new ArrayList<Node>();
+    var prunedNodes = 0;
+    var undominatedNodes = 0;
+    for (var nodeToCheck : nodesToCheck) {
+      var values = valueMatrix.get(nodeToCheck);
+      var otherValues = agent.getControllerNodes().stream()
+        .filter(node -> !node.equals(nodeToCheck))
+        .map(valueMatrix::get)
+        .toList();
+      if (isStrictlyBestForAnyEntry(values, otherValues)) {
+        undominatedNodes++;
+        continue;
+      }
+      var dominatingNode = agent.getControllerNodes().stream()
+        .filter(node -> !node.equals(nodeToCheck))
+        .filter(node -> isPointwiseDominated(values, valueMatrix.get(node)))
+        .findFirst();
+      if (dominatingNode.isPresent()) {
+        LOG.debug("Replacing {} with pointwise dominating {}", nodeToCheck, dominatingNode.get());
+        agent.pruneNode(nodeToCheck, Distribution.createSingleEntryDistribution(dominatingNode.get()));
+        prunedNodes++;
+        continue;
+      }
+      ambiguousNodes.add(nodeToCheck);
+    }
+    LOG.info("Pointwise dominance check of {}: {} pruned, {} undominated, {} ambiguous", agent, prunedNodes, undominatedNodes, ambiguousNodes.size());
+    return ambiguousNodes;
+  }
+
+  private static boolean isStrictlyBestForAnyEntry(double[] values, List<double[]> otherValues) {
+    for (int i = 0; i < values.length; i++) {
+      var isStrictlyBest = true;
+      for (var other : otherValues) {
+        if (other[i] >= values[i]) {
+          isStrictlyBest = false;
+          break;
+        }
+      }
+      if (isStrictlyBest) return true;
+    }
+    return false;
+  }
+
+  private static boolean isPointwiseDominated(double[] values, double[] otherValues) {
+    for (int i = 0; i < values.length; i++) {
+      if (otherValues[i] < values[i]) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Checks the given nodes in batches.
+   * The linear programs of a batch are created upfront and solved concurrently,
+   * afterward the results are applied in the order of the nodes' names.
+   * If a dominating combination refers to a node, which was pruned before in the same batch,
+   * the node is checked again against the current controller.
+   *
+   * @param nodesToCheck the nodes to check for pruning
+   */
+  protected void pruneNodesInParallelIfCombinatorialDominated(List<Node> nodesToCheck) {
+    var sortedNodesToCheck = nodesToCheck.stream().sorted(Comparator.comparing(Node::name)).toList();
+    var batchSize = Math.max(1, Runtime.getRuntime().availableProcessors() * PARALLEL_BATCH_SIZE_PER_PROCESSOR);
+    var prunedNodes = new HashSet<Node>();
+    var recheckedNodes = 0;
+
+    for (int batchStart = 0; batchStart < sortedNodesToCheck.size(); batchStart += batchSize) {
+      var batch = sortedNodesToCheck.subList(batchStart, Math.min(batchStart + batchSize, sortedNodesToCheck.size()));
+      var linearPrograms = batch.stream().map(transformer::getLinearProgramForNode).toList();
+      var results = linearPrograms.stream().parallel().map(solver::maximise).toList();
+      var dominatingNodes = results.stream()
+        .map(result -> result.flatMap(transformer::getDominatingNodeDistributionFromResult))
+        .toList();
+
+      for (int i = 0; i < batch.size(); i++) {
+        var nodeToCheck = batch.get(i);
+        var dominatingNodesOfNode = dominatingNodes.get(i);
+        if (dominatingNodesOfNode.isEmpty()) continue;
+        if (dominatingNodesOfNode.get().keySet().stream().anyMatch(prunedNodes::contains)) {
+          LOG.debug("Dominating combination of {} refers to pruned nodes, checking again", nodeToCheck);
+          recheckedNodes++;
+          if (pruneNodeIfCombinatorialDominated(nodeToCheck)) prunedNodes.add(nodeToCheck);
+          continue;
+        }
+        LOG.debug("Replacing {} with {}", nodeToCheck, dominatingNodesOfNode.get());
+        agent.pruneNode(nodeToCheck, dominatingNodesOfNode.get());
+        prunedNodes.add(nodeToCheck);
+      }
+    }
+    LOG.debug("Checked {} nodes of {} in parallel, {} of them had to be checked again", sortedNodesToCheck.size(), agent, recheckedNodes);
   }
 
   private void applyLinearProgram(Node nodeToCheck) {
@@ -8,22 +8,32 @@ import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.primitives.Nod
 import de.jlandsmannn.DecPOMDPSolver.domain.utility.Distribution;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Service;
 
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * This class finds the vectors of dominating nodes for all belief points,
  * and marks those nodes as initial nodes of the agent's state controllers.
+ * By default, only the best vector of nodes per belief point is retained.
+ * Retaining the best k vectors or all vectors close to the best one
+ * keeps more nodes, which need not be regrown by following backups.
  */
+@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
 @Service
 public class DominatingNodesRetainer {
   private static final Logger LOG = LoggerFactory.getLogger(DominatingNodesRetainer.class);
   private IDecPOMDPWithStateController<?> decPOMDP;
   private Map<IAgent, Set<Distribution<State>>> beliefPoints;
+  private int numberOfRetainedCombinations = 1;
+  private double retentionEpsilon = 0;
 
   public DominatingNodesRetainer setDecPOMDP(IDecPOMDPWithStateController<?> decPOMDP) {
     LOG.debug("Retrieving DecPOMDP: {}", decPOMDP);
@@ -39,26 +49,54 @@ public class DominatingNodesRetainer {
     return this;
   }
 
+  public DominatingNodesRetainer setNumberOfRetainedCombinations(int numberOfRetainedCombinations) {
+    if (numberOfRetainedCombinations <= 0) {
+      throw new IllegalArgumentException("Number of retained node combinations must be positive.");
+    }
+    LOG.debug("Retrieving number of retained node combinations: {}", numberOfRetainedCombinations);
+    this.numberOfRetainedCombinations = numberOfRetainedCombinations;
+    return this;
+  }
+
+  public DominatingNodesRetainer setRetentionEpsilon(double retentionEpsilon) {
+    if (retentionEpsilon < 0) throw new IllegalArgumentException("Retention epsilon must not be negative.");
+    LOG.debug("Retrieving retention epsilon: {}", retentionEpsilon);
+    this.retentionEpsilon = retentionEpsilon;
+    return this;
+  }
+
   public void retainDominatingNodes() {
     LOG.info("Retaining dominating nodes");
     if (decPOMDP == null) throw new IllegalStateException("DecPOMDP must be set to retain dominating nodes.");
     else if (beliefPoints == null)
       throw new IllegalStateException("Belief points must be set to retain dominating nodes.");
 
-    decPOMDP.getAgents().stream()
+    var agents = decPOMDP.getAgents();
+    var beliefStates = agents.stream()
+      .flatMap(agent -> beliefPoints.get(agent).stream())
+      .toList();
+    LOG.info("Calculating dominating node vectors for {} belief points", beliefStates.size());
+    var bestNodeCombinations = decPOMDP.getBestNodeCombinationsFor(beliefStates, numberOfRetainedCombinations, retentionEpsilon);
+
+    var dominatingNodesPerAgent = new HashMap<IAgentWithStateController, Set<Node>>();
+    var offset = 0;
+    for (var agent : agents) {
+      var numberOfBeliefPoints = beliefPoints.get(agent).size();
+      var agentIndex = agents.indexOf(agent);
+      var nodesToRetain = bestNodeCombinations.subList(offset, offset + numberOfBeliefPoints).stream()
+        .flatMap(List::stream)
+        .map(nodeCombination -> nodeCombination.get(agentIndex))
+        .collect(Collectors.toSet());
+      dominatingNodesPerAgent.put(agent, nodesToRetain);
+      offset += numberOfBeliefPoints;
+    }
+
+    agents.stream()
       .parallel()
-      .forEach(this::retainDominatingNodesForAgent);
+      .forEach(agent -> retainDominatingNodesForAgent(agent, dominatingNodesPerAgent.get(agent)));
   }
 
-  protected void retainDominatingNodesForAgent(IAgentWithStateController agent) {
-    LOG.info("Calculating dominating node vectors for {}", agent);
-    var nodesToRetain = new HashSet<Node>();
-    var agentIndex = decPOMDP.getAgents().indexOf(agent);
-    for (var beliefState : beliefPoints.get(agent)) {
-      var nodeCombination = decPOMDP.getBestNodeCombinationFor(beliefState);
-      var nodeToRetain = nodeCombination.get(agentIndex);
-      nodesToRetain.add(nodeToRetain);
-    }
+  protected void retainDominatingNodesForAgent(IAgentWithStateController agent, Set<Node> nodesToRetain) {
     LOG.info("Found {} dominating nodes for {}", nodesToRetain.size(), agent);
     LOG.debug("{}: Dominating Nodes: {}", agent, nodesToRetain);
     var originalNodeCount = agent.getControllerNodes().size();
@@ -1,6 +1,7 @@
 package de.jlandsmannn.DecPOMDPSolver.policyIteration;
 
 import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.IAgent;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.Action;
 import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.State;
 import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.IAgentWithStateController;
 import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.IDecPOMDPWithStateController;
@@ -10,36 +11,79 @@ import de.jlandsmannn.DecPOMDPSolver.domain.utility.Vector;
 import de.jlandsmannn.DecPOMDPSolver.domain.utility.VectorCombinationBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
 
 /**
  * This class performs exhaustive backups on an agent's state controller.
  * An exhaustive backup is useful for exploration of the policy space.
  * It adds all possible one-step policies for each already existing node
  * and calculates the values of those newly created nodes.
+ * If the number of candidates for an agent exceeds the spill threshold,
+ * the candidates are written to disk via {@link SpilledCandidateStore}
+ * and only those being the best at some belief point are added to the controller.
  */
+@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
 @Service
 public class ExhaustiveBackupPerformer {
   private static final Logger LOG = LoggerFactory.getLogger(ExhaustiveBackupPerformer.class);
+  private static final int SPILL_BATCH_SIZE = 4096;
 
   private IDecPOMDPWithStateController<?> decPOMDP;
   private List<Vector<Node>> originalNodeCombinations = List.of();
+  private List<List<Node>> originalNodesPerAgent = List.of();
   private Map<IAgent, Set<Distribution<State>>> beliefPoints;
+  private long spillThreshold = 0;
 
   public ExhaustiveBackupPerformer setDecPOMDP(IDecPOMDPWithStateController<?> decPOMDP) {
     LOG.debug("Retrieving DecPOMDP: {}", decPOMDP);
     this.decPOMDP = decPOMDP;
     this.originalNodeCombinations = decPOMDP.getNodeCombinations();
+    this.originalNodesPerAgent = decPOMDP.getAgents().stream()
+      .map(agent -> List.copyOf(agent.getControllerNodes()))
+      .toList();
     return this;
   }
 
+  /**
+   * Sets the number of candidates per agent, above which the candidates are spilled to disk.
+   * A threshold of 0 disables spilling.
+   *
+   * @param spillThreshold the maximum number of candidates to keep in memory
+   * @return this
+   */
+  public ExhaustiveBackupPerformer setSpillThreshold(long spillThreshold) {
+    if (spillThreshold < 0) {
+      throw new IllegalArgumentException("Spill threshold must not be negative.");
+    }
+    this.spillThreshold = spillThreshold;
+    return this;
+  }
+
+  /**
+   * Returns the number of candidates an exhaustive backup creates for the given agent,
+   * which is |A| * |Q|^|O| with the current nodes of its controller.
+   *
+   * @param agent the agent to count the candidates for
+   * @return the number of candidates as double, as it easily exceeds the range of long
+   */
+  public static double getNumberOfCandidates(IAgentWithStateController agent) {
+    return agent.getActions().size() * Math.pow(agent.getControllerNodes().size(), agent.getObservations().size());
+  }
+
   public ExhaustiveBackupPerformer setBeliefPoints(Map<IAgent, Set<Distribution<State>>> beliefPoints) {
     LOG.debug("Retrieving belief points: {}", beliefPoints);
     validateBeliefPoints(beliefPoints);
@@ -65,6 +109,12 @@ public class ExhaustiveBackupPerformer {
       throw new IllegalStateException("Belief points must be set to perform exhaustive backup.");
 
     var originalNodes = List.copyOf(agent.getControllerNodes());
+    var numberOfCandidates = getNumberOfCandidates(agent);
+    if (spillThreshold > 0 && numberOfCandidates > spillThreshold) {
+      performSpilledBackupForAgent(agent);
+      return;
+    }
+
     var rawObservationNodeCombinations = agent.getObservations().stream().map(o -> originalNodes).toList();
     var observationNodeCombinations = VectorCombinationBuilder.listOf(rawObservationNodeCombinations);
     LOG.info("Starting with {} nodes for Agent {}", originalNodes.size(), agent);
@@ -88,6 +138,172 @@ public class ExhaustiveBackupPerformer {
     LOG.info("Added {} nodes to Agent {}.", nodesAdded, agent);
   }
 
+  /**
+   * Performs the exhaustive backup for the given agent without keeping all candidates in memory.
+   * All candidates are evaluated at the agent's belief points against the original nodes of the other agents
+   * and written to a {@link SpilledCandidateStore}.
+   * Afterward, the store is streamed to find the candidates that are strictly better than
+   * all original nodes and all other candidates for at least one belief point and node combination of the other agents.
+   * Only those are added to the controller.
+   *
+   * @param agent the agent to perform the backup for
+   */
+  protected void performSpilledBackupForAgent(IAgentWithStateController agent) {
+    LOG.info("Performing spilled exhaustive backup for Agent {}", agent);
+    var agentIndex = decPOMDP.getAgents().indexOf(agent);
+    var agentBeliefPoints = List.copyOf(beliefPoints.getOrDefault(agent, Set.of()));
+    if (agentBeliefPoints.isEmpty()) {
+      throw new IllegalStateException("Belief points for " + agent + " must be set to perform spilled exhaustive backup.");
+    }
+    var actions = agent.getActions();
+    var observations = agent.getObservations();
+    var originalNodes = originalNodesPerAgent.get(agentIndex);
+    var otherNodeCombinations = getOriginalNodeCombinationsOfOtherAgents(agentIndex);
+    var states = agentBeliefPoints.stream()
+      .map(Distribution::keySet)
+      .flatMap(Set::stream)
+      .distinct()
+      .toList();
+    var numberOfColumns = agentBeliefPoints.size() * otherNodeCombinations.size();
+    var numberOfFollowNodeCombinations = (long) Math.pow(originalNodes.size(), observations.size());
+    var numberOfCandidates = actions.size() * numberOfFollowNodeCombinations;
+    LOG.info("Spilling {} candidates with {} values each for Agent {}", numberOfCandidates, numberOfColumns, agent);
+
+    try (var store = new SpilledCandidateStore(null, observations.size(), numberOfColumns)) {
+      for (long batchStart = 0; batchStart < numberOfCandidates; batchStart += SPILL_BATCH_SIZE) {
+        var batchSize = (int) Math.min(SPILL_BATCH_SIZE, numberOfCandidates - batchStart);
+        var followNodeIndices = new int[batchSize][];
+        var values = new double[batchSize][];
+        var offset = batchStart;
+        IntStream.range(0, batchSize).parallel().forEach(i -> {
+          var candidateIndex = offset + i;
+          var actionIndex = (int) (candidateIndex / numberOfFollowNodeCombinations);
+          followNodeIndices[i] = getFollowNodeIndices(candidateIndex % numberOfFollowNodeCombinations, originalNodes.size(), observations.size());
+          var followNodes = Arrays.stream(followNodeIndices[i]).mapToObj(originalNodes::get).toList();
+          values[i] = calculateCandidateValues(agentIndex, actions.get(actionIndex), followNodes, states, agentBeliefPoints, otherNodeCombinations);
+        });
+        for (int i = 0; i < batchSize; i++) {
+          var actionIndex = (int) ((batchStart + i) / numberOfFollowNodeCombinations);
+          store.append(actionIndex, followNodeIndices[i], values[i]);
+        }
+      }
+
+      var bestValues = new double[numberOfColumns];
+      var bestCandidates = new long[numberOfColumns];
+      Arrays.fill(bestCandidates, -1);
+      for (int b = 0; b < agentBeliefPoints.size(); b++) {
+        for (int c = 0; c < otherNodeCombinations.size(); c++) {
+          var beliefPoint = agentBeliefPoints.get(b);
+          var otherNodes = otherNodeCombinations.get(c);
+          bestValues[b * otherNodeCombinations.size() + c] = originalNodes.stream()
+            .mapToDouble(node -> decPOMDP.getValue(beliefPoint, withNode(otherNodes, agentIndex, node)))
+            .max()
+            .orElse(Double.NEGATIVE_INFINITY);
+        }
+      }
+      store.forEach(candidate -> {
+        var candidateValues = candidate.values();
+        for (int column = 0; column < numberOfColumns; column++) {
+          if (candidateValues[column] > bestValues[column]) {
+            bestValues[column] = candidateValues[column];
+            bestCandidates[column] = candidate.index();
+          }
+        }
+      });
+
+      var survivors = new HashSet<Long>();
+      for (var candidateIndex : bestCandidates) {
+        if (candidateIndex >= 0) survivors.add(candidateIndex);
+      }
+      store.forEach(candidate -> {
+        if (!survivors.contains(candidate.index())) return;
+        var action = actions.get(candidate.actionIndex());
+        var node = Node.from(agent.getName() + "-Q" + agent.getControllerNodeIndex());
+        agent.addNode(node, action);
+        var followNodeIndices = candidate.followNodeIndices();
+        for (int o = 0; o < observations.size(); o++) {
+          agent.addTransition(node, action, observations.get(o), originalNodes.get(followNodeIndices[o]));
+        }
+      });
+      LOG.info("Added {} of {} spilled candidates to Agent {}.", survivors.size(), numberOfCandidates, agent);
+    }
+  }
+
+  protected double[] calculateCandidateValues(int agentIndex,
+                                              Action action,
+                                              List<Node> followNodes,
+                                              List<State> states,
+                                              List<Distribution<State>> agentBeliefPoints,
+                                              List<Vector<Node>> otherNodeCombinations) {
+    var values = new double[agentBeliefPoints.size() * otherNodeCombinations.size()];
+    for (int c = 0; c < otherNodeCombinations.size(); c++) {
+      var otherNodes = otherNodeCombinations.get(c);
+      var stateValues = new HashMap<State, Double>();
+      for (var state : states) {
+        stateValues.put(state, calculateCandidateValue(agentIndex, action, followNodes, state, otherNodes));
+      }
+      for (int b = 0; b < agentBeliefPoints.size(); b++) {
+        var value = 0D;
+        for (var entry : agentBeliefPoints.get(b).entrySet()) {
+          value += entry.getValue() * stateValues.get(entry.getKey());
+        }
+        values[b * otherNodeCombinations.size() + c] = value;
+      }
+    }
+    return values;
+  }
+
+  protected double calculateCandidateValue(int agentIndex, Action action, List<Node> followNodes, State state, Vector<Node> otherNodes) {
+    var agents = decPOMDP.getAgents();
+    var agent = agents.get(agentIndex);
+    var value = 0D;
+    var discount = decPOMDP.getDiscountFactor();
+    var observationsCombinations = decPOMDP.getObservationVectors();
+    var actionCandidates = IntStream.range(0, agents.size())
+      .mapToObj(idx -> idx == agentIndex ? List.of(action) : agents.get(idx).getSelectableActions(otherNodes.get(idx)))
+      .toList();
+
+    for (var actionVector : VectorCombinationBuilder.listOf(actionCandidates)) {
+      var actionVectorProbability = 1D;
+      for (int idx = 0; idx < agents.size(); idx++) {
+        if (idx == agentIndex) continue;
+        actionVectorProbability *= agents.get(idx).getActionSelectionProbability(otherNodes.get(idx), actionVector.get(idx));
+      }
+      if (actionVectorProbability == 0) continue;
+      var reward = decPOMDP.getReward(state, actionVector);
+      value += actionVectorProbability * reward;
+
+      if (discount == 0) continue;
+
+      for (var observationVector : observationsCombinations) {
+        var followNode = followNodes.get(agent.getObservations().indexOf(observationVector.get(agentIndex)));
+        var followNodeCandidates = IntStream.range(0, agents.size())
+          .mapToObj(idx -> idx == agentIndex ? List.of(followNode) : agents.get(idx).getFollowNodes(otherNodes.get(idx)))
+          .toList();
+        for (var followNodeVector : VectorCombinationBuilder.listOf(followNodeCandidates)) {
+
+          var nodeTransitionProbability = 1D;
+          for (int idx = 0; idx < agents.size() && nodeTransitionProbability != 0; idx++) {
+            if (idx == agentIndex) continue;
+            nodeTransitionProbability *= agents.get(idx).getNodeTransitionProbability(
+              otherNodes.get(idx), actionVector.get(idx), observationVector.get(idx), followNodeVector.get(idx));
+          }
+          if (nodeTransitionProbability == 0) continue;
+
+          for (var followState : decPOMDP.getStates()) {
+            var stateTransitionProbability = decPOMDP.getTransitionProbability(state, actionVector, followState);
+            var observationProbability = decPOMDP.getObservationProbability(actionVector, followState, observationVector);
+            if (stateTransitionProbability == 0 || observationProbability == 0) continue;
+            var followValue = decPOMDP.getValue(followState, followNodeVector);
+
+            value += discount * actionVectorProbability * stateTransitionProbability * observationProbability * nodeTransitionProbability * followValue;
+          }
+        }
+      }
+    }
+    return value;
+  }
+
   protected void updateValueFunction() {
     LOG.info("Calculating missing values of value function");
     var nodeCombinations = decPOMDP.getNodeCombinations();
@@ -150,6 +366,29 @@ public class ExhaustiveBackupPerformer {
     return value;
   }
 
+  private List<Vector<Node>> getOriginalNodeCombinationsOfOtherAgents(int agentIndex) {
+    var placeholder = originalNodesPerAgent.get(agentIndex).get(0);
+    var nodeCandidates = IntStream.range(0, originalNodesPerAgent.size())
+      .mapToObj(idx -> idx == agentIndex ? List.of(placeholder) : originalNodesPerAgent.get(idx))
+      .toList();
+    return VectorCombinationBuilder.listOf(nodeCandidates);
+  }
+
+  private static Vector<Node> withNode(Vector<Node> nodeVector, int agentIndex, Node node) {
+    var nodes = new ArrayList<>(nodeVector.toList());
+    nodes.set(agentIndex, node);
+    return Vector.of(nodes);
+  }
+
+  private static int[] getFollowNodeIndices(long combinationIndex, int numberOfNodes, int numberOfObservations) {
+    var followNodeIndices = new int[numberOfObservations];
+    for (int o = numberOfObservations - 1; o >= 0; o--) {
+      followNodeIndices[o] = (int) (combinationIndex % numberOfNodes);
+      combinationIndex /= numberOfNodes;
+    }
+    return followNodeIndices;
+  }
+
   private void validateBeliefPoints(Map<IAgent, Set<Distribution<State>>> beliefPoints) {
     if (beliefPoints.isEmpty()) {
       throw new IllegalArgumentException("Belief points must not be empty.");
@@ -8,6 +8,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.bind.DefaultValue;
 
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * This class configures some meta-properties of the {@link HeuristicPolicyIterationSolver}.
@@ -16,6 +17,18 @@ import java.util.Map;
  * @param beliefPointGenerationMaxRuns the maximum numbers of repeating belief point generations, if diversity isn't high enough
  * @param beliefPointDistanceThreshold the distance between two belief points to accept them as different belief points
  * @param valueChangeThreshold         the threshold for the DecPOMDPs value to estimate when the algorithm stagnates
+ * @param backupSpillThreshold         the number of backup candidates per agent above which they are spilled to disk, 0 disables spilling
+ * @param parallelCombinatorialPruning whether the linear programs of the combinatorial pruning are solved concurrently
+ * @param retainedNodeCombinations     the number of best node combinations to retain per belief point
+ * @param retentionEpsilon             the distance to the best value within which node combinations are retained as well, 0 disables it
+ * @param beliefPointCacheDirectory    the directory to cache generated belief points in, empty disables caching
+ * @param beliefPointRolloutSampling   whether belief points are sampled by Monte Carlo rollouts instead of random belief updates
+ * @param beliefPointRolloutHorizon    the number of steps of each rollout
+ * @param timeBudgetSeconds            the wall-clock time in seconds the solver may take, 0 disables the budget
+ * @param checkpointFile               the file to write checkpoints to, empty disables checkpoints
+ * @param checkpointInterval           the number of iterations between two checkpoints
+ * @param checkpointValueFunction      whether the value function is written to the checkpoints as well
+ * @param memoryBudgetMegabytes        the memory in megabytes a backup may take before switching to a point-based backup, 0 uses three quarters of the maximum heap, negative disables it
  */
 @ConfigurationProperties("app.heuristic-policy-iteration")
 public record HeuristicPolicyIterationConfig(
@@ -25,6 +38,18 @@ public record HeuristicPolicyIterationConfig(
   @DefaultValue("2e-2") double beliefPointDistanceThreshold,
   @DefaultValue("1e-8") double valueChangeThreshold,
   @DefaultValue("0") int maxIterations,
+  @DefaultValue("0") long backupSpillThreshold,
+  @DefaultValue("true") boolean parallelCombinatorialPruning,
+  @DefaultValue("1") int retainedNodeCombinations,
+  @DefaultValue("0") double retentionEpsilon,
+  @DefaultValue("") String beliefPointCacheDirectory,
+  @DefaultValue("false") boolean beliefPointRolloutSampling,
+  @DefaultValue("20") int beliefPointRolloutHorizon,
+  @DefaultValue("0") long timeBudgetSeconds,
+  @DefaultValue("") String checkpointFile,
+  @DefaultValue("1") int checkpointInterval,
+  @DefaultValue("false") boolean checkpointValueFunction,
+  @DefaultValue("-1") long memoryBudgetMegabytes,
   Map<IAgent, Map<State, Distribution<Action>>> initialPolicies) {
 
   public static HeuristicPolicyIterationConfig getDefault() {
@@ -35,45 +60,129 @@ public record HeuristicPolicyIterationConfig(
       2e-3,
       1e-8,
       0,
+      0,
+      true,
+      1,
+      0,
+      "",
+      false,
+      20,
+      0,
+      "",
+      1,
+      false,
+      -1,
       null
     );
   }
 
   public HeuristicPolicyIterationConfig withMaxIterations(int maxIterations) {
     if (maxIterations <= 0) return this;
-    return new HeuristicPolicyIterationConfig(
-      beliefPointGenerationSeed(),
-      beliefPointDesiredNumber(),
-      beliefPointGenerationMaxRuns(),
-      beliefPointDistanceThreshold(),
-      valueChangeThreshold(),
-      maxIterations,
-      initialPolicies()
-    );
+    return copy(builder -> builder.maxIterations = maxIterations);
   }
 
   public HeuristicPolicyIterationConfig withNumberOfBeliefPoints(int numberOfBeliefPoints) {
     if (numberOfBeliefPoints <= 0) return this;
-    return new HeuristicPolicyIterationConfig(
-      beliefPointGenerationSeed(),
-      numberOfBeliefPoints,
-      beliefPointGenerationMaxRuns(),
-      beliefPointDistanceThreshold(),
-      valueChangeThreshold(),
-      maxIterations(),
-      initialPolicies()
-    );
+    return copy(builder -> builder.beliefPointDesiredNumber = numberOfBeliefPoints);
+  }
+
+  public HeuristicPolicyIterationConfig withBeliefPointDistanceThreshold(double beliefPointDistanceThreshold) {
+    return copy(builder -> builder.beliefPointDistanceThreshold = beliefPointDistanceThreshold);
   }
 
   public HeuristicPolicyIterationConfig withInitialPolicies(Map<IAgent, Map<State, Distribution<Action>>> initialPolicies) {
-    return new HeuristicPolicyIterationConfig(
-      beliefPointGenerationSeed(),
-      beliefPointDesiredNumber(),
-      beliefPointGenerationMaxRuns(),
-      beliefPointDistanceThreshold(),
-      valueChangeThreshold(),
-      maxIterations(),
-      initialPolicies
-    );
+    return copy(builder -> builder.initialPolicies = initialPolicies);
+  }
+
+  public HeuristicPolicyIterationConfig withBeliefPointGenerationSeed(long beliefPointGenerationSeed) {
+    return copy(builder -> builder.beliefPointGenerationSeed = beliefPointGenerationSeed);
+  }
+
+  public HeuristicPolicyIterationConfig withCheckpointFile(String checkpointFile) {
+    return copy(builder -> builder.checkpointFile = checkpointFile);
+  }
+
+  public HeuristicPolicyIterationConfig withBeliefPointRolloutSampling(boolean beliefPointRolloutSampling) {
+    return copy(builder -> builder.beliefPointRolloutSampling = beliefPointRolloutSampling);
+  }
+
+  /**
+   * Creates a copy of this config, in which the given modification is applied to the copied properties.
+   */
+  private HeuristicPolicyIterationConfig copy(Consumer<Builder> modification) {
+    var builder = new Builder(this);
+    modification.accept(builder);
+    return builder.build();
+  }
+
+  /**
+   * The mutable properties of a config, which are copied from an existing config by the withers.
+   */
+  private static class Builder {
+    private long beliefPointGenerationSeed;
+    private int beliefPointDesiredNumber;
+    private int beliefPointGenerationMaxRuns;
+    private double beliefPointDistanceThreshold;
+    private double valueChangeThreshold;
+    private int maxIterations;
+    private long backupSpillThreshold;
+    private boolean parallelCombinatorialPruning;
+    private int retainedNodeCombinations;
+    private double retentionEpsilon;
+    private String beliefPointCacheDirectory;
+    private boolean beliefPointRolloutSampling;
+    private int beliefPointRolloutHorizon;
+    private long timeBudgetSeconds;
+    private String checkpointFile;
+    private int checkpointInterval;
+    private boolean checkpointValueFunction;
+    private long memoryBudgetMegabytes;
+    private Map<IAgent, Map<State, Distribution<Action>>> initialPolicies;
+
+    Builder(HeuristicPolicyIterationConfig config) {
+      beliefPointGenerationSeed = config.beliefPointGenerationSeed();
+      beliefPointDesiredNumber = config.beliefPointDesiredNumber();
+      beliefPointGenerationMaxRuns = config.beliefPointGenerationMaxRuns();
+      beliefPointDistanceThreshold = config.beliefPointDistanceThreshold();
+      valueChangeThreshold = config.valueChangeThreshold();
+      maxIterations = config.maxIterations();
+      backupSpillThreshold = config.backupSpillThreshold();
+      parallelCombinatorialPruning = config.parallelCombinatorialPruning();
+      retainedNodeCombinations = config.retainedNodeCombinations();
+      retentionEpsilon = config.retentionEpsilon();
+      beliefPointCacheDirectory = config.beliefPointCacheDirectory();
+      beliefPointRolloutSampling = config.beliefPointRolloutSampling();
+      beliefPointRolloutHorizon = config.beliefPointRolloutHorizon();
+      timeBudgetSeconds = config.timeBudgetSeconds();
+      checkpointFile = config.checkpointFile();
+      checkpointInterval = config.checkpointInterval();
+      checkpointValueFunction = config.checkpointValueFunction();
+      memoryBudgetMegabytes = config.memoryBudgetMegabytes();
+      initialPolicies = config.initialPolicies();
+    }
+
+    HeuristicPolicyIterationConfig build() {
+      return new HeuristicPolicyIterationConfig(
+        beliefPointGenerationSeed,
+        beliefPointDesiredNumber,
+        beliefPointGenerationMaxRuns,
+        beliefPointDistanceThreshold,
+        valueChangeThreshold,
+        maxIterations,
+        backupSpillThreshold,
+        parallelCombinatorialPruning,
+        retainedNodeCombinations,
+        retentionEpsilon,
+        beliefPointCacheDirectory,
+        beliefPointRolloutSampling,
+        beliefPointRolloutHorizon,
+        timeBudgetSeconds,
+        checkpointFile,
+        checkpointInterval,
+        checkpointValueFunction,
+        memoryBudgetMegabytes,
+        initialPolicies
+      );
+    }
   }
 }
@@ -0,0 +1,204 @@
+package de.jlandsmannn.DecPOMDPSolver.policyIteration;
+
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.AgentWithStateController;
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.DecPOMDPWithStateController;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This class runs several instances of the {@link HeuristicPolicyIterationSolver} concurrently,
+ * each with a different seed for the belief point generation, and keeps the controllers of the best one.
+ * All instances share the parsed model, only the controllers and the value function are copied per instance.
+ * Each instance runs in its own thread pool, so the available processors are divided evenly among them.
+ * Optionally, the remaining instances are stopped as soon as the first instance finished,
+ * in which case they return the best controllers they found so far.
+ */
+@Service
+public class HeuristicPolicyIterationPortfolio {
+  private static final Logger LOG = LoggerFactory.getLogger(HeuristicPolicyIterationPortfolio.class);
+
+  private final ObjectProvider<HeuristicPolicyIterationSolver> solverProvider;
+
+  private DecPOMDPWithStateController decPOMDP;
+  private HeuristicPolicyIterationConfig config;
+  private int numberOfInstances = 1;
+  private boolean stopOnFirstResult = false;
+
+  @Autowired
+  public HeuristicPolicyIterationPortfolio(ObjectProvider<HeuristicPolicyIterationSolver> solverProvider) {
+    this.solverProvider = solverProvider;
+  }
+
+  public HeuristicPolicyIterationPortfolio setDecPOMDP(DecPOMDPWithStateController decPOMDP) {
+    LOG.debug("Retrieving DecPOMDP: {}", decPOMDP);
+    this.decPOMDP = decPOMDP;
+    return this;
+  }
+
+  public HeuristicPolicyIterationPortfolio setConfig(HeuristicPolicyIterationConfig config) {
+    LOG.debug("Retrieving config: {}", config);
+    this.config = config;
+    return this;
+  }
+
+  public HeuristicPolicyIterationPortfolio setNumberOfInstances(int numberOfInstances) {
+    if (numberOfInstances <= 0) {
+      throw new IllegalArgumentException("Number of instances must be positive.");
+    }
+    LOG.debug("Retrieving number of instances: {}", numberOfInstances);
+    this.numberOfInstances = numberOfInstances;
+    return this;
+  }
+
+  public HeuristicPolicyIterationPortfolio setStopOnFirstResult(boolean stopOnFirstResult) {
+    LOG.debug("Retrieving whether to stop on first result: {}", stopOnFirstResult);
+    this.stopOnFirstResult = stopOnFirstResult;
+    return this;
+  }
+
+  /**
+   * Solves the DecPOMDP with all instances and applies the controllers and value function of the best instance to it.
+   * The seeds of the instances are consecutive, starting with the configured seed, or a random one if none is configured.
+   * If a checkpoint file is configured, each instance writes its checkpoints to a file suffixed with its seed.
+   *
+   * @return the value of the best instance
+   * @throws IllegalStateException if the DecPOMDP or config is not set, or no instance succeeded
+   */
+  public double solve() {
+    if (decPOMDP == null) throw new IllegalStateException("DecPOMDP must be set to solve it.");
+    if (config == null) throw new IllegalStateException("Config must be set to solve DecPOMDP.");
+    var parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() / numberOfInstances);
+    LOG.info("Solving DecPOMDP with a portfolio of {} instances with {} threads each.", numberOfInstances, parallelism);
+
+    var instances = createInstances();
+    var pools = new ArrayList<ForkJoinPool>(instances.size());
+    var results = new ArrayList<CompletableFuture<Double>>(instances.size());
+    try {
+      for (var instance : instances) {
+        var pool = new ForkJoinPool(parallelism);
+        pools.add(pool);
+        results.add(CompletableFuture
+          .supplyAsync(instance::solve, pool)
+          .whenComplete((value, error) -> onInstanceCompleted(instance, instances, value, error)));
+      }
+      CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+    } finally {
+      pools.forEach(ForkJoinPool::shutdownNow);
+    }
+
+    var bestInstance = instances.stream()
+      .filter(Instance::hasSucceeded)
+      .max((a, b) -> Double.compare(a.getValue(), b.getValue()))
+      .orElseThrow(() -> new IllegalStateException("No instance of the portfolio succeeded."));
+    LOG.info("Instance with seed {} achieved the best value of {}.", bestInstance.seed, bestInstance.getValue());
+    bestInstance.applyTo(decPOMDP);
+    return decPOMDP.getValue();
+  }
+
+  protected List<Instance> createInstances() {
+    var firstSeed = config.beliefPointGenerationSeed() != 0 ? config.beliefPointGenerationSeed() : new Random().nextLong();
+    var instances = new ArrayList<Instance>(numberOfInstances);
+    for (int i = 0; i < numberOfInstances; i++) {
+      var seed = firstSeed + i;
+      var instanceConfig = config.withBeliefPointGenerationSeed(seed);
+      if (config.checkpointFile() != null && !config.checkpointFile().isBlank()) {
+        instanceConfig = instanceConfig.withCheckpointFile(config.checkpointFile() + ".seed-" + seed);
+      }
+      var solver = createSolver().setStoppable(stopOnFirstResult);
+      instances.add(new Instance(seed, copyDecPOMDP(decPOMDP), solver, instanceConfig));
+    }
+    return instances;
+  }
+
+  protected HeuristicPolicyIterationSolver createSolver() {
+    return solverProvider.getObject();
+  }
+
+  private void onInstanceCompleted(Instance instance, List<Instance> instances, Double value, Throwable error) {
+    if (error != null) {
+      var cause = error instanceof CompletionException ? error.getCause() : error;
+      LOG.warn("Instance with seed {} failed.", instance.seed, cause);
+      return;
+    }
+    LOG.info("Instance with seed {} finished with value {}.", instance.seed, value);
+    if (!stopOnFirstResult) return;
+    instances.stream()
+      .filter(other -> other != instance)
+      .forEach(other -> other.solver.requestStop());
+  }
+
+  /**
+   * Creates a copy of the DecPOMDP with copies of the controllers and without value function.
+   * The states, the initial belief state, as well as the transition, reward and observation function are shared.
+   */
+  protected static DecPOMDPWithStateController copyDecPOMDP(DecPOMDPWithStateController decPOMDP) {
+    var agents = decPOMDP.getAgents().stream()
+      .map(agent -> new AgentWithStateController(agent.getName(), agent.getActions(), agent.getObservations(), agent.getController().copy()))
+      .toList();
+    return new DecPOMDPWithStateController(
+      agents,
+      decPOMDP.getStates(),
+      decPOMDP.getDiscountFactor(),
+      decPOMDP.getInitialBeliefState(),
+      decPOMDP.getTransitionFunction(),
+      decPOMDP.getRewardFunction(),
+      decPOMDP.getObservationFunction()
+    );
+  }
+
+  /**
+   * A single solver of the portfolio with its own seed and copy of the DecPOMDP.
+   */
+  protected static class Instance {
+    private final long seed;
+    private final DecPOMDPWithStateController decPOMDP;
+    private final HeuristicPolicyIterationSolver solver;
+    private final HeuristicPolicyIterationConfig config;
+    private volatile boolean succeeded = false;
+
+    Instance(long seed, DecPOMDPWithStateController decPOMDP, HeuristicPolicyIterationSolver solver, HeuristicPolicyIterationConfig config) {
+      this.seed = seed;
+      this.decPOMDP = decPOMDP;
+      this.solver = solver;
+      this.config = config;
+    }
+
+    double solve() {
+      var value = solver.setDecPOMDP(decPOMDP).setConfig(config).solve();
+      succeeded = true;
+      return value;
+    }
+
+    boolean hasSucceeded() {
+      return succeeded;
+    }
+
+    double getValue() {
+      return decPOMDP.getValue();
+    }
+
+    void applyTo(DecPOMDPWithStateController target) {
+      var agents = target.getAgents();
+      for (int i = 0; i < agents.size(); i++) {
+        agents.get(i).setController(decPOMDP.getAgents().get(i).getController());
+      }
+      target.clearValueFunction();
+      for (var nodeCombination : decPOMDP.getNodeCombinations()) {
+        for (var state : decPOMDP.getStates()) {
+          if (!decPOMDP.hasValue(state, nodeCombination)) continue;
+          target.setValue(state, nodeCombination, decPOMDP.getValue(state, nodeCombination));
+        }
+      }
+    }
+  }
+}
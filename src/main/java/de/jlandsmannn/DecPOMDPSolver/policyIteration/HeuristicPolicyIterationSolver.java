@@ -3,6 +3,7 @@ package de.jlandsmannn.DecPOMDPSolver.policyIteration;
 import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.IAgent;
 import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.State;
 import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.DecPOMDPWithStateController;
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.FiniteStateController;
 import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.IAgentWithStateController;
 import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.IDecPOMDPWithStateController;
 import de.jlandsmannn.DecPOMDPSolver.domain.solving.BaseDecPOMDPSolverWithConfig;
@@ -10,11 +11,18 @@ import de.jlandsmannn.DecPOMDPSolver.domain.utility.Distribution;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Service;
 
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -22,35 +30,60 @@ import java.util.Set;
  * It starts with a {@link DecPOMDPWithStateController} with (usually) arbitrary controllers.
  * Since it is a heuristic algorithm, the results are not deterministic,
  * and depend on the initialization and on the belief point generation.
+ * If solving can be interrupted by a time budget or a stop request,
+ * the controllers with the best value evaluated so far are kept,
+ * so they can be restored if the value decreased before solving was interrupted.
+ * The memory of that snapshot is reserved in the {@link MemoryGovernor}.
+ * If configured, a checkpoint is written periodically, from which solving can be resumed.
+ * Before each backup, the {@link MemoryGovernor} decides whether the backup fits into memory,
+ * or whether it is switched to a point-based backup for this iteration.
  */
+@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
 @Service
 public class HeuristicPolicyIterationSolver
   extends BaseDecPOMDPSolverWithConfig<IDecPOMDPWithStateController<?>, HeuristicPolicyIterationConfig, HeuristicPolicyIterationSolver> {
   private static final Logger LOG = LoggerFactory.getLogger(HeuristicPolicyIterationSolver.class);
 
   protected final BeliefPointGenerator beliefPointGenerator;
+  protected final BeliefPointCache beliefPointCache;
+  protected final PolicyIterationCheckpointStore checkpointStore;
   protected final ValueFunctionEvaluater<IDecPOMDPWithStateController<?>, ?> valueFunctionEvaluater;
   protected final ExhaustiveBackupPerformer exhaustiveBackupPerformer;
   protected final DominatingNodesRetainer dominatingNodesRetainer;
   protected final CombinatorialNodePruner<IDecPOMDPWithStateController<?>, ?, ?> combinatorialNodePruner;
+  protected final MemoryGovernor memoryGovernor;
 
 
   protected Map<IAgent, Set<Distribution<State>>> beliefPoints;
   protected double controllerState = 0;
   protected int currentIteration = 0;
+  protected long deadline = Long.MAX_VALUE;
+  protected double nanosPerBackupCandidate = 0;
+  protected double bestValue = Double.NEGATIVE_INFINITY;
+  protected List<FiniteStateController> bestControllers = List.of();
+  protected long bestControllersBytes = 0;
+  protected boolean stoppable = false;
+  protected Path checkpointFile;
+  protected volatile boolean stopRequested = false;
 
   @Autowired
   public HeuristicPolicyIterationSolver(BeliefPointGenerator beliefPointGenerator,
+                                        BeliefPointCache beliefPointCache,
+                                        PolicyIterationCheckpointStore checkpointStore,
                                         ValueFunctionEvaluater<IDecPOMDPWithStateController<?>, ?> valueFunctionEvaluater,
                                         ExhaustiveBackupPerformer exhaustiveBackupPerformer,
                                         DominatingNodesRetainer dominatingNodesRetainer,
-                                        CombinatorialNodePruner<IDecPOMDPWithStateController<?>, ?, ?> combinatorialNodePruner) {
+                                        CombinatorialNodePruner<IDecPOMDPWithStateController<?>, ?, ?> combinatorialNodePruner,
+                                        MemoryGovernor memoryGovernor) {
     super();
     this.beliefPointGenerator = beliefPointGenerator;
+    this.beliefPointCache = beliefPointCache;
+    this.checkpointStore = checkpointStore;
     this.valueFunctionEvaluater = valueFunctionEvaluater;
     this.exhaustiveBackupPerformer = exhaustiveBackupPerformer;
     this.dominatingNodesRetainer = dominatingNodesRetainer;
     this.combinatorialNodePruner = combinatorialNodePruner;
+    this.memoryGovernor = memoryGovernor;
   }
 
   @Override
@@ -62,10 +95,44 @@ public class HeuristicPolicyIterationSolver
     }
     currentIteration = 0;
     controllerState = 0;
+    resetSolveState();
+    startTimeBudget();
+    setCheckpointFile(null);
     generateBeliefPoints();
     evaluateValueFunction();
+    return iterate();
+  }
+
+  /**
+   * Resumes solving from the given checkpoint, which must have been written for the same DecPOMDP.
+   * The controllers, belief points and the number of completed iterations are restored,
+   * so completed iterations are not repeated.
+   * If the checkpoint does not contain the value function, it is evaluated again.
+   * Further checkpoints are written to the configured file, or to the given one if none is configured.
+   *
+   * @param checkpointFile the checkpoint to resume from
+   * @return the value of the DecPOMDP after solving
+   */
+  public double resume(Path checkpointFile) {
+    LOG.info("Resuming heuristic policy iteration from checkpoint {}.", checkpointFile);
+    if (decPOMDP.getDiscountFactor() == 1) {
+      throw new IllegalStateException("This algorithm does not support discount factor of 1.");
+    }
+    controllerState = 0;
+    resetSolveState();
+    startTimeBudget();
+    setCheckpointFile(checkpointFile);
+    restoreCheckpoint(checkpointFile);
+    return iterate();
+  }
+
+  protected double iterate() {
+    saveBestControllers();
     do {
+      if (!canFinishNextIteration()) break;
       LOG.info("Starting iteration #{}. Current value: {}", ++currentIteration, getValue());
+      var iterationStart = System.nanoTime();
+      var numberOfBackupCandidates = countBackupCandidates();
       saveControllerState();
       outputControllerSizes("Start");
       performExhaustiveBackup();
@@ -75,19 +142,117 @@ public class HeuristicPolicyIterationSolver
       pruneCombinatorialDominatedNodes();
       outputControllerSizes("After combinatorial Pruning");
       evaluateValueFunction();
+      measureIterationDuration(iterationStart, numberOfBackupCandidates);
+      saveBestControllers();
+      writeCheckpoint();
     } while (hasControllerStateChanged() && !isIterationLimitReached());
+    restoreBestControllers();
     return getValue();
   }
 
+  /**
+   * Sets whether a stop may be requested while solving.
+   * Only then, or with a time budget, the best controllers are kept to be returned when solving is stopped.
+   *
+   * @param stoppable whether a stop may be requested
+   * @return this
+   */
+  public HeuristicPolicyIterationSolver setStoppable(boolean stoppable) {
+    LOG.debug("Retrieving whether solving is stoppable: {}", stoppable);
+    this.stoppable = stoppable;
+    return this;
+  }
+
+  /**
+   * Requests this solver to stop before starting its next iteration.
+   * Solving then ends as if the time budget were exhausted,
+   * returning the best controllers found so far if the solver is stoppable, or the current ones otherwise.
+   * The request is not reset, so it also applies to solving, that has not started yet.
+   */
+  public void requestStop() {
+    LOG.info("Stop of heuristic policy iteration was requested.");
+    stopRequested = true;
+  }
+
+  /**
+   * Returns the number of iterations of the current or last solving,
+   * for which the memory governor switched the backup to a point-based backup.
+   *
+   * @return the number of switched iterations
+   */
+  public int getNumberOfMemoryGovernedIterations() {
+    return memoryGovernor.getNumberOfSwitchedIterations();
+  }
+
+  protected void resetSolveState() {
+    memoryGovernor.reset();
+    nanosPerBackupCandidate = 0;
+    bestValue = Double.NEGATIVE_INFINITY;
+    bestControllers = List.of();
+    bestControllersBytes = 0;
+  }
+
+  protected void startTimeBudget() {
+    if (config.timeBudgetSeconds() <= 0) {
+      deadline = Long.MAX_VALUE;
+      return;
+    }
+    LOG.info("Solving with a time budget of {} seconds.", config.timeBudgetSeconds());
+    deadline = System.nanoTime() + Duration.ofSeconds(config.timeBudgetSeconds()).toNanos();
+  }
+
+  protected void setCheckpointFile(Path fallbackFile) {
+    var configuredFile = config.checkpointFile();
+    checkpointFile = configuredFile == null || configuredFile.isBlank() ? fallbackFile : Path.of(configuredFile);
+    if (checkpointFile != null) {
+      LOG.info("Writing a checkpoint every {} iterations to {}.", Math.max(1, config.checkpointInterval()), checkpointFile);
+    }
+  }
+
+  protected void restoreCheckpoint(Path file) {
+    var checkpoint = checkpointStore.load(file, decPOMDP);
+    checkpoint.applyTo(decPOMDP);
+    currentIteration = checkpoint.iteration();
+    beliefPoints = new HashMap<>(checkpoint.beliefPoints());
+    if (!checkpoint.hasValueFunction()) evaluateValueFunction();
+    LOG.info("Restored checkpoint after iteration #{} with value {}.", currentIteration, getValue());
+  }
+
+  protected void writeCheckpoint() {
+    if (checkpointFile == null || currentIteration % Math.max(1, config.checkpointInterval()) != 0) return;
+    try {
+      checkpointStore.store(checkpointFile, decPOMDP, currentIteration, beliefPoints, config.checkpointValueFunction());
+    } catch (UncheckedIOException e) {
+      LOG.warn("Could not write checkpoint of iteration #{}, continuing without it.", currentIteration, e);
+    }
+  }
+
   protected void generateBeliefPoints() {
     LOG.info("Generating {} belief points to guide the pruning.", config.beliefPointDesiredNumber());
     beliefPoints = new HashMap<>();
+    var cacheDirectory = config.beliefPointCacheDirectory();
+    beliefPointCache.setDirectory(cacheDirectory == null || cacheDirectory.isBlank() ? null : Path.of(cacheDirectory));
+    var fingerprint = beliefPointCache.isEnabled()
+      ? beliefPointCache.createFingerprint(decPOMDP, config)
+      : Optional.<String>empty();
+    var cachedBeliefPoints = fingerprint.flatMap(f -> beliefPointCache.load(decPOMDP, f));
+    if (cachedBeliefPoints.isPresent()) {
+      beliefPoints.putAll(cachedBeliefPoints.get());
+      return;
+    }
+
     beliefPointGenerator
       .setDecPOMDP(decPOMDP)
+      .setSeed(config.beliefPointGenerationSeed())
       .setDesiredNumberOfBeliefPoints(config.beliefPointDesiredNumber())
+      .setMaxGenerationRuns(config.beliefPointGenerationMaxRuns())
+      .setBeliefPointDistanceThreshold(config.beliefPointDistanceThreshold())
+      .setRolloutSampling(config.beliefPointRolloutSampling())
+      .setRolloutHorizon(config.beliefPointRolloutHorizon())
       .setPolicies(config.initialPolicies());
     var generatedBeliefPoints = beliefPointGenerator.generateBeliefPoints();
     beliefPoints.putAll(generatedBeliefPoints);
+    fingerprint.ifPresent(f -> beliefPointCache.store(decPOMDP, f, generatedBeliefPoints));
   }
 
   protected void saveControllerState() {
@@ -104,23 +269,39 @@ public class HeuristicPolicyIterationSolver
 
   protected void performExhaustiveBackup() {
     LOG.info("Performing exhaustive backup.");
+    var spillThreshold = memoryGovernor
+      .setDecPOMDP(decPOMDP)
+      .setBeliefPoints(beliefPoints)
+      .setMemoryBudget(getMemoryBudget())
+      .setReservedBytes(bestControllersBytes)
+      .decideSpillThreshold(config.backupSpillThreshold());
     exhaustiveBackupPerformer
       .setDecPOMDP(decPOMDP)
       .setBeliefPoints(beliefPoints)
+      .setSpillThreshold(spillThreshold)
       .performExhaustiveBackup();
   }
 
+  protected long getMemoryBudget() {
+    var memoryBudgetMegabytes = config.memoryBudgetMegabytes();
+    return memoryBudgetMegabytes > 0 ? memoryBudgetMegabytes * 1024 * 1024 : memoryBudgetMegabytes;
+  }
+
   protected void retainDominatingNodes() {
     LOG.info("Retaining dominating nodes.");
     dominatingNodesRetainer
       .setDecPOMDP(decPOMDP)
       .setBeliefPoints(beliefPoints)
+      .setNumberOfRetainedCombinations(config.retainedNodeCombinations())
+      .setRetentionEpsilon(config.retentionEpsilon())
       .retainDominatingNodes();
   }
 
   protected void pruneCombinatorialDominatedNodes() {
     LOG.info("Pruning combinatorial dominated nodes.");
-    combinatorialNodePruner.setDecPOMDP(decPOMDP);
+    combinatorialNodePruner
+      .setParallel(config.parallelCombinatorialPruning())
+      .setDecPOMDP(decPOMDP);
     for (IAgentWithStateController agent : decPOMDP.getAgents()) {
       LOG.debug("Pruning combinatorial dominated nodes for Agent {}.", agent);
       combinatorialNodePruner
@@ -144,6 +325,71 @@ public class HeuristicPolicyIterationSolver
     return hasIterationLimit && isIterationLimitReached;
   }
 
+  /**
+   * Estimates whether the next iteration can be finished within the time budget.
+   * The exhaustive backup dominates the cost of an iteration and is linear in the number of backup candidates,
+   * which is the sum of |A_i| * |N_i|^|O_i| over all agents.
+   * Hence, the duration of the last iteration per backup candidate
+   * is multiplied with the number of backup candidates of the current controllers.
+   * Without a measured iteration, the next iteration is always started if there is time left.
+   * If a stop was requested, no further iteration is started at all.
+   *
+   * @return whether the next iteration is expected to finish before the deadline
+   */
+  protected boolean canFinishNextIteration() {
+    if (stopRequested) return false;
+    if (deadline == Long.MAX_VALUE) return true;
+    var remainingNanos = deadline - System.nanoTime();
+    var estimatedNanos = nanosPerBackupCandidate * countBackupCandidates();
+    boolean canFinish = remainingNanos > 0 && estimatedNanos < remainingNanos;
+    LOG.info("Next iteration is estimated to take {} ms, {} ms remaining. Starting it: {}",
+      (long) (estimatedNanos / 1e6), Math.max(0, remainingNanos / 1_000_000), canFinish);
+    return canFinish;
+  }
+
+  protected void measureIterationDuration(long iterationStart, double numberOfBackupCandidates) {
+    var duration = System.nanoTime() - iterationStart;
+    nanosPerBackupCandidate = duration / Math.max(1D, numberOfBackupCandidates);
+    LOG.debug("Iteration #{} took {} ms for {} backup candidates.", currentIteration, duration / 1_000_000, numberOfBackupCandidates);
+  }
+
+  protected double countBackupCandidates() {
+    var numberOfBackupCandidates = 0D;
+    for (IAgentWithStateController agent : decPOMDP.getAgents()) {
+      numberOfBackupCandidates += ExhaustiveBackupPerformer.getNumberOfCandidates(agent);
+    }
+    return numberOfBackupCandidates;
+  }
+
+  protected boolean isInterruptible() {
+    return config.timeBudgetSeconds() > 0 || stoppable;
+  }
+
+  protected void saveBestControllers() {
+    if (!isInterruptible() || getValue() <= bestValue) return;
+    LOG.debug("Saving controllers with best value so far: {}", getValue());
+    bestValue = getValue();
+    bestControllers = decPOMDP.getAgents().stream()
+      .map(IAgentWithStateController::getController)
+      .map(FiniteStateController::copy)
+      .toList();
+    bestControllersBytes = (long) decPOMDP.getAgents().stream()
+      .mapToDouble(ProblemSizeEstimator::estimateControllerBytes)
+      .sum();
+  }
+
+  protected void restoreBestControllers() {
+    if (bestControllers.isEmpty() || getValue() >= bestValue) return;
+    LOG.info("Restoring controllers with best value {} instead of current value {}.", bestValue, getValue());
+    var agents = decPOMDP.getAgents();
+    for (int i = 0; i < agents.size(); i++) {
+      agents.get(i).setController(bestControllers.get(i));
+    }
+    bestControllers = List.of();
+    bestControllersBytes = 0;
+    evaluateValueFunction();
+  }
+
   protected void outputControllerSizes(String label) {
     var builder = new StringBuilder();
     builder
@@ -0,0 +1,213 @@
+package de.jlandsmannn.DecPOMDPSolver.policyIteration;
+
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.IAgent;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.State;
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.IDecPOMDPWithStateController;
+import de.jlandsmannn.DecPOMDPSolver.domain.utility.Distribution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.annotation.Scope;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * This class decides before each iteration, how the exhaustive backup is performed,
+ * so the iteration does not run out of memory.
+ * The memory of the value function and of the sparse matrix used to evaluate it after the backup,
+ * both projected by the {@link ProblemSizeEstimator}, is compared to the memory budget.
+ * The evaluation matrix is included, since it is built from the value function of the backed up controllers
+ * and is by far the larger of the two.
+ * If no budget is configured explicitly, a fixed fraction of the maximum heap is used,
+ * leaving headroom for the DecPOMDP itself, the candidates of the backup and the garbage collector.
+ * Memory, that the solver holds during the backup in addition, like a snapshot of the best controllers,
+ * can be reserved and is subtracted from the budget.
+ * If the projection exceeds the budget, the backup of the agents with the most candidates is switched
+ * to the point-based backup of the {@link ExhaustiveBackupPerformer}, which spills the candidates to disk
+ * and only adds those being the best at some belief point.
+ * Since at most one candidate is the best for each belief point and node combination of the other agents,
+ * this bounds the number of added nodes per agent.
+ * Agents are switched by decreasing number of candidates until the projection fits or all agents are switched.
+ * The decision is only valid for the current iteration, as controller sizes change from iteration to iteration.
+ */
+@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
+@Service
+public class MemoryGovernor {
+  private static final Logger LOG = LoggerFactory.getLogger(MemoryGovernor.class);
+  private static final double HEAP_HEADROOM_FRACTION = 0.25;
+
+  private final ProblemSizeEstimator estimator = new ProblemSizeEstimator();
+  private IDecPOMDPWithStateController<?> decPOMDP;
+  private Map<IAgent, Set<Distribution<State>>> beliefPoints = Map.of();
+  private long memoryBudget = -1;
+  private long reservedBytes = 0;
+  private Decision lastDecision;
+  private int numberOfSwitchedIterations = 0;
+
+  public MemoryGovernor setDecPOMDP(IDecPOMDPWithStateController<?> decPOMDP) {
+    LOG.debug("Retrieving DecPOMDP: {}", decPOMDP);
+    this.decPOMDP = decPOMDP;
+    return this;
+  }
+
+  public MemoryGovernor setBeliefPoints(Map<IAgent, Set<Distribution<State>>> beliefPoints) {
+    LOG.debug("Retrieving belief points: {}", beliefPoints);
+    this.beliefPoints = beliefPoints;
+    return this;
+  }
+
+  /**
+   * Sets the memory in bytes, that the next backup may take.
+   * A budget of 0 uses the maximum heap minus a fixed headroom, a negative budget disables the governor.
+   *
+   * @param memoryBudget the memory budget in bytes
+   * @return this
+   */
+  public MemoryGovernor setMemoryBudget(long memoryBudget) {
+    this.memoryBudget = memoryBudget;
+    return this;
+  }
+
+  /**
+   * Sets the memory in bytes, that is held in addition to the backup while it is performed.
+   * It is subtracted from the memory budget.
+   *
+   * @param reservedBytes the reserved memory in bytes
+   * @return this
+   */
+  public MemoryGovernor setReservedBytes(long reservedBytes) {
+    LOG.debug("Retrieving reserved bytes: {}", reservedBytes);
+    this.reservedBytes = reservedBytes;
+    return this;
+  }
+
+  public boolean isEnabled() {
+    return memoryBudget >= 0;
+  }
+
+  /**
+   * Decides how the next backup is performed with the current controllers and returns the spill threshold to use.
+   * If the governor is disabled or the projection fits into the budget, the configured spill threshold is returned.
+   * Otherwise, a spill threshold is returned, that makes the agents with the most candidates spill their candidates.
+   *
+   * @param configuredSpillThreshold the spill threshold of the configuration, 0 if spilling is disabled
+   * @return the spill threshold for the next backup
+   */
+  public long decideSpillThreshold(long configuredSpillThreshold) {
+    if (decPOMDP == null) throw new IllegalStateException("DecPOMDP must be set to decide the backup strategy.");
+    if (!isEnabled()) return configuredSpillThreshold;
+
+    var budget = (memoryBudget > 0 ? memoryBudget : getDefaultMemoryBudget()) - reservedBytes;
+    var estimate = estimator.estimateWithoutSparsity(decPOMDP);
+    var agents = estimate.agents();
+    var nodesAfterBackup = agents.stream().mapToDouble(ProblemSizeEstimator.AgentEstimate::nodesAfterBackup).toArray();
+    var projectedBytes = estimate.valueFunctionBytes() + estimate.evaluationMatrixBytes();
+    if (projectedBytes <= budget) {
+      lastDecision = new Decision(Strategy.EXHAUSTIVE, projectedBytes, projectedBytes, budget, configuredSpillThreshold);
+      LOG.info("Projected backup memory of {} bytes fits into budget of {} bytes, performing exhaustive backup.", (long) projectedBytes, budget);
+      return configuredSpillThreshold;
+    }
+
+    var spillThreshold = configuredSpillThreshold > 0 ? configuredSpillThreshold : Long.MAX_VALUE;
+    var governedBytes = projectedBytes;
+    var agentIndicesByCandidates = IntStream.range(0, agents.size()).boxed()
+      .sorted(Comparator.comparingDouble(i -> -agents.get(i).backupCandidates()))
+      .toList();
+    for (var agentIndex : agentIndicesByCandidates) {
+      if (governedBytes <= budget) break;
+      var agent = agents.get(agentIndex);
+      if (agent.backupCandidates() <= 1) break;
+      var maximumSurvivors = getNumberOfBeliefPoints(agentIndex) * getNodeCombinationsOfOtherAgents(agents, agentIndex);
+      nodesAfterBackup[agentIndex] = agent.nodes() + Math.min(agent.backupCandidates(), maximumSurvivors);
+      spillThreshold = Math.min(spillThreshold, (long) Math.ceil(agent.backupCandidates()) - 1);
+      governedBytes = estimateBytes(estimate.states(), agents, nodesAfterBackup);
+    }
+
+    if (spillThreshold == Long.MAX_VALUE) spillThreshold = configuredSpillThreshold;
+    numberOfSwitchedIterations++;
+    lastDecision = new Decision(Strategy.POINT_BASED, projectedBytes, governedBytes, budget, spillThreshold);
+    LOG.info("Projected backup memory of {} bytes exceeds budget of {} bytes, performing point-based backup for agents with more than {} candidates, projecting {} bytes.",
+      (long) projectedBytes, budget, spillThreshold, (long) governedBytes);
+    if (governedBytes > budget) {
+      LOG.warn("Projected backup memory of {} bytes still exceeds budget of {} bytes with point-based backup for all agents.", (long) governedBytes, budget);
+    }
+    return spillThreshold;
+  }
+
+  /**
+   * Returns the last decision of this governor, if there was any since it was reset.
+   *
+   * @return the last decision or null
+   */
+  public Decision getLastDecision() {
+    return lastDecision;
+  }
+
+  /**
+   * Returns the number of iterations, for which the backup was switched to the point-based backup since the last reset.
+   *
+   * @return the number of switched iterations
+   */
+  public int getNumberOfSwitchedIterations() {
+    return numberOfSwitchedIterations;
+  }
+
+  public void reset() {
+    lastDecision = null;
+    reservedBytes = 0;
+    numberOfSwitchedIterations = 0;
+  }
+
+  protected long getDefaultMemoryBudget() {
+    return (long) (Runtime.getRuntime().maxMemory() * (1 - HEAP_HEADROOM_FRACTION));
+  }
+
+  protected static double estimateBytes(int states, List<ProblemSizeEstimator.AgentEstimate> agents, double[] nodesAfterBackup) {
+    var nodeCombinations = 1D;
+    var followNodeCombinations = 1D;
+    for (int i = 0; i < agents.size(); i++) {
+      nodeCombinations *= nodesAfterBackup[i];
+      followNodeCombinations *= Math.min(nodesAfterBackup[i], agents.get(i).observations());
+    }
+    return ProblemSizeEstimator.estimateValueFunctionBytes(states, agents.size(), nodeCombinations)
+      + ProblemSizeEstimator.estimateEvaluationMatrixBytes(states, nodeCombinations, followNodeCombinations);
+  }
+
+  protected double getNumberOfBeliefPoints(int agentIndex) {
+    var agent = decPOMDP.getAgents().get(agentIndex);
+    return Math.max(1, beliefPoints.getOrDefault(agent, Set.of()).size());
+  }
+
+  protected static double getNodeCombinationsOfOtherAgents(List<ProblemSizeEstimator.AgentEstimate> agents, int agentIndex) {
+    var nodeCombinations = 1D;
+    for (int i = 0; i < agents.size(); i++) {
+      if (i != agentIndex) nodeCombinations *= agents.get(i).nodes();
+    }
+    return nodeCombinations;
+  }
+
+  /**
+   * The strategies, the backup can be performed with.
+   */
+  public enum Strategy {
+    EXHAUSTIVE,
+    POINT_BASED
+  }
+
+  /**
+   * A decision of the governor for a single iteration.
+   *
+   * @param strategy       the strategy of the backup
+   * @param projectedBytes the projected memory of an exhaustive backup
+   * @param governedBytes  the projected memory with the chosen strategy
+   * @param budget         the memory budget minus the reserved memory, which the projection was compared to
+   * @param spillThreshold the spill threshold for the backup
+   */
+  public record Decision(Strategy strategy, double projectedBytes, double governedBytes, long budget, long spillThreshold) {
+  }
+}
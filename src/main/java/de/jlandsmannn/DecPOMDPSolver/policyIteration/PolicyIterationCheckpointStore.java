@@ -0,0 +1,296 @@
+package de.jlandsmannn.DecPOMDPSolver.policyIteration;
+
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.IAgent;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.Action;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.Observation;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.State;
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.FiniteStateController;
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.IAgentWithStateController;
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.IDecPOMDPWithStateController;
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.primitives.Node;
+import de.jlandsmannn.DecPOMDPSolver.domain.utility.Distribution;
+import de.jlandsmannn.DecPOMDPSolver.domain.utility.Vector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class writes and reads checkpoints of the {@link HeuristicPolicyIterationSolver}.
+ * A checkpoint contains the number of completed iterations, the controllers of all agents,
+ * the belief points and optionally the value function.
+ * Actions, observations and states are stored by their index in the DecPOMDP,
+ * so a checkpoint can only be restored for the DecPOMDP it was written for.
+ * The checkpoint is written to a temporary file first and moved afterward,
+ * so an interrupted run never leaves a partially written checkpoint behind.
+ */
+@Service
+public class PolicyIterationCheckpointStore {
+  private static final Logger LOG = LoggerFactory.getLogger(PolicyIterationCheckpointStore.class);
+  private static final int MAGIC_NUMBER = 0x48504943;
+  private static final int VERSION = 1;
+  private static final int BUFFER_SIZE = 1024 * 1024;
+
+  /**
+   * Writes a checkpoint of the given DecPOMDP to the given file.
+   *
+   * @param file                 the file to write the checkpoint to
+   * @param decPOMDP             the DecPOMDP whose controllers and value function are written
+   * @param iteration            the number of completed iterations
+   * @param beliefPoints         the belief points of each agent
+   * @param includeValueFunction whether the value function is written as well
+   * @throws UncheckedIOException if the checkpoint could not be written
+   */
+  public void store(Path file,
+                    IDecPOMDPWithStateController<?> decPOMDP,
+                    int iteration,
+                    Map<IAgent, Set<Distribution<State>>> beliefPoints,
+                    boolean includeValueFunction) {
+    var stateIndices = createIndices(decPOMDP.getStates());
+    try {
+      var directory = file.toAbsolutePath().getParent();
+      Files.createDirectories(directory);
+      var temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+      try (var channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+           var output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE))) {
+        output.writeInt(MAGIC_NUMBER);
+        output.writeInt(VERSION);
+        output.writeInt(iteration);
+        output.writeInt(decPOMDP.getStates().size());
+        output.writeInt(decPOMDP.getAgentCount());
+        for (var agent : decPOMDP.getAgents()) {
+          writeController(output, agent);
+        }
+        for (var agent : decPOMDP.getAgents()) {
+          writeBeliefPoints(output, beliefPoints.getOrDefault(agent, Set.of()), stateIndices);
+        }
+        output.writeBoolean(includeValueFunction);
+        if (includeValueFunction) writeValueFunction(output, decPOMDP);
+      }
+      Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      LOG.info("Stored checkpoint of iteration #{} in {}", iteration, file);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write checkpoint to " + file, e);
+    }
+  }
+
+  /**
+   * Reads the checkpoint from the given file.
+   *
+   * @param file     the file to read the checkpoint from
+   * @param decPOMDP the DecPOMDP the checkpoint was written for
+   * @return the checkpoint
+   * @throws UncheckedIOException  if the checkpoint could not be read
+   * @throws IllegalStateException if the file is not a checkpoint or does not match the DecPOMDP
+   */
+  public Checkpoint load(Path file, IDecPOMDPWithStateController<?> decPOMDP) {
+    try (var channel = FileChannel.open(file, StandardOpenOption.READ);
+         var input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE))) {
+      if (input.readInt() != MAGIC_NUMBER || input.readInt() != VERSION) {
+        throw new IllegalStateException("File " + file + " is not a checkpoint of this version.");
+      }
+      var iteration = input.readInt();
+      if (input.readInt() != decPOMDP.getStates().size() || input.readInt() != decPOMDP.getAgentCount()) {
+        throw new IllegalStateException("Checkpoint " + file + " does not match the loaded DecPOMDP.");
+      }
+      var controllers = new ArrayList<FiniteStateController>();
+      for (var agent : decPOMDP.getAgents()) {
+        controllers.add(readController(input, agent));
+      }
+      var beliefPoints = new HashMap<IAgent, Set<Distribution<State>>>();
+      for (var agent : decPOMDP.getAgents()) {
+        beliefPoints.put(agent, readBeliefPoints(input, decPOMDP.getStates()));
+      }
+      var valueFunction = input.readBoolean()
+        ? readValueFunction(input, decPOMDP.getStates(), controllers)
+        : Map.<Vector<Node>, Map<State, Double>>of();
+      LOG.info("Loaded checkpoint of iteration #{} from {}", iteration, file);
+      return new Checkpoint(iteration, controllers, beliefPoints, valueFunction);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not read checkpoint from " + file, e);
+    } catch (IndexOutOfBoundsException e) {
+      throw new IllegalStateException("Checkpoint " + file + " does not match the loaded DecPOMDP.", e);
+    }
+  }
+
+  private void writeController(DataOutput output, IAgentWithStateController agent) throws IOException {
+    var controller = agent.getController();
+    var nodes = controller.getNodes();
+    var nodeIndices = createIndices(nodes);
+    var actionIndices = createIndices(agent.getActions());
+    var observationIndices = createIndices(agent.getObservations());
+    output.writeLong(controller.peekNodeIndex());
+    output.writeInt(nodes.size());
+    for (var node : nodes) output.writeUTF(node.name());
+    for (var node : nodes) {
+      var actionSelection = controller.getActionSelection(node);
+      output.writeInt(actionSelection.size());
+      for (var entry : actionSelection.entrySet()) {
+        var action = entry.getKey();
+        output.writeInt(actionIndices.get(action));
+        output.writeDouble(entry.getValue());
+        for (var observation : agent.getObservations()) {
+          output.writeInt(observationIndices.get(observation));
+          var followNodes = controller.getTransition(node, action, observation)
+            .map(transition -> transition.entrySet().stream()
+              .filter(followNode -> followNode.getValue() > 0)
+              .toList())
+            .orElse(List.of());
+          output.writeInt(followNodes.size());
+          for (var followNode : followNodes) {
+            output.writeInt(nodeIndices.get(followNode.getKey()));
+            output.writeDouble(followNode.getValue());
+          }
+        }
+      }
+    }
+  }
+
+  private FiniteStateController readController(DataInput input, IAgentWithStateController agent) throws IOException {
+    var nodeIndex = input.readLong();
+    var numberOfNodes = input.readInt();
+    var nodes = new ArrayList<Node>(numberOfNodes);
+    for (int i = 0; i < numberOfNodes; i++) nodes.add(Node.from(input.readUTF()));
+    var actionFunction = new ConcurrentHashMap<Node, Distribution<Action>>();
+    var transitionFunction = new ConcurrentHashMap<Node, Map<Action, Map<Observation, Distribution<Node>>>>();
+    for (var node : nodes) {
+      var numberOfActions = input.readInt();
+      var actionSelection = new HashMap<Action, Double>(numberOfActions);
+      var transitions = new ConcurrentHashMap<Action, Map<Observation, Distribution<Node>>>();
+      for (int a = 0; a < numberOfActions; a++) {
+        var action = agent.getActions().get(input.readInt());
+        actionSelection.put(action, input.readDouble());
+        var observationTransitions = new ConcurrentHashMap<Observation, Distribution<Node>>();
+        for (int o = 0; o < agent.getObservations().size(); o++) {
+          var observation = agent.getObservations().get(input.readInt());
+          var numberOfFollowNodes = input.readInt();
+          var followNodes = new HashMap<Node, Double>(numberOfFollowNodes);
+          for (int n = 0; n < numberOfFollowNodes; n++) {
+            followNodes.put(nodes.get(input.readInt()), input.readDouble());
+          }
+          if (!followNodes.isEmpty()) observationTransitions.put(observation, Distribution.of(followNodes));
+        }
+        if (!observationTransitions.isEmpty()) transitions.put(action, observationTransitions);
+      }
+      actionFunction.put(node, Distribution.of(actionSelection));
+      if (!transitions.isEmpty()) transitionFunction.put(node, transitions);
+    }
+    return new FiniteStateController(nodes, actionFunction, transitionFunction, nodeIndex);
+  }
+
+  private void writeBeliefPoints(DataOutput output, Set<Distribution<State>> beliefPoints, Map<State, Integer> stateIndices) throws IOException {
+    output.writeInt(beliefPoints.size());
+    for (var beliefPoint : beliefPoints) {
+      output.writeInt(beliefPoint.size());
+      for (var entry : beliefPoint.entrySet()) {
+        output.writeInt(stateIndices.get(entry.getKey()));
+        output.writeDouble(entry.getValue());
+      }
+    }
+  }
+
+  private Set<Distribution<State>> readBeliefPoints(DataInput input, List<State> states) throws IOException {
+    var numberOfBeliefPoints = input.readInt();
+    var beliefPoints = new HashSet<Distribution<State>>(numberOfBeliefPoints);
+    for (int i = 0; i < numberOfBeliefPoints; i++) {
+      var numberOfEntries = input.readInt();
+      var beliefPoint = new HashMap<State, Double>(numberOfEntries);
+      for (int k = 0; k < numberOfEntries; k++) {
+        beliefPoint.put(states.get(input.readInt()), input.readDouble());
+      }
+      beliefPoints.add(Distribution.of(beliefPoint));
+    }
+    return beliefPoints;
+  }
+
+  /**
+   * Writes the value function densely, one value per node combination and state.
+   * Missing values are written as NaN.
+   */
+  private void writeValueFunction(DataOutput output, IDecPOMDPWithStateController<?> decPOMDP) throws IOException {
+    var nodeIndices = decPOMDP.getAgents().stream()
+      .map(agent -> createIndices(agent.getControllerNodes()))
+      .toList();
+    var nodeCombinations = decPOMDP.getNodeCombinations();
+    output.writeInt(nodeCombinations.size());
+    for (var nodeCombination : nodeCombinations) {
+      for (int i = 0; i < nodeCombination.size(); i++) {
+        output.writeInt(nodeIndices.get(i).get(nodeCombination.get(i)));
+      }
+      for (var state : decPOMDP.getStates()) {
+        var hasValue = decPOMDP.hasValue(state, nodeCombination);
+        output.writeDouble(hasValue ? decPOMDP.getValue(state, nodeCombination) : Double.NaN);
+      }
+    }
+  }
+
+  private Map<Vector<Node>, Map<State, Double>> readValueFunction(DataInput input, List<State> states, List<FiniteStateController> controllers) throws IOException {
+    var nodes = controllers.stream().map(FiniteStateController::getNodes).toList();
+    var numberOfNodeCombinations = input.readInt();
+    var valueFunction = new HashMap<Vector<Node>, Map<State, Double>>(numberOfNodeCombinations);
+    for (int c = 0; c < numberOfNodeCombinations; c++) {
+      var nodeCombination = new ArrayList<Node>(nodes.size());
+      for (var agentNodes : nodes) nodeCombination.add(agentNodes.get(input.readInt()));
+      var values = new HashMap<State, Double>();
+      for (var state : states) {
+        var value = input.readDouble();
+        if (!Double.isNaN(value)) values.put(state, value);
+      }
+      valueFunction.put(Vector.of(nodeCombination), values);
+    }
+    return valueFunction;
+  }
+
+  private static <T> Map<T, Integer> createIndices(List<T> elements) {
+    var indices = new HashMap<T, Integer>(elements.size());
+    for (int i = 0; i < elements.size(); i++) {
+      indices.put(elements.get(i), i);
+    }
+    return indices;
+  }
+
+  /**
+   * The state of a heuristic policy iteration after a completed iteration.
+   *
+   * @param iteration     the number of completed iterations
+   * @param controllers   the controllers of the agents, in the order of the agents
+   * @param beliefPoints  the belief points of each agent
+   * @param valueFunction the values of each node combination and state, empty if not stored
+   */
+  public record Checkpoint(int iteration,
+                           List<FiniteStateController> controllers,
+                           Map<IAgent, Set<Distribution<State>>> beliefPoints,
+                           Map<Vector<Node>, Map<State, Double>> valueFunction) {
+
+    public boolean hasValueFunction() {
+      return !valueFunction.isEmpty();
+    }
+
+    /**
+     * Applies the controllers and the value function to the given DecPOMDP.
+     *
+     * @param decPOMDP the DecPOMDP the checkpoint was written for
+     */
+    public void applyTo(IDecPOMDPWithStateController<?> decPOMDP) {
+      var agents = decPOMDP.getAgents();
+      for (int i = 0; i < agents.size(); i++) {
+        agents.get(i).setController(controllers.get(i));
+      }
+      decPOMDP.clearValueFunction();
+      for (var entry : valueFunction.entrySet()) {
+        for (var value : entry.getValue().entrySet()) {
+          decPOMDP.setValue(value.getKey(), entry.getKey(), value.getValue());
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,226 @@
+package de.jlandsmannn.DecPOMDPSolver.policyIteration;
+
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.Action;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.Observation;
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.IAgentWithStateController;
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.IDecPOMDPWithStateController;
+import de.jlandsmannn.DecPOMDPSolver.domain.utility.Vector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * This class estimates the size of a DecPOMDP and of the data structures of the next iteration
+ * of the heuristic policy iteration, before solving is started.
+ * The number of candidates of the exhaustive backup is calculated as in {@link ExhaustiveBackupPerformer}.
+ * The evaluation matrix is estimated with the layout of the sparse matrix built for the value function,
+ * which has one row and column for each state and node combination,
+ * a diagonal entry and an entry for each follow state and reachable follow node combination per row.
+ * Since the exhaustive backup only adds deterministic nodes with one follow node per observation,
+ * the reachable follow node combinations are estimated by the product of min(|Q|, |O|) over all agents.
+ * The byte counts are estimates of the heap usage, not exact measurements.
+ */
+public class ProblemSizeEstimator {
+  private static final Logger LOG = LoggerFactory.getLogger(ProblemSizeEstimator.class);
+  private static final long VALUE_FUNCTION_BYTES_PER_ENTRY = 64;
+  private static final long NODE_COMBINATION_BASE_BYTES = 48;
+  private static final long NODE_COMBINATION_BYTES_PER_AGENT = 8;
+  private static final long SPARSE_MATRIX_BYTES_PER_ENTRY = 16;
+  private static final long CONTROLLER_BYTES_PER_ENTRY = 64;
+
+  /**
+   * Estimates the size of the given DecPOMDP with its current controllers.
+   * The sparsity of the transition and observation function is determined
+   * by evaluating them for all states, action vectors and observation vectors.
+   *
+   * @param decPOMDP the DecPOMDP to estimate
+   * @return the estimate
+   */
+  public Estimate estimate(IDecPOMDPWithStateController<?> decPOMDP) {
+    return estimate(decPOMDP, true);
+  }
+
+  /**
+   * Estimates the size of the given DecPOMDP with its current controllers like {@link #estimate(IDecPOMDPWithStateController)},
+   * but skips the evaluation of the transition and observation function, so it is cheap enough to be called every iteration.
+   * The sparsities of the returned estimate are NaN.
+   *
+   * @param decPOMDP the DecPOMDP to estimate
+   * @return the estimate without sparsities
+   */
+  public Estimate estimateWithoutSparsity(IDecPOMDPWithStateController<?> decPOMDP) {
+    return estimate(decPOMDP, false);
+  }
+
+  /**
+   * Estimates the bytes of a value function with the given number of states and node combinations,
+   * stored as a map from node combinations to values per state.
+   *
+   * @param states           the number of states
+   * @param agents           the number of agents, which is the length of each node combination
+   * @param nodeCombinations the number of node combinations
+   * @return the estimated bytes
+   */
+  public static double estimateValueFunctionBytes(int states, int agents, double nodeCombinations) {
+    var bytesPerNodeCombination = NODE_COMBINATION_BASE_BYTES + NODE_COMBINATION_BYTES_PER_AGENT * agents;
+    return states * nodeCombinations * VALUE_FUNCTION_BYTES_PER_ENTRY + nodeCombinations * bytesPerNodeCombination;
+  }
+
+  /**
+   * Estimates the number of entries of the sparse matrix, that is built to evaluate a value function
+   * with the given number of states and node combinations.
+   *
+   * @param states                 the number of states
+   * @param nodeCombinations       the number of node combinations
+   * @param followNodeCombinations the number of follow node combinations reachable from a node combination
+   * @return the estimated number of entries
+   */
+  public static double estimateEvaluationMatrixEntries(int states, double nodeCombinations, double followNodeCombinations) {
+    return states * nodeCombinations * (1 + states * followNodeCombinations);
+  }
+
+  /**
+   * Estimates the bytes of the sparse matrix and the right-hand side vector,
+   * that are built to evaluate a value function with the given number of states and node combinations.
+   *
+   * @param states                 the number of states
+   * @param nodeCombinations       the number of node combinations
+   * @param followNodeCombinations the number of follow node combinations reachable from a node combination
+   * @return the estimated bytes
+   */
+  public static double estimateEvaluationMatrixBytes(int states, double nodeCombinations, double followNodeCombinations) {
+    var matrixEntries = estimateEvaluationMatrixEntries(states, nodeCombinations, followNodeCombinations);
+    return (matrixEntries + states * nodeCombinations) * SPARSE_MATRIX_BYTES_PER_ENTRY;
+  }
+
+  /**
+   * Estimates the bytes of a copy of the agent's controller,
+   * with an entry for each selectable action of a node and for each of its transitions.
+   * Like for the evaluation matrix, a single follow node per node, action and observation is assumed.
+   *
+   * @param agent the agent whose controller is estimated
+   * @return the estimated bytes
+   */
+  public static double estimateControllerBytes(IAgentWithStateController agent) {
+    var controller = agent.getController();
+    var observations = agent.getObservations().size();
+    var entries = 0D;
+    for (var node : controller.getNodes()) {
+      var actions = controller.getSelectableActions(node).size();
+      entries += actions * (1D + observations);
+    }
+    return entries * CONTROLLER_BYTES_PER_ENTRY;
+  }
+
+  protected Estimate estimate(IDecPOMDPWithStateController<?> decPOMDP, boolean includeSparsity) {
+    var states = decPOMDP.getStates();
+    var actionVectors = decPOMDP.getActionVectors();
+    var observationVectors = decPOMDP.getObservationVectors();
+    var transitionSparsity = includeSparsity ? calculateTransitionSparsity(decPOMDP, actionVectors) : Double.NaN;
+    var observationSparsity = includeSparsity ? calculateObservationSparsity(decPOMDP, actionVectors, observationVectors) : Double.NaN;
+
+    var agents = decPOMDP.getAgents().stream()
+      .map(ProblemSizeEstimator::estimateAgent)
+      .toList();
+    var nodeCombinations = 1D;
+    var nodeCombinationsAfterBackup = 1D;
+    var followNodeCombinations = 1D;
+    for (var agent : agents) {
+      nodeCombinations *= agent.nodes();
+      nodeCombinationsAfterBackup *= agent.nodesAfterBackup();
+      followNodeCombinations *= Math.min(agent.nodesAfterBackup(), agent.observations());
+    }
+
+    var entries = states.size() * nodeCombinationsAfterBackup;
+    var valueFunctionBytes = estimateValueFunctionBytes(states.size(), agents.size(), nodeCombinationsAfterBackup);
+    var matrixEntries = estimateEvaluationMatrixEntries(states.size(), nodeCombinationsAfterBackup, followNodeCombinations);
+    var matrixBytes = estimateEvaluationMatrixBytes(states.size(), nodeCombinationsAfterBackup, followNodeCombinations);
+
+    var estimate = new Estimate(
+      states.size(),
+      actionVectors.size(),
+      observationVectors.size(),
+      transitionSparsity,
+      observationSparsity,
+      agents,
+      nodeCombinations,
+      nodeCombinationsAfterBackup,
+      entries,
+      valueFunctionBytes,
+      matrixEntries,
+      matrixBytes
+    );
+    LOG.debug("Estimated problem size: {}", estimate);
+    return estimate;
+  }
+
+  protected static AgentEstimate estimateAgent(IAgentWithStateController agent) {
+    var nodes = agent.getControllerNodes().size();
+    var candidates = ExhaustiveBackupPerformer.getNumberOfCandidates(agent);
+    return new AgentEstimate(
+      agent.getName(),
+      agent.getActions().size(),
+      agent.getObservations().size(),
+      nodes,
+      candidates,
+      nodes + candidates
+    );
+  }
+
+  protected double calculateTransitionSparsity(IDecPOMDPWithStateController<?> decPOMDP, List<Vector<Action>> actionVectors) {
+    var states = decPOMDP.getStates();
+    var zeros = states.stream().parallel()
+      .mapToLong(state -> actionVectors.stream()
+        .mapToLong(actionVector -> states.stream()
+          .filter(followState -> decPOMDP.getTransitionProbability(state, actionVector, followState) == 0)
+          .count())
+        .sum())
+      .sum();
+    return zeros / ((double) states.size() * actionVectors.size() * states.size());
+  }
+
+  protected double calculateObservationSparsity(IDecPOMDPWithStateController<?> decPOMDP,
+                                                List<Vector<Action>> actionVectors,
+                                                List<Vector<Observation>> observationVectors) {
+    var states = decPOMDP.getStates();
+    var zeros = states.stream().parallel()
+      .mapToLong(followState -> actionVectors.stream()
+        .mapToLong(actionVector -> observationVectors.stream()
+          .filter(observationVector -> decPOMDP.getObservationProbability(actionVector, followState, observationVector) == 0)
+          .count())
+        .sum())
+      .sum();
+    return zeros / ((double) actionVectors.size() * states.size() * observationVectors.size());
+  }
+
+  /**
+   * The estimated size of a DecPOMDP and its next iteration.
+   * Sparsities are the fractions of entries with a probability of zero.
+   * Counts that can grow exponentially are given as doubles, so they do not overflow.
+   */
+  public record Estimate(int states,
+                         int jointActions,
+                         int jointObservations,
+                         double transitionSparsity,
+                         double observationSparsity,
+                         List<AgentEstimate> agents,
+                         double nodeCombinations,
+                         double nodeCombinationsAfterBackup,
+                         double valueFunctionEntries,
+                         double valueFunctionBytes,
+                         double evaluationMatrixEntries,
+                         double evaluationMatrixBytes) {
+  }
+
+  /**
+   * The estimated size of an agent's controller before and after the next exhaustive backup.
+   */
+  public record AgentEstimate(String name,
+                              int actions,
+                              int observations,
+                              int nodes,
+                              double backupCandidates,
+                              double nodesAfterBackup) {
+  }
+}
@@ -0,0 +1,156 @@
+package de.jlandsmannn.DecPOMDPSolver.policyIteration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * This class stores candidate nodes of an exhaustive backup in a compact binary file.
+ * Each candidate is written as a fixed-size record containing the index of its action,
+ * the indices of its follow nodes (one per observation) and its values at the belief points.
+ * Records are buffered and written in batches, reading them happens in a streaming fashion,
+ * so the candidates never have to be kept in heap all at once.
+ */
+public class SpilledCandidateStore implements AutoCloseable {
+  private static final Logger LOG = LoggerFactory.getLogger(SpilledCandidateStore.class);
+  private static final int BUFFER_SIZE = 8 * 1024 * 1024;
+
+  private final Path file;
+  private final FileChannel channel;
+  private final ByteBuffer buffer;
+  private final int numberOfFollowNodes;
+  private final int numberOfValues;
+  private final int recordSize;
+  private long numberOfRecords = 0;
+
+  public SpilledCandidateStore(Path directory, int numberOfFollowNodes, int numberOfValues) {
+    this.numberOfFollowNodes = numberOfFollowNodes;
+    this.numberOfValues = numberOfValues;
+    this.recordSize = Integer.BYTES * (1 + numberOfFollowNodes) + Double.BYTES * numberOfValues;
+    if (recordSize > BUFFER_SIZE) {
+      throw new IllegalArgumentException("A single candidate does not fit into the write buffer.");
+    }
+    this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE - BUFFER_SIZE % recordSize);
+    try {
+      this.file = directory == null
+        ? Files.createTempFile("backup-candidates", ".bin")
+        : Files.createTempFile(directory, "backup-candidates", ".bin");
+      this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not create spill file for backup candidates.", e);
+    }
+    LOG.debug("Spilling backup candidates to {}", file);
+  }
+
+  /**
+   * Appends a candidate to the store.
+   * The candidate will be assigned the next free index, starting with 0.
+   *
+   * @param actionIndex       the index of the action the candidate selects
+   * @param followNodeIndices the indices of the follow nodes, one per observation
+   * @param values            the values of the candidate
+   * @throws IllegalArgumentException if the number of follow nodes or values doesn't match the store
+   */
+  public void append(int actionIndex, int[] followNodeIndices, double[] values) {
+    if (followNodeIndices.length != numberOfFollowNodes) {
+      throw new IllegalArgumentException("Number of follow nodes doesn't match the store.");
+    } else if (values.length != numberOfValues) {
+      throw new IllegalArgumentException("Number of values doesn't match the store.");
+    }
+    if (buffer.remaining() < recordSize) flush();
+    buffer.putInt(actionIndex);
+    for (var followNodeIndex : followNodeIndices) buffer.putInt(followNodeIndex);
+    for (var value : values) buffer.putDouble(value);
+    numberOfRecords++;
+  }
+
+  /**
+   * Writes all buffered candidates to the file.
+   */
+  public void flush() {
+    buffer.flip();
+    try {
+      while (buffer.hasRemaining()) channel.write(buffer);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write backup candidates to spill file.", e);
+    }
+    buffer.clear();
+  }
+
+  /**
+   * Streams over all stored candidates in the order they were appended.
+   * Only one batch of candidates is held in memory at a time.
+   *
+   * @param consumer the consumer to pass each candidate to
+   */
+  public void forEach(Consumer<Candidate> consumer) {
+    flush();
+    long index = 0;
+    long position = 0;
+    try {
+      while (index < numberOfRecords) {
+        buffer.clear();
+        int bytesRead;
+        do {
+          bytesRead = channel.read(buffer, position + buffer.position());
+        } while (bytesRead > 0 && buffer.hasRemaining());
+        if (buffer.position() == 0) {
+          throw new IllegalStateException("Spill file ended before all candidates were read.");
+        }
+        position += buffer.position();
+        buffer.flip();
+        while (buffer.remaining() >= recordSize) {
+          var actionIndex = buffer.getInt();
+          var followNodeIndices = new int[numberOfFollowNodes];
+          for (int i = 0; i < numberOfFollowNodes; i++) followNodeIndices[i] = buffer.getInt();
+          var values = new double[numberOfValues];
+          for (int i = 0; i < numberOfValues; i++) values[i] = buffer.getDouble();
+          consumer.accept(new Candidate(index++, actionIndex, followNodeIndices, values));
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not read backup candidates from spill file.", e);
+    } finally {
+      buffer.clear();
+    }
+  }
+
+  /**
+   * @return the number of candidates stored
+   */
+  public long size() {
+    return numberOfRecords;
+  }
+
+  /**
+   * Closes the underlying channel and deletes the spill file.
+   */
+  @Override
+  public void close() {
+    try {
+      channel.close();
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      LOG.warn("Could not delete spill file {}", file, e);
+    }
+  }
+
+  /**
+   * A single candidate read from the store.
+   *
+   * @param index             the index of the candidate in order of insertion
+   * @param actionIndex       the index of the action the candidate selects
+   * @param followNodeIndices the indices of the follow nodes, one per observation
+   * @param values            the values of the candidate
+   */
+  public record Candidate(long index, int actionIndex, int[] followNodeIndices, double[] values) {
+  }
+}
@@ -0,0 +1,110 @@
+package de.jlandsmannn.DecPOMDPSolver.domain.decpomdp;
+
+import de.jlandsmannn.DecPOMDPSolver.DecPOMDPGenerator;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.Action;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.Observation;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.State;
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.DecPOMDPWithStateController;
+import de.jlandsmannn.DecPOMDPSolver.domain.utility.Distribution;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BeliefUpdateKernelTest {
+
+  private DecPOMDPWithStateController decPOMDP;
+  private Map<IAgent, Map<State, Distribution<Action>>> policies;
+
+  @BeforeEach
+  void setUp() {
+    decPOMDP = DecPOMDPGenerator.getDecTigerPOMDP();
+    var random = new Random(42);
+    policies = new HashMap<>();
+    for (var agent : decPOMDP.getAgents()) {
+      var policy = new HashMap<State, Distribution<Action>>();
+      for (var state : decPOMDP.getStates()) {
+        policy.put(state, Distribution.createRandomDistribution(agent.getActions(), random));
+      }
+      policies.put(agent, policy);
+    }
+  }
+
+  @Test
+  void constructor_ShouldThrowIfAgentIsNotPartOfDecPOMDP() {
+    var agent = new TestAgent("Unknown", Action.listOf("A"), Observation.listOf("O"));
+    assertThrows(IllegalArgumentException.class, () -> new BeliefUpdateKernel(decPOMDP, agent, policies));
+  }
+
+  @Test
+  void constructor_ShouldThrowIfPolicyOfOtherAgentIsMissing() {
+    var agent = decPOMDP.getAgents().get(0);
+    var otherAgent = decPOMDP.getAgents().get(1);
+    policies.remove(otherAgent);
+    assertThrows(IllegalArgumentException.class, () -> new BeliefUpdateKernel(decPOMDP, agent, policies));
+  }
+
+  @Test
+  void update_ShouldMatchMarginalisedBeliefUpdate() {
+    var beliefState = decPOMDP.getInitialBeliefState();
+    for (var agent : decPOMDP.getAgents()) {
+      var kernel = new BeliefUpdateKernel(decPOMDP, agent, policies);
+      for (var action : agent.getActions()) {
+        for (var observation : agent.getObservations()) {
+          var expected = calculateFollowUpBeliefState(agent, beliefState, action, observation);
+          var actual = kernel.update(beliefState, action, observation);
+          for (var state : decPOMDP.getStates()) {
+            assertEquals(expected.getOrDefault(state, 0D), actual.getProbability(state), 1e-12);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  void update_ShouldReturnSameResultOnRepeatedCalls() {
+    var agent = decPOMDP.getAgents().get(0);
+    var kernel = new BeliefUpdateKernel(decPOMDP, agent, policies);
+    var action = agent.getActions().get(0);
+    var observation = agent.getObservations().get(0);
+    var expected = kernel.update(decPOMDP.getInitialBeliefState(), action, observation);
+    var actual = kernel.update(decPOMDP.getInitialBeliefState(), action, observation);
+    assertEquals(expected, actual);
+  }
+
+  private Map<State, Double> calculateFollowUpBeliefState(IAgent agent, Distribution<State> beliefState, Action action, Observation observation) {
+    var agentIndex = decPOMDP.getAgents().indexOf(agent);
+    var followBeliefState = new HashMap<State, Double>();
+    var total = 0D;
+    for (var followState : decPOMDP.getStates()) {
+      var probability = 0D;
+      for (var state : beliefState.keySet()) {
+        for (var actionVector : decPOMDP.getActionVectors()) {
+          if (!actionVector.get(agentIndex).equals(action)) continue;
+          var actionVectorProbability = 1D;
+          for (int i = 0; i < actionVector.size(); i++) {
+            if (i == agentIndex) continue;
+            var otherAgent = decPOMDP.getAgents().get(i);
+            actionVectorProbability *= policies.get(otherAgent).get(state).getProbability(actionVector.get(i));
+          }
+          var transitionProbability = decPOMDP.getTransitionProbability(state, actionVector, followState);
+          for (var observationVector : decPOMDP.getObservationVectors()) {
+            if (!observationVector.get(agentIndex).equals(observation)) continue;
+            var observationProbability = decPOMDP.getObservationProbability(actionVector, followState, observationVector);
+            probability += beliefState.getProbability(state) * actionVectorProbability * transitionProbability * observationProbability;
+          }
+        }
+      }
+      followBeliefState.put(followState, probability);
+      total += probability;
+    }
+    for (var entry : followBeliefState.entrySet()) {
+      entry.setValue(entry.getValue() / total);
+    }
+    return followBeliefState;
+  }
+}
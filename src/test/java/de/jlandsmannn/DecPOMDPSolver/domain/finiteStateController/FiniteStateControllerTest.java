@@ -307,4 +307,23 @@ class FiniteStateControllerTest {
     }
   }
 
-}
\ No newline at end of file
+  @Test
+  void copy_ShouldReturnEqualController() {
+    var copy = finiteStateController.copy();
+
+    assertNotSame(finiteStateController, copy);
+    assertEquals(finiteStateController, copy);
+  }
+
+  @Test
+  void copy_ShouldNotBeAffectedByPruningOriginal() {
+    var copy = finiteStateController.copy();
+    var nodeToPrune = new Node("N1");
+    finiteStateController.pruneNode(nodeToPrune, new Node("N2"));
+
+    assertTrue(copy.getNodes().contains(nodeToPrune));
+    var action = actions.iterator().next();
+    var observation = observations.iterator().next();
+    assertEquals(0.25, copy.getTransitionProbability(new Node("N3"), action, observation, nodeToPrune), 1e-9);
+  }
+}
@@ -0,0 +1,162 @@
+package de.jlandsmannn.DecPOMDPSolver.domain.utility;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockedMatrixProductTest {
+
+  @Test
+  void argmaxOfRows_ShouldReturnIndexOfMaximumOfEachRow() {
+    var left = new double[][]{{1, 0}, {0, 1}, {0.5, 0.5}};
+    var right = new double[][]{{1, 3, 2}, {4, 0, 1}};
+    var expected = new int[]{1, 0, 0};
+    var actual = BlockedMatrixProduct.argmaxOfRows(left, right);
+    assertArrayEquals(expected, actual);
+  }
+
+  @Test
+  void argmaxOfRows_ShouldReturnSmallestIndexIfMaximumIsNotUnique() {
+    var left = new double[][]{{1}};
+    var right = new double[][]{{1, 2, 2, 2}};
+    var actual = BlockedMatrixProduct.argmaxOfRows(left, right);
+    assertArrayEquals(new int[]{1}, actual);
+  }
+
+  @Test
+  void argmaxOfRows_ShouldMatchNaiveProductForMultipleTiles() {
+    var random = new Random(42);
+    var left = new double[150][7];
+    var right = new double[7][1300];
+    for (var row : left) for (int k = 0; k < row.length; k++) row[k] = random.nextDouble();
+    for (var row : right) for (int j = 0; j < row.length; j++) row[j] = random.nextGaussian();
+
+    var actual = BlockedMatrixProduct.argmaxOfRows(left, right);
+    for (int i = 0; i < left.length; i++) {
+      var bestIndex = 0;
+      var bestValue = Double.NEGATIVE_INFINITY;
+      for (int j = 0; j < right[0].length; j++) {
+        var value = 0D;
+        for (int k = 0; k < right.length; k++) value += left[i][k] * right[k][j];
+        if (value > bestValue) {
+          bestValue = value;
+          bestIndex = j;
+        }
+      }
+      assertEquals(bestIndex, actual[i]);
+    }
+  }
+
+  @Test
+  void bestOfRows_ShouldReturnBestEntriesOrderedByValue() {
+    var left = new double[][]{{1}};
+    var right = new double[][]{{1, 4, 3, 2}};
+    var actual = BlockedMatrixProduct.bestOfRows(left, right, 3, 0);
+    assertArrayEquals(new int[][]{{1, 2, 3}}, actual);
+  }
+
+  @Test
+  void bestOfRows_ShouldReturnEntriesWithinEpsilonOfMaximum() {
+    var left = new double[][]{{1}};
+    var right = new double[][]{{1, 4, 3.5, 3.9}};
+    var actual = BlockedMatrixProduct.bestOfRows(left, right, 1, 0.5);
+    assertArrayEquals(new int[][]{{1, 3, 2}}, actual);
+  }
+
+  @Test
+  void bestOfRows_ShouldReturnNumberOfBestEvenIfOutsideOfEpsilon() {
+    var left = new double[][]{{1}};
+    var right = new double[][]{{1, 4, 3, 2}};
+    var actual = BlockedMatrixProduct.bestOfRows(left, right, 2, 0.5);
+    assertArrayEquals(new int[][]{{1, 2}}, actual);
+  }
+
+  @Test
+  void bestOfRows_ShouldMatchSortedProductForMultipleTiles() {
+    var random = new Random(42);
+    var left = new double[20][5];
+    var right = new double[5][1500];
+    for (var row : left) for (int k = 0; k < row.length; k++) row[k] = random.nextDouble();
+    for (var row : right) for (int j = 0; j < row.length; j++) row[j] = random.nextGaussian();
+
+    var actual = BlockedMatrixProduct.bestOfRows(left, right, 5, 0.1);
+    for (int i = 0; i < left.length; i++) {
+      var values = new double[right[0].length];
+      for (int j = 0; j < values.length; j++) {
+        for (int k = 0; k < right.length; k++) values[j] += left[i][k] * right[k][j];
+      }
+      var sorted = values.clone();
+      Arrays.sort(sorted);
+      var maximum = sorted[sorted.length - 1];
+      var fifthBest = sorted[sorted.length - 5];
+      var expectedCount = Arrays.stream(values).filter(v -> v >= fifthBest || v >= maximum - 0.1).count();
+      assertEquals(expectedCount, actual[i].length);
+      for (int n = 1; n < actual[i].length; n++) {
+        assertTrue(values[actual[i][n - 1]] >= values[actual[i][n]]);
+      }
+    }
+  }
+
+  @Test
+  void bestOfRows_ShouldReadEachColumnOfSupplierOnceAndMatchMatrix() {
+    var random = new Random(42);
+    var left = new double[10][4];
+    var right = new double[4][1100];
+    for (var row : left) for (int k = 0; k < row.length; k++) row[k] = random.nextDouble();
+    for (var row : right) for (int j = 0; j < row.length; j++) row[j] = random.nextGaussian();
+    var requests = new AtomicIntegerArray(right[0].length);
+
+    var actual = BlockedMatrixProduct.bestOfRows(left, right.length, right[0].length, (column, target) -> {
+      requests.incrementAndGet(column);
+      for (int k = 0; k < right.length; k++) target[k] = right[k][column];
+    }, 3, 0.05);
+
+    assertArrayEquals(BlockedMatrixProduct.bestOfRows(left, right, 3, 0.05), actual);
+    for (int j = 0; j < requests.length(); j++) {
+      assertEquals(1, requests.get(j));
+    }
+  }
+
+  @Test
+  void bestOfRows_ShouldLimitEntriesWithinEpsilonToMaximumNumberOfSelected() {
+    var left = new double[][]{{1}};
+    var right = new double[][]{{1, 4, 3.5, 3.9, 3.8}};
+    var actual = BlockedMatrixProduct.bestOfRows(left, 1, 5, (column, target) -> target[0] = right[0][column], 1, 10, 2);
+    assertArrayEquals(new int[][]{{1, 3}}, actual);
+  }
+
+  @Test
+  void bestOfRows_ShouldLimitEntriesWithinLargeEpsilonByDefault() {
+    var left = new double[][]{{1}};
+    var right = new double[1][2000];
+    Arrays.fill(right[0], 1);
+    var actual = BlockedMatrixProduct.bestOfRows(left, right, 2, 1e9);
+    assertEquals(2 * BlockedMatrixProduct.MAXIMUM_SELECTION_FACTOR, actual[0].length);
+    assertEquals(0, actual[0][0]);
+  }
+
+  @Test
+  void bestOfRows_ShouldThrowIfNumberOfBestIsNotPositive() {
+    var left = new double[][]{{1}};
+    var right = new double[][]{{1}};
+    assertThrows(IllegalArgumentException.class, () -> BlockedMatrixProduct.bestOfRows(left, right, 0, 0));
+  }
+
+  @Test
+  void argmaxOfRows_ShouldThrowIfDimensionsDoNotMatch() {
+    var left = new double[][]{{1, 2}};
+    var right = new double[][]{{1, 2}};
+    assertThrows(IllegalArgumentException.class, () -> BlockedMatrixProduct.argmaxOfRows(left, right));
+  }
+
+  @Test
+  void argmaxOfRows_ShouldThrowIfRightMatrixHasNoColumns() {
+    var left = new double[][]{{1}};
+    var right = new double[][]{{}};
+    assertThrows(IllegalArgumentException.class, () -> BlockedMatrixProduct.argmaxOfRows(left, right));
+  }
+}
@@ -0,0 +1,119 @@
+package de.jlandsmannn.DecPOMDPSolver.io;
+
+import de.jlandsmannn.DecPOMDPSolver.DecPOMDPGenerator;
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.DecPOMDPWithStateController;
+import de.jlandsmannn.DecPOMDPSolver.domain.utility.Vector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ControllerFileWriterTest {
+
+  @TempDir
+  Path directory;
+
+  private DecPOMDPWithStateController decPOMDP;
+
+  @BeforeEach
+  void setUp() {
+    decPOMDP = DecPOMDPGenerator.getDecTigerPOMDPWithLargeFSC();
+  }
+
+  @Test
+  void write_ShouldWriteOneLinePerNodeAndTransitionInTextFormat() throws IOException {
+    var file = directory.resolve("controllers.txt");
+    new ControllerFileWriter(ControllerFileWriter.Format.TEXT, false).write(file, decPOMDP);
+
+    var lines = Files.readAllLines(file);
+    var numberOfNodes = decPOMDP.getAgents().stream().mapToInt(agent -> agent.getControllerNodes().size()).sum();
+    var firstNode = decPOMDP.getAgents().get(0).getControllerNodes().get(0);
+    assertEquals("agents: 2", lines.get(0));
+    assertEquals("agent: " + decPOMDP.getAgents().get(0).getName(), lines.get(1));
+    assertEquals(numberOfNodes, lines.stream().filter(line -> line.startsWith("N: ")).count());
+    assertTrue(lines.contains("nodes: " + decPOMDP.getAgents().get(0).getControllerNodes().size()));
+    assertTrue(lines.stream().anyMatch(line -> line.startsWith("N: " + firstNode.name() + " : ")));
+    assertTrue(lines.stream().anyMatch(line -> line.startsWith("T: 0 ")));
+    assertFalse(lines.stream().anyMatch(line -> line.startsWith("V:")));
+  }
+
+  @Test
+  void write_ShouldWriteValueFunctionIfIncluded() throws IOException {
+    var file = directory.resolve("controllers.txt");
+    var nodeCombination = decPOMDP.getNodeCombinations().get(0);
+    decPOMDP.setValue(decPOMDP.getStates().get(0), nodeCombination, 2.5);
+    new ControllerFileWriter(ControllerFileWriter.Format.TEXT, true).write(file, decPOMDP);
+
+    var lines = Files.readAllLines(file);
+    assertEquals(decPOMDP.getNodeCombinations().size(), lines.stream().filter(line -> line.startsWith("V: ")).count());
+    assertTrue(lines.stream().anyMatch(line -> line.startsWith("V: ") && line.endsWith(": 2.5 NaN")));
+  }
+
+  @Test
+  void write_ShouldWriteValueOfEachNodeCombination() throws IOException {
+    var file = directory.resolve("controllers.txt");
+    var value = 0D;
+    for (var nodeCombination : decPOMDP.getNodeCombinations()) {
+      for (var state : decPOMDP.getStates()) {
+        decPOMDP.setValue(state, nodeCombination, value++);
+      }
+    }
+    new ControllerFileWriter(ControllerFileWriter.Format.TEXT, true).write(file, decPOMDP);
+
+    var valueLines = Files.readAllLines(file).stream()
+      .filter(line -> line.startsWith("V: "))
+      .toList();
+    var writtenNodeCombinations = new HashSet<List<Integer>>();
+    for (var line : valueLines) {
+      var parts = line.substring(3).split(" : ");
+      var indices = Arrays.stream(parts[0].split(" ")).map(Integer::parseInt).toList();
+      var values = Arrays.stream(parts[1].split(" ")).mapToDouble(Double::parseDouble).toArray();
+      var nodeCombination = Vector.of(IntStream.range(0, indices.size())
+        .mapToObj(i -> decPOMDP.getAgents().get(i).getController().getNodes().get(indices.get(i)))
+        .toList());
+      for (int s = 0; s < decPOMDP.getStates().size(); s++) {
+        assertEquals(decPOMDP.getValue(decPOMDP.getStates().get(s), nodeCombination), values[s]);
+      }
+      writtenNodeCombinations.add(indices);
+    }
+    assertEquals(decPOMDP.getNodeCombinations().size(), valueLines.size());
+    assertEquals(valueLines.size(), writtenNodeCombinations.size());
+  }
+
+  @Test
+  void write_ShouldWriteHeaderAndControllersInBinaryFormat() throws IOException {
+    var file = directory.resolve("controllers.bin");
+    new ControllerFileWriter(ControllerFileWriter.Format.BINARY, false).write(file, decPOMDP);
+
+    try (var input = new DataInputStream(Files.newInputStream(file))) {
+      input.readInt();
+      assertEquals(1, input.readInt());
+      assertEquals(2, input.readInt());
+      var agent = decPOMDP.getAgents().get(0);
+      assertEquals(agent.getName(), input.readUTF());
+      assertEquals(agent.getActions().size(), input.readInt());
+      for (var action : agent.getActions()) assertEquals(action.name(), input.readUTF());
+      assertEquals(agent.getObservations().size(), input.readInt());
+      for (var observation : agent.getObservations()) assertEquals(observation.name(), input.readUTF());
+      assertEquals(agent.getControllerNodes().size(), input.readInt());
+    }
+  }
+
+  @Test
+  void write_ShouldNotLeaveTemporaryFiles() throws IOException {
+    new ControllerFileWriter(ControllerFileWriter.Format.BINARY, true).write(directory.resolve("controllers.bin"), decPOMDP);
+    try (var files = Files.list(directory)) {
+      assertEquals(1, files.count());
+    }
+  }
+}
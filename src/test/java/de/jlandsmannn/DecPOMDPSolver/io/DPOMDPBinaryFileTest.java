@@ -0,0 +1,74 @@
+package de.jlandsmannn.DecPOMDPSolver.io;
+
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.DecPOMDPWithStateControllerBuilder;
+import de.jlandsmannn.DecPOMDPSolver.domain.lifting.IsomorphicDecPOMDPWithStateControllerBuilder;
+import de.jlandsmannn.DecPOMDPSolver.io.exceptions.ParsingFailedException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static de.jlandsmannn.DecPOMDPSolver.io.DPOMDPStreamingParserTest.assertSameDecPOMDP;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DPOMDPBinaryFileTest {
+
+  @TempDir
+  Path directory;
+
+  @ParameterizedTest
+  @ValueSource(strings = {"problems/DecTiger.dpomdp", "problems/GridSmall.dpomdp", "problems/BoxPushing.dpomdp"})
+  void read_ShouldCreateSameDecPOMDPAsParsing(String fileName) throws IOException {
+    var binaryFile = directory.resolve("problem" + DPOMDPBinaryFile.FILE_EXTENSION);
+    DPOMDPFileParser.convertDecPOMDP(fileName, binaryFile);
+
+    var expected = DPOMDPFileParser.parseDecPOMDP(fileName).orElseThrow().createDecPOMDP();
+    var actual = DPOMDPFileParser.parseDecPOMDP(binaryFile.toString()).orElseThrow().createDecPOMDP();
+    assertSameDecPOMDP(expected, actual);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"problems/MedicalNanoscale2.idpomdp", "problems/MedicalNanoscale2-skewed.idpomdp"})
+  void read_ShouldCreateSameIsomorphicDecPOMDPAsParsing(String fileName) throws IOException {
+    var binaryFile = directory.resolve("problem" + DPOMDPBinaryFile.ISOMORPHIC_FILE_EXTENSION);
+    IDPOMDPFileParser.convertDecPOMDP(fileName, binaryFile);
+
+    var expected = IDPOMDPFileParser.parseDecPOMDP(fileName).orElseThrow().createDecPOMDP();
+    var actual = IDPOMDPFileParser.parseDecPOMDP(binaryFile.toString()).orElseThrow().createDecPOMDP();
+    assertSameDecPOMDP(expected, actual);
+    for (int i = 0; i < expected.getAgentCount(); i++) {
+      assertEquals(expected.getAgents().get(i).getPartitionSize(), actual.getAgents().get(i).getPartitionSize());
+    }
+  }
+
+  @Test
+  void read_ShouldThrowIfFileIsCorrupted() throws IOException {
+    var binaryFile = directory.resolve("DecTiger" + DPOMDPBinaryFile.FILE_EXTENSION);
+    DPOMDPFileParser.convertDecPOMDP("problems/DecTiger.dpomdp", binaryFile);
+    var content = Files.readAllBytes(binaryFile);
+    content[content.length / 2] ^= 1;
+
+    var binary = new DPOMDPBinaryFile(new DPOMDPSectionParser<>(new DecPOMDPWithStateControllerBuilder()));
+    assertThrows(ParsingFailedException.class, () -> binary.read(ByteBuffer.wrap(content)));
+  }
+
+  @Test
+  void read_ShouldThrowIfIsomorphicDecPOMDPIsReadAsGroundDecPOMDP() throws IOException {
+    var binaryFile = directory.resolve("MedicalNanoscale2" + DPOMDPBinaryFile.ISOMORPHIC_FILE_EXTENSION);
+    IDPOMDPFileParser.convertDecPOMDP("problems/MedicalNanoscale2.idpomdp", binaryFile);
+
+    var binary = new DPOMDPBinaryFile(new DPOMDPSectionParser<>(new DecPOMDPWithStateControllerBuilder()));
+    assertThrows(ParsingFailedException.class, () -> binary.read(binaryFile));
+  }
+
+  @Test
+  void write_ShouldThrowIfNoEntriesWereParsed() {
+    var binary = new DPOMDPBinaryFile(new IDPOMDPSectionParser<>(new IsomorphicDecPOMDPWithStateControllerBuilder()));
+    assertThrows(IllegalStateException.class, () -> binary.write(directory.resolve("empty" + DPOMDPBinaryFile.FILE_EXTENSION)));
+  }
+}
@@ -0,0 +1,258 @@
+package de.jlandsmannn.DecPOMDPSolver.io;
+
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.IDecPOMDP;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.Action;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.State;
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.DecPOMDPWithStateControllerBuilder;
+import de.jlandsmannn.DecPOMDPSolver.domain.lifting.IsomorphicDecPOMDPWithStateControllerBuilder;
+import de.jlandsmannn.DecPOMDPSolver.domain.utility.Vector;
+import de.jlandsmannn.DecPOMDPSolver.io.exceptions.ParsingFailedException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DPOMDPStreamingParserTest {
+
+  private static final String SMALL_DPOMDP = String.join(System.lineSeparator(),
+    "# comment before the first section",
+    "agents: 2",
+    "discount: 0.9 # trailing comment",
+    "values: cost",
+    "states: s0 s1",
+    "start:",
+    "uniform",
+    "actions:",
+    "a b",
+    "2",
+    "observations:",
+    "1",
+    "x y",
+    "T: a * : s0",
+    "0.0 1.0",
+    "T: b * : 0 : s0 : 1.0",
+    "T: * : s1 : * : 0.5",
+    "O: * : * : * * : 0.5",
+    "O: b 0 :",
+    "1.0 0.0",
+    "0.0 1.0",
+    "R: a 1 : s1 : * : * : 2e1",
+    "R: * : * : * : * : 1"
+  );
+
+  @ParameterizedTest
+  @ValueSource(strings = {"problems/DecTiger.dpomdp", "problems/GridSmall.dpomdp", "problems/BoxPushing.dpomdp"})
+  void parse_ShouldCreateSameDecPOMDPAsSectionBasedParsing(String fileName) {
+    var streamingParser = new DPOMDPFileParser<>(new DecPOMDPWithStateControllerBuilder());
+    var sectionBasedParser = new DPOMDPFileParser<>(new DecPOMDPWithStateControllerBuilder());
+    sectionBasedParser.useStreamingParser = false;
+
+    var expected = sectionBasedParser.parse(fileName).orElseThrow().createDecPOMDP();
+    var actual = streamingParser.parse(fileName).orElseThrow().createDecPOMDP();
+    assertSameDecPOMDP(expected, actual);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"problems/MedicalNanoscale2.idpomdp", "problems/MedicalNanoscale2-skewed.idpomdp"})
+  void parse_ShouldCreateSameIsomorphicDecPOMDPAsSectionBasedParsing(String fileName) {
+    var streamingParser = new IDPOMDPFileParser<>(new IsomorphicDecPOMDPWithStateControllerBuilder());
+    var sectionBasedParser = new IDPOMDPFileParser<>(new IsomorphicDecPOMDPWithStateControllerBuilder());
+    sectionBasedParser.useStreamingParser = false;
+
+    var expected = sectionBasedParser.parse(fileName).orElseThrow().createDecPOMDP();
+    var actual = streamingParser.parse(fileName).orElseThrow().createDecPOMDP();
+    assertSameDecPOMDP(expected, actual);
+    for (int i = 0; i < expected.getAgentCount(); i++) {
+      assertEquals(expected.getAgents().get(i).getPartitionSize(), actual.getAgents().get(i).getPartitionSize());
+    }
+  }
+
+  @Test
+  void parse_ShouldWeightPerCellRewardsLikeSectionBasedParsing(@TempDir Path directory) throws IOException {
+    var file = directory.resolve("DecTigerPerCellRewards.dpomdp");
+    var firstRewardEntry = "R: listen listen: * : * : * : -2";
+    Files.writeString(file, Files.readString(Path.of("problems/DecTiger.dpomdp")).replace(firstRewardEntry, String.join(System.lineSeparator(),
+      "R: listen listen : tiger-left : * : hear-left hear-left : 10",
+      "R: open-left open-left : tiger-left : tiger-right : * : 30",
+      firstRewardEntry
+    )));
+    var streamingParser = new DPOMDPFileParser<>(new DecPOMDPWithStateControllerBuilder());
+    var sectionBasedParser = new DPOMDPFileParser<>(new DecPOMDPWithStateControllerBuilder());
+    sectionBasedParser.useStreamingParser = false;
+
+    var expected = sectionBasedParser.parse(file.toString()).orElseThrow().createDecPOMDP();
+    var actual = streamingParser.parse(file.toString()).orElseThrow().createDecPOMDP();
+    assertSameDecPOMDP(expected, actual);
+    var tigerLeft = State.from("tiger-left");
+    var listen = Action.from("listen");
+    var openLeft = Action.from("open-left");
+    assertEquals(0.7225 * 10 + 0.2775 * -2, actual.getReward(tigerLeft, Vector.of(listen, listen)), 1e-12);
+    assertEquals(0.5 * -50 + 0.5 * 30, actual.getReward(tigerLeft, Vector.of(openLeft, openLeft)), 1e-12);
+  }
+
+  @Test
+  void parse_ShouldApplyWildcardsIndicesAndOverwrites() {
+    var builder = new DecPOMDPWithStateControllerBuilder();
+    var sectionParser = new DPOMDPSectionParser<>(builder);
+    new DPOMDPStreamingParser(sectionParser).parse(toBuffer(SMALL_DPOMDP));
+    sectionParser.gatherData();
+    var decPOMDP = builder.createDecPOMDP();
+
+    var s0 = State.from("s0");
+    var s1 = State.from("s1");
+    var actionVectors = decPOMDP.getActionVectors();
+    var observationVectors = decPOMDP.getObservationVectors();
+    assertEquals(0.9, decPOMDP.getDiscountFactor());
+    assertEquals(4, actionVectors.size());
+    assertEquals(2, observationVectors.size());
+    assertEquals(1D, decPOMDP.getTransitionProbability(s0, actionVectors.get(0), s1));
+    assertEquals(1D, decPOMDP.getTransitionProbability(s0, actionVectors.get(2), s0));
+    assertEquals(0.5, decPOMDP.getTransitionProbability(s1, actionVectors.get(3), s0));
+    assertEquals(0.5, decPOMDP.getObservationProbability(actionVectors.get(0), s0, observationVectors.get(0)));
+    assertEquals(1D, decPOMDP.getObservationProbability(actionVectors.get(2), s0, observationVectors.get(0)));
+    assertEquals(-20D, decPOMDP.getReward(s1, actionVectors.get(1)));
+    assertEquals(-1D, decPOMDP.getReward(s0, actionVectors.get(1)));
+  }
+
+  @Test
+  void parse_ShouldThrowIfEntryIsParsedBeforeStates() {
+    var sectionParser = new DPOMDPSectionParser<>(new DecPOMDPWithStateControllerBuilder());
+    var parser = new DPOMDPStreamingParser(sectionParser);
+    assertThrows(ParsingFailedException.class, () -> parser.parse(toBuffer("agents: 2\nT: * :\nidentity")));
+  }
+
+  @Test
+  void parse_ShouldThrowIfProbabilityIsInvalid() {
+    var sectionParser = new DPOMDPSectionParser<>(new DecPOMDPWithStateControllerBuilder());
+    var parser = new DPOMDPStreamingParser(sectionParser);
+    var content = SMALL_DPOMDP + System.lineSeparator() + "T: * : s0 : s1 : 1.5";
+    assertThrows(ParsingFailedException.class, () -> parser.parse(toBuffer(content)));
+  }
+
+  @Test
+  void parse_ShouldThrowIfKeywordIsUnknown() {
+    var sectionParser = new DPOMDPSectionParser<>(new DecPOMDPWithStateControllerBuilder());
+    var parser = new DPOMDPStreamingParser(sectionParser);
+    assertThrows(ParsingFailedException.class, () -> parser.parse(toBuffer("agents: 2\nfoo: 3")));
+  }
+
+  @Test
+  void parse_ShouldCreateSameDecPOMDPFromStreamAsFromMappedFile() throws IOException {
+    var file = Path.of("problems/BoxPushing.dpomdp");
+    var mappedBuilder = new DecPOMDPWithStateControllerBuilder();
+    var mappedSectionParser = new DPOMDPSectionParser<>(mappedBuilder);
+    new DPOMDPStreamingParser(mappedSectionParser).parse(file);
+    mappedSectionParser.gatherData();
+    var streamedBuilder = new DecPOMDPWithStateControllerBuilder();
+    var streamedSectionParser = new DPOMDPSectionParser<>(streamedBuilder);
+    try (var input = Files.newInputStream(file)) {
+      new DPOMDPStreamingParser(streamedSectionParser).parse(input);
+    }
+    streamedSectionParser.gatherData();
+
+    assertSameDecPOMDP(mappedBuilder.createDecPOMDP(), streamedBuilder.createDecPOMDP());
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"problems/DecTiger.dpomdp", "problems/GridSmall.dpomdp", "problems/BoxPushing.dpomdp"})
+  void parse_ShouldCreateSameDecPOMDPWhenParsingEntriesConcurrently(String fileName) throws IOException {
+    var file = Path.of(fileName);
+    var sequentialBuilder = new DecPOMDPWithStateControllerBuilder();
+    var sequentialSectionParser = new DPOMDPSectionParser<>(sequentialBuilder);
+    new DPOMDPStreamingParser(sequentialSectionParser).setParallel(false).parse(file);
+    sequentialSectionParser.gatherData();
+    var concurrentBuilder = new DecPOMDPWithStateControllerBuilder();
+    var concurrentSectionParser = new DPOMDPSectionParser<>(concurrentBuilder);
+    new DPOMDPStreamingParser(concurrentSectionParser).setMinimumChunkSize(256).parse(file);
+    concurrentSectionParser.gatherData();
+
+    assertSameDecPOMDP(sequentialBuilder.createDecPOMDP(), concurrentBuilder.createDecPOMDP());
+  }
+
+  @Test
+  void parse_ShouldApplyOverwritesAndLateSectionsInFileOrderWhenParsingConcurrently() {
+    var content = SMALL_DPOMDP + System.lineSeparator() + "discount: 0.5" + System.lineSeparator() + "T: a * : s0 : s0 : 1.0";
+    var sequentialBuilder = new DecPOMDPWithStateControllerBuilder();
+    var sequentialSectionParser = new DPOMDPSectionParser<>(sequentialBuilder);
+    new DPOMDPStreamingParser(sequentialSectionParser).setParallel(false).parse(toBuffer(content));
+    sequentialSectionParser.gatherData();
+    var concurrentBuilder = new DecPOMDPWithStateControllerBuilder();
+    var concurrentSectionParser = new DPOMDPSectionParser<>(concurrentBuilder);
+    new DPOMDPStreamingParser(concurrentSectionParser).setMinimumChunkSize(1).parse(toBuffer(content));
+    concurrentSectionParser.gatherData();
+
+    var decPOMDP = concurrentBuilder.createDecPOMDP();
+    assertEquals(0.5, decPOMDP.getDiscountFactor());
+    assertEquals(1D, decPOMDP.getTransitionProbability(State.from("s0"), decPOMDP.getActionVectors().get(0), State.from("s0")));
+    assertSameDecPOMDP(sequentialBuilder.createDecPOMDP(), decPOMDP);
+  }
+
+  @Test
+  void parse_ShouldReportLineOfInvalidEntryWhenParsingConcurrently() {
+    var sectionParser = new DPOMDPSectionParser<>(new DecPOMDPWithStateControllerBuilder());
+    var parser = new DPOMDPStreamingParser(sectionParser).setMinimumChunkSize(1);
+    var content = SMALL_DPOMDP + "\nT: * : s0 : s1 : 1.5\nT: * : s0 : s1 : 2.5";
+    var exception = assertThrows(ParsingFailedException.class, () -> parser.parse(toBuffer(content)));
+    assertTrue(exception.getMessage().contains("line 24"), exception.getMessage());
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  void parse_ShouldCreateSameDecPOMDPFromCompressedFile(boolean useStreamingParser, @TempDir Path directory) throws IOException {
+    var compressedFile = directory.resolve("BoxPushing.dpomdp.gz");
+    try (var output = new GZIPOutputStream(Files.newOutputStream(compressedFile))) {
+      Files.copy(Path.of("problems/BoxPushing.dpomdp"), output);
+    }
+    var parser = new DPOMDPFileParser<>(new DecPOMDPWithStateControllerBuilder());
+    parser.useStreamingParser = useStreamingParser;
+
+    var expected = DPOMDPFileParser.parseDecPOMDP("problems/BoxPushing.dpomdp").orElseThrow().createDecPOMDP();
+    var actual = parser.parse(compressedFile.toString()).orElseThrow().createDecPOMDP();
+    assertSameDecPOMDP(expected, actual);
+  }
+
+  private ByteBuffer toBuffer(String content) {
+    return ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  static void assertSameDecPOMDP(IDecPOMDP<?> expected, IDecPOMDP<?> actual) {
+    assertEquals(expected.getStates(), actual.getStates());
+    assertEquals(expected.getAgents(), actual.getAgents());
+    assertEquals(expected.getDiscountFactor(), actual.getDiscountFactor());
+    assertEquals(expected.getInitialBeliefState(), actual.getInitialBeliefState());
+    var actionVectors = expected.getActionVectors();
+    var observationVectors = expected.getObservationVectors();
+    assertEquals(actionVectors, actual.getActionVectors());
+    assertEquals(observationVectors, actual.getObservationVectors());
+    for (var state : expected.getStates()) {
+      for (var actionVector : actionVectors) {
+        assertEquals(expected.getReward(state, actionVector), actual.getReward(state, actionVector));
+        for (var followState : expected.getStates()) {
+          assertEquals(
+            expected.getTransitionProbability(state, actionVector, followState),
+            actual.getTransitionProbability(state, actionVector, followState)
+          );
+        }
+      }
+    }
+    for (var actionVector : actionVectors) {
+      for (var followState : expected.getStates()) {
+        for (var observationVector : observationVectors) {
+          assertEquals(
+            expected.getObservationProbability(actionVector, followState, observationVector),
+            actual.getObservationProbability(actionVector, followState, observationVector)
+          );
+        }
+      }
+    }
+  }
+}
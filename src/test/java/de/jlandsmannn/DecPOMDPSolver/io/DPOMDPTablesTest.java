@@ -0,0 +1,115 @@
+package de.jlandsmannn.DecPOMDPSolver.io;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DPOMDPTablesTest {
+
+  private static final int[] ALL_STATES = {0, 1};
+  private static final int[] ALL_OBSERVATIONS = {0, 1};
+  private static final int[] FIRST = {0};
+  private static final int[] SECOND = {1};
+
+  private DPOMDPTables tables;
+
+  @BeforeEach
+  void setUp() {
+    tables = new DPOMDPTables(2, 1, 2);
+  }
+
+  @Test
+  void getReward_ShouldReturnZeroIfNoRewardWasSet() {
+    assertEquals(0D, tables.getReward(0, 0));
+  }
+
+  @Test
+  void putRewards_ShouldKeepFirstRewardCoveringAllCells() {
+    tables.putRewards(FIRST, FIRST, ALL_STATES, ALL_OBSERVATIONS, 2D);
+    tables.putRewards(FIRST, FIRST, ALL_STATES, ALL_OBSERVATIONS, 3D);
+    assertEquals(2D, tables.getReward(0, 0));
+  }
+
+  @Test
+  void putRewards_ShouldOnlyFillCellsWithoutReward() {
+    tables.putRewards(FIRST, FIRST, SECOND, ALL_OBSERVATIONS, 2D);
+    tables.putRewards(FIRST, FIRST, ALL_STATES, ALL_OBSERVATIONS, 2D);
+    assertEquals(2D, tables.getReward(0, 0));
+  }
+
+  @Test
+  void putRewardRows_ShouldOverwritePreviousRewards() {
+    tables.putRewards(FIRST, FIRST, ALL_STATES, ALL_OBSERVATIONS, 2D);
+    tables.putRewardRows(FIRST, FIRST, ALL_STATES, new double[]{5D, 5D});
+    assertEquals(5D, tables.getReward(0, 0));
+  }
+
+  @Test
+  void getReward_ShouldWeightDifferentRewardsByProbabilities() {
+    tables.putTransitionRows(FIRST, FIRST, new double[]{0.25, 0.75});
+    tables.putObservationRows(FIRST, FIRST, new double[]{1D, 0D});
+    tables.putObservationRows(FIRST, SECOND, new double[]{0.5, 0.5});
+    tables.putRewardRows(FIRST, FIRST, FIRST, new double[]{4D, 100D});
+    tables.putRewards(FIRST, FIRST, ALL_STATES, ALL_OBSERVATIONS, 8D);
+    assertEquals(0.25 * 4D + 0.75 * 8D, tables.getReward(0, 0));
+  }
+
+  @Test
+  void putTransitions_ShouldDiscardRowIfFollowStateWasAlreadySet() {
+    tables.putTransitionRows(FIRST, FIRST, new double[]{0.5, 0.5});
+    tables.putTransitions(FIRST, FIRST, SECOND, 0.5);
+    tables.putTransitions(FIRST, FIRST, FIRST, 0.5);
+    assertEquals(0.5, tables.getTransitionProbability(0, 0, 0));
+    assertEquals(0.5, tables.getTransitionProbability(0, 0, 1));
+
+    tables.putTransitions(FIRST, FIRST, SECOND, 1D);
+    assertEquals(0D, tables.getTransitionProbability(0, 0, 0));
+    assertEquals(1D, tables.getTransitionProbability(0, 0, 1));
+  }
+
+  @Test
+  void putTransitions_ShouldApplyWildcardToDefaultAndExplicitRows() {
+    tables.putTransitions(SECOND, FIRST, FIRST, 1D);
+    tables.putTransitions(ALL_STATES, FIRST, SECOND, 0.5);
+    tables.putTransitions(ALL_STATES, FIRST, FIRST, 0.5);
+    assertEquals(0.5, tables.getTransitionProbability(0, 0, 0));
+    assertEquals(0.5, tables.getTransitionProbability(0, 0, 1));
+    assertEquals(0.5, tables.getTransitionProbability(1, 0, 0));
+    assertEquals(0D, tables.getTransitionProbability(1, 0, 1));
+  }
+
+  @Test
+  void putTransitionRows_ShouldNotOverwriteDefaultRow() {
+    tables.putTransitions(ALL_STATES, FIRST, FIRST, 1D);
+    tables.putTransitionRows(SECOND, FIRST, new double[]{0D, 1D});
+    assertEquals(1D, tables.getTransitionProbability(1, 0, 0));
+  }
+
+  @Test
+  void putTransitions_ShouldStartExplicitRowFromDefaultRow() {
+    tables.putTransitions(ALL_STATES, FIRST, FIRST, 0.5);
+    tables.putTransitions(SECOND, FIRST, SECOND, 0.5);
+    assertEquals(0.5, tables.getTransitionProbability(1, 0, 0));
+    assertEquals(0.5, tables.getTransitionProbability(1, 0, 1));
+    assertEquals(0D, tables.getTransitionProbability(0, 0, 1));
+  }
+
+  @Test
+  void putObservationRows_ShouldReplaceExplicitRowsByWildcard() {
+    tables.putObservations(FIRST, FIRST, FIRST, 1D);
+    tables.putObservationRows(FIRST, ALL_STATES, new double[]{0.5, 0.5});
+    assertEquals(0.5, tables.getObservationProbability(0, 0, 0));
+    assertEquals(0.5, tables.getObservationProbability(0, 1, 1));
+  }
+
+  @Test
+  void putObservations_ShouldNotModifySharedRows() {
+    var sharedRow = new double[]{0.5, 0.5};
+    tables.putObservationRows(FIRST, ALL_STATES, sharedRow);
+    tables.putObservations(FIRST, FIRST, FIRST, 1D);
+    assertEquals(0.5, sharedRow[0]);
+    assertEquals(1D, tables.getObservationProbability(0, 0, 0));
+    assertEquals(0.5, tables.getObservationProbability(0, 1, 0));
+  }
+}
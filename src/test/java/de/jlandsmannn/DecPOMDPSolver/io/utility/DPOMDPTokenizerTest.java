@@ -0,0 +1,102 @@
+package de.jlandsmannn.DecPOMDPSolver.io.utility;
+
+import de.jlandsmannn.DecPOMDPSolver.io.exceptions.ParsingFailedException;
+import de.jlandsmannn.DecPOMDPSolver.io.utility.DPOMDPTokenizer.TokenType;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DPOMDPTokenizerTest {
+
+  @Test
+  void advance_ShouldSplitColonsWordsAndNumbers() {
+    var tokenizer = createTokenizer("R: listen listen: * : -2.5");
+    var expectedTypes = new TokenType[]{
+      TokenType.WORD, TokenType.COLON, TokenType.WORD, TokenType.WORD, TokenType.COLON,
+      TokenType.WORD, TokenType.COLON, TokenType.NUMBER, TokenType.END
+    };
+    for (var expectedType : expectedTypes) {
+      assertEquals(expectedType, tokenizer.getType());
+      tokenizer.advance();
+    }
+  }
+
+  @Test
+  void advance_ShouldSkipCommentsAndTrackLineStarts() {
+    var tokenizer = createTokenizer("# comment\nstart: # comment\nuniform");
+    assertTrue(tokenizer.hasText("start"));
+    assertTrue(tokenizer.isAtLineStart());
+    tokenizer.advance();
+    assertEquals(TokenType.COLON, tokenizer.getType());
+    assertFalse(tokenizer.isAtLineStart());
+    tokenizer.advance();
+    assertTrue(tokenizer.hasText("uniform"));
+    assertTrue(tokenizer.isAtLineStart());
+    assertEquals(3, tokenizer.getLine());
+  }
+
+  @Test
+  void getNumber_ShouldParseSignedFractionsAndExponents() {
+    var tokenizer = createTokenizer("+20 0.25 1e-3 .5 27");
+    assertEquals(20D, tokenizer.getNumber());
+    tokenizer.advance();
+    assertEquals(0.25, tokenizer.getNumber());
+    tokenizer.advance();
+    assertEquals(1e-3, tokenizer.getNumber());
+    tokenizer.advance();
+    assertEquals(0.5, tokenizer.getNumber());
+    tokenizer.advance();
+    assertTrue(tokenizer.isInteger());
+    assertEquals(27, tokenizer.getInteger());
+  }
+
+  @Test
+  void getNumber_ShouldEqualParseDouble() {
+    var numbers = new String[]{"0.1", "0.7225", "-101", "1.0000000000000002", "123456789.123456789", "4.9e-324", "0.30000000000000004", "1e22", "1e23"};
+    var tokenizer = createTokenizer(String.join(" ", numbers));
+    for (var number : numbers) {
+      assertEquals(Double.parseDouble(number), tokenizer.getNumber(), number);
+      tokenizer.advance();
+    }
+  }
+
+  @Test
+  void advance_ShouldReadStreamAcrossChunks() {
+    var content = "T: 0 0 : 0 : 27 : 0.125\n".repeat(10_000);
+    var tokenizer = new DPOMDPTokenizer(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    var numbers = 0;
+    var sum = 0D;
+    while (tokenizer.getType() != TokenType.END) {
+      if (tokenizer.getType() == TokenType.NUMBER) {
+        numbers++;
+        sum += tokenizer.getNumber();
+      }
+      tokenizer.advance();
+    }
+    assertEquals(50_000, numbers);
+    assertEquals(10_000 * 27.125, sum);
+  }
+
+  @Test
+  void hasText_ShouldCompareWithoutCreatingString() {
+    var tokenizer = createTokenizer("identity");
+    assertTrue(tokenizer.hasText("identity"));
+    assertFalse(tokenizer.hasText("identit"));
+    assertFalse(tokenizer.hasText("uniform"));
+  }
+
+  @Test
+  void getNumber_ShouldThrowIfTokenIsWord() {
+    var tokenizer = createTokenizer("s1N2E");
+    assertEquals(TokenType.WORD, tokenizer.getType());
+    assertThrows(ParsingFailedException.class, tokenizer::getNumber);
+  }
+
+  private DPOMDPTokenizer createTokenizer(String content) {
+    return new DPOMDPTokenizer(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)));
+  }
+}
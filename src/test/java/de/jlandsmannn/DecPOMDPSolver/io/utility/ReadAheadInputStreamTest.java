@@ -0,0 +1,52 @@
+package de.jlandsmannn.DecPOMDPSolver.io.utility;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadAheadInputStreamTest {
+
+  @Test
+  void read_ShouldReturnAllBytesOfSourceInOrder() throws IOException {
+    var bytes = new byte[300_000];
+    new Random(42).nextBytes(bytes);
+    try (var input = new ReadAheadInputStream(new ByteArrayInputStream(bytes))) {
+      assertEquals(bytes[0] & 0xFF, input.read());
+      var rest = input.readAllBytes();
+      assertEquals(bytes.length - 1, rest.length);
+      for (int i = 0; i < rest.length; i++) {
+        assertEquals(bytes[i + 1], rest[i]);
+      }
+      assertEquals(-1, input.read());
+    }
+  }
+
+  @Test
+  void read_ShouldReturnEndOfStreamForEmptySource() throws IOException {
+    try (var input = new ReadAheadInputStream(InputStream.nullInputStream())) {
+      assertEquals(-1, input.read(new byte[8], 0, 8));
+    }
+  }
+
+  @Test
+  void read_ShouldThrowFailureOfSource() throws IOException {
+    var source = new InputStream() {
+      private int count = 0;
+
+      @Override
+      public int read() throws IOException {
+        if (count == 10) throw new IOException("broken");
+        return count++;
+      }
+    };
+    try (var input = new ReadAheadInputStream(source)) {
+      var exception = assertThrows(IOException.class, input::readAllBytes);
+      assertEquals("broken", exception.getMessage());
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package de.jlandsmannn.DecPOMDPSolver.linearPrograms;
+
+import de.jlandsmannn.DecPOMDPSolver.DecPOMDPGenerator;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.State;
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.AgentWithStateController;
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.DecPOMDPWithStateController;
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.primitives.Node;
+import de.jlandsmannn.DecPOMDPSolver.domain.utility.Distribution;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DenseCombinatorialNodePruningTransformerTest {
+
+  private DecPOMDPWithStateController decPOMDP;
+  private AgentWithStateController agent;
+  private Collection<Distribution<State>> beliefPoints;
+  private Node node;
+
+  private DenseCombinatorialNodePruningTransformer transformer;
+
+  @BeforeEach
+  void setUp() {
+    decPOMDP = DecPOMDPGenerator.getDecTigerPOMDPWithLargeFSC();
+    agent = decPOMDP.getAgents().get(0);
+    beliefPoints = List.of(
+      Distribution.createRandomDistribution(decPOMDP.getStates()),
+      Distribution.createRandomDistribution(decPOMDP.getStates())
+    );
+    node = agent.getControllerNodes().get(0);
+    for (var state : decPOMDP.getStates()) {
+      for (var nodeVector : decPOMDP.getNodeCombinations()) {
+        decPOMDP.setValue(state, nodeVector, Math.random());
+      }
+    }
+    transformer = new DenseCombinatorialNodePruningTransformer();
+    transformer.setDecPOMDP(decPOMDP);
+    transformer.setAgent(agent);
+    transformer.setBeliefPoints(beliefPoints);
+  }
+
+  @Test
+  void getLinearProgramForNode_ShouldCreateColumnForEachOtherNode() {
+    var linearProgram = transformer.getLinearProgramForNode(node);
+    var expected = agent.getControllerNodes().size() - 1;
+    assertEquals(expected, linearProgram.numberOfColumns());
+    assertFalse(linearProgram.nodes().contains(node));
+  }
+
+  @Test
+  void getLinearProgramForNode_ShouldUseValuesOfNodeToCheckAsLowerBounds() {
+    var linearProgram = transformer.getLinearProgramForNode(node);
+    var expected = transformer.getValueMatrix().get(node);
+    assertArrayEquals(expected, linearProgram.lowerBounds());
+  }
+
+  @Test
+  void getDominatingNodeDistributionFromResult_ShouldReturnEmptyIfEpsilonIsNegative() {
+    var result = new DenseDominanceResult(List.of(node), -1, new double[]{1});
+    var actual = transformer.getDominatingNodeDistributionFromResult(result);
+    assertTrue(actual.isEmpty());
+  }
+
+  @Test
+  void getDominatingNodeDistributionFromResult_ShouldReturnNodeDistributionBasedOnResult() {
+    var nodes = Node.listOf("A0-Q1", "A0-Q2", "A0-Q3");
+    var expected = Distribution.of(Map.of(
+      Node.from("A0-Q1"), 0.2,
+      Node.from("A0-Q3"), 0.8
+    ));
+    var result = new DenseDominanceResult(nodes, 0, new double[]{0.2, 0, 0.8});
+    var actual = transformer.getDominatingNodeDistributionFromResult(result);
+    assertTrue(actual.isPresent());
+    assertEquals(expected, actual.get());
+  }
+}
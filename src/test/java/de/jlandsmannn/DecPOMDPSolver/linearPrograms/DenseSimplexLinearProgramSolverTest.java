@@ -0,0 +1,121 @@
+package de.jlandsmannn.DecPOMDPSolver.linearPrograms;
+
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.primitives.Node;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DenseSimplexLinearProgramSolverTest {
+
+  DenseSimplexLinearProgramSolver solver;
+
+  @BeforeEach
+  void setUp() {
+    solver = new DenseSimplexLinearProgramSolver();
+  }
+
+  @Test
+  void maximise_ShouldThrowIfNoLinearProgramSet() {
+    assertThrows(IllegalStateException.class, () -> solver.maximise());
+  }
+
+  @Test
+  void maximise_ShouldFindDominatingCombination() {
+    // 0.5 * (4, 0) + 0.5 * (0, 4) = (2, 2) dominates (1, 1) by 1
+    var linearProgram = createLinearProgram(new double[][]{{4, 0}, {0, 4}}, new double[]{1, 1});
+    var result = solver.maximise(linearProgram).orElseThrow();
+
+    assertEquals(1, result.epsilon(), 1e-9);
+    assertArrayEquals(new double[]{0.5, 0.5}, result.weights(), 1e-9);
+  }
+
+  @Test
+  void maximise_ShouldReturnNegativeEpsilonIfNoDominatingCombinationExists() {
+    // no combination of (3, 0) and (0, 3) reaches (2, 2)
+    var linearProgram = createLinearProgram(new double[][]{{3, 0}, {0, 3}}, new double[]{2, 2});
+    var result = solver.maximise(linearProgram).orElseThrow();
+
+    assertEquals(-0.5, result.epsilon(), 1e-9);
+  }
+
+  @Test
+  void maximise_ShouldReturnZeroEpsilonForIdenticalNode() {
+    var linearProgram = createLinearProgram(new double[][]{{1, 2, 3}, {0, 0, 0}}, new double[]{1, 2, 3});
+    var result = solver.maximise(linearProgram).orElseThrow();
+
+    assertEquals(0, result.epsilon(), 1e-9);
+    assertArrayEquals(new double[]{1, 0}, result.weights(), 1e-9);
+  }
+
+  @Test
+  void maximise_ShouldReturnConvexCombinationReachingEpsilon() {
+    var random = new Random(42);
+    for (int run = 0; run < 50; run++) {
+      var columns = new double[20][50];
+      var lowerBounds = new double[50];
+      for (int r = 0; r < lowerBounds.length; r++) {
+        lowerBounds[r] = random.nextGaussian() * 10;
+        for (var column : columns) column[r] = random.nextGaussian() * 10;
+      }
+      var linearProgram = createLinearProgram(columns, lowerBounds);
+      var result = solver.maximise(linearProgram).orElseThrow();
+
+      assertEquals(1, Arrays.stream(result.weights()).sum(), 1e-9);
+      for (int r = 0; r < lowerBounds.length; r++) {
+        var value = 0D;
+        for (int j = 0; j < columns.length; j++) value += result.weights()[j] * columns[j][r];
+        assertTrue(value - lowerBounds[r] >= result.epsilon() - 1e-9);
+      }
+    }
+  }
+
+  @Test
+  void maximise_ShouldReturnSameEpsilonWithAndWithoutWarmStart() {
+    var coldSolver = new DenseSimplexLinearProgramSolver().setWarmStart(false);
+    var random = new Random(42);
+    for (int run = 0; run < 20; run++) {
+      var columns = new double[10][30];
+      var lowerBounds = new double[30];
+      for (int r = 0; r < lowerBounds.length; r++) {
+        lowerBounds[r] = random.nextGaussian() * 10;
+        for (var column : columns) column[r] = random.nextGaussian() * 10;
+      }
+      var linearProgram = createLinearProgram(columns, lowerBounds);
+      var expected = coldSolver.maximise(linearProgram).orElseThrow().epsilon();
+      var actual = solver.maximise(linearProgram).orElseThrow().epsilon();
+
+      assertEquals(expected, actual, 1e-9);
+    }
+  }
+
+  @Test
+  void maximise_ShouldReturnSameEpsilonForSameColumnsAndDifferentRowsOnOneThread() {
+    var coldSolver = new DenseSimplexLinearProgramSolver().setWarmStart(false);
+    var random = new Random(42);
+    for (var numberOfRows : new int[]{30, 5, 30, 12}) {
+      var columns = new double[10][numberOfRows];
+      var lowerBounds = new double[numberOfRows];
+      for (int r = 0; r < lowerBounds.length; r++) {
+        lowerBounds[r] = random.nextGaussian() * 10;
+        for (var column : columns) column[r] = random.nextGaussian() * 10;
+      }
+      var linearProgram = createLinearProgram(columns, lowerBounds);
+      var expected = coldSolver.maximise(linearProgram).orElseThrow();
+      var actual = solver.maximise(linearProgram).orElseThrow();
+
+      assertEquals(expected.epsilon(), actual.epsilon(), 1e-9);
+      assertEquals(1, Arrays.stream(actual.weights()).sum(), 1e-9);
+    }
+  }
+
+  private DenseDominanceLinearProgram createLinearProgram(double[][] columns, double[] lowerBounds) {
+    List<Node> nodes = IntStream.range(0, columns.length).mapToObj(i -> Node.from("Q" + i)).toList();
+    return new DenseDominanceLinearProgram(nodes, columns, lowerBounds);
+  }
+}
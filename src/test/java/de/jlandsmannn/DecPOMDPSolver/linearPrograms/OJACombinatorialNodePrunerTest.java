@@ -11,10 +11,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.ojalgo.optimisation.ExpressionsBasedModel;
 
 import java.util.Collection;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.mockito.Mockito.*;
 
@@ -98,6 +100,88 @@ class OJACombinatorialNodePrunerTest {
     verify(pruner, times(2)).pruneNodeIfCombinatorialDominated(any());
   }
 
+  @Test
+  void pruneNodesIfCombinatorialDominated_ShouldPrunePointwiseDominatedNodesWithoutLinearProgram() {
+    when(agent.getControllerNodes()).thenReturn(Node.listOf("Q1", "Q2", "Q3"));
+    when(agent.getInitialControllerNodes()).thenReturn(Node.setOf("Q1"));
+    when(transformer.getValueMatrix()).thenReturn(Map.of(
+      Node.from("Q1"), new double[]{1, 1},
+      Node.from("Q2"), new double[]{2, 1},
+      Node.from("Q3"), new double[]{0, 3}
+    ));
+    pruner
+      .setDecPOMDP(decPOMDP)
+      .setAgent(agent)
+      .setBeliefPoints(beliefPoints)
+      .pruneNodesIfCombinatorialDominated();
+
+    verify(agent).pruneNode(Node.from("Q1"), Distribution.createSingleEntryDistribution(Node.from("Q2")));
+    verify(pruner, never()).pruneNodeIfCombinatorialDominated(any());
+  }
+
+  @Test
+  void pruneNodesIfCombinatorialDominated_ShouldNotCheckNodesBeingStrictlyBestForAnyBeliefPoint() {
+    when(agent.getControllerNodes()).thenReturn(Node.listOf("Q1", "Q2", "Q3"));
+    when(agent.getInitialControllerNodes()).thenReturn(Node.setOf("Q1", "Q2"));
+    when(transformer.getValueMatrix()).thenReturn(Map.of(
+      Node.from("Q1"), new double[]{3, 0},
+      Node.from("Q2"), new double[]{1.4, 1.4},
+      Node.from("Q3"), new double[]{0, 3}
+    ));
+    pruner
+      .setDecPOMDP(decPOMDP)
+      .setAgent(agent)
+      .setBeliefPoints(beliefPoints)
+      .pruneNodesIfCombinatorialDominated();
+
+    verify(pruner, never()).pruneNodeIfCombinatorialDominated(Node.from("Q1"));
+    verify(pruner).pruneNodeIfCombinatorialDominated(Node.from("Q2"));
+  }
+
+  @Test
+  void pruneNodesIfCombinatorialDominated_ShouldSolveLinearProgramForEveryInitialNodeIfParallel() {
+    when(agent.getControllerNodes()).thenReturn(Node.listOf("Q1", "Q2", "Q3", "Q4"));
+    when(agent.getInitialControllerNodes()).thenReturn(Node.setOf("Q1", "Q2"));
+    pruner
+      .setParallel(true)
+      .setDecPOMDP(decPOMDP)
+      .setAgent(agent)
+      .setBeliefPoints(beliefPoints)
+      .pruneNodesIfCombinatorialDominated();
+
+    verify(transformer, times(2)).getLinearProgramForNode(any());
+    verify(solver, times(2)).maximise(any());
+    verify(pruner, never()).pruneNodeIfCombinatorialDominated(any());
+  }
+
+  @Test
+  void pruneNodesIfCombinatorialDominated_ShouldCheckAgainIfDominatingNodesWerePrunedIfParallel() {
+    var firstNode = Node.from("Q1");
+    var secondNode = Node.from("Q2");
+    var firstLinearProgram = new ExpressionsBasedModel();
+    var secondLinearProgram = new ExpressionsBasedModel();
+    Map<String, Double> firstResult = Map.of("Q2", 1D);
+    Map<String, Double> secondResult = Map.of("Q1", 1D);
+    when(agent.getControllerNodes()).thenReturn(Node.listOf("Q1", "Q2", "Q3", "Q4"));
+    when(agent.getInitialControllerNodes()).thenReturn(Set.of(firstNode, secondNode));
+    when(transformer.getLinearProgramForNode(firstNode)).thenReturn(firstLinearProgram);
+    when(transformer.getLinearProgramForNode(secondNode)).thenReturn(secondLinearProgram);
+    when(solver.maximise(firstLinearProgram)).thenReturn(Optional.of(firstResult));
+    when(solver.maximise(secondLinearProgram)).thenReturn(Optional.of(secondResult));
+    when(transformer.getDominatingNodeDistributionFromResult(firstResult)).thenReturn(Optional.of(Distribution.createSingleEntryDistribution(secondNode)));
+    when(transformer.getDominatingNodeDistributionFromResult(secondResult)).thenReturn(Optional.of(Distribution.createSingleEntryDistribution(firstNode)));
+    pruner
+      .setParallel(true)
+      .setDecPOMDP(decPOMDP)
+      .setAgent(agent)
+      .setBeliefPoints(beliefPoints)
+      .pruneNodesIfCombinatorialDominated();
+
+    verify(agent).pruneNode(eq(firstNode), any(Distribution.class));
+    verify(pruner).pruneNodeIfCombinatorialDominated(secondNode);
+    verify(agent, never()).pruneNode(eq(secondNode), any(Distribution.class));
+  }
+
   @Test
   void pruneNodeIfCombinatorialDominated_ShouldCallTransformerToCreateLinearProgram() {
     var node = Node.from("Q0");
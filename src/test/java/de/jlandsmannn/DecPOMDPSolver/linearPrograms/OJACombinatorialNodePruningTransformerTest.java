@@ -165,6 +165,32 @@ class OJACombinatorialNodePruningTransformerTest {
       assertTrue(expected <= actual);
     }
 
+    @Test
+    void getLinearProgramForNode_ShouldReuseValueMatrixForAllNodesOfAgent() {
+      transformer.getLinearProgramForNode(node);
+      var expected = transformer.getValueMatrix();
+      transformer.getLinearProgramForNode(agent.getControllerNodes().get(1));
+      var actual = transformer.getValueMatrix();
+      assertSame(expected, actual);
+    }
+
+    @Test
+    void getValueMatrix_ShouldContainValueForEachBeliefPointAndNodeCombination() {
+      var valueMatrix = transformer.getValueMatrix();
+      var otherAgent = decPOMDP.getAgents().get(1);
+      var expected = beliefPoints.size() * otherAgent.getInitialControllerNodes().size();
+      for (var node : agent.getControllerNodes()) {
+        assertEquals(expected, valueMatrix.get(node).length);
+      }
+    }
+
+    @Test
+    void setAgent_ShouldInvalidateValueMatrix() {
+      var valueMatrix = transformer.getValueMatrix();
+      transformer.setAgent(agent);
+      assertNotSame(valueMatrix, transformer.getValueMatrix());
+    }
+
     @Test
     void getDominatingNodeDistributionFromResult_ShouldReturnEmptyIfEpsilonIsNegative() {
       var result = Map.of("epsilon", -1D);
@@ -0,0 +1,116 @@
+package de.jlandsmannn.DecPOMDPSolver.policyIteration;
+
+import de.jlandsmannn.DecPOMDPSolver.DecPOMDPGenerator;
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.DecPOMDPWithStateController;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BeliefPointCacheTest {
+
+  @TempDir
+  Path directory;
+
+  private HeuristicPolicyIterationConfig config;
+  private DecPOMDPWithStateController decPOMDP;
+  private BeliefPointCache beliefPointCache;
+
+  @BeforeEach
+  void setUp() {
+    config = HeuristicPolicyIterationConfig.getDefault().withBeliefPointGenerationSeed(42);
+    decPOMDP = DecPOMDPGenerator.getDecTigerPOMDP();
+    beliefPointCache = new BeliefPointCache().setDirectory(directory);
+  }
+
+  @Test
+  void createFingerprint_ShouldBeEmptyWithoutSeed() {
+    var fingerprint = beliefPointCache.createFingerprint(decPOMDP, HeuristicPolicyIterationConfig.getDefault());
+    assertTrue(fingerprint.isEmpty());
+  }
+
+  @Test
+  void createFingerprint_ShouldBeEqualForSameDecPOMDPAndConfig() {
+    var expected = beliefPointCache.createFingerprint(decPOMDP, config);
+    var actual = beliefPointCache.createFingerprint(DecPOMDPGenerator.getDecTigerPOMDP(), config);
+    assertTrue(expected.isPresent());
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  void createFingerprint_ShouldDifferForDifferentNumberOfBeliefPoints() {
+    var expected = beliefPointCache.createFingerprint(decPOMDP, config);
+    var actual = beliefPointCache.createFingerprint(decPOMDP, config.withNumberOfBeliefPoints(20));
+    assertNotEquals(expected, actual);
+  }
+
+  @Test
+  void createFingerprint_ShouldIgnoreControllersAndDiscountFactor() {
+    var expected = beliefPointCache.createFingerprint(decPOMDP, config);
+    var otherDecPOMDP = DecPOMDPGenerator.getDecTigerPOMDPWithLargeFSC();
+    otherDecPOMDP.setDiscountFactor(0.5);
+    var actual = beliefPointCache.createFingerprint(otherDecPOMDP, config);
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  void createFingerprint_ShouldDifferForDifferentInitialPolicies() {
+    var expected = beliefPointCache.createFingerprint(decPOMDP, config);
+    var initialPolicies = new BeliefPointGenerator(config).setDecPOMDP(decPOMDP).generateRandomPolicies();
+    var actual = beliefPointCache.createFingerprint(decPOMDP, config.withInitialPolicies(initialPolicies));
+    assertNotEquals(expected, actual);
+  }
+
+  @Test
+  void load_ShouldReturnEmptyIfNothingStored() {
+    var actual = beliefPointCache.load(decPOMDP, "unknown");
+    assertTrue(actual.isEmpty());
+  }
+
+  @Test
+  void load_ShouldReturnStoredBeliefPoints() {
+    var fingerprint = beliefPointCache.createFingerprint(decPOMDP, config).orElseThrow();
+    var expected = new BeliefPointGenerator(config)
+      .setDecPOMDP(decPOMDP)
+      .setDesiredNumberOfBeliefPoints(10)
+      .setPolicies(null)
+      .generateBeliefPoints();
+    beliefPointCache.store(decPOMDP, fingerprint, expected);
+    var actual = beliefPointCache.load(decPOMDP, fingerprint);
+    assertTrue(actual.isPresent());
+    assertEquals(expected, actual.get());
+  }
+
+  @Test
+  void load_ShouldReturnEmptyIfFileIsCorrupt() throws Exception {
+    Files.write(directory.resolve("corrupt.bpc"), new byte[]{1, 2, 3});
+    var actual = beliefPointCache.load(decPOMDP, "corrupt");
+    assertTrue(actual.isEmpty());
+  }
+
+  @Test
+  void load_ShouldReturnEmptyIfFileHasOtherVersion() throws Exception {
+    var fingerprint = beliefPointCache.createFingerprint(decPOMDP, config).orElseThrow();
+    beliefPointCache.store(decPOMDP, fingerprint, Map.of());
+    var file = directory.resolve(fingerprint + ".bpc");
+    var content = Files.readAllBytes(file);
+    content[Integer.BYTES + Integer.BYTES - 1]++;
+    Files.write(file, content);
+    var actual = beliefPointCache.load(decPOMDP, fingerprint);
+    assertTrue(actual.isEmpty());
+  }
+
+  @Test
+  void store_ShouldNotWriteIfDisabled() throws Exception {
+    beliefPointCache.setDirectory(null);
+    beliefPointCache.store(decPOMDP, "fingerprint", Map.of());
+    try (var files = Files.list(directory)) {
+      assertEquals(0, files.count());
+    }
+  }
+}
@@ -5,8 +5,9 @@ import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.DecPOMDPWithSt
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
-import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 class BeliefPointGeneratorTest {
 
@@ -85,4 +86,107 @@ class BeliefPointGeneratorTest {
       beliefPointGenerator.generateBeliefPoints();
     });
   }
-}
\ No newline at end of file
+
+  @Test
+  void generateBeliefPoints_ShouldGenerateSameBeliefPointsForSameSeed() {
+    var seededConfig = HeuristicPolicyIterationConfig.getDefault()
+      .withBeliefPointGenerationSeed(42)
+      .withNumberOfBeliefPoints(20);
+    var expected = new BeliefPointGenerator(seededConfig)
+      .setDecPOMDP(decPOMDP)
+      .setDesiredNumberOfBeliefPoints(20)
+      .setPolicies(null)
+      .generateBeliefPoints();
+    var actual = new BeliefPointGenerator(seededConfig)
+      .setDecPOMDP(decPOMDP)
+      .setDesiredNumberOfBeliefPoints(20)
+      .setPolicies(null)
+      .generateBeliefPoints();
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  void setSeed_ShouldGenerateSameBeliefPointsAsConfiguredSeed() {
+    var seededConfig = HeuristicPolicyIterationConfig.getDefault()
+      .withBeliefPointGenerationSeed(42)
+      .withNumberOfBeliefPoints(20);
+    var expected = new BeliefPointGenerator(seededConfig)
+      .setDecPOMDP(decPOMDP)
+      .setDesiredNumberOfBeliefPoints(20)
+      .setPolicies(null)
+      .generateBeliefPoints();
+    var actual = new BeliefPointGenerator(seededConfig.withBeliefPointGenerationSeed(7))
+      .setSeed(42)
+      .setDecPOMDP(decPOMDP)
+      .setDesiredNumberOfBeliefPoints(20)
+      .setPolicies(null)
+      .generateBeliefPoints();
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  void generateBeliefPoints_ShouldGenerateSameBeliefPointsIndependentOfThreadCount() throws Exception {
+    var seededConfig = HeuristicPolicyIterationConfig.getDefault()
+      .withBeliefPointGenerationSeed(42)
+      .withNumberOfBeliefPoints(20);
+    var expected = new BeliefPointGenerator(seededConfig)
+      .setDecPOMDP(decPOMDP)
+      .setDesiredNumberOfBeliefPoints(20)
+      .setPolicies(null)
+      .generateBeliefPoints();
+    var pool = new ForkJoinPool(1);
+    try {
+      var actual = pool.submit(() -> new BeliefPointGenerator(seededConfig)
+        .setDecPOMDP(decPOMDP)
+        .setDesiredNumberOfBeliefPoints(20)
+        .setPolicies(null)
+        .generateBeliefPoints()
+      ).get();
+      assertEquals(expected, actual);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  void generateBeliefPoints_ShouldSampleDesiredNumberOfBeliefPointsByRollouts() {
+    var rolloutConfig = HeuristicPolicyIterationConfig.getDefault()
+      .withBeliefPointGenerationSeed(42)
+      .withNumberOfBeliefPoints(20)
+      .withBeliefPointRolloutSampling(true);
+    var beliefPoints = new BeliefPointGenerator(rolloutConfig)
+      .setDecPOMDP(decPOMDP)
+      .setDesiredNumberOfBeliefPoints(20)
+      .setPolicies(null)
+      .generateBeliefPoints();
+    for (var agent : decPOMDP.getAgents()) {
+      assertEquals(20, beliefPoints.get(agent).size());
+      assertTrue(beliefPoints.get(agent).contains(decPOMDP.getInitialBeliefState()));
+    }
+  }
+
+  @Test
+  void generateBeliefPoints_ShouldSampleSameBeliefPointsByRolloutsIndependentOfThreadCount() throws Exception {
+    var rolloutConfig = HeuristicPolicyIterationConfig.getDefault()
+      .withBeliefPointGenerationSeed(42)
+      .withNumberOfBeliefPoints(20)
+      .withBeliefPointRolloutSampling(true);
+    var expected = new BeliefPointGenerator(rolloutConfig)
+      .setDecPOMDP(decPOMDP)
+      .setDesiredNumberOfBeliefPoints(20)
+      .setPolicies(null)
+      .generateBeliefPoints();
+    var pool = new ForkJoinPool(1);
+    try {
+      var actual = pool.submit(() -> new BeliefPointGenerator(rolloutConfig)
+        .setDecPOMDP(decPOMDP)
+        .setDesiredNumberOfBeliefPoints(20)
+        .setPolicies(null)
+        .generateBeliefPoints()
+      ).get();
+      assertEquals(expected, actual);
+    } finally {
+      pool.shutdown();
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package de.jlandsmannn.DecPOMDPSolver.policyIteration;
+
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.State;
+import de.jlandsmannn.DecPOMDPSolver.domain.utility.Distribution;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BeliefPointIndexTest {
+
+  private List<State> states;
+  private BeliefPointIndex beliefPointIndex;
+
+  @BeforeEach
+  void setUp() {
+    states = State.listOf("S1", "S2", "S3");
+    beliefPointIndex = new BeliefPointIndex(states, 0.1);
+  }
+
+  @Test
+  void constructor_ShouldThrowIfThresholdIsNegative() {
+    assertThrows(IllegalArgumentException.class, () -> new BeliefPointIndex(states, -1));
+  }
+
+  @Test
+  void addIfDiverse_ShouldAddFirstBeliefPoint() {
+    var beliefPoint = Distribution.createUniformDistribution(states);
+    assertTrue(beliefPointIndex.addIfDiverse(beliefPoint));
+    assertEquals(1, beliefPointIndex.size());
+    assertTrue(beliefPointIndex.getBeliefPoints().contains(beliefPoint));
+  }
+
+  @Test
+  void addIfDiverse_ShouldNotAddCloseBeliefPoint() {
+    beliefPointIndex.addIfDiverse(Distribution.of(Map.of(states.get(0), 0.5, states.get(1), 0.5)));
+    var closeBeliefPoint = Distribution.of(Map.of(states.get(0), 0.45, states.get(1), 0.55));
+    assertFalse(beliefPointIndex.addIfDiverse(closeBeliefPoint));
+    assertEquals(1, beliefPointIndex.size());
+  }
+
+  @Test
+  void addIfDiverse_ShouldAddDistantBeliefPoint() {
+    beliefPointIndex.addIfDiverse(Distribution.of(Map.of(states.get(0), 0.5, states.get(1), 0.5)));
+    var distantBeliefPoint = Distribution.of(Map.of(states.get(0), 0.3, states.get(1), 0.7));
+    assertTrue(beliefPointIndex.addIfDiverse(distantBeliefPoint));
+    assertEquals(2, beliefPointIndex.size());
+  }
+
+  @Test
+  void addIfDiverse_ShouldThrowIfBeliefPointContainsUnknownState() {
+    var beliefPoint = Distribution.createSingleEntryDistribution(State.from("Unknown"));
+    assertThrows(IllegalArgumentException.class, () -> beliefPointIndex.addIfDiverse(beliefPoint));
+  }
+
+  @Test
+  void addIfDiverse_ShouldMatchPairwiseComparison() {
+    var random = new Random(42);
+    var manyStates = new ArrayList<State>();
+    for (int i = 0; i < 20; i++) manyStates.add(State.from("S" + i));
+    var index = new BeliefPointIndex(manyStates, 0.05);
+    var accepted = new ArrayList<Distribution<State>>();
+    for (int i = 0; i < 2000; i++) {
+      var beliefPoint = Distribution.createRandomDistribution(manyStates.subList(0, 1 + random.nextInt(4)), random);
+      var expected = accepted.stream().noneMatch(point -> point.closeTo(beliefPoint, 0.05) && beliefPoint.closeTo(point, 0.05));
+      assertEquals(expected, index.addIfDiverse(beliefPoint));
+      if (expected) accepted.add(beliefPoint);
+    }
+    assertEquals(accepted.size(), index.size());
+  }
+}
@@ -4,6 +4,7 @@ import de.jlandsmannn.DecPOMDPSolver.DecPOMDPGenerator;
 import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.IAgent;
 import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.State;
 import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.DecPOMDPWithStateController;
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.primitives.Node;
 import de.jlandsmannn.DecPOMDPSolver.domain.utility.Distribution;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,8 +14,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
-import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.spy;
 
 class DominatingNodesRetainerTest {
@@ -76,6 +76,89 @@ class DominatingNodesRetainerTest {
     );
   }
 
+  @Test
+  void retainDominatingNodes_ShouldRetainBestNodeOfEachBeliefPoint() {
+    setRandomValues();
+    var expectedNodes = new HashMap<IAgent, Set<Node>>();
+    for (var agent : decPOMDP.getAgents()) {
+      var agentIndex = decPOMDP.getAgents().indexOf(agent);
+      var nodes = new HashSet<Node>();
+      for (var beliefState : beliefPoints.get(agent)) {
+        nodes.add(decPOMDP.getBestNodeCombinationFor(beliefState).get(agentIndex));
+      }
+      expectedNodes.put(agent, nodes);
+    }
+
+    dominatingNodesRetainer.setDecPOMDP(decPOMDP).setBeliefPoints(beliefPoints);
+    dominatingNodesRetainer.retainDominatingNodes();
+
+    for (var agent : decPOMDP.getAgents()) {
+      var expected = expectedNodes.get(agent);
+      assertEquals(expected, agent.getInitialControllerNodes());
+      assertTrue(agent.getControllerNodes().containsAll(expected));
+    }
+  }
+
+  @Test
+  void getBestNodeCombinationsFor_ShouldMatchBestNodeCombinationOfEachBeliefPoint() {
+    setRandomValues();
+    var beliefStates = beliefPoints.values().stream().flatMap(Set::stream).toList();
+    var expected = beliefStates.stream().map(decPOMDP::getBestNodeCombinationFor).toList();
+    var actual = decPOMDP.getBestNodeCombinationsFor(beliefStates);
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  void retainDominatingNodes_ShouldRetainBestNodesOfEachBeliefPoint() {
+    setRandomValues();
+    var beliefStates = decPOMDP.getAgents().stream().flatMap(agent -> beliefPoints.get(agent).stream()).toList();
+    var expectedCombinations = decPOMDP.getBestNodeCombinationsFor(beliefStates, 3, 0);
+    var singleBestCombinations = decPOMDP.getBestNodeCombinationsFor(beliefStates);
+
+    dominatingNodesRetainer.setDecPOMDP(decPOMDP).setBeliefPoints(beliefPoints).setNumberOfRetainedCombinations(3);
+    dominatingNodesRetainer.retainDominatingNodes();
+
+    for (int i = 0; i < beliefStates.size(); i++) {
+      assertEquals(3, expectedCombinations.get(i).size());
+      assertEquals(singleBestCombinations.get(i), expectedCombinations.get(i).get(0));
+    }
+    for (var agent : decPOMDP.getAgents()) {
+      var agentIndex = decPOMDP.getAgents().indexOf(agent);
+      var offset = 0;
+      for (var other : decPOMDP.getAgents()) {
+        if (other == agent) break;
+        offset += beliefPoints.get(other).size();
+      }
+      var expected = new HashSet<Node>();
+      for (int i = offset; i < offset + beliefPoints.get(agent).size(); i++) {
+        expectedCombinations.get(i).forEach(nodeCombination -> expected.add(nodeCombination.get(agentIndex)));
+      }
+      assertEquals(expected, agent.getInitialControllerNodes());
+    }
+  }
+
+  @Test
+  void setNumberOfRetainedCombinations_ShouldThrowIfNotPositive() {
+    assertThrows(IllegalArgumentException.class, () ->
+      dominatingNodesRetainer.setNumberOfRetainedCombinations(0)
+    );
+  }
+
+  @Test
+  void setRetentionEpsilon_ShouldThrowIfNegative() {
+    assertThrows(IllegalArgumentException.class, () ->
+      dominatingNodesRetainer.setRetentionEpsilon(-1)
+    );
+  }
+
+  private void setRandomValues() {
+    for (var state : decPOMDP.getStates()) {
+      for (var nodeVector : decPOMDP.getNodeCombinations()) {
+        decPOMDP.setValue(state, nodeVector, Math.random());
+      }
+    }
+  }
+
   private Map<IAgent, Set<Distribution<State>>> generateRandomBeliefPoints(int count) {
     Map<IAgent, Set<Distribution<State>>> beliefPoints = new HashMap<>();
     for (var agent : decPOMDP.getAgents()) {
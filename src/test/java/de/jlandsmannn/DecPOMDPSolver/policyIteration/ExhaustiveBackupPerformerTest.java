@@ -2,6 +2,7 @@ package de.jlandsmannn.DecPOMDPSolver.policyIteration;
 
 import de.jlandsmannn.DecPOMDPSolver.DecPOMDPGenerator;
 import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.IAgent;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.Action;
 import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.State;
 import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.DecPOMDPWithStateController;
 import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.IAgentWithStateController;
@@ -18,6 +19,7 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 
@@ -162,6 +164,77 @@ class ExhaustiveBackupPerformerTest {
     }
   }
 
+  @Test
+  void performExhaustiveBackupForAgent_ShouldSpillIfThresholdIsExceeded() {
+    var agent = decPOMDP.getAgents().get(0);
+    exhaustiveBackupPerformer
+      .setDecPOMDP(decPOMDP)
+      .setBeliefPoints(beliefPoints)
+      .setSpillThreshold(1)
+      .performExhaustiveBackupForAgent(agent);
+
+    verify(exhaustiveBackupPerformer).performSpilledBackupForAgent(agent);
+  }
+
+  @Test
+  void performExhaustiveBackupForAgent_ShouldNotSpillIfThresholdIsNotExceeded() {
+    var agent = decPOMDP.getAgents().get(0);
+    exhaustiveBackupPerformer
+      .setDecPOMDP(decPOMDP)
+      .setBeliefPoints(beliefPoints)
+      .setSpillThreshold(Long.MAX_VALUE)
+      .performExhaustiveBackupForAgent(agent);
+
+    verify(exhaustiveBackupPerformer, never()).performSpilledBackupForAgent(agent);
+  }
+
+  @Test
+  void performSpilledBackupForAgent_ShouldAddAtMostOneNodePerBeliefPointAndNodeCombination() {
+    var agent = decPOMDP.getAgents().get(0);
+    var otherAgent = decPOMDP.getAgents().get(1);
+    var maxNodeCount = beliefPoints.get(agent).size() * otherAgent.getControllerNodes().size();
+    var originalNodes = List.copyOf(agent.getControllerNodes());
+
+    exhaustiveBackupPerformer
+      .setDecPOMDP(decPOMDP)
+      .setBeliefPoints(beliefPoints)
+      .setSpillThreshold(1)
+      .performExhaustiveBackupForAgent(agent);
+    var addedNodes = new ArrayList<>(agent.getControllerNodes());
+    addedNodes.removeAll(originalNodes);
+
+    assertTrue(addedNodes.size() <= maxNodeCount);
+    for (var addedNode : addedNodes) {
+      assertEquals(1, agent.getSelectableActions(addedNode).size());
+    }
+  }
+
+  @Test
+  void performSpilledBackupForAgent_ShouldMatchInMemoryBackup() {
+    // values below the lowest possible value with distinct noise, so candidates improve on the original nodes without ties
+    var minimumReward = decPOMDP.getStates().stream()
+      .flatMap(state -> decPOMDP.getActionVectors().stream().map(actionVector -> decPOMDP.getReward(state, actionVector)))
+      .mapToDouble(Double::doubleValue)
+      .min()
+      .orElseThrow();
+    var lowerBound = minimumReward / (1 - decPOMDP.getDiscountFactor()) - 1;
+    var random = new Random(42);
+    for (var nodeCombination : decPOMDP.getNodeCombinations()) {
+      for (var state : decPOMDP.getStates()) {
+        decPOMDP.setValue(state, nodeCombination, lowerBound + random.nextDouble());
+      }
+    }
+    for (int agentIndex = 0; agentIndex < decPOMDP.getAgentCount(); agentIndex++) {
+      assertSpilledBackupMatchesInMemoryBackup(agentIndex);
+    }
+  }
+
+  @Test
+  void setSpillThreshold_ShouldThrowIfNegative() {
+    assertThrows(IllegalArgumentException.class, () ->
+      exhaustiveBackupPerformer.setSpillThreshold(-1));
+  }
+
   @Test
   void updateValueFunction_ShouldUpdateAllMissingValuesOfValueFunctionForBeliefPoints() {
     var agent = decPOMDP.getAgents().get(0);
@@ -197,6 +270,114 @@ class ExhaustiveBackupPerformerTest {
     return addedNodes;
   }
 
+  /**
+   * Performs the spilled and the in-memory backup for the agent on copies of the DecPOMDP
+   * and asserts, that the values of the survivors are the ones of the value function after the in-memory backup,
+   * and that the survivors are the best candidates per belief point and node of the other agent,
+   * which contain all candidates the {@link DominatingNodesRetainer} keeps.
+   */
+  private void assertSpilledBackupMatchesInMemoryBackup(int agentIndex) {
+    var spilledDecPOMDP = copyWithValueFunction(decPOMDP);
+    var inMemoryDecPOMDP = copyWithValueFunction(decPOMDP);
+    var spilledAgent = spilledDecPOMDP.getAgents().get(agentIndex);
+    var inMemoryAgent = inMemoryDecPOMDP.getAgents().get(agentIndex);
+    var originalNodes = List.copyOf(spilledAgent.getControllerNodes());
+    var otherNodes = List.copyOf(spilledDecPOMDP.getAgents().get(1 - agentIndex).getControllerNodes());
+
+    var spilledBackupPerformer = new ExhaustiveBackupPerformer()
+      .setDecPOMDP(spilledDecPOMDP)
+      .setBeliefPoints(beliefPoints)
+      .setSpillThreshold(1);
+    spilledBackupPerformer.performExhaustiveBackupForAgent(spilledAgent);
+    var inMemoryBackupPerformer = new ExhaustiveBackupPerformer()
+      .setDecPOMDP(inMemoryDecPOMDP)
+      .setBeliefPoints(beliefPoints);
+    inMemoryBackupPerformer.performExhaustiveBackupForAgent(inMemoryAgent);
+    inMemoryBackupPerformer.updateValueFunction();
+
+    var candidates = getAddedNodes(inMemoryAgent, originalNodes).stream()
+      .collect(Collectors.toMap(node -> getCandidateKey(inMemoryAgent, node), node -> node));
+    var survivors = getAddedNodes(spilledAgent, originalNodes).stream()
+      .map(node -> getCandidateKey(spilledAgent, node))
+      .collect(Collectors.toSet());
+    assertFalse(survivors.isEmpty());
+
+    for (var survivor : survivors) {
+      var action = (Action) survivor.get(0);
+      var followNodes = survivor.subList(1, survivor.size()).stream().map(Node.class::cast).toList();
+      for (var otherNode : otherNodes) {
+        var nodeCombination = withNode(agentIndex, candidates.get(survivor), otherNode);
+        for (var state : decPOMDP.getStates()) {
+          var expected = inMemoryDecPOMDP.getValue(state, nodeCombination);
+          var actual = spilledBackupPerformer.calculateCandidateValue(agentIndex, action, followNodes, state, nodeCombination);
+          assertEquals(expected, actual, 1e-9);
+        }
+      }
+    }
+
+    var expectedSurvivors = new HashSet<List<Object>>();
+    for (var beliefPoint : beliefPoints.get(inMemoryAgent)) {
+      for (var otherNode : otherNodes) {
+        var bestValue = originalNodes.stream()
+          .mapToDouble(node -> inMemoryDecPOMDP.getValue(beliefPoint, withNode(agentIndex, node, otherNode)))
+          .max()
+          .orElseThrow();
+        List<Object> bestCandidate = null;
+        for (var candidate : candidates.entrySet()) {
+          var value = inMemoryDecPOMDP.getValue(beliefPoint, withNode(agentIndex, candidate.getValue(), otherNode));
+          if (value <= bestValue) continue;
+          bestValue = value;
+          bestCandidate = candidate.getKey();
+        }
+        if (bestCandidate != null) expectedSurvivors.add(bestCandidate);
+      }
+    }
+    assertEquals(expectedSurvivors, survivors);
+
+    new DominatingNodesRetainer()
+      .setDecPOMDP(inMemoryDecPOMDP)
+      .setBeliefPoints(beliefPoints)
+      .retainDominatingNodes();
+    var retainedCandidates = getAddedNodes(inMemoryAgent, originalNodes).stream()
+      .map(node -> getCandidateKey(inMemoryAgent, node))
+      .toList();
+    assertTrue(survivors.containsAll(retainedCandidates));
+  }
+
+  private static DecPOMDPWithStateController copyWithValueFunction(DecPOMDPWithStateController decPOMDP) {
+    var copy = HeuristicPolicyIterationPortfolio.copyDecPOMDP(decPOMDP);
+    for (var nodeCombination : decPOMDP.getNodeCombinations()) {
+      for (var state : decPOMDP.getStates()) {
+        copy.setValue(state, nodeCombination, decPOMDP.getValue(state, nodeCombination));
+      }
+    }
+    return copy;
+  }
+
+  private static List<Node> getAddedNodes(IAgentWithStateController agent, List<Node> originalNodes) {
+    var addedNodes = new ArrayList<>(agent.getControllerNodes());
+    addedNodes.removeAll(originalNodes);
+    return addedNodes;
+  }
+
+  /**
+   * Identifies a candidate by its action and follow node per observation, since node names depend on the order of creation.
+   */
+  private static List<Object> getCandidateKey(IAgentWithStateController agent, Node node) {
+    var action = agent.getSelectableActions(node).get(0);
+    var key = new ArrayList<Object>();
+    key.add(action);
+    for (var observation : agent.getObservations()) {
+      var transition = agent.getController().getTransition(node, action, observation).orElseThrow();
+      key.add(transition.keySet().iterator().next());
+    }
+    return key;
+  }
+
+  private static Vector<Node> withNode(int agentIndex, Node node, Node otherNode) {
+    return agentIndex == 0 ? Vector.of(node, otherNode) : Vector.of(otherNode, node);
+  }
+
   private List<Vector<Node>> getNodeCombinationsForAgent(IAgentWithStateController agent, List<Node> addedNodes) {
     return decPOMDP.getAgents().stream()
       .map(a -> {
@@ -0,0 +1,186 @@
+package de.jlandsmannn.DecPOMDPSolver.policyIteration;
+
+import de.jlandsmannn.DecPOMDPSolver.DecPOMDPGenerator;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.IAgent;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.State;
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.DecPOMDPWithStateController;
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.FiniteStateController;
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.IAgentWithStateController;
+import de.jlandsmannn.DecPOMDPSolver.domain.utility.Distribution;
+import de.jlandsmannn.DecPOMDPSolver.equationSystems.OJAEquationSystemSolver;
+import de.jlandsmannn.DecPOMDPSolver.equationSystems.OJAValueFunctionEvaluater;
+import de.jlandsmannn.DecPOMDPSolver.equationSystems.OJAValueFunctionTransformer;
+import de.jlandsmannn.DecPOMDPSolver.linearPrograms.DenseCombinatorialNodePruner;
+import de.jlandsmannn.DecPOMDPSolver.linearPrograms.DenseCombinatorialNodePruningTransformer;
+import de.jlandsmannn.DecPOMDPSolver.linearPrograms.DenseSimplexLinearProgramSolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeuristicPolicyIterationPortfolioTest {
+
+  private DecPOMDPWithStateController decPOMDP;
+  private HeuristicPolicyIterationPortfolio portfolio;
+
+  @BeforeEach
+  void setUp() {
+    decPOMDP = DecPOMDPGenerator.getDecTigerPOMDPWithLargeFSC();
+    portfolio = new HeuristicPolicyIterationPortfolio(null);
+  }
+
+  @Test
+  void copyDecPOMDP_ShouldShareModelAndCopyControllers() {
+    var copy = HeuristicPolicyIterationPortfolio.copyDecPOMDP(decPOMDP);
+
+    assertSame(decPOMDP.getTransitionFunction(), copy.getTransitionFunction());
+    assertSame(decPOMDP.getRewardFunction(), copy.getRewardFunction());
+    assertSame(decPOMDP.getObservationFunction(), copy.getObservationFunction());
+    for (int i = 0; i < decPOMDP.getAgentCount(); i++) {
+      var expected = decPOMDP.getAgents().get(i);
+      var actual = copy.getAgents().get(i);
+      assertEquals(expected, actual);
+      assertEquals(expected.getController(), actual.getController());
+      assertNotSame(expected.getController(), actual.getController());
+    }
+  }
+
+  @Test
+  void copyDecPOMDP_ShouldNotBeAffectedByChangingOriginalController() {
+    var copy = HeuristicPolicyIterationPortfolio.copyDecPOMDP(decPOMDP);
+    var agent = decPOMDP.getAgents().get(0);
+    var nodes = agent.getControllerNodes();
+    agent.getController().pruneNode(nodes.get(0), nodes.get(1));
+
+    assertTrue(copy.getAgents().get(0).getControllerNodes().contains(nodes.get(0)));
+  }
+
+  @Test
+  void setNumberOfInstances_ShouldThrowIfNotPositive() {
+    assertThrows(IllegalArgumentException.class, () -> portfolio.setNumberOfInstances(0));
+  }
+
+  @Test
+  void solve_ShouldThrowIfDecPOMDPIsNotSet() {
+    portfolio.setConfig(HeuristicPolicyIterationConfig.getDefault());
+    assertThrows(IllegalStateException.class, () -> portfolio.solve());
+  }
+
+  @Test
+  void solve_ShouldUseDistinctSeedsAndApplyBestInstance() {
+    var decTiger = DecPOMDPGenerator.getDecTigerPOMDP();
+    var config = getPortfolioConfig();
+    var recordingPortfolio = new RecordingPortfolio();
+    var value = recordingPortfolio
+      .setDecPOMDP(decTiger)
+      .setConfig(config)
+      .setNumberOfInstances(2)
+      .solve();
+
+    var expectedBeliefPoints = Set.of(
+      generateBeliefPoints(decTiger, config.withBeliefPointGenerationSeed(42)),
+      generateBeliefPoints(decTiger, config.withBeliefPointGenerationSeed(43))
+    );
+    var actualBeliefPoints = recordingPortfolio.solvers.stream()
+      .map(solver -> solver.solvedBeliefPoints)
+      .collect(Collectors.toSet());
+    assertEquals(2, expectedBeliefPoints.size());
+    assertEquals(expectedBeliefPoints, actualBeliefPoints);
+
+    var bestSolver = recordingPortfolio.solvers.stream()
+      .max((a, b) -> Double.compare(a.solvedValue, b.solvedValue))
+      .orElseThrow();
+    assertEquals(bestSolver.solvedValue, value, 1e-9);
+    assertEquals(bestSolver.solvedValue, decTiger.getValue(), 1e-9);
+    for (int i = 0; i < decTiger.getAgentCount(); i++) {
+      assertSame(bestSolver.solvedControllers.get(i), decTiger.getAgents().get(i).getController());
+    }
+    recordingPortfolio.solvers.forEach(solver -> assertFalse(solver.stopRequested));
+  }
+
+  @Test
+  void solve_ShouldRequestStopOfOtherInstancesOnFirstResult() {
+    var recordingPortfolio = new RecordingPortfolio();
+    recordingPortfolio
+      .setDecPOMDP(DecPOMDPGenerator.getDecTigerPOMDP())
+      .setConfig(getPortfolioConfig())
+      .setNumberOfInstances(2)
+      .setStopOnFirstResult(true)
+      .solve();
+
+    assertEquals(2, recordingPortfolio.solvers.size());
+    recordingPortfolio.solvers.forEach(solver -> assertTrue(solver.stopRequested));
+  }
+
+  private static HeuristicPolicyIterationConfig getPortfolioConfig() {
+    return HeuristicPolicyIterationConfig.getDefault()
+      .withBeliefPointGenerationSeed(42)
+      .withBeliefPointDistanceThreshold(0.1)
+      .withMaxIterations(1);
+  }
+
+  private static Map<IAgent, Set<Distribution<State>>> generateBeliefPoints(DecPOMDPWithStateController decPOMDP,
+                                                                           HeuristicPolicyIterationConfig config) {
+    return new BeliefPointGenerator(config)
+      .setDecPOMDP(decPOMDP)
+      .setDesiredNumberOfBeliefPoints(config.beliefPointDesiredNumber())
+      .setPolicies()
+      .generateBeliefPoints();
+  }
+
+  /**
+   * A portfolio recording its solvers.
+   * The solvers are created with the default config, so only the config of the portfolio
+   * may lead to the settings used while solving.
+   */
+  private static class RecordingPortfolio extends HeuristicPolicyIterationPortfolio {
+    private final List<RecordingSolver> solvers = new CopyOnWriteArrayList<>();
+
+    RecordingPortfolio() {
+      super(null);
+    }
+
+    @Override
+    protected HeuristicPolicyIterationSolver createSolver() {
+      var solver = new RecordingSolver();
+      solvers.add(solver);
+      return solver;
+    }
+  }
+
+  /**
+   * A solver recording the value, controllers and belief points of its solving.
+   */
+  private static class RecordingSolver extends HeuristicPolicyIterationSolver {
+    private volatile double solvedValue;
+    private volatile List<FiniteStateController> solvedControllers;
+    private volatile Map<IAgent, Set<Distribution<State>>> solvedBeliefPoints;
+
+    RecordingSolver() {
+      super(
+        new BeliefPointGenerator(HeuristicPolicyIterationConfig.getDefault()),
+        new BeliefPointCache(),
+        new PolicyIterationCheckpointStore(),
+        new OJAValueFunctionEvaluater(new OJAValueFunctionTransformer(), new OJAEquationSystemSolver()),
+        new ExhaustiveBackupPerformer(),
+        new DominatingNodesRetainer(),
+        new DenseCombinatorialNodePruner(new DenseCombinatorialNodePruningTransformer(), new DenseSimplexLinearProgramSolver()),
+        new MemoryGovernor()
+      );
+    }
+
+    @Override
+    public double solve() {
+      solvedValue = super.solve();
+      solvedControllers = decPOMDP.getAgents().stream().map(IAgentWithStateController::getController).toList();
+      solvedBeliefPoints = beliefPoints;
+      return solvedValue;
+    }
+  }
+}
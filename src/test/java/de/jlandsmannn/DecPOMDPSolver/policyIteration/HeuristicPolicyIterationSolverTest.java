@@ -0,0 +1,105 @@
+package de.jlandsmannn.DecPOMDPSolver.policyIteration;
+
+import de.jlandsmannn.DecPOMDPSolver.DecPOMDPGenerator;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.IAgent;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.State;
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.DecPOMDPWithStateController;
+import de.jlandsmannn.DecPOMDPSolver.domain.utility.Distribution;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeuristicPolicyIterationSolverTest {
+
+  private HeuristicPolicyIterationConfig config;
+  private DecPOMDPWithStateController decPOMDP;
+  private BeliefPointCache beliefPointCache;
+  private HeuristicPolicyIterationSolver solver;
+
+  @BeforeEach
+  void setUp() {
+    config = HeuristicPolicyIterationConfig.getDefault()
+      .withBeliefPointGenerationSeed(42)
+      .withNumberOfBeliefPoints(20);
+    decPOMDP = DecPOMDPGenerator.getDecTigerPOMDP();
+    beliefPointCache = new BeliefPointCache();
+    solver = new HeuristicPolicyIterationSolver(
+      new BeliefPointGenerator(HeuristicPolicyIterationConfig.getDefault()),
+      beliefPointCache,
+      null,
+      null,
+      null,
+      null,
+      null,
+      new MemoryGovernor()
+    ).setDecPOMDP(decPOMDP);
+  }
+
+  @Test
+  void generateBeliefPoints_ShouldUseDistanceThresholdOfConfigForPointsAndFingerprint() {
+    var otherConfig = config.withBeliefPointDistanceThreshold(0.2);
+    var expected = new BeliefPointGenerator(otherConfig)
+      .setDecPOMDP(decPOMDP)
+      .setDesiredNumberOfBeliefPoints(otherConfig.beliefPointDesiredNumber())
+      .setPolicies()
+      .generateBeliefPoints();
+
+    var defaultBeliefPoints = generateBeliefPoints(config);
+    var actual = generateBeliefPoints(otherConfig);
+
+    assertEquals(expected, actual);
+    assertNotEquals(defaultBeliefPoints, actual);
+    assertNotEquals(
+      beliefPointCache.createFingerprint(decPOMDP, config),
+      beliefPointCache.createFingerprint(decPOMDP, otherConfig)
+    );
+  }
+
+  @Test
+  void generateBeliefPoints_ShouldUseRolloutSamplingOfConfig() {
+    var rolloutConfig = config.withBeliefPointRolloutSampling(true);
+    var expected = new BeliefPointGenerator(rolloutConfig)
+      .setDecPOMDP(decPOMDP)
+      .setDesiredNumberOfBeliefPoints(rolloutConfig.beliefPointDesiredNumber())
+      .setPolicies()
+      .generateBeliefPoints();
+
+    var defaultBeliefPoints = generateBeliefPoints(config);
+    var actual = generateBeliefPoints(rolloutConfig);
+
+    assertEquals(expected, actual);
+    assertNotEquals(defaultBeliefPoints, actual);
+  }
+
+  @Test
+  void saveBestControllers_ShouldOnlySnapshotIfInterruptible() {
+    for (var nodeCombination : decPOMDP.getNodeCombinations()) {
+      for (var state : decPOMDP.getStates()) {
+        decPOMDP.setValue(state, nodeCombination, 1);
+      }
+    }
+    solver.setConfig(config).resetSolveState();
+
+    solver.saveBestControllers();
+    assertTrue(solver.bestControllers.isEmpty());
+    assertEquals(0, solver.bestControllersBytes);
+
+    solver.setStoppable(true).saveBestControllers();
+    assertEquals(decPOMDP.getAgentCount(), solver.bestControllers.size());
+    assertTrue(solver.bestControllersBytes > 0);
+    for (int i = 0; i < decPOMDP.getAgentCount(); i++) {
+      var controller = decPOMDP.getAgents().get(i).getController();
+      assertEquals(controller, solver.bestControllers.get(i));
+      assertNotSame(controller, solver.bestControllers.get(i));
+    }
+  }
+
+  private Map<IAgent, Set<Distribution<State>>> generateBeliefPoints(HeuristicPolicyIterationConfig config) {
+    solver.setConfig(config).generateBeliefPoints();
+    return solver.beliefPoints;
+  }
+}
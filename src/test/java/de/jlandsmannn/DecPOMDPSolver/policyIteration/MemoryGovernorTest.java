@@ -0,0 +1,120 @@
+package de.jlandsmannn.DecPOMDPSolver.policyIteration;
+
+import de.jlandsmannn.DecPOMDPSolver.DecPOMDPGenerator;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.IAgent;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.State;
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.DecPOMDPWithStateController;
+import de.jlandsmannn.DecPOMDPSolver.domain.utility.Distribution;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryGovernorTest {
+
+  private DecPOMDPWithStateController decPOMDP;
+  private MemoryGovernor memoryGovernor;
+
+  @BeforeEach
+  void setUp() {
+    decPOMDP = DecPOMDPGenerator.getDecTigerPOMDPWithLargeFSC();
+    Map<IAgent, Set<Distribution<State>>> beliefPoints = new HashMap<>();
+    for (var agent : decPOMDP.getAgents()) {
+      beliefPoints.put(agent, Set.of(decPOMDP.getInitialBeliefState()));
+    }
+    memoryGovernor = new MemoryGovernor()
+      .setDecPOMDP(decPOMDP)
+      .setBeliefPoints(beliefPoints);
+  }
+
+  @Test
+  void decideSpillThreshold_ShouldReturnConfiguredThresholdIfDisabled() {
+    var spillThreshold = memoryGovernor.setMemoryBudget(-1).decideSpillThreshold(42);
+
+    assertEquals(42, spillThreshold);
+    assertNull(memoryGovernor.getLastDecision());
+    assertEquals(0, memoryGovernor.getNumberOfSwitchedIterations());
+  }
+
+  @Test
+  void decideSpillThreshold_ShouldBeDisabledByDefault() {
+    var spillThreshold = memoryGovernor.decideSpillThreshold(42);
+
+    assertFalse(memoryGovernor.isEnabled());
+    assertEquals(42, spillThreshold);
+    assertNull(memoryGovernor.getLastDecision());
+  }
+
+  @Test
+  void decideSpillThreshold_ShouldProjectValueFunctionAndEvaluationMatrix() {
+    memoryGovernor.setMemoryBudget(Long.MAX_VALUE).decideSpillThreshold(0);
+
+    var estimate = new ProblemSizeEstimator().estimateWithoutSparsity(decPOMDP);
+    var expectedBytes = estimate.valueFunctionBytes() + estimate.evaluationMatrixBytes();
+    assertEquals(expectedBytes, memoryGovernor.getLastDecision().projectedBytes(), 1e-6);
+  }
+
+  @Test
+  void decideSpillThreshold_ShouldKeepExhaustiveBackupIfProjectionFitsIntoBudget() {
+    var spillThreshold = memoryGovernor.setMemoryBudget(Long.MAX_VALUE).decideSpillThreshold(0);
+
+    assertEquals(0, spillThreshold);
+    assertEquals(MemoryGovernor.Strategy.EXHAUSTIVE, memoryGovernor.getLastDecision().strategy());
+    assertEquals(0, memoryGovernor.getNumberOfSwitchedIterations());
+  }
+
+  @Test
+  void decideSpillThreshold_ShouldSwitchToPointBasedBackupIfProjectionExceedsBudget() {
+    var spillThreshold = memoryGovernor.setMemoryBudget(1).decideSpillThreshold(0);
+
+    assertTrue(spillThreshold > 0);
+    for (var agent : decPOMDP.getAgents()) {
+      assertTrue(ExhaustiveBackupPerformer.getNumberOfCandidates(agent) > spillThreshold);
+    }
+    var decision = memoryGovernor.getLastDecision();
+    assertEquals(MemoryGovernor.Strategy.POINT_BASED, decision.strategy());
+    assertEquals(spillThreshold, decision.spillThreshold());
+    assertTrue(decision.governedBytes() < decision.projectedBytes());
+    assertEquals(1, memoryGovernor.getNumberOfSwitchedIterations());
+  }
+
+  @Test
+  void decideSpillThreshold_ShouldKeepLowerConfiguredThreshold() {
+    var spillThreshold = memoryGovernor.setMemoryBudget(1).decideSpillThreshold(1);
+
+    assertEquals(1, spillThreshold);
+    assertEquals(MemoryGovernor.Strategy.POINT_BASED, memoryGovernor.getLastDecision().strategy());
+  }
+
+  @Test
+  void decideSpillThreshold_ShouldSubtractReservedBytesFromBudget() {
+    memoryGovernor.setMemoryBudget(Long.MAX_VALUE).decideSpillThreshold(0);
+    var budget = (long) Math.ceil(memoryGovernor.getLastDecision().projectedBytes());
+
+    memoryGovernor.setMemoryBudget(budget).decideSpillThreshold(0);
+    assertEquals(MemoryGovernor.Strategy.EXHAUSTIVE, memoryGovernor.getLastDecision().strategy());
+
+    memoryGovernor.setReservedBytes(1024).decideSpillThreshold(0);
+    var decision = memoryGovernor.getLastDecision();
+    assertEquals(MemoryGovernor.Strategy.POINT_BASED, decision.strategy());
+    assertEquals(budget - 1024, decision.budget());
+  }
+
+  @Test
+  void reset_ShouldClearDecisionsOfPreviousSolving() {
+    memoryGovernor.setMemoryBudget(1).decideSpillThreshold(0);
+    memoryGovernor.reset();
+
+    assertNull(memoryGovernor.getLastDecision());
+    assertEquals(0, memoryGovernor.getNumberOfSwitchedIterations());
+  }
+
+  @Test
+  void decideSpillThreshold_ShouldThrowIfDecPOMDPIsNotSet() {
+    assertThrows(IllegalStateException.class, () -> new MemoryGovernor().decideSpillThreshold(0));
+  }
+}
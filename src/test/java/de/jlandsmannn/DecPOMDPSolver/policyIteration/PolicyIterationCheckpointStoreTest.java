@@ -0,0 +1,97 @@
+package de.jlandsmannn.DecPOMDPSolver.policyIteration;
+
+import de.jlandsmannn.DecPOMDPSolver.DecPOMDPGenerator;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.IAgent;
+import de.jlandsmannn.DecPOMDPSolver.domain.decpomdp.primitives.State;
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.DecPOMDPWithStateController;
+import de.jlandsmannn.DecPOMDPSolver.domain.utility.Distribution;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PolicyIterationCheckpointStoreTest {
+
+  @TempDir
+  Path directory;
+
+  private Path file;
+  private DecPOMDPWithStateController decPOMDP;
+  private Map<IAgent, Set<Distribution<State>>> beliefPoints;
+  private PolicyIterationCheckpointStore checkpointStore;
+
+  @BeforeEach
+  void setUp() {
+    file = directory.resolve("checkpoint.bin");
+    decPOMDP = DecPOMDPGenerator.getDecTigerPOMDPWithLargeFSC();
+    beliefPoints = new HashMap<>();
+    for (var agent : decPOMDP.getAgents()) {
+      beliefPoints.put(agent, Set.of(decPOMDP.getInitialBeliefState(), Distribution.createSingleEntryDistribution(decPOMDP.getStates().get(0))));
+    }
+    checkpointStore = new PolicyIterationCheckpointStore();
+  }
+
+  @Test
+  void load_ShouldReturnStoredIterationAndBeliefPoints() {
+    checkpointStore.store(file, decPOMDP, 7, beliefPoints, false);
+    var checkpoint = checkpointStore.load(file, DecPOMDPGenerator.getDecTigerPOMDPWithLargeFSC());
+
+    assertEquals(7, checkpoint.iteration());
+    assertEquals(beliefPoints, checkpoint.beliefPoints());
+    assertFalse(checkpoint.hasValueFunction());
+  }
+
+  @Test
+  void load_ShouldReturnEqualControllers() {
+    checkpointStore.store(file, decPOMDP, 1, beliefPoints, false);
+    var checkpoint = checkpointStore.load(file, DecPOMDPGenerator.getDecTigerPOMDP());
+
+    for (int i = 0; i < decPOMDP.getAgentCount(); i++) {
+      var expected = decPOMDP.getAgents().get(i).getController();
+      var actual = checkpoint.controllers().get(i);
+      assertEquals(expected, actual);
+      assertEquals(expected.peekNodeIndex(), actual.peekNodeIndex());
+    }
+  }
+
+  @Test
+  void applyTo_ShouldRestoreControllersAndValueFunction() {
+    var nodeCombination = decPOMDP.getNodeCombinations().get(0);
+    for (var state : decPOMDP.getStates()) {
+      decPOMDP.setValue(state, nodeCombination, state.hashCode() % 10);
+    }
+    checkpointStore.store(file, decPOMDP, 1, beliefPoints, true);
+    var otherDecPOMDP = DecPOMDPGenerator.getDecTigerPOMDP();
+    var checkpoint = checkpointStore.load(file, otherDecPOMDP);
+    checkpoint.applyTo(otherDecPOMDP);
+
+    assertTrue(checkpoint.hasValueFunction());
+    assertEquals(decPOMDP.getNodeCombinations(), otherDecPOMDP.getNodeCombinations());
+    for (var state : decPOMDP.getStates()) {
+      assertEquals(decPOMDP.getValue(state, nodeCombination), otherDecPOMDP.getValue(state, nodeCombination));
+    }
+  }
+
+  @Test
+  void load_ShouldThrowIfFileIsNoCheckpoint() throws IOException {
+    Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+    assertThrows(IllegalStateException.class, () -> checkpointStore.load(file, decPOMDP));
+  }
+
+  @Test
+  void store_ShouldNotLeaveTemporaryFiles() throws IOException {
+    checkpointStore.store(file, decPOMDP, 1, beliefPoints, true);
+    checkpointStore.store(file, decPOMDP, 2, beliefPoints, true);
+    try (var files = Files.list(directory)) {
+      assertEquals(1, files.count());
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package de.jlandsmannn.DecPOMDPSolver.policyIteration;
+
+import de.jlandsmannn.DecPOMDPSolver.DecPOMDPGenerator;
+import de.jlandsmannn.DecPOMDPSolver.domain.finiteStateController.DecPOMDPWithStateController;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProblemSizeEstimatorTest {
+
+  private DecPOMDPWithStateController decPOMDP;
+  private ProblemSizeEstimator estimator;
+
+  @BeforeEach
+  void setUp() {
+    decPOMDP = DecPOMDPGenerator.getDecTigerPOMDPWithLargeFSC();
+    estimator = new ProblemSizeEstimator();
+  }
+
+  @Test
+  void estimate_ShouldCountStatesActionsAndObservations() {
+    var estimate = estimator.estimate(decPOMDP);
+
+    assertEquals(decPOMDP.getStates().size(), estimate.states());
+    assertEquals(decPOMDP.getActionVectors().size(), estimate.jointActions());
+    assertEquals(decPOMDP.getObservationVectors().size(), estimate.jointObservations());
+    assertEquals(decPOMDP.getAgentCount(), estimate.agents().size());
+  }
+
+  @Test
+  void estimate_ShouldDetermineSparsityAsFractionOfZeroProbabilities() {
+    var estimate = estimator.estimate(decPOMDP);
+
+    var transitionZeros = 0;
+    for (var state : decPOMDP.getStates()) {
+      for (var actionVector : decPOMDP.getActionVectors()) {
+        for (var followState : decPOMDP.getStates()) {
+          if (decPOMDP.getTransitionProbability(state, actionVector, followState) == 0) transitionZeros++;
+        }
+      }
+    }
+    var expectedTransitionSparsity = transitionZeros / (double) (decPOMDP.getStates().size() * decPOMDP.getActionVectors().size() * decPOMDP.getStates().size());
+    assertEquals(expectedTransitionSparsity, estimate.transitionSparsity(), 1e-12);
+    assertTrue(estimate.observationSparsity() >= 0 && estimate.observationSparsity() < 1);
+  }
+
+  @Test
+  void estimate_ShouldProjectSizeOfNextExhaustiveBackup() {
+    var estimate = estimator.estimate(decPOMDP);
+
+    var expectedNodeCombinations = 1D;
+    var expectedNodeCombinationsAfterBackup = 1D;
+    for (int i = 0; i < decPOMDP.getAgentCount(); i++) {
+      var agent = decPOMDP.getAgents().get(i);
+      var agentEstimate = estimate.agents().get(i);
+      var nodes = agent.getControllerNodes().size();
+      var expectedCandidates = agent.getActions().size() * Math.pow(nodes, agent.getObservations().size());
+      assertEquals(agent.getName(), agentEstimate.name());
+      assertEquals(nodes, agentEstimate.nodes());
+      assertEquals(expectedCandidates, agentEstimate.backupCandidates());
+      assertEquals(nodes + expectedCandidates, agentEstimate.nodesAfterBackup());
+      expectedNodeCombinations *= nodes;
+      expectedNodeCombinationsAfterBackup *= nodes + expectedCandidates;
+    }
+    assertEquals(decPOMDP.getNodeCombinations().size(), estimate.nodeCombinations());
+    assertEquals(expectedNodeCombinations, estimate.nodeCombinations());
+    assertEquals(expectedNodeCombinationsAfterBackup, estimate.nodeCombinationsAfterBackup());
+    assertEquals(decPOMDP.getStates().size() * expectedNodeCombinationsAfterBackup, estimate.valueFunctionEntries());
+    assertTrue(estimate.valueFunctionBytes() > estimate.valueFunctionEntries());
+    assertTrue(estimate.evaluationMatrixEntries() > estimate.valueFunctionEntries());
+    assertTrue(estimate.evaluationMatrixBytes() > estimate.evaluationMatrixEntries());
+  }
+
+  @Test
+  void estimateControllerBytes_ShouldGrowWithControllerSize() {
+    var smallDecPOMDP = DecPOMDPGenerator.getDecTigerPOMDP();
+    for (int i = 0; i < decPOMDP.getAgentCount(); i++) {
+      var smallBytes = ProblemSizeEstimator.estimateControllerBytes(smallDecPOMDP.getAgents().get(i));
+      var largeBytes = ProblemSizeEstimator.estimateControllerBytes(decPOMDP.getAgents().get(i));
+      assertTrue(smallBytes > 0);
+      assertTrue(largeBytes > smallBytes);
+    }
+  }
+}
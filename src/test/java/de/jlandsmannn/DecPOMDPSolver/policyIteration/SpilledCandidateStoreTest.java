@@ -0,0 +1,70 @@
+package de.jlandsmannn.DecPOMDPSolver.policyIteration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpilledCandidateStoreTest {
+
+  private SpilledCandidateStore store;
+
+  @BeforeEach
+  void setUp() {
+    store = new SpilledCandidateStore(null, 2, 3);
+  }
+
+  @AfterEach
+  void tearDown() {
+    store.close();
+  }
+
+  @Test
+  void append_ShouldThrowIfNumberOfFollowNodesDoesNotMatch() {
+    assertThrows(IllegalArgumentException.class, () ->
+      store.append(0, new int[]{0}, new double[]{0, 0, 0}));
+  }
+
+  @Test
+  void append_ShouldThrowIfNumberOfValuesDoesNotMatch() {
+    assertThrows(IllegalArgumentException.class, () ->
+      store.append(0, new int[]{0, 0}, new double[]{0, 0}));
+  }
+
+  @Test
+  void forEach_ShouldReturnAllCandidatesInOrderOfInsertion() {
+    var numberOfCandidates = 1_000_000;
+    for (int i = 0; i < numberOfCandidates; i++) {
+      store.append(i % 3, new int[]{i, -i}, new double[]{i, 0.5 * i, -i});
+    }
+    var candidates = new ArrayList<SpilledCandidateStore.Candidate>();
+    store.forEach(candidate -> {
+      if (candidate.index() % 1000 == 0) candidates.add(candidate);
+    });
+
+    assertEquals(numberOfCandidates, store.size());
+    assertEquals(numberOfCandidates / 1000, candidates.size());
+    for (var candidate : candidates) {
+      var i = (int) candidate.index();
+      assertEquals(i % 3, candidate.actionIndex());
+      assertArrayEquals(new int[]{i, -i}, candidate.followNodeIndices());
+      assertArrayEquals(new double[]{i, 0.5 * i, -i}, candidate.values());
+    }
+  }
+
+  @Test
+  void forEach_ShouldBeRepeatable() {
+    store.append(1, new int[]{2, 3}, new double[]{4, 5, 6});
+    var firstRun = new ArrayList<SpilledCandidateStore.Candidate>();
+    var secondRun = new ArrayList<SpilledCandidateStore.Candidate>();
+    store.forEach(firstRun::add);
+    store.forEach(secondRun::add);
+
+    assertEquals(1, firstRun.size());
+    assertEquals(1, secondRun.size());
+    assertArrayEquals(firstRun.get(0).values(), secondRun.get(0).values());
+  }
+}